@@ -67,7 +67,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                     throwNew(state, NULL_POINTER_EXCEPTION);
                     exitFromAlgorithm();
                 }
-                final Array tmpArray = (Array) state.getObject(tmpRef);
+                final Array tmpArray = (Array) state.getObjectReadOnly(tmpRef);
                 state.pushOperand(tmpArray.getLength());
             } catch (ClassCastException e) {
                 throwVerifyError(state);
@@ -70,7 +70,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                     final ClassFile classSuper = state.getClassHierarchy().resolveClass(currentClass, this.data.className(), state.bypassStandardLoading());
                     
                     //gets the object's class
-                    final Objekt obj = state.getObject(tmpValue);
+                    final Objekt obj = state.getObjectReadOnly(tmpValue);
                     final ClassFile classSub = obj.getType();
                     this.isSubclass = state.getClassHierarchy().isSubclass(classSub, classSuper);
                 }
@@ -45,7 +45,7 @@ final class Algo_GETFIELD extends Algo_GETX {
                 throwNew(state, NULL_POINTER_EXCEPTION);
                 exitFromAlgorithm();
             }
-            return state.getObject(myObjectRef); 
+            return state.getObjectReadOnly(myObjectRef); 
         } catch (ClassCastException e) {
             throwVerifyError(state);
             exitFromAlgorithm();
@@ -15,7 +15,6 @@ import static jbse.bc.Signatures.UNSUPPORTED_CLASS_VERSION_ERROR;
 import java.util.function.Supplier;
 
 import jbse.bc.ClassFile;
-import jbse.bc.Signature;
 import jbse.bc.exc.BadClassFileVersionException;
 import jbse.bc.exc.ClassFileIllFormedException;
 import jbse.bc.exc.ClassFileNotAccessibleException;
@@ -94,9 +93,16 @@ abstract class Algo_GETX extends Algo_XLOAD_GETX<BytecodeData_1FI> {
                 failExecution(e);
             }
 
-            //reads the field value
-            final Signature fieldSignatureResolved = new Signature(this.fieldClassResolved.getClassName(), this.data.signature().getDescriptor(), this.data.signature().getName());
-            this.valToLoad = source(state).getFieldValue(fieldSignatureResolved);
+            //reads the field value; its slot is looked up
+            //once per call site and class of the source
+            final Objekt source = source(state);
+            try {
+                final int slot = state.getClassHierarchy().getFieldSlot(state.getCurrentClass(), this.data.signature(), state.bypassStandardLoading(), source.getFieldLayout());
+                this.valToLoad = source.getFieldValue(slot);
+            } catch (FieldNotFoundException | ThreadStackEmptyException e) {
+                //this should never happen
+                failExecution(e);
+            }
         };
     }
 
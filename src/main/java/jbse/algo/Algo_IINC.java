@@ -69,7 +69,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                 final int constant = this.data.nextWide() ? this.data.immediateSignedWord() : this.data.immediateSignedByte();
                 final Simplex constantSimplex = state.getCalculator().valInt(constant);
                 final Primitive tmpVal = (Primitive) this.data.localVariableValue();
-                state.setLocalVariable(this.data.localVariableSlot(), tmpVal.add(constantSimplex));
+                state.setLocalVariable(this.data.localVariableSlot(), state.abstractIfOverBudget(tmpVal.add(constantSimplex)));
             } catch (ClassCastException | InvalidOperandException e) {
                 throwVerifyError(state);
                 exitFromAlgorithm();
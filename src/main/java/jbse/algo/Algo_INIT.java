@@ -311,7 +311,7 @@ public final class Algo_INIT {
             final ClassFile rootClass = state.getClassHierarchy().getClassFileClassArray(CLASSLOADER_APP, ctx.rootMethodSignature.getClassName());
             final ReferenceSymbolic rootThis = state.pushFrameSymbolic(rootClass, ctx.rootMethodSignature);
             if (rootThis != null) {
-                final ClassFile rootThisClass = state.getObject(rootThis).getType();
+                final ClassFile rootThisClass = state.getObjectReadOnly(rootThis).getType();
                 final DecisionAlternative_XLOAD_GETX_Expands rootExpansion = ctx.decisionProcedure.getRootDecisionAlternative(rootThis, rootThisClass);
                 ctx.triggerManager.loadTriggerFramesRoot(state, rootExpansion);
             }
@@ -175,7 +175,9 @@ public class Algo_INVOKEMETA_OnlyReturn extends Algo_INVOKEMETA_Nonbranching {
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> { 
-            if (this.returnValue != null) {
+            if (this.returnValue instanceof Primitive) {
+                state.pushOperand(state.abstractIfOverBudget((Primitive) this.returnValue)); //TODO possibly widen to integer if it is not an operand stack primitive
+            } else if (this.returnValue != null) {
                 state.pushOperand(this.returnValue); //TODO possibly widen to integer if it is not an operand stack primitive
             }
         };
@@ -65,7 +65,7 @@ public final class Algo_INVOKEUNINTERPRETED extends Algo_INVOKEMETA_Nonbranching
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            state.pushOperand(state.getCalculator().applyFunction(this.returnType, this.functionName, this.argsPrimitive));
+            state.pushOperand(state.abstractIfOverBudget(state.getCalculator().applyFunction(this.returnType, this.functionName, this.argsPrimitive)));
         };
     }
 }
\ No newline at end of file
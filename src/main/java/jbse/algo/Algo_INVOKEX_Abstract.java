@@ -16,6 +16,7 @@ import static jbse.common.Type.REFERENCE;
 import static jbse.common.Type.TYPEEND;
 import static jbse.common.Type.parametersNumber;
 
+import java.util.HashMap;
 import java.util.function.Supplier;
 
 import jbse.algo.exc.BaseUnsupportedException;
@@ -61,16 +62,103 @@ StrategyUpdate<DecisionAlternative_NONE>> {
     protected final boolean isSpecial; //set by the constructor
     protected final boolean isStatic; //set by the constructor
 
+    private final Integer callSiteKind; //set by the constructor
+
     public Algo_INVOKEX_Abstract(boolean isInterface, boolean isSpecial, boolean isStatic) {
         this.isInterface = isInterface;
         this.isSpecial = isSpecial;
         this.isStatic = isStatic;
+        this.callSiteKind = (isInterface ? 1 : 0) + (isSpecial ? 2 : 0) + (isStatic ? 4 : 0);
     }
 
     protected ClassFile methodResolvedClass; //set by cooking methods (resolveMethod)
     protected ClassFile methodImplClass; //set by cooking methods (findImpl / findOverridingImpl)
     protected Signature methodImplSignature; //set by cooking methods (findImpl / findOverridingImpl)
     protected boolean isSignaturePolymorphic; //set by cooking methods (findImpl / findOverridingImpl)
+    private CallSite callSite; //set by cooking methods (resolveMethod)
+    
+    /**
+     * An inline cache for a call site, i.e., for a symbolic
+     * method reference from a class. It remembers the resolved 
+     * method and the implementation found for the last receiver 
+     * class, so monomorphic call sites skip both resolution 
+     * and lookup.
+     * 
+     * @author Pietro Braione
+     */
+    static final class CallSite {
+        /** 
+         * The class of the symbolic method reference, as 
+         * it was loaded when the method was resolved. 
+         */
+        private ClassFile signatureClass;
+        
+        /** 
+         * The class declaring the resolved method (it is a superclass
+         * of {@code signatureClass} when the method is inherited). 
+         */
+        private ClassFile methodResolvedClass;
+        
+        ClassFile receiverClass;
+        ClassFile methodImplClass;
+        Signature methodImplSignature;
+        boolean isSignaturePolymorphic;
+        
+        /**
+         * Returns the cached resolution of the method.
+         * 
+         * @param signatureClass the {@link ClassFile} for the class 
+         *        of the symbolic method reference, as it is currently
+         *        loaded.
+         * @return the {@link ClassFile} of the class declaring the 
+         *         resolved method, or {@code null} if the call site
+         *         was not resolved yet, or was resolved when the class 
+         *         of the symbolic method reference was a different 
+         *         {@link ClassFile} than {@code signatureClass} (e.g., 
+         *         in a state that loaded a different class with 
+         *         same name).
+         */
+        ClassFile getMethodResolvedClass(ClassFile signatureClass) {
+            return (signatureClass != null && signatureClass == this.signatureClass ? this.methodResolvedClass : null);
+        }
+        
+        /**
+         * Caches the resolution of the method, and invalidates
+         * the cached implementation.
+         * 
+         * @param signatureClass the {@link ClassFile} for the class 
+         *        of the symbolic method reference.
+         * @param methodResolvedClass the {@link ClassFile} for the 
+         *        class declaring the resolved method.
+         */
+        void setMethodResolvedClass(ClassFile signatureClass, ClassFile methodResolvedClass) {
+            this.signatureClass = signatureClass;
+            this.methodResolvedClass = methodResolvedClass;
+            this.methodImplClass = null;
+        }
+    }
+    
+    /**
+     * Returns the inline cache for a call site. The inline caches
+     * are held by the class of the call site (see 
+     * {@link ClassFile#getCallSiteCache()}), indexed by the kind 
+     * of the invoke bytecode and by the symbolic method reference,
+     * so they are dropped together with the class.
+     * 
+     * @param currentClass the {@link ClassFile} of the call site.
+     * @param callSiteKind an {@link Integer}, the kind of the 
+     *        invoke bytecode.
+     * @param signature the {@link Signature} of the symbolic method
+     *        reference.
+     * @return the {@link CallSite} for {@code signature} in 
+     *         {@code currentClass}, possibly a new one.
+     */
+    @SuppressWarnings("unchecked")
+    static CallSite callSite(ClassFile currentClass, Integer callSiteKind, Signature signature) {
+        final HashMap<Signature, CallSite> callSites = 
+            (HashMap<Signature, CallSite>) currentClass.getCallSiteCache().computeIfAbsent(callSiteKind, k -> new HashMap<Signature, CallSite>());
+        return callSites.computeIfAbsent(signature, k -> new CallSite());
+    }
 
     @Override
     protected final Supplier<BytecodeData_1KME> bytecodeData() {
@@ -94,7 +182,19 @@ StrategyUpdate<DecisionAlternative_NONE>> {
             //signature with no class: skips resolution
             this.methodResolvedClass = null;
         } else {
-            this.methodResolvedClass = state.getClassHierarchy().resolveMethod(currentClass, this.data.signature(), this.isInterface, state.bypassStandardLoading());
+            final ClassHierarchy hier = state.getClassHierarchy();
+            this.callSite = callSite(currentClass, this.callSiteKind, this.data.signature());
+            final ClassFile methodResolvedClassCached = 
+                this.callSite.getMethodResolvedClass(hier.getClassFileClassArray(currentClass.getDefiningClassLoader(), this.data.signature().getClassName()));
+            if (methodResolvedClassCached == null) {
+                this.methodResolvedClass = hier.resolveMethod(currentClass, this.data.signature(), this.isInterface, state.bypassStandardLoading());
+                //resolution loaded the class of the signature
+                this.callSite.setMethodResolvedClass(hier.getClassFileClassArray(currentClass.getDefiningClassLoader(), this.data.signature().getClassName()), this.methodResolvedClass);
+            } else {
+                //the class of the signature is the same as when the call site was 
+                //cached, thus resolution would yield the same result
+                this.methodResolvedClass = methodResolvedClassCached;
+            }
         }
     }
     
@@ -126,7 +226,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                 }
                 
                 //second run-time exception
-                if (!state.getClassHierarchy().isSubclass(state.getObject(receiver).getType(), this.methodResolvedClass)) {
+                if (!state.getClassHierarchy().isSubclass(state.getObjectReadOnly(receiver).getType(), this.methodResolvedClass)) {
                     throwNew(state, INCOMPATIBLE_CLASS_CHANGE_ERROR);
                     exitFromAlgorithm();
                 }
@@ -163,7 +263,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                 if (this.methodResolvedClass.isMethodProtected(this.data.signature()) &&
                     hier.isSubclass(currentClass, this.methodResolvedClass)) {
                     final boolean sameRuntimePackage = (currentClass.getDefiningClassLoader() == this.methodResolvedClass.getDefiningClassLoader() && currentClass.getPackageName().equals(this.methodResolvedClass.getPackageName()));
-                    final ClassFile receiverClass = state.getObject(receiver).getType();                    
+                    final ClassFile receiverClass = state.getObjectReadOnly(receiver).getType();                    
                     if (!sameRuntimePackage && !hier.isSubclass(receiverClass, currentClass)) {
                         throwNew(state, ILLEGAL_ACCESS_ERROR);
                         exitFromAlgorithm();
@@ -215,7 +315,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                 if (this.methodResolvedClass.isMethodProtected(this.data.signature()) &&
                     hier.isSubclass(currentClass, this.methodResolvedClass)) {
                     final boolean sameRuntimePackage = (currentClass.getDefiningClassLoader() == this.methodResolvedClass.getDefiningClassLoader() && currentClass.getPackageName().equals(this.methodResolvedClass.getPackageName()));
-                    final ClassFile receiverClass = state.getObject(receiver).getType();                    
+                    final ClassFile receiverClass = state.getObjectReadOnly(receiver).getType();                    
                     if (!sameRuntimePackage && !hier.isSubclass(receiverClass, currentClass)) {
                         throwNew(state, ILLEGAL_ACCESS_ERROR);
                         exitFromAlgorithm();
@@ -247,10 +347,17 @@ StrategyUpdate<DecisionAlternative_NONE>> {
             final ClassFile receiverClass;
             if (isVirtualInterface) {
                 final Reference thisRef = state.peekReceiverArg(this.data.signature());
-                receiverClass = state.getObject(thisRef).getType();
+                receiverClass = state.getObjectReadOnly(thisRef).getType();
             } else {
                 receiverClass = null;
             }
+            if (this.callSite.methodImplClass != null && this.callSite.receiverClass == receiverClass) {
+                //inline cache hit
+                this.methodImplClass = this.callSite.methodImplClass;
+                this.methodImplSignature = this.callSite.methodImplSignature;
+                this.isSignaturePolymorphic = this.callSite.isSignaturePolymorphic;
+                return;
+            }
             this.methodImplClass = 
                 lookupMethodImpl(state, 
                                           this.methodResolvedClass, 
@@ -264,6 +371,10 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                               this.data.signature().getDescriptor(), 
                               this.data.signature().getName());
             this.isSignaturePolymorphic = this.methodImplClass.isMethodSignaturePolymorphic(this.methodImplSignature);
+            this.callSite.receiverClass = receiverClass;
+            this.callSite.methodImplClass = this.methodImplClass;
+            this.callSite.methodImplSignature = this.methodImplSignature;
+            this.callSite.isSignaturePolymorphic = this.isSignaturePolymorphic;
         } catch (MethodNotFoundException e) {
             this.methodImplClass = null;
             this.methodImplSignature = null;
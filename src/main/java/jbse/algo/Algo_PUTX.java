@@ -21,7 +21,6 @@ import static jbse.common.Type.NULLREF;
 import java.util.function.Supplier;
 
 import jbse.bc.ClassFile;
-import jbse.bc.Signature;
 import jbse.bc.exc.BadClassFileVersionException;
 import jbse.bc.exc.ClassFileIllFormedException;
 import jbse.bc.exc.ClassFileNotAccessibleException;
@@ -117,7 +116,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                     if (!state.isNull(refToPut)) {
                         //TODO the JVMS v8, putfield instruction, does not explicitly say how and when the field descriptor type is resolved  
                         final ClassFile destinationTypeClass = state.getClassHierarchy().resolveClass(currentClass, className(destinationType), state.bypassStandardLoading());
-                        final ClassFile valueObjectType = state.getObject(refToPut).getType();
+                        final ClassFile valueObjectType = state.getObjectReadOnly(refToPut).getType();
                         if (!state.getClassHierarchy().isAssignmentCompatible(valueObjectType, destinationTypeClass)) {
                             throwVerifyError(state);
                             exitFromAlgorithm();
@@ -169,8 +168,16 @@ StrategyUpdate<DecisionAlternative_NONE>> {
     @Override
     protected final StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            final Signature fieldSignatureResolved = new Signature(this.fieldClassResolved.getClassName(), this.data.signature().getDescriptor(), this.data.signature().getName());
-            destination(state).setFieldValue(fieldSignatureResolved, this.valueToPut);
+            //the slot of the field is looked up once per
+            //call site and class of the destination
+            final Objekt destination = destination(state);
+            try {
+                final int slot = state.getClassHierarchy().getFieldSlot(state.getCurrentClass(), this.data.signature(), state.bypassStandardLoading(), destination.getFieldLayout());
+                destination.setFieldValue(slot, this.valueToPut);
+            } catch (FieldNotFoundException e) {
+                //this should never happen
+                failExecution(e);
+            }
         };
     }
 
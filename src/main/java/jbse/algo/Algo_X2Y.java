@@ -91,7 +91,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            state.pushOperand(this.primitiveTo);
+            state.pushOperand(state.abstractIfOverBudget(this.primitiveTo));
         };
     }
 
@@ -52,6 +52,7 @@ import jbse.val.Reference;
 import jbse.val.ReferenceArrayImmaterial;
 import jbse.val.ReferenceConcrete;
 import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
 import jbse.val.Value;
 import jbse.val.exc.InvalidOperandException;
 import jbse.val.exc.InvalidTypeException;
@@ -64,7 +65,9 @@ import jbse.val.exc.InvalidTypeException;
  * the aaload bytecode, also over the value loaded from the array 
  * when this is a symbolic reference ("lazy initialization").
  * Note that the inbound cases can be many, in principle one for 
- * each entry in the symbolic array.
+ * each entry in the symbolic array, unless the theory of arrays is
+ * used, in which case all the entries with unknown value are 
+ * read by a single inbound case.
  *  
  * @author Pietro Braione
  */
@@ -112,7 +115,7 @@ StrategyUpdate_XALOAD> {
             }
 
             //object check
-            if (!(state.getObject(this.myObjectRef) instanceof Array)) {
+            if (!(state.getObjectReadOnly(this.myObjectRef) instanceof Array)) {
                 throwVerifyError(state);
                 exitFromAlgorithm();
             }
@@ -142,7 +145,7 @@ StrategyUpdate_XALOAD> {
                 final Primitive arrayOffset = offsets.remove();
                 Array arrayToProcess = null; //to keep the compiler happy
                 try {
-                    arrayToProcess = (Array) state.getObject(refToArrayToProcess);
+                    arrayToProcess = (Array) state.getObjectReadOnly(refToArrayToProcess);
                 } catch (ClassCastException exc) {
                     //this should never happen
                     failExecution(exc);
@@ -152,8 +155,15 @@ StrategyUpdate_XALOAD> {
                     failExecution("an initial array that backs another array is null");
                 }
                 Collection<Array.AccessOutcome> entries = null; //to keep the compiler happy
+                Primitive indexToProcess = null; //to keep the compiler happy
                 try {
-                    entries = arrayToProcess.get(this.index.add(arrayOffset));
+                    //with no offset, as in the common case, the index is not rebuilt
+                    indexToProcess = (arrayOffset instanceof Simplex && ((Simplex) arrayOffset).isZeroOne(true) ? 
+                                      this.index : 
+                                      this.index.add(arrayOffset));
+                    entries = (this.ctx.getUseArrayTheory() ?
+                               arrayToProcess.getSelect(indexToProcess) :
+                               arrayToProcess.get(indexToProcess));
                 } catch (InvalidOperandException | InvalidTypeException e) {
                     //this should never happen
                     failExecution(e);
@@ -172,14 +182,9 @@ StrategyUpdate_XALOAD> {
                         if (e instanceof Array.AccessOutcomeInValue) {
                             val = ((Array.AccessOutcomeInValue) e).getValue();
                             if (val == null) {
-                                try {
-                                    final ClassFile memberClass = arrayToProcess.getType().getMemberClass();
-                                    final String memberType = typeFromClassName(memberClass); 
-                                    val = state.createSymbol(memberType, arrayToProcess.getOrigin().thenArrayMember(this.index.add(arrayOffset)));
-                                } catch (InvalidOperandException | InvalidTypeException exc) {
-                                    //this should never happen
-                                    failExecution(exc);
-                                }
+                                final ClassFile memberClass = arrayToProcess.getType().getMemberClass();
+                                final String memberType = typeFromClassName(memberClass); 
+                                val = state.createSymbol(memberType, arrayToProcess.getOrigin().thenArrayMember(indexToProcess));
                                 fresh = true;
                             }
                         } else { //e instanceof Array.AccessOutcomeOut
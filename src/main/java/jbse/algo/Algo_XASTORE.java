@@ -79,7 +79,7 @@ StrategyUpdate<DecisionAlternative_XASTORE>> {
             //moreover, converts the value in case of [b/c/s]astore
             //and checks assignment compatibility in case of aastore
             try {
-                final Array array = (Array) state.getObject(myObjectRef);
+                final Array array = (Array) state.getObjectReadOnly(myObjectRef);
                 this.inRange = array.inRange(index);
                 this.outOfRange = array.outOfRange(index);
                 final ClassFile arrayMemberType = array.getType().getMemberClass();
@@ -89,7 +89,7 @@ StrategyUpdate<DecisionAlternative_XASTORE>> {
                         exitFromAlgorithm();
                     }
                     final Reference valueToStoreRef = (Reference) value;
-                    final Objekt o = state.getObject(valueToStoreRef);
+                    final Objekt o = state.getObjectReadOnly(valueToStoreRef);
                     final ClassHierarchy hier = state.getClassHierarchy();
                     if (state.isNull(valueToStoreRef) ||
                         hier.isAssignmentCompatible(o.getType(), arrayMemberType)) {
@@ -72,7 +72,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
             try {
                 final Primitive val1 = (Primitive) this.data.operand(0);
                 final Primitive val2 = (Primitive) this.data.operand(1);
-                state.pushOperand(val1.sub(val2));
+                state.pushOperand(state.abstractIfOverBudget(val1.sub(val2)));
             } catch (InvalidOperandException | InvalidTypeException e) {
                 throwVerifyError(state);
                 exitFromAlgorithm();
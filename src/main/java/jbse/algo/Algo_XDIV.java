@@ -78,7 +78,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                         }
                     }
                 }
-                state.pushOperand(val1.div(val2));
+                state.pushOperand(state.abstractIfOverBudget(val1.div(val2)));
             } catch (ClassCastException | InvalidTypeException | InvalidOperandException e) {
                 throwVerifyError(state);
                 exitFromAlgorithm();
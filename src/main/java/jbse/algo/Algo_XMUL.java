@@ -64,7 +64,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
             try {
                 final Primitive val1 = (Primitive) this.data.operand(0);
                 final Primitive val2 = (Primitive) this.data.operand(1);
-                state.pushOperand(val1.mul(val2));
+                state.pushOperand(state.abstractIfOverBudget(val1.mul(val2)));
             } catch (ClassCastException | InvalidTypeException | InvalidOperandException e) {
                 throwVerifyError(state);
                 exitFromAlgorithm();
@@ -60,7 +60,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
         return (state, alt) -> { 
             try {
                 final Primitive value = (Primitive) this.data.operand(0);
-                state.pushOperand(value.neg());
+                state.pushOperand(state.abstractIfOverBudget(value.neg()));
             } catch (ClassCastException | InvalidTypeException e) {
                 throwVerifyError(state);
                 return;
@@ -78,7 +78,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                         }
                     }
                 }
-                state.pushOperand(val1.rem(val2));
+                state.pushOperand(state.abstractIfOverBudget(val1.rem(val2)));
             } catch (ClassCastException | InvalidTypeException | InvalidOperandException e) {
                 throwVerifyError(state);
                 exitFromAlgorithm();
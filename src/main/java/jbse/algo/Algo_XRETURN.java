@@ -110,7 +110,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
                     if (!state.isNull(refToReturn)) {
                         //TODO the JVMS v8, *return instruction, does not explicitly say how and when the return descriptor type is resolved  
                         final ClassFile destinationTypeClass = state.getClassHierarchy().resolveClass(currentClass, className(destinationType), state.bypassStandardLoading());
-                        final ClassFile valueObjectType = state.getObject(refToReturn).getType();
+                        final ClassFile valueObjectType = state.getObjectReadOnly(refToReturn).getType();
                         if (!state.getClassHierarchy().isAssignmentCompatible(valueObjectType, destinationTypeClass)) {
                             throwVerifyError(state);
                             exitFromAlgorithm();
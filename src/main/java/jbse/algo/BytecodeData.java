@@ -435,6 +435,9 @@ public abstract class BytecodeData {
         final Frame frame = state.getCurrentFrame();
         try {
             this.operands = frame.operands(numOperands);
+            for (int i = 0; i < this.operands.length; ++i) {
+                this.operands[i] = state.simplify(this.operands[i]);
+            }
         } catch (InvalidNumberOfOperandsException e) {
             throwVerifyError(state);
             exitFromAlgorithm();
@@ -395,6 +395,12 @@ public final class ExecutionContext {
     /** The maximum heap size expressed as maximum number of objects. Used during initialization. */
     private final long maxHeapSize;
     
+    /** 
+     * {@code true} iff the unknown members of the symbolic arrays 
+     * must be represented in the theory of arrays.
+     */
+    private final boolean useArrayTheory;
+    
     /** The {@link Classpath}. Used during initialization. */
     private final Classpath classpath;
 
@@ -410,6 +416,18 @@ public final class ExecutionContext {
      */
     private final Map<String, Set<String>> expansionBackdoor;
 
+    /** 
+     * Whether expansion must also consider all the concrete subclasses
+     * in the user classpath. Used during initialization.
+     */
+    private final boolean useSubclassIndex;
+
+    /** 
+     * Whether the classes referred by the loaded classes must be 
+     * searched and parsed in background. Used during initialization.
+     */
+    private final boolean prefetchClasses;
+
     /** The {@link Calculator}. Used during initialization. */
     private final Calculator calc;
 
@@ -458,6 +476,10 @@ public final class ExecutionContext {
      * @param maxHeapSize a {@code long}, the maximum size of the
      *        heap expressed as maximum number of objects it can store.
      *        Ignored when {@code initialState != null}.
+     * @param useArrayTheory a {@code boolean}, {@code true} iff the 
+     *        unknown members of the symbolic arrays with numeric primitive
+     *        members must be represented as {@code select} terms of the
+     *        theory of arrays (see {@link jbse.mem.Array#select(jbse.val.Primitive)}).
      * @param classpath a {@link Classpath} object, containing 
      *        information about the classpath of the symbolic execution.
      *        Ignored when {@code initialState != null}.
@@ -470,6 +492,12 @@ public final class ExecutionContext {
      *        associating class names to sets of names of their subclasses. It 
      *        is used in place of the class hierarchy to perform reference expansion.
      *        Ignored when {@code initialState != null}.
+     * @param useSubclassIndex a {@code boolean}, {@code true} iff reference expansion
+     *        must also consider all the concrete subclasses in the user classpath.
+     *        Ignored when {@code initialState != null}.
+     * @param prefetchClasses a {@code boolean}, {@code true} iff the classes referred
+     *        by the loaded classes must be searched and parsed in background.
+     *        Ignored when {@code initialState != null}.
      * @param calc a {@link Calculator}. Ignored when {@code initialState != null}.
      * @param comparators a {@link DecisionAlternativeComparators} which
      *        will be used to establish the order of exploration
@@ -487,9 +515,12 @@ public final class ExecutionContext {
                             boolean bypassStandardLoading,
                             int maxSimpleArrayLength,
                             long maxHeapSize,
+                            boolean useArrayTheory,
                             Classpath classpath,
                             Class<? extends ClassFileFactory> classFileFactoryClass,
                             Map<String, Set<String>> expansionBackdoor, 
+                            boolean useSubclassIndex,
+                            boolean prefetchClasses,
                             Calculator calc,
                             DecisionAlternativeComparators comparators,
                             Signature rootMethodSignature,
@@ -501,9 +532,12 @@ public final class ExecutionContext {
         this.bypassStandardLoading = bypassStandardLoading;
         this.maxSimpleArrayLength = maxSimpleArrayLength;
         this.maxHeapSize = maxHeapSize;
+        this.useArrayTheory = useArrayTheory;
         this.classpath = classpath;
         this.classFileFactoryClass = classFileFactoryClass;
         this.expansionBackdoor = new HashMap<>(expansionBackdoor);      //safety copy
+        this.useSubclassIndex = useSubclassIndex;
+        this.prefetchClasses = prefetchClasses;
         this.calc = calc;
         this.comparators = comparators;
         this.rootMethodSignature = rootMethodSignature;
@@ -722,7 +756,7 @@ public final class ExecutionContext {
      *         unaccessible constructor...).
      */
     public State createVirginPreInitialState() throws InvalidClassFileFactoryClassException {
-        return new State(this.bypassStandardLoading, this.maxSimpleArrayLength, this.maxHeapSize, this.classpath, this.classFileFactoryClass, this.expansionBackdoor, this.calc);
+        return new State(this.bypassStandardLoading, this.maxSimpleArrayLength, this.maxHeapSize, this.classpath, this.classFileFactoryClass, this.expansionBackdoor, this.useSubclassIndex, this.prefetchClasses, this.calc);
     }
 
     /**
@@ -748,6 +782,16 @@ public final class ExecutionContext {
         return (this.initialState == null ? null : this.initialState.clone());
     }
 
+    /**
+     * Checks whether the unknown members of the symbolic arrays
+     * must be represented in the theory of arrays.
+     *
+     * @return a {@code boolean}.
+     */
+    public boolean getUseArrayTheory() {
+        return this.useArrayTheory;
+    }
+
     /**
      * Allows to customize the behavior of the invocations to a method 
      * by specifying another method that implements it.
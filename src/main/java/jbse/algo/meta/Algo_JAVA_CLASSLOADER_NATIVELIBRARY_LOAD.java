@@ -24,7 +24,7 @@ import jbse.val.Value;
  * @author Pietro Braione
  */
 public final class Algo_JAVA_CLASSLOADER_NATIVELIBRARY_LOAD extends Algo_INVOKEMETA_Nonbranching {
-    private Instance thisInstance; //set by cookMore
+    private Reference thisReference; //set by cookMore
     
     @Override
     protected Supplier<Integer> numOperands() {
@@ -36,8 +36,11 @@ public final class Algo_JAVA_CLASSLOADER_NATIVELIBRARY_LOAD extends Algo_INVOKEM
         try {
             //just sets some field of the NativeLibrary object, to simulate
             //the fact that the library is loaded
-            final Reference thisReference = (Reference) this.data.operand(0);
-            this.thisInstance = (Instance) state.getObject(thisReference);
+            this.thisReference = (Reference) this.data.operand(0);
+            if (!(state.getObjectReadOnly(this.thisReference) instanceof Instance)) {
+                throwVerifyError(state);
+                exitFromAlgorithm();
+            }
         } catch (ClassCastException e) {
             throwVerifyError(state);
             exitFromAlgorithm();
@@ -49,9 +52,10 @@ public final class Algo_JAVA_CLASSLOADER_NATIVELIBRARY_LOAD extends Algo_INVOKEM
         return (state, alt) -> {
             final Value name = this.data.operand(1);
             final Value isBuiltin = this.data.operand(2);
-            this.thisInstance.setFieldValue(JAVA_CLASSLOADER_NATIVELIBRARY_NAME, name);
-            this.thisInstance.setFieldValue(JAVA_CLASSLOADER_NATIVELIBRARY_ISBUILTIN, isBuiltin);
-            this.thisInstance.setFieldValue(JAVA_CLASSLOADER_NATIVELIBRARY_LOADED, state.getCalculator().valBoolean(true));
+            final Instance thisInstance = (Instance) state.getObject(this.thisReference);
+            thisInstance.setFieldValue(JAVA_CLASSLOADER_NATIVELIBRARY_NAME, name);
+            thisInstance.setFieldValue(JAVA_CLASSLOADER_NATIVELIBRARY_ISBUILTIN, isBuiltin);
+            thisInstance.setFieldValue(JAVA_CLASSLOADER_NATIVELIBRARY_LOADED, state.getCalculator().valBoolean(true));
         };
     }
 }
@@ -29,7 +29,7 @@ import jbse.val.Simplex;
  * @author Pietro Braione
  */
 public final class Algo_JAVA_FILEINPUTSTREAM_CLOSE0 extends Algo_INVOKEMETA_Nonbranching {
-    private Instance fileDescriptor; //set by cookMore
+    private Reference fileDescriptorReference; //set by cookMore
     private int fd; //set by cookMore
     
     @Override
@@ -47,14 +47,14 @@ public final class Algo_JAVA_FILEINPUTSTREAM_CLOSE0 extends Algo_INVOKEMETA_Nonb
                 //this should never happen
                 failExecution("The 'this' parameter to java.io.FileInputStream.close0 method is null.");
             }
-            final Instance thisObject = (Instance) state.getObject(thisReference);
-            final Reference fileDescriptorReference = (Reference) thisObject.getFieldValue(JAVA_FILEINPUTSTREAM_FD);
+            final Instance thisObject = (Instance) state.getObjectReadOnly(thisReference);
+            this.fileDescriptorReference = (Reference) thisObject.getFieldValue(JAVA_FILEINPUTSTREAM_FD);
             if (state.isNull(thisReference)) {
                 //this should never happen
                 failExecution("The 'this' parameter to java.io.FileInputStream.close0 method apparently has not a FileDescriptor fd field.");
             }
-            this.fileDescriptor = (Instance) state.getObject(fileDescriptorReference);
-            final Simplex _fd = (Simplex) this.fileDescriptor.getFieldValue(JAVA_FILEDESCRIPTOR_FD);
+            final Instance fileDescriptor = (Instance) state.getObjectReadOnly(this.fileDescriptorReference);
+            final Simplex _fd = (Simplex) fileDescriptor.getFieldValue(JAVA_FILEDESCRIPTOR_FD);
             this.fd = ((Integer) _fd.getActualValue()).intValue();
             //TODO more checks
 
@@ -73,19 +73,21 @@ public final class Algo_JAVA_FILEINPUTSTREAM_CLOSE0 extends Algo_INVOKEMETA_Nonb
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
             //sets the descriptor's fd field to -1
-            this.fileDescriptor.setFieldValue(JAVA_FILEDESCRIPTOR_FD, state.getCalculator().valInt(-1));
+            ((Instance) state.getObject(this.fileDescriptorReference)).setFieldValue(JAVA_FILEDESCRIPTOR_FD, state.getCalculator().valInt(-1));
             
             
             //removes the association fd/FileInputStream from the state
-            //and closes the FileInputStream
+            //and closes the FileInputStream, unless other states 
+            //still use it
             final FileInputStream fis = (FileInputStream) state.getFile(this.fd);
-            state.removeFile(this.fd);
-            try {
-                fis.close();
-            } catch (IOException e) {
-                //exception while closing
-                throwNew(state, IO_EXCEPTION);
-                exitFromAlgorithm();
+            if (state.removeFile(this.fd)) {
+                try {
+                    fis.close();
+                } catch (IOException e) {
+                    //exception while closing
+                    throwNew(state, IO_EXCEPTION);
+                    exitFromAlgorithm();
+                }
             }
         };
     }
@@ -33,7 +33,7 @@ import jbse.val.Reference;
  * @author Pietro Braione
  */
 public final class Algo_JAVA_FILEINPUTSTREAM_OPEN0 extends Algo_INVOKEMETA_Nonbranching {
-    private Instance fileDescriptor; //set by cookMore
+    private Reference fileDescriptorReference; //set by cookMore
     private int fd; //set by cookMore
     private FileInputStream fis; //set by cookMore
     
@@ -52,13 +52,12 @@ public final class Algo_JAVA_FILEINPUTSTREAM_OPEN0 extends Algo_INVOKEMETA_Nonbr
                 //this should never happen
                 failExecution("The 'this' parameter to java.io.FileInputStream.open0 method is null.");
             }
-            final Instance thisObject = (Instance) state.getObject(thisReference);
-            final Reference fileDescriptorReference = (Reference) thisObject.getFieldValue(JAVA_FILEINPUTSTREAM_FD);
-            if (state.isNull(fileDescriptorReference)) {
+            final Instance thisObject = (Instance) state.getObjectReadOnly(thisReference);
+            this.fileDescriptorReference = (Reference) thisObject.getFieldValue(JAVA_FILEINPUTSTREAM_FD);
+            if (state.isNull(this.fileDescriptorReference)) {
                 //this should never happen
                 failExecution("The 'this' parameter to java.io.FileInputStream.open0 method apparently has not a FileDescriptor fd field.");
             }
-            this.fileDescriptor = (Instance) state.getObject(fileDescriptorReference);
             
             //gets the String parameter
             final Reference pathReference = (Reference) this.data.operand(1);
@@ -98,7 +97,7 @@ public final class Algo_JAVA_FILEINPUTSTREAM_OPEN0 extends Algo_INVOKEMETA_Nonbr
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
             //implants this.fd in this.fileDescriptor
-            this.fileDescriptor.setFieldValue(JAVA_FILEDESCRIPTOR_FD, state.getCalculator().valInt(this.fd));
+            ((Instance) state.getObject(this.fileDescriptorReference)).setFieldValue(JAVA_FILEDESCRIPTOR_FD, state.getCalculator().valInt(this.fd));
             
             //associates in state the file descriptor to the FileInputStream
             //created to access the file at the meta-level
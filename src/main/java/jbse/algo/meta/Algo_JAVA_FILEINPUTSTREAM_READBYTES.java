@@ -35,7 +35,7 @@ import jbse.val.Simplex;
  * @author Pietro Braione
  */
 public final class Algo_JAVA_FILEINPUTSTREAM_READBYTES extends Algo_INVOKEMETA_Nonbranching {
-    private Array buf; //set by cookMore
+    private Reference bufReference; //set by cookMore
     private int ofst; //set by cookMore
     private byte[] readBytes; //set by cookMore
     private int nread; //set by cookMore
@@ -55,25 +55,25 @@ public final class Algo_JAVA_FILEINPUTSTREAM_READBYTES extends Algo_INVOKEMETA_N
                 //this should never happen
                 failExecution("The 'this' parameter to invocation of method java.io.FileInputStream.readBytes method is null.");
             }
-            final Instance thisObject = (Instance) state.getObject(thisReference);
+            final Instance thisObject = (Instance) state.getObjectReadOnly(thisReference);
             final Reference fileDescriptorReference = (Reference) thisObject.getFieldValue(JAVA_FILEINPUTSTREAM_FD);
             if (state.isNull(thisReference)) {
                 //this should never happen
                 failExecution("The 'this' parameter to invocation of method java.io.FileInputStream.readBytes method apparently has not a FileDescriptor fd field.");
             }
-            final Instance fileDescriptor = (Instance) state.getObject(fileDescriptorReference);
+            final Instance fileDescriptor = (Instance) state.getObjectReadOnly(fileDescriptorReference);
             final Simplex _fd = (Simplex) fileDescriptor.getFieldValue(JAVA_FILEDESCRIPTOR_FD);
             final int fd = ((Integer) _fd.getActualValue()).intValue();
             //TODO more checks
 
             //gets the buffer
-            final Reference bufReference = (Reference) this.data.operand(1);
-            if (state.isNull(bufReference)) {
+            this.bufReference = (Reference) this.data.operand(1);
+            if (state.isNull(this.bufReference)) {
                 throwNew(state, NULL_POINTER_EXCEPTION);
                 exitFromAlgorithm();
             }
-            this.buf = (Array) state.getObject(bufReference);
-            if (!this.buf.hasSimpleRep()) {
+            final Array buf = (Array) state.getObjectReadOnly(this.bufReference);
+            if (!buf.hasSimpleRep()) {
                 throw new SymbolicValueNotAllowedException("The byte[] b parameter to invocation of method java.io.FileInputStream.readBytes has not a simple representation.");
             }
             
@@ -92,7 +92,7 @@ public final class Algo_JAVA_FILEINPUTSTREAM_READBYTES extends Algo_INVOKEMETA_N
             final int len = ((Integer) ((Simplex) _len).getActualValue()).intValue();
             
             //checks offset and length
-            final int bufLength = ((Integer) ((Simplex) this.buf.getLength()).getActualValue()).intValue();
+            final int bufLength = ((Integer) ((Simplex) buf.getLength()).getActualValue()).intValue();
             if (this.ofst < 0 || len < 0 || bufLength - this.ofst < len) {
                 throwNew(state, INDEX_OUT_OF_BOUNDS_EXCEPTION);
                 exitFromAlgorithm();
@@ -108,7 +108,7 @@ public final class Algo_JAVA_FILEINPUTSTREAM_READBYTES extends Algo_INVOKEMETA_N
 
             //gets the (meta-level) FileInputStream associated to fd
             //and reads from it
-            final FileInputStream fis = (FileInputStream) state.getFile(fd);
+            final FileInputStream fis = (FileInputStream) state.getFileExclusive(fd);
             //TODO more checks
             this.readBytes = new byte[len];
             try {
@@ -131,8 +131,9 @@ public final class Algo_JAVA_FILEINPUTSTREAM_READBYTES extends Algo_INVOKEMETA_N
             state.pushOperand(calc.valInt(this.nread));
             
             try {
+                final Array buf = (Array) state.getObject(this.bufReference);
                 for (int i = this.ofst; i < this.ofst + this.nread; ++i) {
-                    this.buf.setFast(calc.valInt(i), calc.valByte(this.readBytes[i - this.ofst]));
+                    buf.setFast(calc.valInt(i), calc.valByte(this.readBytes[i - this.ofst]));
                 }
             } catch (FastArrayAccessNotAllowedException e) {
                 //this should never happen
@@ -48,28 +48,32 @@ public final class Algo_JAVA_INFLATER_END extends Algo_INVOKEMETA_Nonbranching {
             }
             this.addr = ((Long) ((Simplex) _addr).getActualValue()).longValue();
             //TODO check that addr is valid, and react appropriately in the negative case
-            
-            //invokes metacircularly the end method
-            final Method method = Inflater.class.getDeclaredMethod("end", long.class);
-            method.setAccessible(true);
-            method.invoke(null, state.getInflater(this.addr));
-        } catch (InvocationTargetException e) {
-            final String cause = internalClassName(e.getCause().getClass().getName());
-            throwNew(state, cause);
-            exitFromAlgorithm();
         } catch (ClassCastException e) {
             throwVerifyError(state);
             exitFromAlgorithm();
-        } catch (SecurityException | NoSuchMethodException | IllegalAccessException e) {
-            //this should not happen
-            failExecution(e);
         }
     }
 
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            state.removeInflater(this.addr);
+            final long inflater = state.getInflater(this.addr);
+            if (state.removeInflater(this.addr)) {
+                //no other state uses the inflater:
+                //invokes metacircularly the end method
+                try {
+                    final Method method = Inflater.class.getDeclaredMethod("end", long.class);
+                    method.setAccessible(true);
+                    method.invoke(null, inflater);
+                } catch (InvocationTargetException e) {
+                    final String cause = internalClassName(e.getCause().getClass().getName());
+                    throwNew(state, cause);
+                    exitFromAlgorithm();
+                } catch (SecurityException | NoSuchMethodException | IllegalAccessException e) {
+                    //this should not happen
+                    failExecution(e);
+                }
+            }
         };
     }
 }
@@ -48,8 +48,8 @@ import sun.misc.Unsafe;
  * @author Pietro Braione
  */
 public final class Algo_JAVA_INFLATER_INFLATEBYTES extends Algo_INVOKEMETA_Nonbranching {
-    private Instance _inflater; //set by cookMore
-    private Array outBuf; //set by cookMore
+    private Reference thisReference; //set by cookMore
+    private Reference bufReference; //set by cookMore
     private int ofst; //set by cookMore
     private Inflater inflater; //set by cookMore
     private byte[] inflatedBytes; //set by cookMore
@@ -66,28 +66,28 @@ public final class Algo_JAVA_INFLATER_INFLATEBYTES extends Algo_INVOKEMETA_Nonbr
     UndefinedResultException, InvalidInputException {
         try {
             //gets the first ('this') parameter
-            final Reference thisReference = (Reference) this.data.operand(0);
-            if (state.isNull(thisReference)) {
+            this.thisReference = (Reference) this.data.operand(0);
+            if (state.isNull(this.thisReference)) {
                 //this should never happen
                 failExecution("The 'this' parameter to java.util.zip.Inflater.inflateBytes method is null.");
             }
-            this._inflater = (Instance) state.getObject(thisReference);
+            final Instance _inflater = (Instance) state.getObjectReadOnly(this.thisReference);
             
             //gets the second (long addr) parameter
             final Primitive _addr = (Primitive) this.data.operand(1);
             if (_addr.isSymbolic()) {
                 throw new SymbolicValueNotAllowedException("The long addr parameter to invocation of method java.util.zip.Inflater.inflateBytes cannot be a symbolic value.");
             }
-            final long addr = Long.valueOf(state.getInflater(((Long) ((Simplex) _addr).getActualValue()).longValue()));
+            final long addr = Long.valueOf(state.getInflaterExclusive(((Long) ((Simplex) _addr).getActualValue()).longValue()));
             //TODO what if addr is wrong?
             
             //gets the third (byte[] b) parameter
-            final Reference bufReference = (Reference) this.data.operand(2);
-            if (state.isNull(bufReference)) {
+            this.bufReference = (Reference) this.data.operand(2);
+            if (state.isNull(this.bufReference)) {
                 throw new UndefinedResultException("Invoked method java.util.zip.Inflater.inflateBytes with a null b parameter.");
             }
-            this.outBuf = (Array) state.getObject(bufReference);
-            if (!this.outBuf.hasSimpleRep()) {
+            final Array outBuf = (Array) state.getObjectReadOnly(this.bufReference);
+            if (!outBuf.hasSimpleRep()) {
                 throw new SymbolicValueNotAllowedException("The byte[] b parameter to invocation of method java.util.zip.Inflater.inflateBytes has not a simple representation.");
             }
             
@@ -108,7 +108,7 @@ public final class Algo_JAVA_INFLATER_INFLATEBYTES extends Algo_INVOKEMETA_Nonbr
             //TODO what if len is out of range?
                         
             //invokes metacircularly the inflateBytes method
-            makeInflater(state, addr);
+            makeInflater(state, _inflater, addr);
             this.inflatedBytes = new byte[len];
             final Method method = Inflater.class.getDeclaredMethod("inflateBytes", long.class, byte[].class, int.class, int.class);
             method.setAccessible(true);
@@ -127,7 +127,7 @@ public final class Algo_JAVA_INFLATER_INFLATEBYTES extends Algo_INVOKEMETA_Nonbr
         }
     }
     
-    private void makeInflater(State state, long zsrefAddress) throws SymbolicValueNotAllowedException, UndefinedResultException, InvalidInputException {
+    private void makeInflater(State state, Instance _inflater, long zsrefAddress) throws SymbolicValueNotAllowedException, UndefinedResultException, InvalidInputException {
         try {
             final Calculator calc = state.getCalculator();
             
@@ -138,12 +138,12 @@ public final class Algo_JAVA_INFLATER_INFLATEBYTES extends Algo_INVOKEMETA_Nonbr
             final Object zsRef = consZStreamRef.newInstance(zsrefAddress);
             
             //gets this.inflater.buf
-            final Reference bufReference = (Reference) this._inflater.getFieldValue(JAVA_INFLATER_BUF);
+            final Reference bufReference = (Reference) _inflater.getFieldValue(JAVA_INFLATER_BUF);
             if (state.isNull(bufReference)) {
                 //method invoked on a closed inflater
                 throw new UndefinedResultException("The byte[] this.buf field of 'this' parameter to invocation of method java.io.FileInputStream.readBytes is null.");
             }
-            final Array _inBuf = (Array) state.getObject(bufReference);
+            final Array _inBuf = (Array) state.getObjectReadOnly(bufReference);
             if (!_inBuf.isSimple()) {
                 throw new SymbolicValueNotAllowedException("The byte[] this.buf field of 'this' parameter to invocation of method java.io.FileInputStream.readBytes is not simple.");
             }
@@ -157,42 +157,42 @@ public final class Algo_JAVA_INFLATER_INFLATEBYTES extends Algo_INVOKEMETA_Nonbr
             }
             
             //gets this.inflater.off
-            final Primitive _off = (Primitive) this._inflater.getFieldValue(JAVA_INFLATER_OFF);
+            final Primitive _off = (Primitive) _inflater.getFieldValue(JAVA_INFLATER_OFF);
             if (_off.isSymbolic()) {
                 throw new SymbolicValueNotAllowedException("The int this.zsRef.off field of 'this' parameter to invocation of method java.util.zip.Inflater.inflateBytes is a symbolic value.");
             }
             final int off = ((Integer) ((Simplex) _off).getActualValue()).intValue();
             
             //gets this.inflater.len
-            final Primitive _len = (Primitive) this._inflater.getFieldValue(JAVA_INFLATER_LEN);
+            final Primitive _len = (Primitive) _inflater.getFieldValue(JAVA_INFLATER_LEN);
             if (_len.isSymbolic()) {
                 throw new SymbolicValueNotAllowedException("The int this.zsRef.len field of 'this' parameter to invocation of method java.util.zip.Inflater.inflateBytes is a symbolic value.");
             }
             final int len = ((Integer) ((Simplex) _len).getActualValue()).intValue();
             
             //gets this.inflater.finished
-            final Primitive _finished = (Primitive) this._inflater.getFieldValue(JAVA_INFLATER_FINISHED);
+            final Primitive _finished = (Primitive) _inflater.getFieldValue(JAVA_INFLATER_FINISHED);
             if (_finished.isSymbolic()) {
                 throw new SymbolicValueNotAllowedException("The int this.zsRef.finished field of 'this' parameter to invocation of method java.util.zip.Inflater.inflateBytes is a symbolic value.");
             }
             final boolean finished = ((Boolean) ((Simplex) _finished).getActualValue()).booleanValue();
             
             //gets this.inflater.needDict
-            final Primitive _needDict = (Primitive) this._inflater.getFieldValue(JAVA_INFLATER_NEEDDICT);
+            final Primitive _needDict = (Primitive) _inflater.getFieldValue(JAVA_INFLATER_NEEDDICT);
             if (_needDict.isSymbolic()) {
                 throw new SymbolicValueNotAllowedException("The int this.zsRef.needDict field of 'this' parameter to invocation of method java.util.zip.Inflater.inflateBytes is a symbolic value.");
             }
             final boolean needDict = ((Boolean) ((Simplex) _needDict).getActualValue()).booleanValue();
             
             //gets this.inflater.bytesRead
-            final Primitive _bytesRead = (Primitive) this._inflater.getFieldValue(JAVA_INFLATER_BYTESREAD);
+            final Primitive _bytesRead = (Primitive) _inflater.getFieldValue(JAVA_INFLATER_BYTESREAD);
             if (_bytesRead.isSymbolic()) {
                 throw new SymbolicValueNotAllowedException("The int this.zsRef.bytesRead field of 'this' parameter to invocation of method java.util.zip.Inflater.inflateBytes is a symbolic value.");
             }
             final long bytesRead = ((Long) ((Simplex) _bytesRead).getActualValue()).longValue();
             
             //gets this.inflater.bytesWritten
-            final Primitive _bytesWritten = (Primitive) this._inflater.getFieldValue(JAVA_INFLATER_BYTESWRITTEN);
+            final Primitive _bytesWritten = (Primitive) _inflater.getFieldValue(JAVA_INFLATER_BYTESWRITTEN);
             if (_bytesWritten.isSymbolic()) {
                 throw new SymbolicValueNotAllowedException("The int this.zsRef.bytesWritten field of 'this' parameter to invocation of method java.util.zip.Inflater.inflateBytes is a symbolic value.");
             }
@@ -241,8 +241,9 @@ public final class Algo_JAVA_INFLATER_INFLATEBYTES extends Algo_INVOKEMETA_Nonbr
             state.pushOperand(calc.valInt(this.nread));
             
             try {
+                final Array outBuf = (Array) state.getObject(this.bufReference);
                 for (int i = this.ofst; i < this.ofst + this.nread; ++i) {
-                    this.outBuf.setFast(calc.valInt(i), calc.valByte(this.inflatedBytes[i - this.ofst]));
+                    outBuf.setFast(calc.valInt(i), calc.valByte(this.inflatedBytes[i - this.ofst]));
                 }
             } catch (FastArrayAccessNotAllowedException e) {
                 //this should never happen
@@ -270,10 +271,11 @@ public final class Algo_JAVA_INFLATER_INFLATEBYTES extends Algo_INVOKEMETA_Nonbr
             
             //updates this.inflaterBase
             final Calculator calc = state.getCalculator();
-            this._inflater.setFieldValue(JAVA_INFLATER_OFF, calc.valInt(off));
-            this._inflater.setFieldValue(JAVA_INFLATER_LEN, calc.valInt(len));
-            this._inflater.setFieldValue(JAVA_INFLATER_FINISHED, calc.valBoolean(finished));
-            this._inflater.setFieldValue(JAVA_INFLATER_NEEDDICT, calc.valBoolean(needDict));
+            final Instance _inflater = (Instance) state.getObject(this.thisReference);
+            _inflater.setFieldValue(JAVA_INFLATER_OFF, calc.valInt(off));
+            _inflater.setFieldValue(JAVA_INFLATER_LEN, calc.valInt(len));
+            _inflater.setFieldValue(JAVA_INFLATER_FINISHED, calc.valBoolean(finished));
+            _inflater.setFieldValue(JAVA_INFLATER_NEEDDICT, calc.valBoolean(needDict));
         } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
             //this should never happen
             failExecution(e);
@@ -94,7 +94,7 @@ public final class Algo_JAVA_INFLATER_SETDICTIONARY extends Algo_INVOKEMETA_Nonb
             //invokes metacircularly the setDictionary method
             final Method method = Inflater.class.getDeclaredMethod("setDictionary", long.class, byte[].class, int.class, int.class);
             method.setAccessible(true);
-            method.invoke(null, state.getInflater(this.addr), this.b, this.ofst, this.len);
+            method.invoke(null, state.getInflaterExclusive(this.addr), this.b, this.ofst, this.len);
         } catch (InvocationTargetException e) {
             final String cause = internalClassName(e.getCause().getClass().getName());
             throwNew(state, cause);
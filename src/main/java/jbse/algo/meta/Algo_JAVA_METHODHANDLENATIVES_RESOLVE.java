@@ -356,7 +356,7 @@ public final class Algo_JAVA_METHODHANDLENATIVES_RESOLVE extends Algo_INVOKEMETA
             whenNull.doIt("The " + paramName + " parameter to java.lang.invoke.MethodHandleNatives.resolve was null.");
             return null;
         }
-        final Instance theInstance = (Instance) state.getObject(theReference);
+        final Instance theInstance = (Instance) state.getObjectReadOnly(theReference);
         if (theInstance == null) {
             whenUnresolved.doIt("The " + paramName + " parameter to java.lang.invoke.MethodHandleNatives.resolve was an unresolved symbolic reference on the operand stack.");
         }
@@ -674,8 +674,9 @@ public final class Algo_JAVA_METHODHANDLENATIVES_RESOLVE extends Algo_INVOKEMETA
         return (state, alt) -> {
             try {
                 //updates the MemberName: first, sets the clazz field...
+                final Instance memberNameObject = (Instance) state.getObject((Reference) this.data.operand(0));
                 state.ensureInstance_JAVA_CLASS(this.resolvedClass);
-                this.memberNameObject.setFieldValue(JAVA_MEMBERNAME_CLAZZ, state.referenceToInstance_JAVA_CLASS(this.resolvedClass));
+                memberNameObject.setFieldValue(JAVA_MEMBERNAME_CLAZZ, state.referenceToInstance_JAVA_CLASS(this.resolvedClass));
 
                 //...then sets the flags field
                 final String resolvedName = this.resolvedSignature.getName();
@@ -708,7 +709,7 @@ public final class Algo_JAVA_METHODHANDLENATIVES_RESOLVE extends Algo_INVOKEMETA
                         flags += ((REF_putField - REF_getField) << REFERENCE_KIND_SHIFT);
                     }
                 }
-                this.memberNameObject.setFieldValue(JAVA_MEMBERNAME_FLAGS, state.getCalculator().valInt(flags));
+                memberNameObject.setFieldValue(JAVA_MEMBERNAME_FLAGS, state.getCalculator().valInt(flags));
             } catch (HeapMemoryExhaustedException e) {
                 throwNew(state, OUT_OF_MEMORY_ERROR);
                 exitFromAlgorithm();
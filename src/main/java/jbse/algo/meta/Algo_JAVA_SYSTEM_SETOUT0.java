@@ -27,7 +27,7 @@ import jbse.tree.DecisionAlternative_NONE;
  * @author Pietro Braione
  */
 public final class Algo_JAVA_SYSTEM_SETOUT0 extends Algo_INVOKEMETA_Nonbranching {
-    private Klass k; //set by cookMore
+    private ClassFile cf_JAVA_SYSTEM; //set by cookMore
     
     @Override
     protected Supplier<Integer> numOperands() {
@@ -38,9 +38,9 @@ public final class Algo_JAVA_SYSTEM_SETOUT0 extends Algo_INVOKEMETA_Nonbranching
     @Override
     protected void cookMore(State state) throws UndefinedResultException, InvalidInputException {
         try {
-            final ClassFile cf_JAVA_SYSTEM = state.getClassHierarchy().loadCreateClass(JAVA_SYSTEM);
-            this.k = state.getKlass(cf_JAVA_SYSTEM);
-            if (this.k == null || !this.k.isInitialized()) {
+            this.cf_JAVA_SYSTEM = state.getClassHierarchy().loadCreateClass(JAVA_SYSTEM);
+            final Klass k = state.getKlass(this.cf_JAVA_SYSTEM);
+            if (k == null || !k.isInitialized()) {
                 throw new UndefinedResultException("Invoked java.lang.System.setIn0 before initialization of class java.lang.System.");
             }
         } catch (ClassFileNotFoundException | ClassFileIllFormedException | BadClassFileVersionException |
@@ -53,7 +53,7 @@ public final class Algo_JAVA_SYSTEM_SETOUT0 extends Algo_INVOKEMETA_Nonbranching
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            this.k.setFieldValue(JAVA_SYSTEM_OUT, this.data.operand(0));
+            state.getKlass(this.cf_JAVA_SYSTEM).setFieldValue(JAVA_SYSTEM_OUT, this.data.operand(0));
         };
     }
 }
@@ -22,7 +22,6 @@ import jbse.val.Simplex;
  * @author Pietro Braione
  */
 public final class Algo_JAVA_THREAD_ISINTERRUPTED extends Algo_INVOKEMETA_Nonbranching {
-    private Instance_JAVA_THREAD currentThread; //set by cookMore
     private Primitive isInterrupted; //set by cookMore
     private boolean clearInterrupted; //set by cookMore
     
@@ -37,7 +36,7 @@ public final class Algo_JAVA_THREAD_ISINTERRUPTED extends Algo_INVOKEMETA_Nonbra
         try {
             //there's only one thread in JBSE, so skips the first parameter
             //and gets the current thread from the context
-            this.currentThread = (Instance_JAVA_THREAD) state.getObject(state.getMainThread()); 
+            final Instance_JAVA_THREAD currentThread = (Instance_JAVA_THREAD) state.getObjectReadOnly(state.getMainThread()); 
             this.isInterrupted = state.getCalculator().valInt(currentThread.isInterrupted() ? 1 : 0);
 
             //gets the second (boolean ClearInterrupted) parameter
@@ -57,7 +56,7 @@ public final class Algo_JAVA_THREAD_ISINTERRUPTED extends Algo_INVOKEMETA_Nonbra
         return (state, alt) -> {
             state.pushOperand(this.isInterrupted);
             if (this.clearInterrupted) {
-                this.currentThread.setInterrupted(false);
+                ((Instance_JAVA_THREAD) state.getObject(state.getMainThread())).setInterrupted(false);
             }
         };
     }
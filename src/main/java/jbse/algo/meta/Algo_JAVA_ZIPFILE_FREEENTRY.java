@@ -29,6 +29,7 @@ import jbse.val.Simplex;
  * @author Pietro Braione
  */
 public final class Algo_JAVA_ZIPFILE_FREEENTRY extends Algo_INVOKEMETA_Nonbranching {
+    private long jzfile; //set by cookMore
     private long jzentry; //set by cookMore
     
     @Override
@@ -46,8 +47,8 @@ public final class Algo_JAVA_ZIPFILE_FREEENTRY extends Algo_INVOKEMETA_Nonbranch
             if (_jzfile.isSymbolic()) {
                 throw new SymbolicValueNotAllowedException("The long jzfile parameter to invocation of method java.util.zip.ZipFile.freeEntry cannot be a symbolic value.");
             }
-            final long jzfile = ((Long) ((Simplex) _jzfile).getActualValue()).longValue();
-            if (!state.hasZipFile(jzfile)) {
+            this.jzfile = ((Long) ((Simplex) _jzfile).getActualValue()).longValue();
+            if (!state.hasZipFile(this.jzfile)) {
                 //hotspot crashes
                 throw new UndefinedResultException("Invoked method java.util.zip.ZipFile.freeEntry with a jzfile parameter not corresponding to an open zipfile.");
             }
@@ -59,28 +60,33 @@ public final class Algo_JAVA_ZIPFILE_FREEENTRY extends Algo_INVOKEMETA_Nonbranch
             }
             this.jzentry = ((Long) ((Simplex) _jzentry).getActualValue()).longValue();
             //TODO what if jzentry is not open?
-            
-            //invokes metacircularly the freeEntry method
-            final Method method = ZipFile.class.getDeclaredMethod("freeEntry", long.class, long.class);
-            method.setAccessible(true);
-            method.invoke(null, state.getZipFileJz(jzfile), state.getZipFileEntryJz(this.jzentry));
-        } catch (InvocationTargetException e) {
-            final String cause = internalClassName(e.getCause().getClass().getName());
-            throwNew(state, cause);
-            exitFromAlgorithm();
         } catch (ClassCastException e) {
             throwVerifyError(state);
             exitFromAlgorithm();
-        } catch (SecurityException | NoSuchMethodException | IllegalAccessException | IllegalArgumentException e) {
-            //this should not happen
-            failExecution(e);
         }
     }
 
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            state.removeZipFileEntry(this.jzentry);
+            final long jzfileHost = state.getZipFileJz(this.jzfile);
+            final long jzentryHost = state.getZipFileEntryJz(this.jzentry);
+            if (state.removeZipFileEntry(this.jzentry)) {
+                //no other state uses the entry:
+                //invokes metacircularly the freeEntry method
+                try {
+                    final Method method = ZipFile.class.getDeclaredMethod("freeEntry", long.class, long.class);
+                    method.setAccessible(true);
+                    method.invoke(null, jzfileHost, jzentryHost);
+                } catch (InvocationTargetException e) {
+                    final String cause = internalClassName(e.getCause().getClass().getName());
+                    throwNew(state, cause);
+                    exitFromAlgorithm();
+                } catch (SecurityException | NoSuchMethodException | IllegalAccessException | IllegalArgumentException e) {
+                    //this should not happen
+                    failExecution(e);
+                }
+            }
         };
     }
 }
@@ -32,7 +32,7 @@ import jbse.val.Simplex;
  * @author Pietro Braione
  */
 public final class Algo_JAVA_ZIPFILE_READ extends Algo_INVOKEMETA_Nonbranching {
-    private Array buf; //set by cookMore
+    private Reference bufReference; //set by cookMore
     private int ofst; //set by cookMore
     private byte[] readBytes; //set by cookMore
     private int nread; //set by cookMore
@@ -74,13 +74,13 @@ public final class Algo_JAVA_ZIPFILE_READ extends Algo_INVOKEMETA_Nonbranching {
             //if pos is out of range the metacircular method invocation will raise InvocationTargetException
             
             //gets the (byte[] b) parameter
-            final Reference bufReference = (Reference) this.data.operand(3);
-            if (state.isNull(bufReference)) {
+            this.bufReference = (Reference) this.data.operand(3);
+            if (state.isNull(this.bufReference)) {
                 //hotspot crashes
                 throw new UndefinedResultException("Invoked method java.util.zip.ZipFile.read with a null buf parameter.");
             }
-            this.buf = (Array) state.getObject(bufReference);
-            if (!this.buf.hasSimpleRep()) {
+            final Array buf = (Array) state.getObjectReadOnly(this.bufReference);
+            if (!buf.hasSimpleRep()) {
                 throw new SymbolicValueNotAllowedException("The byte[] b parameter to invocation of method java.util.zip.ZipFile.read has not a simple representation.");
             }
             
@@ -126,8 +126,9 @@ public final class Algo_JAVA_ZIPFILE_READ extends Algo_INVOKEMETA_Nonbranching {
             state.pushOperand(calc.valInt(this.nread));
             
             try {
+                final Array buf = (Array) state.getObject(this.bufReference);
                 for (int i = this.ofst; i < this.ofst + this.nread; ++i) {
-                    this.buf.setFast(calc.valInt(i), calc.valByte(this.readBytes[i - this.ofst]));
+                    buf.setFast(calc.valInt(i), calc.valByte(this.readBytes[i - this.ofst]));
                 }
             } catch (FastArrayAccessNotAllowedException e) {
                 //this should never happen
@@ -42,7 +42,7 @@ public final class Algo_JBSE_ANALYSIS_ASSUMECLASSNOTINITIALIZED extends Algo_INV
 
         //gets the class
         try {
-            this.clazz = (Instance_JAVA_CLASS) state.getObject(javaClassRef);
+            this.clazz = (Instance_JAVA_CLASS) state.getObjectReadOnly(javaClassRef);
             if (this.clazz == null) {
                 //this should never happen
                 failExecution("An unresolved symbolic reference from the operand stack was detected during invocation of method jbse.meta.Analysis.assumeClassNotInitialized.");
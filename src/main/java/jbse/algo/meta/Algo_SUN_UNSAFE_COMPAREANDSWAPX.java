@@ -34,7 +34,8 @@ import jbse.val.exc.InvalidTypeException;
  */
 public abstract class Algo_SUN_UNSAFE_COMPAREANDSWAPX extends Algo_INVOKEMETA_Nonbranching {
     private final String what;  //set by constructor
-    private Objekt objectToSet; //set by cookMore
+    private Reference refObjectToSet; //set by cookMore
+    private boolean swap; //set by cookMore
     private int fieldSlotToSet; //set by cookMore
     private Value toWrite; //set by cookMore
 
@@ -55,13 +56,13 @@ public abstract class Algo_SUN_UNSAFE_COMPAREANDSWAPX extends Algo_INVOKEMETA_No
     throws ThreadStackEmptyException, DecisionException, ClasspathException,
     CannotManageStateException, InterruptException {
         try {
-            final Reference refObjectToSet = (Reference) this.data.operand(1);
-            this.objectToSet = state.getObject(refObjectToSet);
-            if (this.objectToSet == null) {
+            this.refObjectToSet = (Reference) this.data.operand(1);
+            final Objekt objectToSet = state.getObjectReadOnly(this.refObjectToSet);
+            if (objectToSet == null) {
                 //this should never happen
                 failExecution("Unexpected unresolved symbolic references as object to be set parameter of sun.misc.Unsafe.compareAndSwap" + this.what + " invocation");
             }
-            if (this.objectToSet instanceof Array && !((Array) this.objectToSet).hasSimpleRep()) {
+            if (objectToSet instanceof Array && !((Array) objectToSet).hasSimpleRep()) {
                 throw new SymbolicValueNotAllowedException("The object to be set parameter to sun.misc.Unsafe.compareAndSwap" + this.what + " is an array that has not simple representation");
             }
             if (this.data.operand(2) instanceof Simplex) {
@@ -71,14 +72,12 @@ public abstract class Algo_SUN_UNSAFE_COMPAREANDSWAPX extends Algo_INVOKEMETA_No
             }
             final Value toCompare = this.data.operand(3);
             this.toWrite = this.data.operand(4);
-            if (this.objectToSet.hasSlot(this.fieldSlotToSet)) {
+            if (objectToSet.hasSlot(this.fieldSlotToSet)) {
                 try {
-                    final Value current = (this.objectToSet instanceof Array) ? 
-                                          ((AccessOutcomeInValue) ((Array) this.objectToSet).getFast(state.getCalculator().valInt(this.fieldSlotToSet))).getValue() :
-                                          this.objectToSet.getFieldValue(this.fieldSlotToSet);
-                    if (!checkCompare(state, current, toCompare)) {
-                        this.objectToSet = null;
-                    }
+                    final Value current = (objectToSet instanceof Array) ? 
+                                          ((AccessOutcomeInValue) ((Array) objectToSet).getFast(state.getCalculator().valInt(this.fieldSlotToSet))).getValue() :
+                                          objectToSet.getFieldValue(this.fieldSlotToSet);
+                    this.swap = checkCompare(state, current, toCompare);
                 } catch (ClassCastException e) {
                     //this should never happen
                     failExecution(e);
@@ -99,18 +98,21 @@ public abstract class Algo_SUN_UNSAFE_COMPAREANDSWAPX extends Algo_INVOKEMETA_No
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            if (this.objectToSet == null) {
+            if (!this.swap) {
                 state.pushOperand(state.getCalculator().valInt(0)); //false
             } else {
-                if (this.objectToSet instanceof Array) {
+                //gets the object from the state to update, 
+                //since it might be a clone of the cooked one
+                final Objekt objectToSet = state.getObject(this.refObjectToSet);
+                if (objectToSet instanceof Array) {
                     try {
-                        ((Array) this.objectToSet).setFast(state.getCalculator().valInt(this.fieldSlotToSet), this.toWrite);
+                        ((Array) objectToSet).setFast(state.getCalculator().valInt(this.fieldSlotToSet), this.toWrite);
                     } catch (InvalidOperandException | InvalidTypeException | FastArrayAccessNotAllowedException e) {
                         //this should never happen
                         failExecution(e);
                     }
                 } else {
-                    this.objectToSet.setFieldValue(this.fieldSlotToSet, this.toWrite);
+                    objectToSet.setFieldValue(this.fieldSlotToSet, this.toWrite);
                 }
                 state.pushOperand(state.getCalculator().valInt(1)); //true
             }
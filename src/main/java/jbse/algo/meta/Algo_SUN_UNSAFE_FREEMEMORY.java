@@ -36,8 +36,9 @@ public final class Algo_SUN_UNSAFE_FREEMEMORY extends Algo_INVOKEMETA_Nonbranchi
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            state.removeMemoryBlock(this.memoryAddress);
-            unsafe().freeMemory(this.memoryAddress);
+            if (state.removeMemoryBlock(this.memoryAddress)) {
+                unsafe().freeMemory(this.memoryAddress);
+            }
         };
     }
 }
@@ -138,7 +138,9 @@ StrategyUpdate<DecisionAlternative_XALOAD>> {
                 }
                 Collection<Array.AccessOutcome> entries = null; //to keep the compiler happy
                 try {
-                    entries = arrayToProcess.get(this.index.add(arrayOffset));
+                    entries = (this.ctx.getUseArrayTheory() ?
+                               arrayToProcess.getSelect(this.index.add(arrayOffset)) :
+                               arrayToProcess.get(this.index.add(arrayOffset)));
                 } catch (InvalidOperandException | InvalidTypeException e) {
                     //this should never happen
                     failExecution(e);
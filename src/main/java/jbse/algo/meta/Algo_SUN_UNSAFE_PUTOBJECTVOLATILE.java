@@ -25,7 +25,7 @@ import jbse.val.Simplex;
  */
 public final class Algo_SUN_UNSAFE_PUTOBJECTVOLATILE extends Algo_INVOKEMETA_Nonbranching {
     private final Algo_SUN_UNSAFE_PUTOBJECTVOLATILE_Array algoArray = new Algo_SUN_UNSAFE_PUTOBJECTVOLATILE_Array();
-    private Objekt toModify; //set by cookMore
+    private Reference objRef; //set by cookMore
     private int slot; //set by cookMore
     private Reference val; //set by cookMore
     
@@ -38,15 +38,15 @@ public final class Algo_SUN_UNSAFE_PUTOBJECTVOLATILE extends Algo_INVOKEMETA_Non
     protected void cookMore(State state) 
     throws SymbolicValueNotAllowedException, UndefinedResultException, InterruptException {
         //gets and checks the object to modify
-        final Reference objRef = (Reference) this.data.operand(1);
-        if (state.isNull(objRef)) {
+        this.objRef = (Reference) this.data.operand(1);
+        if (state.isNull(this.objRef)) {
             throw new UndefinedResultException("The Object o parameter to sun.misc.Unsafe.putObjectVolatile was null");
         }
-        this.toModify = state.getObject(objRef);
-        if (this.toModify == null) {
+        final Objekt toModify = state.getObjectReadOnly(this.objRef);
+        if (toModify == null) {
             throw new UnexpectedInternalException("Unexpected unresolved symbolic reference on the operand stack while invoking sun.misc.Unsafe.putObjectVolatile.");
         }
-        if (this.toModify instanceof Array) {
+        if (toModify instanceof Array) {
             continueWith(this.algoArray);
         }
 
@@ -65,7 +65,7 @@ public final class Algo_SUN_UNSAFE_PUTOBJECTVOLATILE extends Algo_INVOKEMETA_Non
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            this.toModify.setFieldValue(this.slot, this.val);
+            state.getObject(this.objRef).setFieldValue(this.slot, this.val);
         };
     }
 }
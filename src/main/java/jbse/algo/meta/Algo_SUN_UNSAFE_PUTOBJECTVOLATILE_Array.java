@@ -77,7 +77,7 @@ StrategyUpdate<DecisionAlternative_XASTORE>> {
             //is in range or out of range w.r.t. the array
             //moreover, converts the value in case of [b/c/s]astore
             try {
-                final Array array = (Array) state.getObject(this.arrayReference);
+                final Array array = (Array) state.getObjectReadOnly(this.arrayReference);
                 this.inRange = array.inRange(this.index);
                 this.outOfRange = array.outOfRange(this.index);
                 final ClassFile arrayMemberType = array.getType().getMemberClass();
@@ -87,7 +87,7 @@ StrategyUpdate<DecisionAlternative_XASTORE>> {
                         exitFromAlgorithm();
                     }
                     final Reference valueToStoreRef = (Reference) value;
-                    final Objekt o = state.getObject(valueToStoreRef);
+                    final Objekt o = state.getObjectReadOnly(valueToStoreRef);
                     final ClassHierarchy hier = state.getClassHierarchy();
                     if (state.isNull(valueToStoreRef) ||
                         hier.isAssignmentCompatible(o.getType(), arrayMemberType)) {
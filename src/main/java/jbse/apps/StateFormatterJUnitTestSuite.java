@@ -21,6 +21,7 @@ import java.util.function.Supplier;
 
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.Array;
 import jbse.mem.Clause;
 import jbse.mem.ClauseAssume;
 import jbse.mem.ClauseAssumeAliases;
@@ -223,6 +224,8 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
         private final StringBuilder s; 
         private final HashMap<String, String> symbolsToVariables = new HashMap<>();
         private boolean panic = false;
+        private String panicReason = "no numeric solution from the solver";
+        private boolean selectFound = false;
         private ClauseAssume clauseLength = null;
 
         JUnitTestCase(StringBuilder s, State initialState, State finalState, Map<PrimitiveSymbolic, Simplex> model, int testCounter) {
@@ -243,7 +246,7 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
                 this.s.append("    @Test\n");
             } else {
                 this.s.append("    @Test(expected=");
-                this.s.append(javaClass(finalState.getObject(exception).getType().getClassName()));
+                this.s.append(javaClass(finalState.getObjectReadOnly(exception).getType().getClassName()));
                 this.s.append(".class)\n");
             }
             this.s.append("    public void test");
@@ -262,7 +265,7 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
             }
             this.s.append(INDENT);
             this.s.append("this.nullObjectFields = new HashSet<>();\n");
-            final Collection<Clause> pathCondition = finalState.getPathCondition();
+            final Collection<Clause> pathCondition = finalState.getPathConditionCompact();
             for (Iterator<Clause> iterator = pathCondition.iterator(); iterator.hasNext(); ) {
                 final Clause clause = iterator.next();
                 this.s.append(INDENT);
@@ -287,7 +290,15 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
                     }
                     final ClauseAssume clauseAssume = (ClauseAssume) clause;
                     final Primitive p = clauseAssume.getCondition();
-                    this.s.append(primitiveSymbolAssignments(p, model));
+                    final String assignments = primitiveSymbolAssignments(p, model);
+                    if (this.selectFound) {
+                        //the array members read through the theory of arrays 
+                        //have no value in the model, so the inputs cannot be built
+                        this.panic = true;
+                        this.panicReason = "array members read with the theory of arrays have no model";
+                        return;
+                    }
+                    this.s.append(assignments);
                 } else {
                     this.s.append(';');
                 }
@@ -326,7 +337,7 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
                         if (finalState.isNull(returnedRef)) {
                             this.s.append("java.lang.Object");
                         } else {
-                            this.s.append(javaClass(finalState.getObject(returnedRef).getType().getClassName()));
+                            this.s.append(javaClass(finalState.getObjectReadOnly(returnedRef).getType().getClassName()));
                         }
                     }
                     this.s.append(" __returnedValue = ");
@@ -413,7 +424,7 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
                     if (finalState.isNull(returnedRef)) {
                         this.s.append("null");
                     } else {
-                        final String var = generateName(finalState.getObject(returnedRef).getOrigin().toString());
+                        final String var = generateName(finalState.getObjectReadOnly(returnedRef).getOrigin().toString());
                         if (hasMemberAccessor(var)) {
                             this.s.append(getValue(var));
                         } else {
@@ -434,7 +445,9 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
                 this.s.append(finalState.getIdentifier());
                 this.s.append('[');
                 this.s.append(finalState.getSequenceNumber());
-                this.s.append("] (no numeric solution from the solver)\n");
+                this.s.append("] (");
+                this.s.append(this.panicReason);
+                this.s.append(")\n");
             } else {
                 this.s.append("    }\n");
             }
@@ -701,6 +714,9 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
 
                 @Override
                 public void visitFunctionApplication(FunctionApplication x) throws Exception {
+                    if (Array.isSelect(x)) {
+                        JUnitTestCase.this.selectFound = true;
+                    }
                     for (Primitive p : x.getArgs()) {
                         p.accept(this);
                     }
@@ -136,7 +136,7 @@ public final class StateFormatterText implements Formatter {
                 if (s.isNull(ref)) {
                     expression.append("null");
                 } else {
-                    final MemoryPath tgtOrigin = s.getObject(ref).getOrigin();
+                    final MemoryPath tgtOrigin = s.getObjectReadOnly(ref).getOrigin();
                     expression.append("Object["); expression.append(s.getResolution(ref)); expression.append("] ("); expression.append(ref.getOrigin().equals(tgtOrigin) ? "fresh" : ("aliases " + tgtOrigin)); expression.append(")");
                 }
                 final String referenceFormatted = formatReferenceForPathCondition(ref, doneSymbols); 
@@ -69,7 +69,7 @@ public final class StateFormatterTrace implements Formatter {
             if (s.isNull((Reference) v)) {
                 return "null";
             } else {
-                return s.getObject((Reference) v).getType().getClassName();
+                return s.getObjectReadOnly((Reference) v).getType().getClassName();
             }
         } else {
             throw new UnexpectedInternalException("Unexpected value " + v + " returned.");
@@ -62,6 +62,7 @@ import jbse.val.AccessField;
 import jbse.val.AccessHashCode;
 import jbse.val.AccessLocalVariable;
 import jbse.val.AccessStatic;
+import jbse.val.AccessTermAbstraction;
 import jbse.val.Any;
 import jbse.val.Calculator;
 import jbse.val.Expression;
@@ -577,6 +578,9 @@ public final class DecisionProcedureGuidance extends DecisionProcedureAlgorithms
                     throw new GuidanceException(ERROR_BAD_PATH);
                 }
                 fieldValue = o.getObjektDefaultHashCode();
+            } else if (a instanceof AccessTermAbstraction) {
+                final AccessTermAbstraction at = (AccessTermAbstraction) a;
+                fieldValue = eval(state, rootFrame, at.term());
             }
             if (fieldValue instanceof Reference) {
                 o = state.getObject((Reference) fieldValue);
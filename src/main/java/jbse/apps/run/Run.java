@@ -32,6 +32,7 @@ import jbse.apps.run.RunParameters.TextMode;
 import jbse.apps.run.RunParameters.TraceTypes;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.ClasspathException;
+import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.DecisionProcedure;
 import jbse.dec.DecisionProcedureAlgorithms;
@@ -821,7 +822,8 @@ public final class Run {
                 final Rewriter rewriter = (Rewriter) rewriterClass.newInstance();
                 calc.addRewriter(rewriter);
             }
-        } catch (InstantiationException | IllegalAccessException | UnexpectedInternalException e) {
+            calc.setTermBudget(this.parameters.getMaxTermSize(), this.parameters.getMaxTermDepth());
+        } catch (InstantiationException | IllegalAccessException | InvalidInputException | UnexpectedInternalException e) {
             throw new CannotBuildCalculatorException(e);
         }
         return calc;
@@ -15,6 +15,8 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import jbse.bc.ClassFileFactory;
+import jbse.bc.ClassFileFactoryJavassist;
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.dec.DecisionProcedure;
@@ -25,6 +27,7 @@ import jbse.jvm.EngineParameters;
 import jbse.jvm.ExecutionObserver;
 import jbse.jvm.RunnerParameters;
 import jbse.jvm.EngineParameters.BreadthMode;
+import jbse.jvm.EngineParameters.GarbageCollectionPolicy;
 import jbse.jvm.EngineParameters.StateIdentificationMode;
 import jbse.mem.State;
 import jbse.rewr.CalculatorRewriting;
@@ -287,6 +290,12 @@ public final class RunParameters implements Cloneable {
     /** The {@link Class}es of all the rewriters to be applied to terms (order matters). */
     private ArrayList<Class<? extends Rewriter>> rewriterClasses = new ArrayList<>();
 
+    /** The maximum size of a term before it is abstracted, 0 for unlimited. */
+    private int maxTermSize = 0;
+
+    /** The maximum depth of a term before it is abstracted, 0 for unlimited. */
+    private int maxTermDepth = 0;
+
     /**
      * The decision procedure to be used for deciding the 
      * arithmetic conditions.
@@ -464,6 +473,28 @@ public final class RunParameters implements Cloneable {
     public void setBreadthMode(BreadthMode breadthMode) {
         this.runnerParameters.setBreadthMode(breadthMode);
     }
+
+    /**
+     * Sets the garbage collection policy, i.e., when the 
+     * unreachable objects in the heap will be collected,
+     * see {@link EngineParameters#setGarbageCollectionPolicy(GarbageCollectionPolicy)}.
+     * 
+     * @param gcPolicy a {@link GarbageCollectionPolicy}.
+     * @throws NullPointerException if {@code gcPolicy == null}.
+     */
+    public void setGarbageCollectionPolicy(GarbageCollectionPolicy gcPolicy) {
+        this.runnerParameters.setGarbageCollectionPolicy(gcPolicy);
+    }
+
+    /**
+     * Sets the garbage collection threshold, 
+     * see {@link EngineParameters#setGarbageCollectionThreshold(long)}.
+     * 
+     * @param gcThreshold a positive {@code long}.
+     */
+    public void setGarbageCollectionThreshold(long gcThreshold) {
+        this.runnerParameters.setGarbageCollectionThreshold(gcThreshold);
+    }
     
     /**
      * Sets whether the bootstrap classloader should also be used to 
@@ -489,6 +520,108 @@ public final class RunParameters implements Cloneable {
     public boolean getBypassStandardLoading() {
         return this.runnerParameters.getBypassStandardLoading();
     }
+    
+    /**
+     * Sets the class of the {@link ClassFileFactory} that 
+     * analyzes the class files, e.g., {@link ClassFileFactoryJavassist}
+     * (the default) or {@link jbse.bc.ClassFileFactoryLazy}. 
+     * Also cancels the effect of any previous call to 
+     * {@link #setInitialState(State)}.
+     * 
+     * @param classFileFactoryClass a {@link Class}{@code <? extends }{@link ClassFileFactory}{@code >}.
+     *        It must have a public constructor with no parameters.
+     * @throws NullPointerException if {@code classFileFactoryClass == null}.
+     */
+    public void setClassFileFactoryClass(Class<? extends ClassFileFactory> classFileFactoryClass) {
+        this.runnerParameters.setClassFileFactoryClass(classFileFactoryClass);
+    }
+    
+    /**
+     * Gets the class of the {@link ClassFileFactory} that 
+     * analyzes the class files.
+     * 
+     * @return a {@link Class}{@code <? extends }{@link ClassFileFactory}{@code >}.
+     */
+    public Class<? extends ClassFileFactory> getClassFileFactoryClass() {
+        return this.runnerParameters.getClassFileFactoryClass();
+    }
+    
+    /**
+     * Sets whether the symbolic references should be expanded to 
+     * all the concrete subclasses of their static types that are in the 
+     * user classpath, in addition to the classes in the expansion backdoor.
+     * The classes are found by means of an index of the headers
+     * of the class files in the user classpath, that is saved to a
+     * cache directory and reused by later runs. By default 
+     * it is set to {@code false}. Also cancels the effect 
+     * of any previous call to {@link #setInitialState(State)}.
+     * 
+     * @param useSubclassIndex a {@code boolean}.
+     */
+    public void setUseSubclassIndex(boolean useSubclassIndex) {
+        this.runnerParameters.setUseSubclassIndex(useSubclassIndex);
+    }
+    
+    /**
+     * Gets whether the symbolic references should be expanded to 
+     * all the concrete subclasses of their static types that are in the 
+     * user classpath.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getUseSubclassIndex() {
+        return this.runnerParameters.getUseSubclassIndex();
+    }
+    
+    /**
+     * Sets whether the classes referred by the loaded classes should 
+     * be searched in the classpath and parsed by a pool of background 
+     * threads, so they are ready when they are loaded. Only the classes
+     * loaded by the bootstrap classloader, or by all the standard classloaders
+     * when standard loading is bypassed, are prefetched. Prefetching 
+     * does not change the order in which classes are loaded, linked and 
+     * initialized. By default it is set to {@code false}. Also cancels the 
+     * effect of any previous call to {@link #setInitialState(State)}.
+     * 
+     * @param prefetchClasses a {@code boolean}.
+     */
+    public void setPrefetchClasses(boolean prefetchClasses) {
+        this.runnerParameters.setPrefetchClasses(prefetchClasses);
+    }
+    
+    /**
+     * Gets whether the classes referred by the loaded classes should 
+     * be searched in the classpath and parsed by a pool of background 
+     * threads.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getPrefetchClasses() {
+        return this.runnerParameters.getPrefetchClasses();
+    }
+    
+    /**
+     * Sets whether the unknown members of the symbolic arrays 
+     * with numeric primitive members should be represented in
+     * the theory of arrays, see {@link EngineParameters#setUseArrayTheory(boolean)}.
+     * It is effective only with a decision procedure based on 
+     * a SMT solver. By default it is set to {@code false}.
+     * 
+     * @param useArrayTheory a {@code boolean}.
+     */
+    public void setUseArrayTheory(boolean useArrayTheory) {
+        this.runnerParameters.setUseArrayTheory(useArrayTheory);
+    }
+    
+    /**
+     * Gets whether the unknown members of the symbolic arrays 
+     * should be represented in the theory of arrays.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getUseArrayTheory() {
+        return this.runnerParameters.getUseArrayTheory();
+    }
 
     /**
      * Sets the Java home.
@@ -808,6 +941,49 @@ public final class RunParameters implements Cloneable {
         return new ArrayList<>(this.rewriterClasses);
     }
 
+    /**
+     * Sets a budget for the terms created during symbolic 
+     * execution. A term that exceeds the budget is replaced 
+     * by a fresh symbol, and the equality between the symbol 
+     * and the term is added to the path condition.
+     * 
+     * @param maxTermSize an {@code int}, the maximum number of 
+     *        nodes of a term, or {@code 0} for no limit. 
+     * @param maxTermDepth an {@code int}, the maximum depth of 
+     *        a term, or {@code 0} for no limit.
+     */
+    public void setTermBudget(int maxTermSize, int maxTermDepth) {
+        this.maxTermSize = maxTermSize;
+        this.maxTermDepth = maxTermDepth;
+    }
+
+    /**
+     * Sets an unlimited budget for the terms created during 
+     * symbolic execution; this is the default behaviour.
+     */
+    public void setTermBudgetUnlimited() {
+        this.maxTermSize = 0;
+        this.maxTermDepth = 0;
+    }
+
+    /**
+     * Returns the maximum number of nodes of a term.
+     * 
+     * @return an {@code int}, {@code 0} for no limit.
+     */
+    public int getMaxTermSize() {
+        return this.maxTermSize;
+    }
+
+    /**
+     * Returns the maximum depth of a term.
+     * 
+     * @return an {@code int}, {@code 0} for no limit.
+     */
+    public int getMaxTermDepth() {
+        return this.maxTermDepth;
+    }
+
     /**
      * Sets the decision procedure. Overrides any previous call to
      * {@link #setDecisionProcedureGuidance}.
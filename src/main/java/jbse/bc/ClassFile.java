@@ -8,7 +8,9 @@ import static jbse.common.Type.className;
 import static jbse.common.Type.isCat_1;
 import static jbse.common.Type.splitParametersDescriptors;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 import jbse.bc.exc.AttributeNotFoundException;
 import jbse.bc.exc.FieldNotFoundException;
@@ -35,6 +37,75 @@ public abstract class ClassFile implements Comparable<ClassFile> {
     
     protected static final String JAR_FILE_EXTENSION = ".jar";
     
+    /** 
+     * Caches the supertypes of this class, compared by identity
+     * (see {@link ClassHierarchy#isSubclass(ClassFile, ClassFile)});
+     * it is lazily calculated.
+     */
+    private Set<ClassFile> supertypes;
+    
+    /**
+     * Returns the cached supertypes of this class.
+     * 
+     * @return a {@link Set}{@code <}{@link ClassFile}{@code >}, 
+     *         or {@code null} if not yet calculated.
+     */
+    final Set<ClassFile> getSupertypesCache() {
+        return this.supertypes;
+    }
+    
+    /**
+     * Caches the supertypes of this class. Since the superclass 
+     * and the superinterfaces of a class never change, they
+     * need not be ever recalculated.
+     * 
+     * @param supertypes an immutable {@link Set}{@code <}{@link ClassFile}{@code >}.
+     */
+    final void setSupertypesCache(Set<ClassFile> supertypes) {
+        this.supertypes = supertypes;
+    }
+    
+    /**
+     * Caches the results of the resolutions, method implementation
+     * lookups and assignment compatibility checks that 
+     * {@link ClassHierarchy} performs starting from this class. 
+     * It is lazily created, and it is dropped together with
+     * this class.
+     */
+    private HashMap<Object, Object> hierarchyCache;
+    
+    /**
+     * Returns the cache of the {@link ClassHierarchy} 
+     * lookups that start from this class.
+     * 
+     * @return a {@link HashMap}{@code <}{@link Object}{@code , }{@link Object}{@code >}.
+     */
+    final HashMap<Object, Object> getHierarchyCache() {
+        if (this.hierarchyCache == null) {
+            this.hierarchyCache = new HashMap<>();
+        }
+        return this.hierarchyCache;
+    }
+    
+    /**
+     * Caches the inline caches of the call sites in this class
+     * (see {@link jbse.algo.Algo_INVOKEX_Abstract}). It is lazily 
+     * created, and it is dropped together with this class.
+     */
+    private HashMap<Object, Object> callSiteCache;
+    
+    /**
+     * Returns the cache of the call sites in this class.
+     * 
+     * @return a {@link HashMap}{@code <}{@link Object}{@code , }{@link Object}{@code >}.
+     */
+    public final HashMap<Object, Object> getCallSiteCache() {
+        if (this.callSiteCache == null) {
+            this.callSiteCache = new HashMap<>();
+        }
+        return this.callSiteCache;
+    }
+    
     /**
      * Returns the content of the binary file for this class.
      * 
@@ -630,7 +701,8 @@ public abstract class ClassFile implements Comparable<ClassFile> {
      * the method. 
      * 
      * @param methodSignature the {@link Signature} of a method.
-     * @return a {@code byte[]} containing the bytecode.
+     * @return a {@code byte[]} containing the bytecode. It is
+     *         not a copy, and must not be modified.
      * @throws MethodNotFoundException iff {@link #hasMethodDeclaration}{@code (methodSignature) == false}.
      * @throws MethodCodeNotFoundException iff the method has not the Code attribute.
      */
@@ -929,6 +1001,21 @@ public abstract class ClassFile implements Comparable<ClassFile> {
     public abstract int getLocalVariableLength(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException;
 
+    /**
+     * Returns the maximum depth of the operand stack of a method.
+     * 
+     * @param methodSignature a method's {@link Signature}.
+     * @return a {@code int} representing the maximum depth of the 
+     *         operand stack of the method with signature 
+     *         {@code methodSignature}, in the case such method exists 
+     *         in the class and has code.
+     * @throws MethodNotFoundException iff the method does not exist in the class.
+     * @throws MethodCodeNotFoundException iff the method has not the 
+     *         Code attribute.
+     */
+    public abstract int getOperandStackLength(Signature methodSignature) 
+    throws MethodNotFoundException, MethodCodeNotFoundException;
+
     /**
      * Returns the length of the bytecode of a method.
      * 
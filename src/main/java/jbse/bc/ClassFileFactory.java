@@ -15,6 +15,50 @@ public abstract class ClassFileFactory implements Cloneable {
     
     protected abstract ClassFile newClassFileAnonymous(byte[] bytecode, ConstantPoolValue[] cpPatches, ClassFile hostClass)
     throws InvalidInputException, ClassFileIllFormedException;
+    
+    /**
+     * Parses a bytecode before its classfile is created, so 
+     * creating it later will be faster. This method is invoked 
+     * concurrently by the threads that prefetch classes, thus 
+     * it must be thread-safe. By default it does nothing, 
+     * factories that cache what they parse should override it.
+     * 
+     * @param bytecode a {@code byte[]}, the bytecode of a class.
+     *        If it is ill-formed nothing is done: The error
+     *        is reported when its classfile is created.
+     */
+    protected void parseAhead(byte[] bytecode) {
+        //nothing to do
+    }
+
+    /**
+     * Notifies that a bytecode was found in a path of the
+     * classpath, before its classfile is created. This method
+     * is invoked concurrently by the threads that prefetch
+     * classes, thus it must be thread-safe. By default it does
+     * nothing, factories that save what they parse across runs
+     * should override it.
+     *
+     * @param className a {@link String}, the name of a class.
+     * @param bytecode a {@code byte[]}, the bytecode of the class.
+     *        If it is ill-formed nothing is done: The error
+     *        is reported when its classfile is created.
+     * @param path a {@link String}, the path of the classpath
+     *        (a jar file or a directory) where {@code bytecode}
+     *        was found.
+     */
+    protected void foundIn(String className, byte[] bytecode, String path) {
+        //nothing to do
+    }
+
+    /**
+     * Notifies that no more classfiles will be created
+     * from the classpath, so what was parsed may be saved.
+     * By default it does nothing.
+     */
+    protected void close() {
+        //nothing to do
+    }
 
     protected final ClassFile newClassFileArray(String className, ClassFile memberClass, ClassFile cf_JAVA_OBJECT, ClassFile cf_JAVA_CLONEABLE, ClassFile cf_JAVA_SERIALIZABLE) 
     throws InvalidInputException {
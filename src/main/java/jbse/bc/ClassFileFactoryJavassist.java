@@ -10,6 +10,12 @@ import jbse.common.exc.InvalidInputException;
  * @author Pietro Braione
  */
 public class ClassFileFactoryJavassist extends ClassFileFactory {
+    /** The maximum number of bytecodes parsed ahead and not yet used. */
+    private static final int MAX_PARSED_AHEAD = 256;
+    
+    /** The bytecodes parsed ahead, see {@link #parseAhead(byte[])}. */
+    final ParsedAheadCache<javassist.bytecode.ClassFile> parsedAhead = new ParsedAheadCache<>(MAX_PARSED_AHEAD);
+    
     @Override
     protected ClassFile newClassFileClass(int definingClassLoader, String className, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces) 
     throws InvalidInputException, ClassFileIllFormedException {
@@ -23,7 +29,16 @@ public class ClassFileFactoryJavassist extends ClassFileFactory {
             throw new InvalidInputException("The bytecode parameter to " + ClassFileFactoryJavassist.class.getName() + ".newClassFileClass method was null.");
         }
         
-        return new ClassFileJavassist(definingClassLoader, className, bytecode, superClass, superInterfaces);
+        return new ClassFileJavassist(definingClassLoader, className, bytecode, this.parsedAhead.get(bytecode), superClass, superInterfaces);
+    }
+    
+    @Override
+    protected void parseAhead(byte[] bytecode) {
+        try {
+            this.parsedAhead.put(bytecode, ClassFileJavassist.parse("", bytecode));
+        } catch (ClassFileIllFormedException e) {
+            //reported when the classfile is created
+        }
     }
     
     @Override
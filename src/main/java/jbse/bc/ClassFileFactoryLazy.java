@@ -0,0 +1,90 @@
+package jbse.bc;
+
+import jbse.bc.exc.ClassFileIllFormedException;
+import jbse.common.exc.InvalidInputException;
+
+/**
+ * A {@link ClassFileFactory} that produces {@link ClassFileLazy}s, that
+ * decode the class files directly and only when needed. Anonymous classes
+ * with constant pool patches are still analyzed with
+ * <a href="http://www.javassist.org/">Javassist</a>. The layouts of the
+ * class files found in the classpath are saved across runs (see 
+ * {@link ClassFileLayoutCache}), so later runs do not scan them again.
+ * 
+ * @author Pietro Braione
+ */
+public class ClassFileFactoryLazy extends ClassFileFactory {
+    /** The maximum number of bytecodes parsed ahead and not yet used. */
+    private static final int MAX_PARSED_AHEAD = 1024;
+    
+    /** The layouts of the bytecodes parsed ahead, see {@link #parseAhead(byte[])}. */
+    final ParsedAheadCache<ClassFileLazy.Layout> parsedAhead = new ParsedAheadCache<>(MAX_PARSED_AHEAD);
+    
+    /** The layouts saved across runs, see {@link #foundIn(String, byte[], String)}. */
+    final ClassFileLayoutCache saved;
+    
+    public ClassFileFactoryLazy() {
+        this(new ClassFileLayoutCache());
+    }
+    
+    ClassFileFactoryLazy(ClassFileLayoutCache saved) {
+        this.saved = saved;
+    }
+    
+    @Override
+    protected ClassFile newClassFileClass(int definingClassLoader, String className, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces) 
+    throws InvalidInputException, ClassFileIllFormedException {
+        if (definingClassLoader < 0) {
+            throw new InvalidInputException("The definingClassLoader parameter to " + ClassFileFactoryLazy.class.getName() + ".newClassFileClass method was negative.");
+        }
+        if (className == null) {
+            throw new InvalidInputException("The className parameter to " + ClassFileFactoryLazy.class.getName() + ".newClassFileClass method was null.");
+        }
+        if (bytecode == null) {
+            throw new InvalidInputException("The bytecode parameter to " + ClassFileFactoryLazy.class.getName() + ".newClassFileClass method was null.");
+        }
+        
+        return new ClassFileLazy(definingClassLoader, className, bytecode, this.parsedAhead.get(bytecode), superClass, superInterfaces);
+    }
+    
+    @Override
+    protected void parseAhead(byte[] bytecode) {
+        if (this.parsedAhead.get(bytecode) != null) {
+            return; //already found in the saved layouts
+        }
+        try {
+            this.parsedAhead.put(bytecode, ClassFileLazy.Layout.of("", bytecode));
+        } catch (ClassFileIllFormedException e) {
+            //reported when the classfile is created
+        }
+    }
+    
+    @Override
+    protected void foundIn(String className, byte[] bytecode, String path) {
+        if (this.parsedAhead.get(bytecode) != null) {
+            return; //already parsed ahead
+        }
+        ClassFileLazy.Layout layout = this.saved.get(path, className, bytecode);
+        if (layout == null) {
+            try {
+                layout = ClassFileLazy.Layout.of(className, bytecode);
+            } catch (ClassFileIllFormedException e) {
+                return; //reported when the classfile is created
+            }
+            this.saved.put(path, className, bytecode, layout);
+        }
+        this.parsedAhead.put(bytecode, layout);
+    }
+    
+    @Override
+    protected void close() {
+        this.saved.save();
+    }
+    
+    @Override
+    protected ClassFile newClassFileAnonymous(byte[] bytecode, ConstantPoolValue[] cpPatches, ClassFile hostClass) 
+    throws InvalidInputException, ClassFileIllFormedException {
+        //they are rare, and patching the constant pool needs a full parse
+        return new ClassFileJavassist(bytecode, cpPatches, hostClass);
+    }
+}
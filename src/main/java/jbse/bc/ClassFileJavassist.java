@@ -22,6 +22,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -73,6 +74,48 @@ public class ClassFileJavassist extends ClassFile {
     private ArrayList<Signature> fieldsObject; //lazily initialized
     private ArrayList<Signature> methods; //lazily initialized
     private ArrayList<Signature> constructors; //lazily initialized
+    private final HashMap<String, HashMap<String, MethodEntry>> methodTable = new HashMap<>(); //name -> descriptor -> method
+    private final HashMap<String, HashMap<String, FieldEntry>> fieldTable = new HashMap<>(); //name -> descriptor -> field
+    private MethodEntry staticInitializer;
+    
+    /**
+     * The information on a method declared in the classfile, 
+     * precomputed so it can be accessed in constant time.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class MethodEntry {
+        final MethodInfo info;
+        final int modifiers;
+        final CodeAttribute code; //null if the method has no Code attribute
+        ExceptionTable exceptionTable; //lazily initialized
+        LineNumberTable lineNumberTable; //lazily initialized
+        LocalVariableTable localVariableTable; //lazily initialized
+        
+        MethodEntry(MethodInfo info) {
+            this.info = info;
+            this.modifiers = AccessFlag.toModifier(info.getAccessFlags());
+            this.code = info.getCodeAttribute();
+        }
+    }
+    
+    /**
+     * The information on a field declared in the classfile, 
+     * precomputed so it can be accessed in constant time.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class FieldEntry {
+        final FieldInfo info;
+        final int modifiers;
+        final int constantValueIndex; //0 if the field has no ConstantValue attribute
+        
+        FieldEntry(FieldInfo info) {
+            this.info = info;
+            this.modifiers = AccessFlag.toModifier(info.getAccessFlags());
+            this.constantValueIndex = info.getConstantValue();
+        }
+    }
 
     /**
      * Constructor for nonanonymous classes.
@@ -97,44 +140,81 @@ public class ClassFileJavassist extends ClassFile {
      */
     ClassFileJavassist(int definingClassLoader, String className, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces) 
     throws ClassFileIllFormedException, InvalidInputException {
-        try {
-            //checks
-            if (bytecode == null) {
-                throw new InvalidInputException("ClassFile constructor invoked with bytecode parameters whose value is null.");
-            }
-            
-            //reads the bytecode
-            this.cf = new javassist.bytecode.ClassFile(new DataInputStream(new ByteArrayInputStream(bytecode)));
-            
-            //checks
-            if (superClass != null && !superClass.getClassName().equals(getSuperclassName())) {
-                throw new InvalidInputException("ClassFile constructor invoked with superClass and bytecode parameters that do not agree: superClass is for class " + superClass.getClassName() + " but bytecode requires " + this.cf.getSuperclass() + ".");
+        this(definingClassLoader, className, bytecode, null, superClass, superInterfaces);
+    }
+    
+    /**
+     * Constructor for nonanonymous classes whose bytecode 
+     * might be already parsed.
+     * 
+     * @param definingClassLoader see {@link #ClassFileJavassist(int, String, byte[], ClassFile, ClassFile[])}.
+     * @param className see {@link #ClassFileJavassist(int, String, byte[], ClassFile, ClassFile[])}.
+     * @param bytecode see {@link #ClassFileJavassist(int, String, byte[], ClassFile, ClassFile[])}.
+     * @param parsed a {@link javassist.bytecode.ClassFile}, the result of 
+     *        {@link #parse(String, byte[]) parse}{@code (className, bytecode)},
+     *        or {@code null} if {@code bytecode} must be parsed. It is
+     *        never modified, so it may be shared with other {@link ClassFileJavassist}s.
+     * @param superClass see {@link #ClassFileJavassist(int, String, byte[], ClassFile, ClassFile[])}.
+     * @param superInterfaces see {@link #ClassFileJavassist(int, String, byte[], ClassFile, ClassFile[])}.
+     * @throws ClassFileIllFormedException see {@link #ClassFileJavassist(int, String, byte[], ClassFile, ClassFile[])}.
+     * @throws InvalidInputException see {@link #ClassFileJavassist(int, String, byte[], ClassFile, ClassFile[])}.
+     */
+    ClassFileJavassist(int definingClassLoader, String className, byte[] bytecode, javassist.bytecode.ClassFile parsed, ClassFile superClass, ClassFile[] superInterfaces) 
+    throws ClassFileIllFormedException, InvalidInputException {
+        //checks
+        if (bytecode == null) {
+            throw new InvalidInputException("ClassFile constructor invoked with bytecode parameters whose value is null.");
+        }
+
+        //reads the bytecode
+        this.cf = (parsed == null ? parse(className, bytecode) : parsed);
+
+        //checks
+        if (superClass != null && !superClass.getClassName().equals(getSuperclassName())) {
+            throw new InvalidInputException("ClassFile constructor invoked with superClass and bytecode parameters that do not agree: superClass is for class " + superClass.getClassName() + " but bytecode requires " + this.cf.getSuperclass() + ".");
+        }
+        if (superInterfaces != null) {
+            final String[] superInterfaceNames = Arrays.stream(superInterfaces).map(ClassFile::getClassName).toArray(String[]::new);
+            final String[] bytecodeSuperInterfaceNames = Arrays.stream(this.cf.getInterfaces()).map(Type::internalClassName).toArray(String[]::new);
+            Arrays.sort(superInterfaceNames);
+            Arrays.sort(bytecodeSuperInterfaceNames);
+            if (superInterfaceNames.length != bytecodeSuperInterfaceNames.length) {
+                throw new InvalidInputException("ClassFile constructor invoked with superInterfaces and bytecode parameters that do not agree: superInterfaces counts " + superInterfaceNames.length + " superinterfaces but bytecode requires " + bytecodeSuperInterfaceNames.length + " superinterfaces." );
             }
-            if (superInterfaces != null) {
-                final String[] superInterfaceNames = Arrays.stream(superInterfaces).map(ClassFile::getClassName).toArray(String[]::new);
-                final String[] bytecodeSuperInterfaceNames = Arrays.stream(this.cf.getInterfaces()).map(Type::internalClassName).toArray(String[]::new);
-                Arrays.sort(superInterfaceNames);
-                Arrays.sort(bytecodeSuperInterfaceNames);
-                if (superInterfaceNames.length != bytecodeSuperInterfaceNames.length) {
-                    throw new InvalidInputException("ClassFile constructor invoked with superInterfaces and bytecode parameters that do not agree: superInterfaces counts " + superInterfaceNames.length + " superinterfaces but bytecode requires " + bytecodeSuperInterfaceNames.length + " superinterfaces." );
-                }
-                for (int i = 0; i < superInterfaceNames.length; ++i) {
-                    if (!superInterfaceNames[i].equals(bytecodeSuperInterfaceNames[i])) {
-                        throw new InvalidInputException("ClassFile constructor invoked with superInterfaces and bytecode parameters that do not agree: superInterfaces has superinterface " + superInterfaceNames[i] + " that does not match with bytecode superinterface " + bytecodeSuperInterfaceNames[i] + "." );
-                    }
+            for (int i = 0; i < superInterfaceNames.length; ++i) {
+                if (!superInterfaceNames[i].equals(bytecodeSuperInterfaceNames[i])) {
+                    throw new InvalidInputException("ClassFile constructor invoked with superInterfaces and bytecode parameters that do not agree: superInterfaces has superinterface " + superInterfaceNames[i] + " that does not match with bytecode superinterface " + bytecodeSuperInterfaceNames[i] + "." );
                 }
             }
-            
-            //inits
-            this.isAnonymousUnregistered = false;
-            this.definingClassLoader = definingClassLoader;
-            this.cp = this.cf.getConstPool();
-            this.bytecode = (superInterfaces == null ? bytecode : null); //only dummy classfiles (without a superInterfaces array) cache their bytecode
-            this.superClass = superClass;
-            this.superInterfaces = superInterfaces;
-            this.cpPatches = null;
-            this.hostClass = null;
-            this.fieldsStatic = this.fieldsObject = this.constructors = null;
+        }
+
+        //inits
+        this.isAnonymousUnregistered = false;
+        this.definingClassLoader = definingClassLoader;
+        this.cp = this.cf.getConstPool();
+        this.bytecode = (superInterfaces == null ? bytecode : null); //only dummy classfiles (without a superInterfaces array) cache their bytecode
+        this.superClass = superClass;
+        this.superInterfaces = superInterfaces;
+        this.cpPatches = null;
+        this.hostClass = null;
+        this.fieldsStatic = this.fieldsObject = this.constructors = null;
+        fillMethodAndFieldTables();
+    }
+    
+    /**
+     * Parses the bytecode of a nonanonymous class.
+     * 
+     * @param className a {@code String}, the name of the class (used only for
+     *        error reporting).
+     * @param bytecode a {@code byte[]}, the bytecode of the class.
+     * @return a {@link javassist.bytecode.ClassFile}.
+     * @throws ClassFileIllFormedException if the {@code bytecode} 
+     *         is ill-formed.
+     */
+    static javassist.bytecode.ClassFile parse(String className, byte[] bytecode) 
+    throws ClassFileIllFormedException {
+        try {
+            return new javassist.bytecode.ClassFile(new DataInputStream(new ByteArrayInputStream(bytecode)));
         } catch (IOException e) {
             throw new ClassFileIllFormedException(className);
         }
@@ -187,11 +267,34 @@ public class ClassFileJavassist extends ClassFile {
             this.cpPatches = (cpPatches == null ? null : cpPatches.clone());
             this.hostClass = hostClass;
             this.fieldsStatic = this.fieldsObject = this.constructors = null;
+            fillMethodAndFieldTables();
         } catch (IOException e) {
             throw new ClassFileIllFormedException("anonymous");
         }
     }
     
+    /**
+     * Fills the method and field tables; it must be invoked
+     * after {@link #cf} is fully patched.
+     */
+    private void fillMethodAndFieldTables() {
+        @SuppressWarnings("unchecked")
+        final List<MethodInfo> ms = this.cf.getMethods();
+        for (MethodInfo m : ms) {
+            final MethodEntry entry = new MethodEntry(m);
+            //with duplicate declarations the first one wins, as javassist does
+            this.methodTable.computeIfAbsent(m.getName(), k -> new HashMap<>()).putIfAbsent(m.getDescriptor(), entry);
+            if (this.staticInitializer == null && "<clinit>".equals(m.getName())) {
+                this.staticInitializer = entry;
+            }
+        }
+        @SuppressWarnings("unchecked")
+        final List<FieldInfo> fieldsJA = this.cf.getFields();
+        for (FieldInfo fld : fieldsJA) {
+            this.fieldTable.computeIfAbsent(fld.getName(), k -> new HashMap<>()).putIfAbsent(fld.getDescriptor(), new FieldEntry(fld));
+        }
+    }
+    
     private void checkCpPatches(javassist.bytecode.ConstPool cp, ConstantPoolValue[] cpPatches) 
     throws InvalidInputException {
         if (cpPatches == null) {
@@ -562,89 +665,97 @@ public class ClassFileJavassist extends ClassFile {
      * @param methodSignature a {@link Signature}.
      * @return {@code null} if no method with {@code methodSignature} 
      *         signature is declared in this classfile, otherwise the 
-     *         {@link CtBehavior} for it; the class name in {@code methodSignature}
+     *         {@link MethodEntry} for it; the class name in {@code methodSignature}
      *         is ignored.
      */
-    private MethodInfo findMethodDeclaration(Signature methodSignature) {
+    private MethodEntry findMethod(Signature methodSignature) {
         if ("<clinit>".equals(methodSignature.getName())) {
-            return this.cf.getStaticInitializer();
+            return this.staticInitializer;
         }
-
-        @SuppressWarnings("unchecked")
-        final List<MethodInfo> ms = this.cf.getMethods();
-        for (MethodInfo m : ms) {
-            final String internalName = m.getName();
-            if (internalName.equals(methodSignature.getName()) &&
-                m.getDescriptor().equals(methodSignature.getDescriptor())) {
-                return m;
-            }
-        }
-        return null;
+        final HashMap<String, MethodEntry> byDescriptor = this.methodTable.get(methodSignature.getName());
+        return (byDescriptor == null ? null : byDescriptor.get(methodSignature.getDescriptor()));
     }
 
-    private CodeAttribute getMethodCodeAttribute(Signature methodSignature) 
-    throws MethodNotFoundException, MethodCodeNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
+    private MethodEntry findMethodOrThrow(Signature methodSignature) throws MethodNotFoundException {
+        final MethodEntry m = findMethod(methodSignature);
         if (m == null) { 
             throw new MethodNotFoundException(methodSignature.toString());
         }
-        final CodeAttribute ca = m.getCodeAttribute();
-        if (ca == null) {
+        return m;
+    }
+
+    private MethodEntry findMethodWithCode(Signature methodSignature) 
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        if (m.code == null) {
             throw new MethodCodeNotFoundException(methodSignature.toString()); 
         }
-        return ca;
+        return m;
     }
 
     @Override
     public ExceptionTable getExceptionTable(Signature methodSignature)
     throws MethodNotFoundException, MethodCodeNotFoundException, InvalidIndexException {
-        final javassist.bytecode.ExceptionTable et = getMethodCodeAttribute(methodSignature).getExceptionTable();
-
-        final ExceptionTable retVal = new ExceptionTable(et.size());
-        for (int i = 0; i < et.size(); ++i) {
-            final int exType = et.catchType(i);
-            final String catchType = (exType == 0 ? Signatures.JAVA_THROWABLE : getClassSignature(exType));
-            final ExceptionTableEntry exEntry = new ExceptionTableEntry(et.startPc(i), et.endPc(i), et.handlerPc(i), catchType);
-            retVal.addEntry(exEntry);
+        final MethodEntry m = findMethodWithCode(methodSignature);
+        if (m.exceptionTable == null) {
+            final javassist.bytecode.ExceptionTable et = m.code.getExceptionTable();
+            final ExceptionTable retVal = new ExceptionTable(et.size());
+            for (int i = 0; i < et.size(); ++i) {
+                final int exType = et.catchType(i);
+                final String catchType = (exType == 0 ? Signatures.JAVA_THROWABLE : getClassSignature(exType));
+                final ExceptionTableEntry exEntry = new ExceptionTableEntry(et.startPc(i), et.endPc(i), et.handlerPc(i), catchType);
+                retVal.addEntry(exEntry);
+            }
+            m.exceptionTable = retVal;
         }
-        return retVal;
+        return m.exceptionTable;
     }
 
     @Override
     public int getLocalVariableLength(Signature methodSignature)
     throws MethodNotFoundException, MethodCodeNotFoundException {
-        return getMethodCodeAttribute(methodSignature).getMaxLocals();
+        return findMethodWithCode(methodSignature).code.getMaxLocals();
+    }
+
+    @Override
+    public int getOperandStackLength(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        return findMethodWithCode(methodSignature).code.getMaxStack();
     }
 
     @Override
     public int getCodeLength(Signature methodSignature) throws MethodNotFoundException, MethodCodeNotFoundException {
-        return getMethodCodeAttribute(methodSignature).getCodeLength();
+        return findMethodWithCode(methodSignature).code.getCodeLength();
     }
 
     @Override
     public LocalVariableTable getLocalVariableTable(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException  {
-        final CodeAttribute ca = getMethodCodeAttribute(methodSignature);
-        final LocalVariableAttribute lvtJA = (LocalVariableAttribute) ca.getAttribute("LocalVariableTable");
-
-        if (lvtJA == null) {
-            return this.defaultLocalVariableTable(methodSignature);
-        }
+        final MethodEntry m = findMethodWithCode(methodSignature);
+        if (m.localVariableTable == null) {
+            final CodeAttribute ca = m.code;
+            final LocalVariableAttribute lvtJA = (LocalVariableAttribute) ca.getAttribute("LocalVariableTable");
 
-        //builds the local variable table from the LocalVariableTable attribute 
-        //information; this has always success
-        final LocalVariableTable lvt = new LocalVariableTable(ca.getMaxLocals());
-        for (int i = 0; i < lvtJA.tableLength(); ++i) {
-            lvt.setEntry(lvtJA.index(i), lvtJA.descriptor(i), 
-                         lvtJA.variableName(i), lvtJA.startPc(i),  lvtJA.codeLength(i));
+            if (lvtJA == null) {
+                m.localVariableTable = this.defaultLocalVariableTable(methodSignature);
+            } else {
+                //builds the local variable table from the LocalVariableTable attribute 
+                //information; this has always success
+                final LocalVariableTable lvt = new LocalVariableTable(ca.getMaxLocals());
+                for (int i = 0; i < lvtJA.tableLength(); ++i) {
+                    lvt.setEntry(lvtJA.index(i), lvtJA.descriptor(i), 
+                                 lvtJA.variableName(i), lvtJA.startPc(i),  lvtJA.codeLength(i));
+                }
+                m.localVariableTable = lvt;
+            }
         }
-        return lvt;
+        return m.localVariableTable;
     }
 
     @Override
     public byte[] getMethodCodeBySignature(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
-        return getMethodCodeAttribute(methodSignature).getCode();
+        return findMethodWithCode(methodSignature).code.getCode();
     }
 
     @Override
@@ -726,7 +837,7 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean hasMethodDeclaration(Signature methodSignature) {
-        return (findMethodDeclaration(methodSignature) != null);
+        return (findMethod(methodSignature) != null);
     }
     
     private MethodInfo findUniqueMethodDeclarationWithName(String methodName) {
@@ -776,8 +887,8 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean hasMethodImplementation(Signature methodSignature) {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        return (m != null && (m.getCodeAttribute() != null || Modifier.isNative(AccessFlag.toModifier(m.getAccessFlags()))));
+        final MethodEntry m = findMethod(methodSignature);
+        return (m != null && (m.code != null || Modifier.isNative(m.modifiers)));
     }
 
     @Override
@@ -792,29 +903,20 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean isMethodAbstract(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
-        return Modifier.isAbstract(AccessFlag.toModifier(m.getAccessFlags()));
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        return Modifier.isAbstract(m.modifiers);
     }
 
     @Override
     public boolean isMethodNative(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
-        return Modifier.isNative(AccessFlag.toModifier(m.getAccessFlags()));
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        return Modifier.isNative(m.modifiers);
     }
     
     @Override
     public boolean isMethodVarargs(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
-        return (AccessFlag.toModifier(m.getAccessFlags()) & Modifier.VARARGS) != 0;
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        return (m.modifiers & Modifier.VARARGS) != 0;
     }
     
     @Override
@@ -861,10 +963,7 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public String getMethodGenericSignatureType(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
+        final MethodInfo m = findMethodOrThrow(methodSignature).info;
         final SignatureAttribute sa
             = (SignatureAttribute) m.getAttribute(SignatureAttribute.tag);
         return sa == null ? null : sa.getSignature();
@@ -873,11 +972,8 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public int getMethodModifiers(Signature methodSignature) 
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
-        return AccessFlag.toModifier(m.getAccessFlags());
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        return m.modifiers;
     }
 
     private byte[] mergeVisibleAndInvisibleAttributes(AttributeInfo attrVisible, AttributeInfo attrInvisible) {
@@ -892,10 +988,7 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public byte[] getMethodAnnotationsRaw(Signature methodSignature) 
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
+        final MethodInfo m = findMethodOrThrow(methodSignature).info;
         final AttributeInfo attrVisible = m.getAttribute(AnnotationsAttribute.visibleTag);
         final AttributeInfo attrInvisible = m.getAttribute(AnnotationsAttribute.invisibleTag);
         return mergeVisibleAndInvisibleAttributes(attrVisible, attrInvisible);
@@ -904,10 +997,7 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public String[] getMethodAvailableAnnotations(Signature methodSignature)
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
+        final MethodInfo m = findMethodOrThrow(methodSignature).info;
         AnnotationsAttribute ainfo = 
             (AnnotationsAttribute) m.getAttribute(AnnotationsAttribute.invisibleTag);  
         AnnotationsAttribute ainfo2 = 
@@ -929,10 +1019,7 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public String getMethodAnnotationParameterValueString(Signature methodSignature, String annotation, String parameter) 
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
+        final MethodInfo m = findMethodOrThrow(methodSignature).info;
         AnnotationsAttribute ainfo = 
             (AnnotationsAttribute) m.getAttribute(AnnotationsAttribute.invisibleTag);  
         AnnotationsAttribute ainfo2 = 
@@ -959,10 +1046,7 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public String[] getMethodThrownExceptions(Signature methodSignature) 
     throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
+        final MethodInfo m = findMethodOrThrow(methodSignature).info;
 
         final ExceptionsAttribute exc = m.getExceptionsAttribute();
         if (exc == null) {
@@ -973,47 +1057,32 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean isMethodStatic(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
-        return Modifier.isStatic(AccessFlag.toModifier(m.getAccessFlags()));
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        return Modifier.isStatic(m.modifiers);
     }
 
     @Override
     public boolean isMethodPublic(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
-        return Modifier.isPublic(AccessFlag.toModifier(m.getAccessFlags()));
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        return Modifier.isPublic(m.modifiers);
     }
 
     @Override
     public boolean isMethodProtected(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
-        return Modifier.isProtected(AccessFlag.toModifier(m.getAccessFlags()));
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        return Modifier.isProtected(m.modifiers);
     }
 
     @Override
     public boolean isMethodPackage(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
-        return Modifier.isPackage(AccessFlag.toModifier(m.getAccessFlags()));
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        return Modifier.isPackage(m.modifiers);
     }
 
     @Override
     public boolean isMethodPrivate(Signature methodSignature) throws MethodNotFoundException {
-        final MethodInfo m = findMethodDeclaration(methodSignature);
-        if (m == null) {
-            throw new MethodNotFoundException(methodSignature.toString());
-        }
-        return Modifier.isPrivate(AccessFlag.toModifier(m.getAccessFlags()));
+        final MethodEntry m = findMethodOrThrow(methodSignature);
+        return Modifier.isPrivate(m.modifiers);
     }
 
     @Override
@@ -1024,26 +1093,30 @@ public class ClassFileJavassist extends ClassFile {
     @Override
     public LineNumberTable getLineNumberTable(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
-        final CodeAttribute ca = this.getMethodCodeAttribute(methodSignature);
-        final LineNumberAttribute lnJA = (LineNumberAttribute) ca.getAttribute("LineNumberTable");
+        final MethodEntry m = findMethodWithCode(methodSignature);
+        if (m.lineNumberTable == null) {
+            final LineNumberAttribute lnJA = (LineNumberAttribute) m.code.getAttribute("LineNumberTable");
 
-        if (lnJA == null) {
-            return defaultLineNumberTable();
-        }
-        final LineNumberTable LN = new LineNumberTable(lnJA.tableLength());
-        for (int i = 0; i < lnJA.tableLength(); ++i) {
-            LN.addRow(lnJA.startPc(i), lnJA.lineNumber(i));
+            if (lnJA == null) {
+                m.lineNumberTable = defaultLineNumberTable();
+            } else {
+                final LineNumberTable LN = new LineNumberTable(lnJA.tableLength());
+                for (int i = 0; i < lnJA.tableLength(); ++i) {
+                    LN.addRow(lnJA.startPc(i), lnJA.lineNumber(i));
+                }
+                m.lineNumberTable = LN;
+            }
         }
-        return LN;
+        return m.lineNumberTable;
     }
 
     @Override
     public int fieldConstantValueIndex(Signature fieldSignature) throws FieldNotFoundException, AttributeNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        final int cpVal = fld.getConstantValue();
+        final int cpVal = fld.constantValueIndex;
         if (cpVal == 0) {
             throw new AttributeNotFoundException();
         }
@@ -1052,110 +1125,103 @@ public class ClassFileJavassist extends ClassFile {
 
     @Override
     public boolean hasFieldConstantValue(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return (fld.getConstantValue() != 0);
+        return (fld.constantValueIndex != 0);
     }
 
     @Override
     public boolean isFieldFinal(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isFinal(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isFinal(fld.modifiers);
     }
 
     @Override
     public boolean isFieldPublic(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isPublic(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isPublic(fld.modifiers);
     }
 
     @Override
     public boolean isFieldProtected(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isProtected(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isProtected(fld.modifiers);
     }
 
     @Override
     public boolean isFieldPackage(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isPackage(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isPackage(fld.modifiers);
     }
 
     @Override
     public boolean isFieldPrivate(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isPrivate(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isPrivate(fld.modifiers);
     }
 
     @Override
     public boolean isFieldStatic(Signature fieldSignature) throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return Modifier.isStatic(AccessFlag.toModifier(fld.getAccessFlags()));
+        return Modifier.isStatic(fld.modifiers);
     }
 
     @Override
     public String getFieldGenericSignatureType(Signature fieldSignature) 
     throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        SignatureAttribute sa = (SignatureAttribute) fld.getAttribute(SignatureAttribute.tag);
+        SignatureAttribute sa = (SignatureAttribute) fld.info.getAttribute(SignatureAttribute.tag);
         return (sa == null ? null : sa.getSignature());
     }
 
     @Override
     public int getFieldModifiers(Signature fieldSignature) 
     throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        return AccessFlag.toModifier(fld.getAccessFlags());
+        return fld.modifiers;
     }
 
     @Override
     public byte[] getFieldAnnotationsRaw(Signature fieldSignature) 
     throws FieldNotFoundException {
-        final FieldInfo fld = findField(fieldSignature);
+        final FieldEntry fld = findField(fieldSignature);
         if (fld == null) {
             throw new FieldNotFoundException(fieldSignature.toString());
         }
-        final AttributeInfo attrVisible = fld.getAttribute(AnnotationsAttribute.visibleTag);
-        final AttributeInfo attrInvisible = fld.getAttribute(AnnotationsAttribute.invisibleTag);
+        final AttributeInfo attrVisible = fld.info.getAttribute(AnnotationsAttribute.visibleTag);
+        final AttributeInfo attrInvisible = fld.info.getAttribute(AnnotationsAttribute.invisibleTag);
         return mergeVisibleAndInvisibleAttributes(attrVisible, attrInvisible);
     }
 
-    private FieldInfo findField(Signature fieldSignature) {
-        @SuppressWarnings("unchecked")
-        final List<FieldInfo> fieldsJA = this.cf.getFields();
-        for (FieldInfo fld : fieldsJA) {
-            if (fld.getDescriptor().equals(fieldSignature.getDescriptor()) && 
-                fld.getName().equals(fieldSignature.getName())) {
-                return fld;
-            }
-        }
-        return null;
+    private FieldEntry findField(Signature fieldSignature) {
+        final HashMap<String, FieldEntry> byDescriptor = this.fieldTable.get(fieldSignature.getName());
+        return (byDescriptor == null ? null : byDescriptor.get(fieldSignature.getDescriptor()));
     }
     
     private void fillMethodsAndConstructors() {
@@ -1191,19 +1257,20 @@ public class ClassFileJavassist extends ClassFile {
             return null;
         }
 
+        //Javassist returns the class names in binary form
         final String name = getClassName();
         final int n = ica.tableLength();
         for (int i = 0; i < n; ++i)
-            if (name.equals(ica.innerClass(i))) {
+            if (name.equals(internalClassName(ica.innerClass(i)))) {
                 final String outName = ica.outerClass(i);
                 if (outName != null) {
-                    return outName;                    
+                    return internalClassName(outName);                    
                 } else {
                     // maybe anonymous or local class.
                     final EnclosingMethodAttribute ema =
                         (EnclosingMethodAttribute)cf.getAttribute(EnclosingMethodAttribute.tag);
                     if (ema != null) {
-                        return ema.className();
+                        return internalClassName(ema.className());
                     }
                 }
             }
@@ -1219,6 +1286,10 @@ public class ClassFileJavassist extends ClassFile {
         if (ema == null) {
             return null;
         }
+        if (ema.methodIndex() == 0) {
+            //not immediately enclosed by a method or constructor
+            return new Signature(internalClassName(ema.className()), null, null);
+        }
         return new Signature(internalClassName(ema.className()), ema.methodDescriptor(), ema.methodName());
     }
 }
\ No newline at end of file
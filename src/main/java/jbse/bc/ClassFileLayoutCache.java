@@ -0,0 +1,231 @@
+package jbse.bc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache of the layouts of the class files (see
+ * {@link ClassFileLazy.Layout}) in the paths of a classpath.
+ * The layouts of the class files found in each path are
+ * saved to a cache directory, and reused by later runs
+ * until the path is modified, as detected by the same
+ * fingerprint used by {@link SubclassIndex}. The layouts
+ * of a path are read the first time a class in the path
+ * is looked up, and saved when the cache is saved if some
+ * layout was added meanwhile. It is thread-safe, because
+ * the layouts are also looked up and added by the threads
+ * that prefetch classes.
+ *
+ * @author Pietro Braione
+ */
+final class ClassFileLayoutCache {
+    /** The default directory where the layouts of the paths are saved. */
+    private static final Path CACHE_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "jbse-classfile-layouts");
+
+    /** The version of the format of the saved layouts. */
+    private static final int CACHE_VERSION = 1;
+
+    /**
+     * The layout of a class file, with the length of
+     * the bytecode it was calculated from.
+     *
+     * @author Pietro Braione
+     */
+    private static final class Entry {
+        final int length;
+        final ClassFileLazy.Layout layout;
+
+        Entry(int length, ClassFileLazy.Layout layout) {
+            this.length = length;
+            this.layout = layout;
+        }
+    }
+
+    /**
+     * The layouts of the class files in a path.
+     *
+     * @author Pietro Braione
+     */
+    private static final class PathLayouts {
+        final Path cacheFile; //null if the path cannot be cached
+        final String pathString;
+        final String fingerprint;
+        final HashMap<String, Entry> entries;
+        boolean modified = false;
+
+        PathLayouts(Path cacheFile, String pathString, String fingerprint, HashMap<String, Entry> entries) {
+            this.cacheFile = cacheFile;
+            this.pathString = pathString;
+            this.fingerprint = fingerprint;
+            this.entries = entries;
+        }
+    }
+
+    private final Path cacheDirectory;
+    private final HashMap<String, PathLayouts> paths = new HashMap<>();
+
+    /**
+     * Constructor, for a cache saved to the default directory.
+     */
+    ClassFileLayoutCache() {
+        this(CACHE_DIRECTORY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cacheDirectory a {@link Path}, the directory
+     *        where the layouts are saved.
+     */
+    ClassFileLayoutCache(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Gets the layout of a class file.
+     *
+     * @param path a {@link String}, the path of the classpath
+     *        where the class file was found.
+     * @param className a {@link String}, the name of the class.
+     * @param bytecode a {@code byte[]}, the bytecode of the class.
+     * @return the cached {@link ClassFileLazy.Layout} of {@code bytecode},
+     *         or {@code null} if it is not cached.
+     */
+    synchronized ClassFileLazy.Layout get(String path, String className, byte[] bytecode) {
+        final Entry entry = layoutsOf(path).entries.get(className);
+        return (entry == null || entry.length != bytecode.length ? null : entry.layout);
+    }
+
+    /**
+     * Adds the layout of a class file.
+     *
+     * @param path a {@link String}, the path of the classpath
+     *        where the class file was found.
+     * @param className a {@link String}, the name of the class.
+     * @param bytecode a {@code byte[]}, the bytecode of the class.
+     * @param layout the {@link ClassFileLazy.Layout} of {@code bytecode}.
+     */
+    synchronized void put(String path, String className, byte[] bytecode, ClassFileLazy.Layout layout) {
+        final PathLayouts layouts = layoutsOf(path);
+        if (layouts.cacheFile != null) {
+            layouts.entries.put(className, new Entry(bytecode.length, layout));
+            layouts.modified = true;
+        }
+    }
+
+    /**
+     * Saves the layouts of the paths where some layout
+     * was added since they were read.
+     */
+    synchronized void save() {
+        for (PathLayouts layouts : this.paths.values()) {
+            if (layouts.modified) {
+                writeCache(layouts.cacheFile, layouts.pathString, layouts.fingerprint, layouts.entries);
+                layouts.modified = false;
+            }
+        }
+    }
+
+    private PathLayouts layoutsOf(String path) {
+        PathLayouts retVal = this.paths.get(path);
+        if (retVal == null) {
+            retVal = readLayouts(path);
+            this.paths.put(path, retVal);
+        }
+        return retVal;
+    }
+
+    private PathLayouts readLayouts(String path) {
+        try {
+            final Path p = Paths.get(path);
+            final String fingerprint = SubclassIndex.fingerprint(p);
+            if (fingerprint != null) {
+                final String pathString = p.toAbsolutePath().normalize().toString();
+                final Path cacheFile = this.cacheDirectory.resolve(Integer.toHexString(pathString.hashCode()) + ".lay");
+                final HashMap<String, Entry> cached = readCache(cacheFile, pathString, fingerprint);
+                return new PathLayouts(cacheFile, pathString, fingerprint, (cached == null ? new HashMap<>() : cached));
+            }
+        } catch (IOException | InvalidPathException e) {
+            //falls through
+        }
+        return new PathLayouts(null, path, null, new HashMap<>()); //nothing to cache there
+    }
+
+    private static HashMap<String, Entry> readCache(Path cacheFile, String pathString, String fingerprint) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_VERSION || !in.readUTF().equals(pathString) || !in.readUTF().equals(fingerprint)) {
+                return null; //stale
+            }
+            final int count = in.readInt();
+            final HashMap<String, Entry> retVal = new HashMap<>();
+            for (int i = 0; i < count; ++i) {
+                final String className = in.readUTF();
+                final int length = in.readInt();
+                final int[] cpOffsets = readInts(in);
+                final int interfacesOffset = in.readInt();
+                final int[] fieldsOffsets = readInts(in);
+                final int[] methodsOffsets = readInts(in);
+                final int attributesOffset = in.readInt();
+                retVal.put(className, new Entry(length, new ClassFileLazy.Layout(cpOffsets, interfacesOffset, fieldsOffsets, methodsOffsets, attributesOffset)));
+            }
+            return retVal;
+        } catch (IOException | NegativeArraySizeException e) {
+            return null; //corrupted, ignores it
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        final int[] retVal = new int[in.readInt()];
+        for (int i = 0; i < retVal.length; ++i) {
+            retVal[i] = in.readInt();
+        }
+        return retVal;
+    }
+
+    private static void writeCache(Path cacheFile, String pathString, String fingerprint, Map<String, Entry> entries) {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            final Path tmpFile = Files.createTempFile(cacheFile.getParent(), null, ".tmp");
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeInt(CACHE_VERSION);
+                out.writeUTF(pathString);
+                out.writeUTF(fingerprint);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    final ClassFileLazy.Layout layout = entry.getValue().layout;
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    writeInts(out, layout.cpOffsets);
+                    out.writeInt(layout.interfacesOffset);
+                    writeInts(out, layout.fieldsOffsets);
+                    writeInts(out, layout.methodsOffsets);
+                    out.writeInt(layout.attributesOffset);
+                }
+            }
+            //so concurrent runs never read a partially written cache file
+            Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            //the cache is an optimization, so failing to save it is harmless
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints) throws IOException {
+        out.writeInt(ints.length);
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+}
@@ -0,0 +1,1257 @@
+package jbse.bc;
+
+import static jbse.bc.Signatures.JAVA_METHODHANDLE;
+import static jbse.bc.Signatures.JAVA_THROWABLE;
+import static jbse.bc.Signatures.SIGNATURE_POLYMORPHIC_DESCRIPTOR;
+import static jbse.bc.Signatures.SUN_CALLERSENSITIVE;
+import static jbse.common.Type.className;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jbse.bc.exc.AttributeNotFoundException;
+import jbse.bc.exc.ClassFileIllFormedException;
+import jbse.bc.exc.FieldNotFoundException;
+import jbse.bc.exc.InvalidIndexException;
+import jbse.bc.exc.MethodCodeNotFoundException;
+import jbse.bc.exc.MethodNotFoundException;
+import jbse.common.exc.InvalidInputException;
+import jbse.common.exc.UnexpectedInternalException;
+
+/**
+ * A {@link ClassFile} produced by a {@link ClassFileFactoryLazy}.
+ * It reads the class file format (JVMS v8, chapter 4) directly from
+ * the bytecode, without copying it. On creation it only calculates
+ * where the constant pool entries, the fields, the methods and the
+ * attributes start; these are decoded only when first needed, and
+ * the decoded values are cached.
+ *
+ * @author Pietro Braione
+ */
+public class ClassFileLazy extends ClassFile {
+    //constant pool tags (JVMS v8, section 4.4)
+    private static final int CONSTANT_Utf8 = 1;
+    private static final int CONSTANT_Integer = 3;
+    private static final int CONSTANT_Float = 4;
+    private static final int CONSTANT_Long = 5;
+    private static final int CONSTANT_Double = 6;
+    private static final int CONSTANT_Class = 7;
+    private static final int CONSTANT_String = 8;
+    private static final int CONSTANT_Fieldref = 9;
+    private static final int CONSTANT_Methodref = 10;
+    private static final int CONSTANT_InterfaceMethodref = 11;
+    private static final int CONSTANT_NameAndType = 12;
+    private static final int CONSTANT_MethodHandle = 15;
+    private static final int CONSTANT_MethodType = 16;
+    private static final int CONSTANT_InvokeDynamic = 18;
+
+    //access flags that are not in java.lang.reflect.Modifier
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_VARARGS = 0x0080;
+    private static final int ACC_ENUM = 0x4000;
+
+    private final int definingClassLoader;
+    private final byte[] bytecode; //not copied, must not be modified
+    private final ClassFile superClass;
+    private final ClassFile[] superInterfaces;
+    private final int[] cpOffsets; //the offsets of the tags of the constant pool entries (0 for the unusable entries)
+    private final String[] cpUtf8; //caches the decoded Utf8 constant pool entries
+    private final int accessFlags;
+    private final String className;
+    private final int superClassIndex;
+    private final int interfacesOffset; //the offset of interfaces_count
+    private final int[] fieldsOffsets;
+    private final int[] methodsOffsets;
+    private final int attributesOffset; //the offset of the class attributes_count
+    private HashMap<String, HashMap<String, Member>> fieldTable; //lazily initialized, name -> descriptor -> field
+    private HashMap<String, HashMap<String, Member>> methodTable; //lazily initialized, name -> descriptor -> method
+    private ArrayList<Signature> fieldsStatic; //lazily initialized
+    private ArrayList<Signature> fieldsObject; //lazily initialized
+    private ArrayList<Signature> methods; //lazily initialized
+    private ArrayList<Signature> constructors; //lazily initialized
+
+    /**
+     * A field or a method declared in the classfile.
+     *
+     * @author Pietro Braione
+     */
+    private final class Member {
+        final int accessFlags;
+        final String name;
+        final String descriptor;
+        final int attributesOffset; //the offset of attributes_count
+        final int codeOffset; //the offset of the Code attribute info, -1 if there is none
+        byte[] code; //lazily initialized
+        ExceptionTable exceptionTable; //lazily initialized
+        LineNumberTable lineNumberTable; //lazily initialized
+        LocalVariableTable localVariableTable; //lazily initialized
+
+        Member(int offset, boolean isMethod) {
+            this.accessFlags = u2(offset);
+            this.name = utf8(u2(offset + 2));
+            this.descriptor = utf8(u2(offset + 4));
+            this.attributesOffset = offset + 6;
+            this.codeOffset = (isMethod ? findAttribute(this.attributesOffset, "Code") : -1);
+        }
+
+        int codeLength() {
+            return u4(this.codeOffset + 4);
+        }
+
+        int exceptionTableOffset() {
+            return this.codeOffset + 8 + codeLength();
+        }
+
+        int codeAttributesOffset() {
+            return exceptionTableOffset() + 2 + 8 * u2(exceptionTableOffset());
+        }
+    }
+
+    /**
+     * Where the parts of a class file start in its bytecode.
+     * It is immutable, so it can be calculated ahead (see 
+     * {@link ClassFileFactoryLazy#parseAhead(byte[])}) and 
+     * shared by all the {@link ClassFileLazy}s for a same
+     * bytecode.
+     *
+     * @author Pietro Braione
+     */
+    static final class Layout {
+        final int[] cpOffsets; //the offsets of the tags of the constant pool entries (0 for the unusable entries)
+        final int interfacesOffset; //the offset of interfaces_count
+        final int[] fieldsOffsets;
+        final int[] methodsOffsets;
+        final int attributesOffset; //the offset of the class attributes_count
+
+        Layout(int[] cpOffsets, int interfacesOffset, int[] fieldsOffsets, int[] methodsOffsets, int attributesOffset) {
+            this.cpOffsets = cpOffsets;
+            this.interfacesOffset = interfacesOffset;
+            this.fieldsOffsets = fieldsOffsets;
+            this.methodsOffsets = methodsOffsets;
+            this.attributesOffset = attributesOffset;
+        }
+
+        /**
+         * Calculates the layout of a bytecode.
+         *
+         * @param className a {@code String}, the name of the class (used only for
+         *        error reporting).
+         * @param bytecode a {@code byte[]}, the bytecode of the class.
+         * @return the {@link Layout} of {@code bytecode}.
+         * @throws ClassFileIllFormedException if the {@code bytecode}
+         *         is ill-formed.
+         */
+        static Layout of(String className, byte[] bytecode) throws ClassFileIllFormedException {
+            try {
+                if (u4(bytecode, 0) != 0xCAFEBABE) {
+                    throw new ClassFileIllFormedException(className);
+                }
+                final int cpCount = u2(bytecode, 8);
+                final int[] cpOffsets = new int[cpCount];
+                int offset = 10;
+                for (int i = 1; i < cpCount; ++i) {
+                    cpOffsets[i] = offset;
+                    switch (u1(bytecode, offset)) {
+                    case CONSTANT_Utf8:
+                        offset += 3 + u2(bytecode, offset + 1);
+                        break;
+                    case CONSTANT_Class:
+                    case CONSTANT_String:
+                    case CONSTANT_MethodType:
+                        offset += 3;
+                        break;
+                    case CONSTANT_MethodHandle:
+                        offset += 4;
+                        break;
+                    case CONSTANT_Integer:
+                    case CONSTANT_Float:
+                    case CONSTANT_Fieldref:
+                    case CONSTANT_Methodref:
+                    case CONSTANT_InterfaceMethodref:
+                    case CONSTANT_NameAndType:
+                    case CONSTANT_InvokeDynamic:
+                        offset += 5;
+                        break;
+                    case CONSTANT_Long:
+                    case CONSTANT_Double:
+                        offset += 9;
+                        ++i; //takes two entries
+                        break;
+                    default:
+                        throw new ClassFileIllFormedException(className);
+                    }
+                }
+                final int interfacesOffset = offset + 6;
+                offset = interfacesOffset + 2 + 2 * u2(bytecode, interfacesOffset);
+                final int[] fieldsOffsets = new int[u2(bytecode, offset)];
+                offset += 2;
+                for (int i = 0; i < fieldsOffsets.length; ++i) {
+                    fieldsOffsets[i] = offset;
+                    offset = skipAttributes(bytecode, offset + 6);
+                }
+                final int[] methodsOffsets = new int[u2(bytecode, offset)];
+                offset += 2;
+                for (int i = 0; i < methodsOffsets.length; ++i) {
+                    methodsOffsets[i] = offset;
+                    offset = skipAttributes(bytecode, offset + 6);
+                }
+                final int attributesOffset = offset;
+                if (skipAttributes(bytecode, attributesOffset) > bytecode.length) {
+                    throw new ClassFileIllFormedException(className);
+                }
+                return new Layout(cpOffsets, interfacesOffset, fieldsOffsets, methodsOffsets, attributesOffset);
+            } catch (ArrayIndexOutOfBoundsException e) {
+                throw new ClassFileIllFormedException(className);
+            }
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param definingClassLoader a {@code int}, the defining classloader of
+     *        the class.
+     * @param className a {@code String}, the name of the class (used only for
+     *        error reporting).
+     * @param bytecode a {@code byte[]}, the bytecode of the class. It is not
+     *        copied, and it must not be modified afterwards.
+     * @param superClass a {@link ClassFile}, the superclass. It must be {@code null} for
+     *        <em>dummy</em>, i.e., incomplete, classfiles that are created to access
+     *        the bytecode conveniently.
+     * @param superInterfaces a {@link ClassFile}{@code []}, the superinterfaces
+     *        (empty array when no superinterfaces).
+     *        It must be {@code null} for <em>dummy</em>, i.e., incomplete, classfiles
+     *        that are created to access the bytecode conveniently.
+     * @throws ClassFileIllFormedException if the {@code bytecode}
+     *         is ill-formed.
+     * @throws InvalidInputException if {@code className}, {@code superClass} or
+     *         {@code superInterfaces} do not agree with {@code bytecode},
+     *         or {@code bytecode == null}.
+     */
+    ClassFileLazy(int definingClassLoader, String className, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces)
+    throws ClassFileIllFormedException, InvalidInputException {
+        this(definingClassLoader, className, bytecode, null, superClass, superInterfaces);
+    }
+
+    /**
+     * Constructor for a bytecode whose layout might 
+     * be already calculated.
+     *
+     * @param definingClassLoader see {@link #ClassFileLazy(int, String, byte[], ClassFile, ClassFile[])}.
+     * @param className see {@link #ClassFileLazy(int, String, byte[], ClassFile, ClassFile[])}.
+     * @param bytecode see {@link #ClassFileLazy(int, String, byte[], ClassFile, ClassFile[])}.
+     * @param layout the {@link Layout} of {@code bytecode}, or 
+     *        {@code null} if it must be calculated.
+     * @param superClass see {@link #ClassFileLazy(int, String, byte[], ClassFile, ClassFile[])}.
+     * @param superInterfaces see {@link #ClassFileLazy(int, String, byte[], ClassFile, ClassFile[])}.
+     * @throws ClassFileIllFormedException see {@link #ClassFileLazy(int, String, byte[], ClassFile, ClassFile[])}.
+     * @throws InvalidInputException see {@link #ClassFileLazy(int, String, byte[], ClassFile, ClassFile[])}.
+     */
+    ClassFileLazy(int definingClassLoader, String className, byte[] bytecode, Layout layout, ClassFile superClass, ClassFile[] superInterfaces)
+    throws ClassFileIllFormedException, InvalidInputException {
+        //checks
+        if (bytecode == null) {
+            throw new InvalidInputException("ClassFile constructor invoked with bytecode parameters whose value is null.");
+        }
+
+        //gets the offsets
+        final Layout l = (layout == null ? Layout.of(className, bytecode) : layout);
+        this.bytecode = bytecode;
+        this.cpOffsets = l.cpOffsets;
+        this.cpUtf8 = new String[l.cpOffsets.length];
+        this.interfacesOffset = l.interfacesOffset;
+        this.fieldsOffsets = l.fieldsOffsets;
+        this.methodsOffsets = l.methodsOffsets;
+        this.attributesOffset = l.attributesOffset;
+        try {
+            this.accessFlags = u2(this.interfacesOffset - 6);
+            this.className = classNameAt(u2(this.interfacesOffset - 4));
+            this.superClassIndex = u2(this.interfacesOffset - 2);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new ClassFileIllFormedException(className);
+        }
+
+        //checks
+        if (superClass != null && !superClass.getClassName().equals(getSuperclassName())) {
+            throw new InvalidInputException("ClassFile constructor invoked with superClass and bytecode parameters that do not agree: superClass is for class " + superClass.getClassName() + " but bytecode requires " + getSuperclassName() + ".");
+        }
+        if (superInterfaces != null) {
+            final String[] superInterfaceNames = Arrays.stream(superInterfaces).map(ClassFile::getClassName).toArray(String[]::new);
+            final String[] bytecodeSuperInterfaceNames = getSuperInterfaceNames().toArray(new String[0]);
+            Arrays.sort(superInterfaceNames);
+            Arrays.sort(bytecodeSuperInterfaceNames);
+            if (!Arrays.equals(superInterfaceNames, bytecodeSuperInterfaceNames)) {
+                throw new InvalidInputException("ClassFile constructor invoked with superInterfaces and bytecode parameters that do not agree: superInterfaces is " + Arrays.toString(superInterfaceNames) + " but bytecode requires " + Arrays.toString(bytecodeSuperInterfaceNames) + ".");
+            }
+        }
+
+        //inits
+        this.definingClassLoader = definingClassLoader;
+        this.superClass = superClass;
+        this.superInterfaces = superInterfaces;
+    }
+
+    private static int u1(byte[] bytecode, int offset) {
+        return bytecode[offset] & 0xFF;
+    }
+
+    private static int u2(byte[] bytecode, int offset) {
+        return ((bytecode[offset] & 0xFF) << 8) | (bytecode[offset + 1] & 0xFF);
+    }
+
+    private static int u4(byte[] bytecode, int offset) {
+        return (u2(bytecode, offset) << 16) | u2(bytecode, offset + 2);
+    }
+
+    private static int skipAttributes(byte[] bytecode, int offset) {
+        final int count = u2(bytecode, offset);
+        int retVal = offset + 2;
+        for (int i = 0; i < count; ++i) {
+            retVal += 6 + u4(bytecode, retVal + 2);
+        }
+        return retVal;
+    }
+
+    private int u1(int offset) {
+        return u1(this.bytecode, offset);
+    }
+
+    private int u2(int offset) {
+        return u2(this.bytecode, offset);
+    }
+
+    private int u4(int offset) {
+        return u4(this.bytecode, offset);
+    }
+
+    private long u8(int offset) {
+        return (((long) u4(offset)) << 32) | (u4(offset + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Skips a sequence of attributes.
+     *
+     * @param offset an {@code int}, the offset of an
+     *        {@code attributes_count} item.
+     * @return the offset of the first byte after the attributes.
+     */
+    private int skipAttributes(int offset) {
+        return skipAttributes(this.bytecode, offset);
+    }
+
+    /**
+     * Finds an attribute in a sequence of attributes.
+     *
+     * @param offset an {@code int}, the offset of an
+     *        {@code attributes_count} item.
+     * @param name a {@link String}, the name of the attribute.
+     * @return the offset of the {@code info} of the first
+     *         attribute with name {@code name}, or {@code -1}
+     *         if there is no such attribute. The length of the
+     *         {@code info} is the {@code u4} before it.
+     */
+    private int findAttribute(int offset, String name) {
+        final int count = u2(offset);
+        int attributeOffset = offset + 2;
+        for (int i = 0; i < count; ++i) {
+            if (name.equals(utf8(u2(attributeOffset)))) {
+                return attributeOffset + 6;
+            }
+            attributeOffset += 6 + u4(attributeOffset + 2);
+        }
+        return -1;
+    }
+
+    private byte[] attributeInfo(int infoOffset) {
+        return (infoOffset == -1 ? new byte[0] : Arrays.copyOfRange(this.bytecode, infoOffset, infoOffset + u4(infoOffset - 4)));
+    }
+
+    private int tag(int index) {
+        return u1(this.cpOffsets[index]);
+    }
+
+    private String utf8(int index) {
+        if (this.cpUtf8[index] == null) {
+            final int offset = this.cpOffsets[index];
+            try {
+                //the Utf8 entry format is the one of DataInput.readUTF
+                this.cpUtf8[index] = new DataInputStream(new ByteArrayInputStream(this.bytecode, offset + 1, 2 + u2(offset + 1))).readUTF();
+            } catch (IOException e) {
+                throw new UnexpectedInternalException("Ill-formed Utf8 constant pool entry " + index + " in class " + this.className + ".", e);
+            }
+        }
+        return this.cpUtf8[index];
+    }
+
+    private String classNameAt(int classIndex) {
+        return utf8(u2(this.cpOffsets[classIndex] + 1));
+    }
+
+    private void checkIndex(int index, int tag) throws InvalidIndexException {
+        if (index < 1 || index >= this.cpOffsets.length) {
+            throw new InvalidIndexException(indexOutOfRangeMessage(index));
+        }
+        if (this.cpOffsets[index] == 0 || tag(index) != tag) {
+            throw new InvalidIndexException(entryInvalidMessage(index));
+        }
+    }
+
+    private Signature memberRef(int index) {
+        final int offset = this.cpOffsets[index];
+        final int nameAndTypeOffset = this.cpOffsets[u2(offset + 3)];
+        return new Signature(classNameAt(u2(offset + 1)), utf8(u2(nameAndTypeOffset + 3)), utf8(u2(nameAndTypeOffset + 1)));
+    }
+
+    @Override
+    byte[] getBinaryFileContent() {
+        return this.bytecode;
+    }
+
+    @Override
+    public String getSourceFile() {
+        final int sourceFileOffset = findAttribute(this.attributesOffset, "SourceFile");
+        return (sourceFileOffset == -1 ? null : utf8(u2(sourceFileOffset)));
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return u2(6);
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return u2(4);
+    }
+
+    @Override
+    public int getDefiningClassLoader() {
+        return this.definingClassLoader;
+    }
+
+    @Override
+    public String getClassName() {
+        return this.className;
+    }
+
+    @Override
+    public String getClassSignature(int classIndex) throws InvalidIndexException {
+        checkIndex(classIndex, CONSTANT_Class);
+        return classNameAt(classIndex);
+    }
+
+    /**
+     * Returns the access flags of this class in the
+     * InnerClasses attribute.
+     *
+     * @return an {@code int}, or {@code -1} if this
+     *         class is not an inner class.
+     */
+    private int getInnerAccessFlags() {
+        final int innerClassesOffset = findAttribute(this.attributesOffset, "InnerClasses");
+        if (innerClassesOffset == -1) {
+            return -1;
+        }
+        final int count = u2(innerClassesOffset);
+        for (int i = 0; i < count; ++i) {
+            final int entryOffset = innerClassesOffset + 2 + 8 * i;
+            if (this.className.equals(classNameAt(u2(entryOffset)))) {
+                return u2(entryOffset + 6);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the names of the classes referred by
+     * the constant pool.
+     *
+     * @return a {@link List}{@code <}{@link String}{@code >}, the
+     *         names in all the {@code CONSTANT_Class} entries (that
+     *         may be names of array classes).
+     */
+    List<String> getReferredClassNames() {
+        final ArrayList<String> retVal = new ArrayList<>();
+        for (int index = 1; index < this.cpOffsets.length; ++index) {
+            if (this.cpOffsets[index] != 0 && tag(index) == CONSTANT_Class) {
+                retVal.add(classNameAt(index));
+            }
+        }
+        return retVal;
+    }
+
+    @Override
+    public int getModifiers() {
+        int acc = this.accessFlags & ~ACC_SUPER;
+        final int inner = getInnerAccessFlags();
+        if (inner != -1) {
+            if ((inner & Modifier.STATIC) != 0) {
+                acc |= Modifier.STATIC;
+            }
+            final int visibility = (Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE);
+            acc = (acc & ~visibility) | (inner & visibility);
+        }
+        return acc;
+    }
+
+    @Override
+    public int getAccessFlags() {
+        return this.accessFlags;
+    }
+
+    @Override
+    public boolean isDummy() {
+        return this.superInterfaces == null;
+    }
+
+    @Override
+    public boolean isPublic() {
+        return Modifier.isPublic(getModifiers());
+    }
+
+    @Override
+    public boolean isProtected() {
+        return Modifier.isProtected(getModifiers());
+    }
+
+    @Override
+    public boolean isPackage() {
+        return isPackage(getModifiers());
+    }
+
+    private static boolean isPackage(int modifiers) {
+        return (modifiers & (Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE)) == 0;
+    }
+
+    @Override
+    public boolean isPrivate() {
+        return Modifier.isPrivate(getModifiers());
+    }
+
+    @Override
+    public boolean isStatic() {
+        return Modifier.isStatic(getModifiers());
+    }
+
+    @Override
+    public boolean isArray() {
+        return false;
+    }
+
+    @Override
+    public boolean isEnum() {
+        return (getModifiers() & ACC_ENUM) != 0;
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return false;
+    }
+
+    @Override
+    public boolean isSuperInvoke() {
+        return ((this.accessFlags & ACC_SUPER) != 0);
+    }
+
+    @Override
+    public boolean isLocal() {
+        final int lastDollarSignIndex = this.className.lastIndexOf('$');
+        if (lastDollarSignIndex == -1) {
+            return false; //not a nested class
+        }
+        return isAsciiDigit(this.className.charAt(lastDollarSignIndex + 1));
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return '0' <= c && c <= '9';
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        final int lastDollarSignIndex = this.className.lastIndexOf('$');
+        if (lastDollarSignIndex == -1) {
+            return false; //not a nested class
+        }
+        for (int i = lastDollarSignIndex + 1; i < this.className.length(); ++i) {
+            if (!isAsciiDigit(this.className.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ClassFile getMemberClass() {
+        return null;
+    }
+
+    @Override
+    public boolean isAnonymousUnregistered() {
+        return false;
+    }
+
+    @Override
+    public ClassFile getHostClass() {
+        return null;
+    }
+
+    @Override
+    public String classContainer() {
+        final int innerClassesOffset = findAttribute(this.attributesOffset, "InnerClasses");
+        if (innerClassesOffset == -1) {
+            return null;
+        }
+        final int count = u2(innerClassesOffset);
+        for (int i = 0; i < count; ++i) {
+            final int entryOffset = innerClassesOffset + 2 + 8 * i;
+            if (this.className.equals(classNameAt(u2(entryOffset)))) {
+                final int outerClassIndex = u2(entryOffset + 2);
+                if (outerClassIndex != 0) {
+                    return classNameAt(outerClassIndex);
+                } else {
+                    //maybe anonymous or local class
+                    final int enclosingMethodOffset = findAttribute(this.attributesOffset, "EnclosingMethod");
+                    if (enclosingMethodOffset != -1) {
+                        return classNameAt(u2(enclosingMethodOffset));
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Signature getEnclosingMethodOrConstructor() {
+        final int enclosingMethodOffset = findAttribute(this.attributesOffset, "EnclosingMethod");
+        if (enclosingMethodOffset == -1) {
+            return null;
+        }
+        final String enclosingClassName = classNameAt(u2(enclosingMethodOffset));
+        final int methodIndex = u2(enclosingMethodOffset + 2);
+        if (methodIndex == 0) {
+            //not immediately enclosed by a method or constructor
+            return new Signature(enclosingClassName, null, null);
+        }
+        final int nameAndTypeOffset = this.cpOffsets[methodIndex];
+        return new Signature(enclosingClassName, utf8(u2(nameAndTypeOffset + 3)), utf8(u2(nameAndTypeOffset + 1)));
+    }
+
+    @Override
+    public int constantPoolSize() {
+        return this.cpOffsets.length;
+    }
+
+    @Override
+    public Signature getFieldSignature(int fieldIndex) throws InvalidIndexException {
+        checkIndex(fieldIndex, CONSTANT_Fieldref);
+        return memberRef(fieldIndex);
+    }
+
+    @Override
+    public Signature getMethodSignature(int methodIndex) throws InvalidIndexException {
+        checkIndex(methodIndex, CONSTANT_Methodref);
+        return memberRef(methodIndex);
+    }
+
+    @Override
+    public Signature getInterfaceMethodSignature(int methodIndex) throws InvalidIndexException {
+        checkIndex(methodIndex, CONSTANT_InterfaceMethodref);
+        return memberRef(methodIndex);
+    }
+
+    @Override
+    public ConstantPoolValue getValueFromConstantPool(int index) throws InvalidIndexException {
+        if (index < 1 || index >= this.cpOffsets.length) {
+            throw new InvalidIndexException(indexOutOfRangeMessage(index));
+        }
+        final int offset = this.cpOffsets[index];
+        if (offset == 0) {
+            throw new InvalidIndexException(entryInvalidMessage(index));
+        }
+        switch (tag(index)) {
+        case CONSTANT_Integer:
+            return new ConstantPoolPrimitive(u4(offset + 1));
+        case CONSTANT_Float:
+            return new ConstantPoolPrimitive(Float.intBitsToFloat(u4(offset + 1)));
+        case CONSTANT_Long:
+            return new ConstantPoolPrimitive(u8(offset + 1));
+        case CONSTANT_Double:
+            return new ConstantPoolPrimitive(Double.longBitsToDouble(u8(offset + 1)));
+        case CONSTANT_String:
+            return new ConstantPoolString(utf8(u2(offset + 1)));
+        case CONSTANT_Class:
+            return new ConstantPoolClass(classNameAt(index));
+        case CONSTANT_Utf8:
+            return new ConstantPoolUtf8(utf8(index));
+        }
+        throw new InvalidIndexException(entryInvalidMessage(index));
+    }
+
+    @Override
+    public ClassFile getSuperclass() {
+        return this.superClass;
+    }
+
+    @Override
+    public String getSuperclassName() {
+        if (isInterface() || this.superClassIndex == 0) {
+            return null;
+        } else {
+            return classNameAt(this.superClassIndex);
+        }
+    }
+
+    @Override
+    public List<ClassFile> getSuperInterfaces() {
+        final List<ClassFile> superinterfaces = Arrays.asList(this.superInterfaces);
+        return Collections.unmodifiableList(superinterfaces);
+    }
+
+    @Override
+    public List<String> getSuperInterfaceNames() {
+        final ArrayList<String> superinterfaces = new ArrayList<>();
+        final int count = u2(this.interfacesOffset);
+        for (int i = 0; i < count; ++i) {
+            superinterfaces.add(classNameAt(u2(this.interfacesOffset + 2 + 2 * i)));
+        }
+        return Collections.unmodifiableList(superinterfaces);
+    }
+
+    @Override
+    public boolean isAbstract() {
+        return Modifier.isAbstract(this.accessFlags);
+    }
+
+    @Override
+    public boolean isInterface() {
+        return Modifier.isInterface(this.accessFlags);
+    }
+
+    private static HashMap<String, HashMap<String, Member>> makeTable(List<Member> members) {
+        final HashMap<String, HashMap<String, Member>> retVal = new HashMap<>();
+        for (Member m : members) {
+            //with duplicate declarations the first one wins
+            retVal.computeIfAbsent(m.name, k -> new HashMap<>()).putIfAbsent(m.descriptor, m);
+        }
+        return retVal;
+    }
+
+    private List<Member> members(int[] offsets, boolean areMethods) {
+        final ArrayList<Member> retVal = new ArrayList<>();
+        for (int offset : offsets) {
+            retVal.add(new Member(offset, areMethods));
+        }
+        return retVal;
+    }
+
+    /**
+     * Finds a method declaration in the classfile.
+     *
+     * @param methodSignature a {@link Signature}.
+     * @return {@code null} if no method with {@code methodSignature}
+     *         signature is declared in this classfile, otherwise the
+     *         {@link Member} for it; the class name in {@code methodSignature}
+     *         is ignored.
+     */
+    private Member findMethod(Signature methodSignature) {
+        if (this.methodTable == null) {
+            this.methodTable = makeTable(members(this.methodsOffsets, true));
+        }
+        final HashMap<String, Member> byDescriptor = this.methodTable.get(methodSignature.getName());
+        if (byDescriptor == null) {
+            return null;
+        }
+        if ("<clinit>".equals(methodSignature.getName())) {
+            return byDescriptor.values().iterator().next();
+        }
+        return byDescriptor.get(methodSignature.getDescriptor());
+    }
+
+    private Member findMethodOrThrow(Signature methodSignature) throws MethodNotFoundException {
+        final Member m = findMethod(methodSignature);
+        if (m == null) {
+            throw new MethodNotFoundException(methodSignature.toString());
+        }
+        return m;
+    }
+
+    private Member findMethodWithCode(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        final Member m = findMethodOrThrow(methodSignature);
+        if (m.codeOffset == -1) {
+            throw new MethodCodeNotFoundException(methodSignature.toString());
+        }
+        return m;
+    }
+
+    private Member findField(Signature fieldSignature) {
+        if (this.fieldTable == null) {
+            this.fieldTable = makeTable(members(this.fieldsOffsets, false));
+        }
+        final HashMap<String, Member> byDescriptor = this.fieldTable.get(fieldSignature.getName());
+        return (byDescriptor == null ? null : byDescriptor.get(fieldSignature.getDescriptor()));
+    }
+
+    private Member findFieldOrThrow(Signature fieldSignature) throws FieldNotFoundException {
+        final Member fld = findField(fieldSignature);
+        if (fld == null) {
+            throw new FieldNotFoundException(fieldSignature.toString());
+        }
+        return fld;
+    }
+
+    private ArrayList<Signature> getDeclaredFields(boolean areStatic) {
+        if ((areStatic ? this.fieldsStatic : this.fieldsObject) == null) {
+            final ArrayList<Signature> fields = new ArrayList<Signature>();
+            for (Member fld : members(this.fieldsOffsets, false)) {
+                if (Modifier.isStatic(fld.accessFlags) == areStatic) {
+                    fields.add(new Signature(this.className, fld.descriptor, fld.name));
+                }
+            }
+            if (areStatic) {
+                this.fieldsStatic = fields;
+            } else {
+                this.fieldsObject = fields;
+            }
+        }
+        return (areStatic ? this.fieldsStatic : this.fieldsObject);
+    }
+
+    @Override
+    public Signature[] getDeclaredFieldsNonStatic() {
+        return getDeclaredFields(false).toArray(new Signature[0]);
+    }
+
+    @Override
+    public Signature[] getDeclaredFieldsStatic() {
+        return getDeclaredFields(true).toArray(new Signature[0]);
+    }
+
+    @Override
+    public Signature[] getDeclaredFields() {
+        return Stream
+        .concat(Arrays.stream(getDeclaredFieldsStatic()), Arrays.stream(getDeclaredFieldsNonStatic()))
+        .toArray(Signature[]::new);
+    }
+
+    private void fillMethodsAndConstructors() {
+        this.methods = new ArrayList<>();
+        this.constructors = new ArrayList<>();
+        for (Member m : members(this.methodsOffsets, false)) {
+            final Signature sig = new Signature(this.className, m.descriptor, m.name);
+            this.methods.add(sig);
+            if ("<init>".equals(m.name)) {
+                this.constructors.add(sig);
+            }
+        }
+    }
+
+    @Override
+    public Signature[] getDeclaredMethods() {
+        if (this.methods == null) {
+            fillMethodsAndConstructors();
+        }
+        return this.methods.toArray(new Signature[0]);
+    }
+
+    @Override
+    public Signature[] getDeclaredConstructors() {
+        if (this.constructors == null) {
+            fillMethodsAndConstructors();
+        }
+        return this.constructors.toArray(new Signature[0]);
+    }
+
+    @Override
+    public ExceptionTable getExceptionTable(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException, InvalidIndexException {
+        final Member m = findMethodWithCode(methodSignature);
+        if (m.exceptionTable == null) {
+            final int exceptionTableOffset = m.exceptionTableOffset();
+            final int length = u2(exceptionTableOffset);
+            final ExceptionTable retVal = new ExceptionTable(length);
+            for (int i = 0; i < length; ++i) {
+                final int entryOffset = exceptionTableOffset + 2 + 8 * i;
+                final int exType = u2(entryOffset + 6);
+                final String catchType = (exType == 0 ? JAVA_THROWABLE : getClassSignature(exType));
+                retVal.addEntry(new ExceptionTableEntry(u2(entryOffset), u2(entryOffset + 2), u2(entryOffset + 4), catchType));
+            }
+            m.exceptionTable = retVal;
+        }
+        return m.exceptionTable;
+    }
+
+    @Override
+    public int getLocalVariableLength(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        return u2(findMethodWithCode(methodSignature).codeOffset + 2);
+    }
+
+    @Override
+    public int getOperandStackLength(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        return u2(findMethodWithCode(methodSignature).codeOffset);
+    }
+
+    @Override
+    public int getCodeLength(Signature methodSignature) throws MethodNotFoundException, MethodCodeNotFoundException {
+        return findMethodWithCode(methodSignature).codeLength();
+    }
+
+    @Override
+    public LocalVariableTable getLocalVariableTable(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException  {
+        final Member m = findMethodWithCode(methodSignature);
+        if (m.localVariableTable == null) {
+            final int lvtOffset = findAttribute(m.codeAttributesOffset(), "LocalVariableTable");
+            if (lvtOffset == -1) {
+                m.localVariableTable = defaultLocalVariableTable(methodSignature);
+            } else {
+                final LocalVariableTable lvt = new LocalVariableTable(u2(m.codeOffset + 2));
+                final int length = u2(lvtOffset);
+                for (int i = 0; i < length; ++i) {
+                    final int entryOffset = lvtOffset + 2 + 10 * i;
+                    lvt.setEntry(u2(entryOffset + 8), utf8(u2(entryOffset + 6)),
+                                 utf8(u2(entryOffset + 4)), u2(entryOffset), u2(entryOffset + 2));
+                }
+                m.localVariableTable = lvt;
+            }
+        }
+        return m.localVariableTable;
+    }
+
+    @Override
+    public LineNumberTable getLineNumberTable(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        final Member m = findMethodWithCode(methodSignature);
+        if (m.lineNumberTable == null) {
+            final int lntOffset = findAttribute(m.codeAttributesOffset(), "LineNumberTable");
+            if (lntOffset == -1) {
+                m.lineNumberTable = defaultLineNumberTable();
+            } else {
+                final int length = u2(lntOffset);
+                final LineNumberTable lnt = new LineNumberTable(length);
+                for (int i = 0; i < length; ++i) {
+                    final int entryOffset = lntOffset + 2 + 4 * i;
+                    lnt.addRow(u2(entryOffset), u2(entryOffset + 2));
+                }
+                m.lineNumberTable = lnt;
+            }
+        }
+        return m.lineNumberTable;
+    }
+
+    @Override
+    public byte[] getMethodCodeBySignature(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        final Member m = findMethodWithCode(methodSignature);
+        if (m.code == null) {
+            m.code = Arrays.copyOfRange(this.bytecode, m.codeOffset + 8, m.codeOffset + 8 + m.codeLength());
+        }
+        return m.code;
+    }
+
+    @Override
+    public boolean hasMethodDeclaration(Signature methodSignature) {
+        return (findMethod(methodSignature) != null);
+    }
+
+    @Override
+    public boolean hasOneSignaturePolymorphicMethodDeclaration(String methodName) {
+        //cannot be signature polymorphic if it is not in JAVA_METHODHANDLE
+        if (!JAVA_METHODHANDLE.equals(this.className)) {
+            return false;
+        }
+
+        //the method declaration must be unique
+        if (this.methodTable == null) {
+            this.methodTable = makeTable(members(this.methodsOffsets, true));
+        }
+        final HashMap<String, Member> byDescriptor = this.methodTable.get(methodName);
+        if (byDescriptor == null || byDescriptor.size() != 1) {
+            return false;
+        }
+        final Member uniqueMethod = byDescriptor.values().iterator().next();
+
+        //cannot be signature polymorphic if it has wrong descriptor
+        if (!SIGNATURE_POLYMORPHIC_DESCRIPTOR.equals(uniqueMethod.descriptor)) {
+            return false;
+        }
+
+        //cannot be signature polymorphic if it not native or if it is not varargs
+        return (Modifier.isNative(uniqueMethod.accessFlags) && (uniqueMethod.accessFlags & ACC_VARARGS) != 0);
+    }
+
+    @Override
+    public boolean hasMethodImplementation(Signature methodSignature) {
+        final Member m = findMethod(methodSignature);
+        return (m != null && (m.codeOffset != -1 || Modifier.isNative(m.accessFlags)));
+    }
+
+    @Override
+    public boolean isMethodAbstract(Signature methodSignature) throws MethodNotFoundException {
+        return Modifier.isAbstract(findMethodOrThrow(methodSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isMethodNative(Signature methodSignature) throws MethodNotFoundException {
+        return Modifier.isNative(findMethodOrThrow(methodSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isMethodVarargs(Signature methodSignature) throws MethodNotFoundException {
+        return (findMethodOrThrow(methodSignature).accessFlags & ACC_VARARGS) != 0;
+    }
+
+    @Override
+    public boolean isMethodSignaturePolymorphic(Signature methodSignature) throws MethodNotFoundException {
+        //cannot be signature polymorphic if it is not in JAVA_METHODHANDLE
+        if (!JAVA_METHODHANDLE.equals(this.className)) {
+            return false;
+        }
+
+        //cannot be signature polymorphic if it has wrong descriptor
+        if (!SIGNATURE_POLYMORPHIC_DESCRIPTOR.equals(methodSignature.getDescriptor())) {
+            return false;
+        }
+
+        //cannot be signature polymorphic if is not (native | varargs)
+        return (isMethodNative(methodSignature) && isMethodVarargs(methodSignature));
+    }
+
+    @Override
+    public boolean isMethodCallerSensitive(Signature methodSignature)
+    throws MethodNotFoundException {
+        return Arrays.asList(getMethodAvailableAnnotations(methodSignature)).contains(SUN_CALLERSENSITIVE);
+    }
+
+    @Override
+    public boolean isMethodStatic(Signature methodSignature) throws MethodNotFoundException {
+        return Modifier.isStatic(findMethodOrThrow(methodSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isMethodPublic(Signature methodSignature) throws MethodNotFoundException {
+        return Modifier.isPublic(findMethodOrThrow(methodSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isMethodProtected(Signature methodSignature) throws MethodNotFoundException {
+        return Modifier.isProtected(findMethodOrThrow(methodSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isMethodPackage(Signature methodSignature) throws MethodNotFoundException {
+        return isPackage(findMethodOrThrow(methodSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isMethodPrivate(Signature methodSignature) throws MethodNotFoundException {
+        return Modifier.isPrivate(findMethodOrThrow(methodSignature).accessFlags);
+    }
+
+    @Override
+    public String getMethodGenericSignatureType(Signature methodSignature) throws MethodNotFoundException {
+        final Member m = findMethodOrThrow(methodSignature);
+        final int signatureOffset = findAttribute(m.attributesOffset, "Signature");
+        return (signatureOffset == -1 ? null : utf8(u2(signatureOffset)));
+    }
+
+    @Override
+    public int getMethodModifiers(Signature methodSignature)
+    throws MethodNotFoundException {
+        return findMethodOrThrow(methodSignature).accessFlags;
+    }
+
+    @Override
+    public byte[] getMethodAnnotationsRaw(Signature methodSignature)
+    throws MethodNotFoundException {
+        return annotationsRaw(findMethodOrThrow(methodSignature));
+    }
+
+    private byte[] annotationsRaw(Member m) {
+        final byte[] visible = attributeInfo(findAttribute(m.attributesOffset, "RuntimeVisibleAnnotations"));
+        final byte[] invisible = attributeInfo(findAttribute(m.attributesOffset, "RuntimeInvisibleAnnotations"));
+        final byte[] retVal = new byte[visible.length + invisible.length];
+        System.arraycopy(visible, 0, retVal, 0, visible.length);
+        System.arraycopy(invisible, 0, retVal, visible.length, invisible.length);
+        return retVal;
+    }
+
+    /**
+     * Returns the offsets of the annotations of a member.
+     *
+     * @param m a {@link Member}.
+     * @return a {@link List}{@code <}{@link Integer}{@code >}, the
+     *         offsets of the invisible and then of the visible
+     *         annotations of {@code m}.
+     */
+    private List<Integer> annotations(Member m) {
+        final ArrayList<Integer> retVal = new ArrayList<>();
+        for (String attributeName : new String[] { "RuntimeInvisibleAnnotations", "RuntimeVisibleAnnotations" }) {
+            final int attributeOffset = findAttribute(m.attributesOffset, attributeName);
+            if (attributeOffset != -1) {
+                final int count = u2(attributeOffset);
+                int annotationOffset = attributeOffset + 2;
+                for (int i = 0; i < count; ++i) {
+                    retVal.add(annotationOffset);
+                    annotationOffset = skipAnnotation(annotationOffset);
+                }
+            }
+        }
+        return retVal;
+    }
+
+    private int skipAnnotation(int offset) {
+        final int count = u2(offset + 2);
+        int retVal = offset + 4;
+        for (int i = 0; i < count; ++i) {
+            retVal = skipElementValue(retVal + 2);
+        }
+        return retVal;
+    }
+
+    private int skipElementValue(int offset) {
+        switch (u1(offset)) {
+        case 'e':
+            return offset + 5;
+        case '@':
+            return skipAnnotation(offset + 1);
+        case '[':
+            final int count = u2(offset + 1);
+            int retVal = offset + 3;
+            for (int i = 0; i < count; ++i) {
+                retVal = skipElementValue(retVal);
+            }
+            return retVal;
+        default: //constant or class
+            return offset + 3;
+        }
+    }
+
+    @Override
+    public String[] getMethodAvailableAnnotations(Signature methodSignature)
+    throws MethodNotFoundException {
+        final Member m = findMethodOrThrow(methodSignature);
+        return annotations(m).stream().map(offset -> className(utf8(u2(offset)))).toArray(String[]::new);
+    }
+
+    @Override
+    public String getMethodAnnotationParameterValueString(Signature methodSignature, String annotation, String parameter)
+    throws MethodNotFoundException {
+        final Member m = findMethodOrThrow(methodSignature);
+        for (int annotationOffset : annotations(m)) {
+            if (!annotation.equals(className(utf8(u2(annotationOffset))))) {
+                continue;
+            }
+            final int count = u2(annotationOffset + 2);
+            int pairOffset = annotationOffset + 4;
+            for (int i = 0; i < count; ++i) {
+                if (parameter.equals(utf8(u2(pairOffset))) && u1(pairOffset + 2) == 's') {
+                    return utf8(u2(pairOffset + 3));
+                }
+                pairOffset = skipElementValue(pairOffset + 2);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String[] getMethodThrownExceptions(Signature methodSignature)
+    throws MethodNotFoundException {
+        final Member m = findMethodOrThrow(methodSignature);
+        final int exceptionsOffset = findAttribute(m.attributesOffset, "Exceptions");
+        if (exceptionsOffset == -1) {
+            return new String[0];
+        }
+        final String[] retVal = new String[u2(exceptionsOffset)];
+        for (int i = 0; i < retVal.length; ++i) {
+            retVal[i] = classNameAt(u2(exceptionsOffset + 2 + 2 * i));
+        }
+        return retVal;
+    }
+
+    @Override
+    public boolean hasFieldDeclaration(Signature fieldSignature) {
+        return (findField(fieldSignature) != null);
+    }
+
+    private int constantValueIndex(Member fld) {
+        if (!Modifier.isStatic(fld.accessFlags)) {
+            return 0; //ignored for nonstatic fields (JVMS v8, section 4.7.2)
+        }
+        final int constantValueOffset = findAttribute(fld.attributesOffset, "ConstantValue");
+        return (constantValueOffset == -1 ? 0 : u2(constantValueOffset));
+    }
+
+    @Override
+    public int fieldConstantValueIndex(Signature fieldSignature) throws FieldNotFoundException, AttributeNotFoundException {
+        final int cpVal = constantValueIndex(findFieldOrThrow(fieldSignature));
+        if (cpVal == 0) {
+            throw new AttributeNotFoundException();
+        }
+        return cpVal;
+    }
+
+    @Override
+    public boolean hasFieldConstantValue(Signature fieldSignature) throws FieldNotFoundException {
+        return (constantValueIndex(findFieldOrThrow(fieldSignature)) != 0);
+    }
+
+    @Override
+    public boolean isFieldFinal(Signature fieldSignature) throws FieldNotFoundException {
+        return Modifier.isFinal(findFieldOrThrow(fieldSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isFieldPublic(Signature fieldSignature) throws FieldNotFoundException {
+        return Modifier.isPublic(findFieldOrThrow(fieldSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isFieldProtected(Signature fieldSignature) throws FieldNotFoundException {
+        return Modifier.isProtected(findFieldOrThrow(fieldSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isFieldPackage(Signature fieldSignature) throws FieldNotFoundException {
+        return isPackage(findFieldOrThrow(fieldSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isFieldPrivate(Signature fieldSignature) throws FieldNotFoundException {
+        return Modifier.isPrivate(findFieldOrThrow(fieldSignature).accessFlags);
+    }
+
+    @Override
+    public boolean isFieldStatic(Signature fieldSignature) throws FieldNotFoundException {
+        return Modifier.isStatic(findFieldOrThrow(fieldSignature).accessFlags);
+    }
+
+    @Override
+    public String getFieldGenericSignatureType(Signature fieldSignature)
+    throws FieldNotFoundException {
+        final Member fld = findFieldOrThrow(fieldSignature);
+        final int signatureOffset = findAttribute(fld.attributesOffset, "Signature");
+        return (signatureOffset == -1 ? null : utf8(u2(signatureOffset)));
+    }
+
+    @Override
+    public int getFieldModifiers(Signature fieldSignature)
+    throws FieldNotFoundException {
+        return findFieldOrThrow(fieldSignature).accessFlags;
+    }
+
+    @Override
+    public byte[] getFieldAnnotationsRaw(Signature fieldSignature)
+    throws FieldNotFoundException {
+        return annotationsRaw(findFieldOrThrow(fieldSignature));
+    }
+}
@@ -457,6 +457,12 @@ public class ClassFileSnippet extends ClassFile {
         throw new MethodNotFoundException(methodSignature.toString());
     }
 
+    @Override
+    public int getOperandStackLength(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        throw new MethodNotFoundException(methodSignature.toString());
+    }
+
     @Override
     public int getCodeLength(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
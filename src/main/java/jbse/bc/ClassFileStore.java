@@ -3,6 +3,7 @@ package jbse.bc;
 import static jbse.bc.ClassLoaders.CLASSLOADER_NONE;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 
 import jbse.common.Type;
@@ -12,7 +13,10 @@ import jbse.common.exc.InvalidInputException;
  * A container for the loaded classfiles. Implements
  * the loaded class cache, similarly to what
  * in the Hotspot JVM implementation does the system
- * dictionary. 
+ * dictionary. Since classes are defined rarely, a
+ * {@link ClassFileStore} and its clones share the 
+ * loaded class cache of each classloader until one of 
+ * them adds a class to it.
  */ 
 final class ClassFileStore implements Cloneable {  
     /** 
@@ -21,6 +25,13 @@ final class ClassFileStore implements Cloneable {
      */
     private ArrayList<HashMap<String, ClassFile>> loadedClassCache = new ArrayList<>(); //not final because of clone
     
+    /** 
+     * The initiating loader ids whose loaded class caches are 
+     * owned by this {@link ClassFileStore}; the other ones might be
+     * shared with other stores. 
+     */
+    private BitSet exclusive = new BitSet(); //not final because of clone
+    
     // The primitive classfiles.
     private final ClassFileBoolean primitiveClassFileBoolean = new ClassFileBoolean(); 
     private final ClassFileByte primitiveClassFileByte = new ClassFileByte();   
@@ -35,6 +46,9 @@ final class ClassFileStore implements Cloneable {
     /** The cache for the anonymous classes. */
     //TODO is it necessary?
     private HashMap<String, ClassFile> anonymousClasses = new HashMap<>(); //not final because of clone
+    
+    /** Whether {@link #anonymousClasses} might be shared with other stores. */
+    private boolean anonymousClassesShared = false;
 
     /**
      * Given a class name and the identifier of an initiating class loader 
@@ -93,10 +107,15 @@ final class ClassFileStore implements Cloneable {
         //makes room
         for (int i = this.loadedClassCache.size(); i <= initiatingLoader; ++i) {
             this.loadedClassCache.add(new HashMap<>());
+            this.exclusive.set(i);
         }
 
         final ClassFile previousClassFile = getLoadedClassCache(initiatingLoader, classFile.getClassName());
         if (previousClassFile == null) {
+            if (!this.exclusive.get(initiatingLoader)) {
+                this.loadedClassCache.set(initiatingLoader, new HashMap<>(this.loadedClassCache.get(initiatingLoader)));
+                this.exclusive.set(initiatingLoader);
+            }
             this.loadedClassCache.get(initiatingLoader).put(classFile.getClassName(), classFile);
         } else if (previousClassFile == classFile) {
             //reinsertion of the same classfile, does nothing
@@ -109,6 +128,10 @@ final class ClassFileStore implements Cloneable {
     
     //TODO is it necessary?
     void putAnonymousClassCache(ClassFile classFile) {
+        if (this.anonymousClassesShared) {
+            this.anonymousClasses = new HashMap<>(this.anonymousClasses);
+            this.anonymousClassesShared = false;
+        }
         this.anonymousClasses.put(classFile.getClassName(), classFile);
     }
 
@@ -169,14 +192,15 @@ final class ClassFileStore implements Cloneable {
             throw new InternalError(e);
         }
         
-        //loadedClassCache
-        o.loadedClassCache = new ArrayList<>();
-        for (HashMap<String, ClassFile> map : this.loadedClassCache) {
-            o.loadedClassCache.add(new HashMap<>(map));
-        }
+        //loadedClassCache: this store and its clone share 
+        //the caches of all the classloaders
+        o.loadedClassCache = new ArrayList<>(this.loadedClassCache);
+        this.exclusive = new BitSet();
+        o.exclusive = new BitSet();
         
-        //anonymousClasses
-        o.anonymousClasses = new HashMap<>(o.anonymousClasses);
+        //anonymousClasses: shared as well
+        this.anonymousClassesShared = true;
+        o.anonymousClassesShared = true;
         
         return o;
     }
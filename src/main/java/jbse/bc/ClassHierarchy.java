@@ -20,24 +20,31 @@ import static jbse.common.Type.splitReturnValueDescriptor;
 import static jbse.common.Type.toPrimitiveOrVoidCanonicalName;
 import static jbse.common.Type.toPrimitiveOrVoidInternalName;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -56,6 +63,7 @@ import jbse.bc.exc.MethodNotAccessibleException;
 import jbse.bc.exc.MethodNotFoundException;
 import jbse.bc.exc.PleaseLoadClassException;
 import jbse.bc.exc.WrongClassNameException;
+import jbse.common.Type;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 
@@ -66,14 +74,19 @@ import jbse.common.exc.UnexpectedInternalException;
  * @author Pietro Braione
  */
 public final class ClassHierarchy implements Cloneable {
+    /** The maximum number of classes staged for prefetching by each classloader. */
+    private static final int MAX_PREFETCH_STAGED = 1024;
+    
     private final Classpath cp;
     private final Map<String, Set<String>> expansionBackdoor;
-    private final HashMap<ClassFile, ArrayList<Signature>> allFieldsOf;
+    private final SubclassIndex subclassIndex; //null if subclasses are not indexed
+    private final HashMap<ClassFile, FieldLayout> fieldLayoutOf;
     private final ClassFileFactory f;
+    private final Prefetcher prefetcher; //null if classes are not prefetched
     private ClassFileStore cfs; //not final because of clone
     private HashMap<String, String> systemPackages; //not final because of clone
     
-    private static class FindBytecodeResult {
+    static final class FindBytecodeResult {
         final byte[] bytecode;
         final String loadedFrom;
         
@@ -83,6 +96,345 @@ public final class ClassHierarchy implements Cloneable {
         }
     }
 
+    /**
+     * Key of the resolution, method implementation lookup 
+     * and assignment compatibility caches. The caches are 
+     * held by the {@link ClassFile} the lookup starts from
+     * (see {@link ClassFile#getHierarchyCache()}), so they 
+     * are shared by all the clones of a {@link ClassHierarchy},
+     * and are dropped together with the class. A key mentions 
+     * the other class of the lookup, if any, that is compared by 
+     * identity, because different states might load different 
+     * classes with same name and defining classloader.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class CacheKey {
+        static final int RESOLVED_FIELD = 0;
+        static final int RESOLVED_METHOD = 1;
+        static final int METHOD_IMPL = 2;
+        static final int ASSIGNMENT_COMPATIBLE = 3;
+        
+        final int cache;
+        final ClassFile second; //may be null
+        final Signature signature; //may be null
+        final int flags;
+        final int hashCode;
+        
+        CacheKey(int cache, ClassFile second, Signature signature, int flags) {
+            this.cache = cache;
+            this.second = second;
+            this.signature = signature;
+            this.flags = flags;
+            final int prime = 31;
+            int tmpHashCode = 1;
+            tmpHashCode = prime * tmpHashCode + cache;
+            tmpHashCode = prime * tmpHashCode + System.identityHashCode(second);
+            tmpHashCode = prime * tmpHashCode + Objects.hashCode(signature);
+            tmpHashCode = prime * tmpHashCode + flags;
+            this.hashCode = tmpHashCode;
+        }
+        
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final CacheKey other = (CacheKey) obj;
+            return this.cache == other.cache && this.second == other.second &&
+                   this.flags == other.flags && Objects.equals(this.signature, other.signature);
+        }
+    }
+    
+    /**
+     * A cached (field or method) resolution. 
+     * 
+     * @author Pietro Braione
+     */
+    private static final class Resolution {
+        /** The resolved class of the signature. */
+        final ClassFile signatureClass;
+        
+        /** The class where the resolved member is declared. */
+        final ClassFile accessed;
+        
+        /** 
+         * The signature of the resolved field, or {@code null} if it 
+         * was not yet needed (or this is a method resolution).
+         */
+        Signature accessedSignature;
+        
+        /** The last {@link FieldLayout} the resolved field was looked up in. */
+        FieldLayout lastLayout;
+        
+        /** The slot of the resolved field in {@link #lastLayout}. */
+        int lastSlot;
+        
+        Resolution(ClassFile signatureClass, ClassFile accessed) {
+            this.signatureClass = signatureClass;
+            this.accessed = accessed;
+        }
+    }
+    
+    /**
+     * Prefetches in background the bytecode of the classes that 
+     * the loaded classes refer in their constant pools, and has 
+     * the {@link ClassFileFactory} parse it ahead (see 
+     * {@link ClassFileFactory#parseAhead(byte[])}), so when the 
+     * classes are loaded most of the job is already done. It defines 
+     * no class, so the order in which the classes are loaded, linked 
+     * and initialized is not affected. It is shared by all the clones 
+     * of a {@link ClassHierarchy}, and its workers live until it is 
+     * closed (see {@link #close()}) or they are idle for a while.
+     * 
+     * @author Pietro Braione
+     */
+    static final class Prefetcher {
+        /** How long an idle worker waits before terminating, in seconds. */
+        private static final long KEEP_ALIVE_SECONDS = 5;
+        
+        /** How long {@link #close()} waits for the running workers to terminate, in seconds. */
+        private static final long CLOSE_TIMEOUT_SECONDS = 10;
+        
+        /**
+         * The staging area of a classloader.
+         * 
+         * @author Pietro Braione
+         */
+        private static final class Staging {
+            /** 
+             * Maps class names to the (future) results of their 
+             * lookup in the classloader's classpath.
+             */
+            final ConcurrentHashMap<String, FutureTask<FindBytecodeResult>> tasks = new ConcurrentHashMap<>();
+            
+            /** 
+             * The names of the classes whose prefetched bytecode was
+             * taken by some clone of the {@link ClassHierarchy}. They
+             * are not staged again, but their results stay available 
+             * to the other clones until they are dropped.
+             */
+            final Set<String> taken = ConcurrentHashMap.newKeySet();
+            
+            /** The names of the staged classes, oldest first. */
+            final ConcurrentLinkedQueue<String> order = new ConcurrentLinkedQueue<>();
+            
+            /** The size of {@link #order}. */
+            final AtomicInteger size = new AtomicInteger();
+        }
+        
+        private final Classpath cp;
+        private final ClassFileFactory f;
+        private final int maxStaged;
+        
+        /** The workers; they are daemon threads, so they do not prevent the JVM from exiting. */
+        private final ThreadPoolExecutor workers;
+        
+        /** 
+         * The staging areas for the bootstrap, extensions and 
+         * application classloaders.
+         */
+        private final List<Staging> staging = Arrays.asList(new Staging(), new Staging(), new Staging());
+        
+        /**
+         * Constructor.
+         * 
+         * @param cp a {@link Classpath}.
+         * @param f a {@link ClassFileFactory}.
+         * @param maxStaged an {@code int}, the maximum number of 
+         *        classes staged for each classloader. When it is 
+         *        exceeded the prefetching of the oldest staged 
+         *        classes is dropped.
+         */
+        Prefetcher(Classpath cp, ClassFileFactory f, int maxStaged) {
+            this.cp = cp;
+            this.f = f;
+            this.maxStaged = maxStaged;
+            final int numOfWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            this.workers = new ThreadPoolExecutor(numOfWorkers, numOfWorkers, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                final Thread t = new Thread(r, "jbse-class-prefetcher");
+                t.setDaemon(true);
+                return t;
+            });
+            this.workers.allowCoreThreadTimeOut(true);
+        }
+        
+        /**
+         * Runs a job on the workers, unless this 
+         * {@link Prefetcher} is closed.
+         * 
+         * @param job a {@link Runnable}.
+         */
+        private void execute(Runnable job) {
+            try {
+                this.workers.execute(job);
+            } catch (RejectedExecutionException e) {
+                //closed, nothing to prefetch
+            }
+        }
+        
+        /**
+         * Starts prefetching the classes referred by a class.
+         * 
+         * @param className a {@link String}, the name of a class.
+         * @param bytecode a {@code byte[]}, its bytecode.
+         * @param initiatingLoader an {@code int}, the classloader that
+         *        will resolve the classes referred by {@code className}.
+         *        It must be either {@link ClassLoaders#CLASSLOADER_BOOT}, 
+         *        or {@link ClassLoaders#CLASSLOADER_EXT}, or 
+         *        {@link ClassLoaders#CLASSLOADER_APP}.
+         */
+        void prefetchReferredBy(String className, byte[] bytecode, int initiatingLoader) {
+            execute(() -> {
+                final List<String> referredClassNames;
+                try {
+                    referredClassNames = new ClassFileLazy(initiatingLoader, className, bytecode, null, null).getReferredClassNames();
+                } catch (ClassFileIllFormedException | InvalidInputException e) {
+                    return; //nothing to prefetch
+                }
+                for (String referredClassName : referredClassNames) {
+                    //array classes are created, but their member classes are loaded
+                    final String toPrefetch = (isArray(referredClassName) ? className(referredClassName.replaceFirst("^\\[+", "")) : referredClassName);
+                    if (toPrefetch == null) {
+                        continue; //array of primitives
+                    }
+                    //the defining classloader might be any between the
+                    //bootstrap and the initiating one
+                    for (int loader = CLASSLOADER_BOOT; loader <= initiatingLoader; ++loader) {
+                        stage(toPrefetch, loader);
+                    }
+                }
+            });
+        }
+        
+        /**
+         * Stages the prefetching of a class, unless it is 
+         * already staged or taken, or this {@link Prefetcher}
+         * is closed.
+         * 
+         * @param className a {@link String}, the name of a class.
+         * @param definingLoader an {@code int}, the classloader in 
+         *        whose classpath {@code className} is looked up. It must 
+         *        be either {@link ClassLoaders#CLASSLOADER_BOOT}, 
+         *        or {@link ClassLoaders#CLASSLOADER_EXT}, or 
+         *        {@link ClassLoaders#CLASSLOADER_APP}.
+         */
+        void stage(String className, int definingLoader) {
+            final Staging stagingForLoader = this.staging.get(definingLoader);
+            if (this.workers.isShutdown() || stagingForLoader.taken.contains(className) || stagingForLoader.tasks.containsKey(className)) {
+                return;
+            }
+            final FutureTask<FindBytecodeResult> task = new FutureTask<>(() -> fetch(className, definingLoader));
+            if (stagingForLoader.tasks.putIfAbsent(className, task) != null) {
+                return;
+            }
+            stagingForLoader.order.add(className);
+            stagingForLoader.size.incrementAndGet();
+            execute(task);
+            
+            //drops the oldest staged classes in excess
+            while (stagingForLoader.size.get() > this.maxStaged) {
+                final String oldest = stagingForLoader.order.poll();
+                if (oldest == null) {
+                    break;
+                }
+                stagingForLoader.size.decrementAndGet();
+                final FutureTask<FindBytecodeResult> dropped = stagingForLoader.tasks.remove(oldest);
+                if (dropped != null) {
+                    dropped.cancel(false);
+                }
+            }
+        }
+        
+        private FindBytecodeResult fetch(String className, int definingLoader) {
+            final FindBytecodeResult retVal = findBytecode(this.cp, className, definingLoader);
+            if (retVal != null) {
+                this.f.foundIn(className, retVal.bytecode, retVal.loadedFrom);
+                this.f.parseAhead(retVal.bytecode);
+            }
+            return retVal;
+        }
+        
+        /**
+         * Returns the number of classes whose prefetched
+         * bytecode is staged and not yet taken.
+         * 
+         * @param loader an {@code int}, a classloader. It must be either 
+         *        {@link ClassLoaders#CLASSLOADER_BOOT}, or 
+         *        {@link ClassLoaders#CLASSLOADER_EXT}, or 
+         *        {@link ClassLoaders#CLASSLOADER_APP}.
+         * @return an {@code int}.
+         */
+        int staged(int loader) {
+            final Staging stagingForLoader = this.staging.get(loader);
+            return (int) stagingForLoader.tasks.keySet().stream().filter(c -> !stagingForLoader.taken.contains(c)).count();
+        }
+        
+        /**
+         * Takes the prefetched bytecode of a class. If the
+         * prefetching did not start yet it is done by the 
+         * current thread, if it is ongoing it is waited for.
+         * The prefetched bytecode stays available to the other 
+         * clones of the {@link ClassHierarchy}, that might
+         * not have loaded the class yet.
+         * 
+         * @param className a {@link String}, the name of a class.
+         * @param loader an {@code int}, a classloader. It must be either 
+         *        {@link ClassLoaders#CLASSLOADER_BOOT}, or 
+         *        {@link ClassLoaders#CLASSLOADER_EXT}, or 
+         *        {@link ClassLoaders#CLASSLOADER_APP}.
+         * @return a {@link FutureTask}{@code <}{@link FindBytecodeResult}{@code >}
+         *         whose result is what {@link ClassHierarchy#findBytecode(Classpath, String, int) findBytecode}
+         *         returns, or {@code null} if {@code className} was not prefetched.
+         *         The task might be cancelled if its staging was dropped
+         *         meanwhile.
+         */
+        FutureTask<FindBytecodeResult> take(String className, int loader) {
+            final Staging stagingForLoader = this.staging.get(loader);
+            final FutureTask<FindBytecodeResult> task = stagingForLoader.tasks.get(className);
+            if (task == null) {
+                return null;
+            }
+            task.run(); //does nothing if the task was already started
+            stagingForLoader.taken.add(className); //avoids prefetching it again
+            return task;
+        }
+        
+        /**
+         * Stops prefetching: Cancels the staged classes, and
+         * terminates the workers, waiting (for a bounded time)
+         * the ones that are looking up a class, so they do not 
+         * reopen the classpath after it is closed. Afterwards 
+         * nothing is prefetched.
+         */
+        void close() {
+            this.workers.shutdownNow();
+            try {
+                this.workers.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (Staging stagingForLoader : this.staging) {
+                stagingForLoader.tasks.values().forEach(t -> t.cancel(false));
+                stagingForLoader.tasks.clear();
+                stagingForLoader.order.clear();
+                stagingForLoader.size.set(0);
+            }
+        }
+    }
+    
+    private static int flags(boolean first, boolean second) {
+        return (first ? 1 : 0) | (second ? 2 : 0);
+    }
+
     /**
      * Constructor.
      * 
@@ -93,21 +445,29 @@ public final class ClassHierarchy implements Cloneable {
      *        {@link Map}{@code <}{@link String}{@code , }{@link Set}{@code <}{@link String}{@code >>}
      *        associating class names to sets of names of their subclasses. It 
      *        is used in place of the class hierarchy to perform expansion.
+     * @param useSubclassIndex a {@code boolean}, {@code true} iff expansion
+     *        must also consider all the concrete subclasses in the user 
+     *        classpath (see {@link #getAllConcreteSubclasses(ClassFile, boolean)}).
+     * @param prefetchClasses a {@code boolean}, {@code true} iff the classes
+     *        referred by the loaded classes must be searched and parsed in 
+     *        background, so they are ready when they are loaded.
      * @throws InvalidClassFileFactoryClassException in the case {@link fClass}
      *         has not the expected features (missing constructor, unaccessible 
      *         constructor...).
      */
-    public ClassHierarchy(Classpath cp, Class<? extends ClassFileFactory> fClass, Map<String, Set<String>> expansionBackdoor)
+    public ClassHierarchy(Classpath cp, Class<? extends ClassFileFactory> fClass, Map<String, Set<String>> expansionBackdoor, boolean useSubclassIndex, boolean prefetchClasses)
     throws InvalidClassFileFactoryClassException {
         this.cp = cp.clone(); //safety copy
         this.cfs = new ClassFileStore();
         this.expansionBackdoor = expansionBackdoor;
-        this.allFieldsOf = new HashMap<>();
+        this.subclassIndex = (useSubclassIndex ? new SubclassIndex(this.cp.userClassPath()) : null);
+        this.fieldLayoutOf = new HashMap<>();
         try {
             this.f = fClass.newInstance();
         } catch (InstantiationException | IllegalAccessException e) {
             throw new InvalidClassFileFactoryClassException(e);
         }
+        this.prefetcher = (prefetchClasses ? new Prefetcher(this.cp, this.f, MAX_PREFETCH_STAGED) : null);
         this.systemPackages = new HashMap<>();
     }
 
@@ -365,9 +725,16 @@ public final class ClassHierarchy implements Cloneable {
      * implementation returns {@code classFile.}{@link ClassFile#getClassName() getClassName()}, 
      * if it is not an interface or an abstract class, and all the classes 
      * associated to {@code classFile.}{@link ClassFile#getClassName() getClassName()}, 
-     * in the expansion backdoor provided at construction time.
+     * in the expansion backdoor provided at construction time. If so
+     * requested at construction time, it also returns all the concrete
+     * subclasses of {@code classFile} in the user classpath, that are 
+     * found by means of an index of the headers of the class files
+     * in the user classpath (see {@link SubclassIndex}).
      * 
      * @param classFile a {@link ClassFile}.
+     * @param bypassStandardLoading a {@code boolean}, {@code true} iff the 
+     *        subclasses must be loaded by bypassing the standard loading 
+     *        procedure (see {@link #loadCreateClass(int, String, boolean)}). 
      * @return A {@link Set}{@code <}{@link ClassFile}{@code >} of 
      *         subclasses of {@code classFile}.
      * @throws InvalidInputException if {@code classFile == null} or 
@@ -394,11 +761,13 @@ public final class ClassHierarchy implements Cloneable {
      * @throws WrongClassNameException  when the bytecode for one of 
      *         the subclass names in the expansion backdoor has a 
      *         class name different from that used for resolving it.
+     * @throws PleaseLoadClassException if {@code bypassStandardLoading == false}
+     *         and some subclass must be loaded by a user-defined classloader.
      */
-    public Set<ClassFile> getAllConcreteSubclasses(ClassFile classFile)
+    public Set<ClassFile> getAllConcreteSubclasses(ClassFile classFile, boolean bypassStandardLoading)
     throws InvalidInputException, ClassFileNotFoundException, 
     ClassFileIllFormedException, ClassFileNotAccessibleException, IncompatibleClassFileException, 
-    BadClassFileVersionException, WrongClassNameException {
+    BadClassFileVersionException, WrongClassNameException, PleaseLoadClassException {
         if (classFile == null) {
             throw new InvalidInputException("Tried to get the concrete subclasses of a null classfile.");
         }
@@ -409,20 +778,81 @@ public final class ClassHierarchy implements Cloneable {
         final Set<String> moreSubclasses = this.expansionBackdoor.get(classFile.getClassName());
         if (moreSubclasses != null) {
             for (String subclassName : moreSubclasses) {
-                try {
-                    final ClassFile subclass = loadCreateClass(CLASSLOADER_APP, subclassName, true);
-                    if (isSubclass(subclass, classFile)) {
-                        retVal.add(subclass);
+                final ClassFile subclass = loadCreateClass(CLASSLOADER_APP, subclassName, bypassStandardLoading);
+                if (isSubclass(subclass, classFile)) {
+                    retVal.add(subclass);
+                }
+            }
+        }
+        if (this.subclassIndex != null) {
+            //first finds the subclasses by looking at the class file headers
+            //only, then loads the classes that are not indexed only if they
+            //might contribute more subclasses
+            final SubclassIndex index = this.subclassIndex;
+            final Set<String> subclassNames = new TreeSet<>(index.concreteSubclasses(classFile.getClassName()));
+            if (!index.isIndexed(classFile.getClassName())) {
+                for (Map.Entry<String, Set<String>> entry : index.notIndexedSuperclasses(classFile.getClassName()).entrySet()) {
+                    if (!subclassNames.containsAll(entry.getValue()) && 
+                        isLoadableSubclass(entry.getKey(), classFile, bypassStandardLoading)) {
+                        subclassNames.addAll(entry.getValue());
                     }
-                } catch (PleaseLoadClassException e) {
-                    //this should never happen
-                    throw new UnexpectedInternalException(e);
-                } 
+                }
+            }
+            for (String subclassName : subclassNames) {
+                final ClassFile subclass = loadIndexedClass(subclassName, bypassStandardLoading);
+                if (subclass != null && isSubclass(subclass, classFile)) {
+                    retVal.add(subclass);
+                }
             }
         }
         return retVal;
     }
     
+    /**
+     * Loads a class found in the user classpath 
+     * by a {@link SubclassIndex}.
+     * 
+     * @param className a {@link String}, the name of the class.
+     * @param bypassStandardLoading a {@code boolean}, {@code true} iff the 
+     *        class must be loaded by bypassing the standard loading procedure.
+     * @return the {@link ClassFile} for {@code className}, or 
+     *         {@code null} if it cannot be loaded (in this case
+     *         it cannot be instantiated).
+     * @throws PleaseLoadClassException if {@code bypassStandardLoading == false}
+     *         and the class must be loaded by a user-defined classloader.
+     */
+    private ClassFile loadIndexedClass(String className, boolean bypassStandardLoading) throws PleaseLoadClassException {
+        try {
+            return loadCreateClass(CLASSLOADER_APP, className, bypassStandardLoading);
+        } catch (InvalidInputException | ClassFileNotFoundException | ClassFileIllFormedException | 
+                 ClassFileNotAccessibleException | IncompatibleClassFileException | 
+                 BadClassFileVersionException | WrongClassNameException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Checks whether a class that is not indexed by a {@link SubclassIndex}
+     * is a subclass of another one, loading it only if it was not
+     * loaded before.
+     * 
+     * @param className a {@link String}, the name of the class.
+     * @param superclass a {@link ClassFile}.
+     * @param bypassStandardLoading a {@code boolean}, {@code true} iff the 
+     *        class must be loaded by bypassing the standard loading procedure.
+     * @return {@code true} iff {@code className} can be loaded and is
+     *         a subclass of {@code superclass}.
+     * @throws PleaseLoadClassException if {@code bypassStandardLoading == false}
+     *         and the class must be loaded by a user-defined classloader.
+     */
+    private boolean isLoadableSubclass(String className, ClassFile superclass, boolean bypassStandardLoading) throws PleaseLoadClassException {
+        ClassFile classFile = getClassFileClassArray(CLASSLOADER_APP, className);
+        if (classFile == null) {
+            classFile = loadIndexedClass(className, bypassStandardLoading);
+        }
+        return (classFile != null && isSubclass(classFile, superclass));
+    }
+    
     /**
      * Produces all the superclasses of a given class.
      * 
@@ -475,18 +905,38 @@ public final class ClassHierarchy implements Cloneable {
                 return false;
             }
         } else {
-            for (ClassFile f : superclasses(sub)) { 
-                if (f == sup) {
-                    return true;
-                } 
+            return supertypes(sub).contains(sup);
+        }
+    }
+    
+    /**
+     * Returns all the supertypes of a class, i.e., its superclasses
+     * and all its superinterfaces. The result is cached in the
+     * {@link ClassFile}, and is calculated by merging the (cached)
+     * supertypes of the immediate superclass and superinterfaces, 
+     * so every class is visited once, when it is first checked.
+     * 
+     * @param classFile a {@link ClassFile}.
+     * @return an immutable {@link Set}{@code <}{@link ClassFile}{@code >}
+     *         containing {@code classFile} and all its superclasses and
+     *         superinterfaces, compared by identity.
+     */
+    private static Set<ClassFile> supertypes(ClassFile classFile) {
+        Set<ClassFile> retVal = classFile.getSupertypesCache();
+        if (retVal == null) {
+            final Set<ClassFile> supertypes = Collections.newSetFromMap(new IdentityHashMap<>());
+            supertypes.add(classFile);
+            final ClassFile superclass = classFile.getSuperclass();
+            if (superclass != null) {
+                supertypes.addAll(supertypes(superclass));
             }
-            for (ClassFile f : superinterfaces(sub)) {
-                if (f == sup) {
-                    return true;
-                }
+            for (ClassFile superinterface : classFile.getSuperInterfaces()) {
+                supertypes.addAll(supertypes(superinterface));
             }
-            return false;
+            retVal = Collections.unmodifiableSet(supertypes);
+            classFile.setSupertypesCache(retVal);
         }
+        return retVal;
     }
 
     /**
@@ -651,21 +1101,40 @@ public final class ClassHierarchy implements Cloneable {
      *         fields of all the superclasses of the class.
      */	
     public Signature[] getAllFields(ClassFile classFile) {
-        ArrayList<Signature> signatures = this.allFieldsOf.get(classFile);
-        if (signatures == null) {
-            signatures = new ArrayList<Signature>(0);
-            this.allFieldsOf.put(classFile, signatures);
-            boolean isStartClass = true;
-            for (ClassFile c : superclasses(classFile)) {
-                if (isStartClass) {
-                    signatures.addAll(Arrays.asList(c.getDeclaredFieldsStatic()));
-                    isStartClass = false;
+        return getFieldLayout(classFile).signatures().toArray(SIGNATURE_ARRAY);
+    }
+
+    /**
+     * Returns the layout of the fields of a given class. It 
+     * is computed once and shared by all the clones of this
+     * {@link ClassHierarchy}.
+     * 
+     * @param classFile a {@link ClassFile}.
+     * @return the {@link FieldLayout} of {@code classFile}, whose
+     *         fields are those returned by {@link #getAllFields(ClassFile)}
+     *         or, if {@code classFile} is an array class, its 
+     *         {@code length} field.
+     */
+    public FieldLayout getFieldLayout(ClassFile classFile) {
+        FieldLayout retVal = this.fieldLayoutOf.get(classFile);
+        if (retVal == null) {
+            if (classFile.isArray()) {
+                retVal = new FieldLayout(0, new Signature(classFile.getClassName(), "" + Type.INT, "length"));
+            } else {
+                final ArrayList<Signature> signatures = new ArrayList<>();
+                boolean isStartClass = true;
+                for (ClassFile c : superclasses(classFile)) {
+                    if (isStartClass) {
+                        signatures.addAll(Arrays.asList(c.getDeclaredFieldsStatic()));
+                        isStartClass = false;
+                    }
+                    final Signature[] fields = c.getDeclaredFieldsNonStatic();
+                    signatures.addAll(Arrays.asList(fields));
                 }
-                final Signature[] fields = c.getDeclaredFieldsNonStatic();
-                signatures.addAll(Arrays.asList(fields));
+                retVal = new FieldLayout(numOfStaticFields(classFile), signatures.toArray(SIGNATURE_ARRAY));
             }
+            this.fieldLayoutOf.put(classFile, retVal);
         }
-        final Signature[] retVal = signatures.toArray(SIGNATURE_ARRAY);
         return retVal;
     }
 
@@ -853,11 +1322,17 @@ public final class ClassHierarchy implements Cloneable {
                         //creates a ClassFile for the class and puts it in the 
                         //loaded class cache, registering it with all the compatible 
                         //initiating loaders through the delegation chain
+                        this.f.foundIn(classSignature, findBytecodeResult.bytecode, findBytecodeResult.loadedFrom);
                         accessed = defineClass(definingClassLoader, classSignature, findBytecodeResult.bytecode, bypassStandardLoading);
                         for (int i = definingClassLoader; i <= initiatingLoader; ++i) {
                             addClassFileClassArray(i, accessed);
                         }
                         
+                        //the classes it refers will likely be loaded soon
+                        if (this.prefetcher != null && (definingClassLoader == CLASSLOADER_BOOT || bypassStandardLoading)) {
+                            this.prefetcher.prefetchReferredBy(classSignature, findBytecodeResult.bytecode, definingClassLoader);
+                        }
+                        
                         //finally, if the loader is the bootstrap one, registers
                         //the system package
                         if (definingClassLoader == CLASSLOADER_BOOT) {
@@ -1009,30 +1484,31 @@ public final class ClassHierarchy implements Cloneable {
      *         in {@code paths}.
      */
     private FindBytecodeResult findBytecode(String className, int initiatingLoader) {
-        final Iterable<String> paths = (initiatingLoader == CLASSLOADER_BOOT ? this.cp.bootClassPath() :
-                                        initiatingLoader == CLASSLOADER_EXT ? this.cp.extClassPath() :
-                                        this.cp.userClassPath());
-        for (String _path : paths) {
+        if (this.prefetcher != null) {
+            final FutureTask<FindBytecodeResult> prefetched = this.prefetcher.take(className, initiatingLoader);
+            if (prefetched != null) {
+                try {
+                    return prefetched.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    //falls through
+                } catch (ExecutionException | CancellationException e) {
+                    //falls through
+                }
+            }
+        }
+        return findBytecode(this.cp, className, initiatingLoader);
+    }
+    
+    static FindBytecodeResult findBytecode(Classpath cp, String className, int initiatingLoader) {
+        final Iterable<String> paths = (initiatingLoader == CLASSLOADER_BOOT ? cp.bootClassPath() :
+                                        initiatingLoader == CLASSLOADER_EXT ? cp.extClassPath() :
+                                        cp.userClassPath());
+        for (String path : paths) {
             try {
-                final Path path = Paths.get(_path); 
-                if (Files.isDirectory(path)) {
-                    final Path pathOfClass = path.resolve(className + ".class");
-                    return new FindBytecodeResult(Files.readAllBytes(pathOfClass), _path);
-                } else if (Files.isRegularFile(path) && _path.endsWith(".jar")) {
-                    try (final JarFile f = new JarFile(_path)) {
-                        final JarEntry e = f.getJarEntry(className + ".class");
-                        if (e == null) {
-                            continue;
-                        }
-                        final InputStream inStr = f.getInputStream(e);
-                        final ByteArrayOutputStream outStr = new ByteArrayOutputStream();
-                        final byte[] buf = new byte[2048];
-                        int nbytes;
-                        while ((nbytes = inStr.read(buf)) != -1) {
-                            outStr.write(buf, 0, nbytes);
-                        }
-                        return new FindBytecodeResult(outStr.toByteArray(), _path);
-                    }
+                final byte[] bytecode = cp.findBytecode(path, className);
+                if (bytecode != null) {
+                    return new FindBytecodeResult(bytecode, path);
                 }
             } catch (IOException e) {
                 continue;
@@ -1090,6 +1566,28 @@ public final class ClassHierarchy implements Cloneable {
             throw new ClassFileNotAccessibleException("Cannot access " + classSignature + " from " + accessor.getClassName() + ".");
         }
     }
+    
+    /**
+     * Checks whether a cached resolution can be used. This 
+     * happens when resolving the class in the signature would 
+     * yield the same class it yielded when the resolution was 
+     * cached: In that case resolution would yield again the 
+     * same result, because it only depends on the (immutable) 
+     * resolved class and on its superclasses and superinterfaces. 
+     * Note that defining new classes never invalidates a cached 
+     * resolution, but a resolution cached by a state is not used 
+     * by another one where the class in the signature is not 
+     * loaded yet (or is a different one).
+     * 
+     * @param accessor a {@link ClassFile}, the accessor's class.
+     * @param signature the {@link Signature} that was resolved.
+     * @param cached a {@link Resolution}, possibly {@code null}.
+     * @return {@code true} iff {@code cached != null} and it
+     *         can be used.
+     */
+    private boolean isCurrent(ClassFile accessor, Signature signature, Resolution cached) {
+        return (cached != null && getClassFileClassArray(accessor.getDefiningClassLoader(), signature.getClassName()) == cached.signatureClass);
+    }
 
     /**
      * Performs field resolution (see JVMS v8. section 5.4.3.2).
@@ -1136,6 +1634,13 @@ public final class ClassHierarchy implements Cloneable {
         if (fieldSignature.getName() == null) {
             throw new InvalidInputException("Invoked " + this.getClass().getName() + ".resolveField with an invalid signature (null name field).");
         }
+        
+        //looks in the cache
+        final CacheKey key = new CacheKey(CacheKey.RESOLVED_FIELD, null, fieldSignature, flags(bypassStandardLoading, false));
+        final Resolution cached = (Resolution) accessor.getHierarchyCache().get(key);
+        if (isCurrent(accessor, fieldSignature, cached)) {
+            return cached.accessed;
+        }
 
         //resolves the class of the field signature
         final ClassFile fieldSignatureClass = resolveClass(accessor, fieldSignature.getClassName(), bypassStandardLoading);
@@ -1152,6 +1657,7 @@ public final class ClassHierarchy implements Cloneable {
         try {
             if (isFieldAccessible(accessor, accessed, fieldSignatureClass, fieldSignature)) {
                 //everything went ok
+                accessor.getHierarchyCache().put(key, new Resolution(fieldSignatureClass, accessed));
                 return accessed;
             } else {
                 throw new FieldNotAccessibleException(accessed.toString());
@@ -1162,6 +1668,41 @@ public final class ClassHierarchy implements Cloneable {
         }
     }
     
+    /**
+     * Returns the slot of a resolved field in a {@link FieldLayout}. 
+     * The slot is looked up once per call site (i.e., per accessor and 
+     * field signature) and layout, and then it is reused as long as 
+     * the call site accesses objects with the same layout, so the 
+     * accessed objects need not be searched by signature.
+     * 
+     * @param accessor a {@link ClassFile}, the accessor's class.
+     * @param fieldSignature the {@link Signature} of the field, as
+     *        passed to {@link #resolveField(ClassFile, Signature, boolean) resolveField}.
+     * @param bypassStandardLoading a {@code boolean}, as passed to 
+     *        {@link #resolveField(ClassFile, Signature, boolean) resolveField}.
+     * @param layout the {@link FieldLayout} where the field is looked up.
+     * @return an {@code int}, the slot of the field in {@code layout}, 
+     *         or {@code -1} if {@code layout} has no such field.
+     * @throws FieldNotFoundException if the field was not resolved before 
+     *         by invoking {@link #resolveField(ClassFile, Signature, boolean) resolveField}
+     *         with the same parameters.
+     */
+    public int getFieldSlot(ClassFile accessor, Signature fieldSignature, boolean bypassStandardLoading, FieldLayout layout) 
+    throws FieldNotFoundException {
+        final Resolution cached = (Resolution) accessor.getHierarchyCache().get(new CacheKey(CacheKey.RESOLVED_FIELD, null, fieldSignature, flags(bypassStandardLoading, false)));
+        if (cached == null) {
+            throw new FieldNotFoundException(fieldSignature.toString());
+        }
+        if (cached.lastLayout != layout) {
+            if (cached.accessedSignature == null) {
+                cached.accessedSignature = new Signature(cached.accessed.getClassName(), fieldSignature.getDescriptor(), fieldSignature.getName());
+            }
+            cached.lastSlot = layout.slot(cached.accessedSignature);
+            cached.lastLayout = layout;
+        }
+        return cached.lastSlot;
+    }
+    
     /**
      * Searches a field declaration in the class or superclasses/superinterfaces
      * of the field signature. The lookup procedure is the recursive procedure
@@ -1251,6 +1792,13 @@ public final class ClassHierarchy implements Cloneable {
         if (methodSignature.getName() == null) {
             throw new InvalidInputException("Invoked " + this.getClass().getName() + ".resolveMethod with an invalid signature (null name field).");
         }
+        
+        //looks in the cache
+        final CacheKey key = new CacheKey(CacheKey.RESOLVED_METHOD, null, methodSignature, flags(isInterface, bypassStandardLoading));
+        final Resolution cached = (Resolution) accessor.getHierarchyCache().get(key);
+        if (isCurrent(accessor, methodSignature, cached)) {
+            return cached.accessed;
+        }
 
         //resolves the class of the method's signature
         final ClassFile methodSignatureClass = resolveClass(accessor, methodSignature.getClassName(), bypassStandardLoading);
@@ -1326,6 +1874,7 @@ public final class ClassHierarchy implements Cloneable {
         try {
             if (isMethodAccessible(accessor, accessed, methodSignatureClass, methodSignaturePolymorphic)) {
                 //everything went ok
+                accessor.getHierarchyCache().put(key, new Resolution(methodSignatureClass, accessed));
                 return accessed;
             } else {
                 throw new MethodNotAccessibleException(methodSignature.toString());
@@ -1591,7 +2140,12 @@ public final class ClassHierarchy implements Cloneable {
      */
     public ClassFile lookupMethodImplInterface(ClassFile receiverClass, ClassFile resolutionClass, Signature methodSignature) 
     throws MethodNotAccessibleException, MethodAbstractException, IncompatibleClassFileException {
-        ClassFile retVal = null;
+        //looks in the cache
+        final CacheKey key = new CacheKey(CacheKey.METHOD_IMPL, resolutionClass, methodSignature, flags(true, false));
+        ClassFile retVal = (ClassFile) receiverClass.getHierarchyCache().get(key);
+        if (retVal != null) {
+            return retVal;
+        }
         
         try {
             //step 1 and 2
@@ -1632,6 +2186,7 @@ public final class ClassHierarchy implements Cloneable {
             throw new UnexpectedInternalException(e);
         }
         
+        receiverClass.getHierarchyCache().put(key, retVal);
         return retVal;
     }
 
@@ -1650,6 +2205,13 @@ public final class ClassHierarchy implements Cloneable {
      */
     public ClassFile lookupMethodImplSpecial(ClassFile currentClass, ClassFile resolutionClass, Signature methodSignature) 
     throws MethodAbstractException, IncompatibleClassFileException {
+        //looks in the cache
+        final CacheKey key = new CacheKey(CacheKey.METHOD_IMPL, resolutionClass, methodSignature, flags(false, true));
+        final ClassFile cached = (ClassFile) currentClass.getHierarchyCache().get(key);
+        if (cached != null) {
+            return cached;
+        }
+        
         //determines whether should start looking for the implementation in 
         //the superclass of the current class (virtual semantics, for super 
         //calls) or in the class of the resolved method (nonvirtual semantics, 
@@ -1723,6 +2285,7 @@ public final class ClassHierarchy implements Cloneable {
             throw new UnexpectedInternalException(e);
         }
 
+        currentClass.getHierarchyCache().put(key, retVal);
         return retVal;
     }
 
@@ -1762,7 +2325,12 @@ public final class ClassHierarchy implements Cloneable {
         if (resolutionClass.isMethodSignaturePolymorphic(methodSignature)) {
             return resolutionClass;
         } else {
-            ClassFile retVal = null;
+            //looks in the cache
+            final CacheKey key = new CacheKey(CacheKey.METHOD_IMPL, resolutionClass, methodSignature, flags(false, false));
+            ClassFile retVal = (ClassFile) receiverClass.getHierarchyCache().get(key);
+            if (retVal != null) {
+                return retVal;
+            }
             
             //step 1 and 2
             for (ClassFile f : superclasses(receiverClass)) {
@@ -1795,6 +2363,7 @@ public final class ClassHierarchy implements Cloneable {
                 }
             }
             
+            receiverClass.getHierarchyCache().put(key, retVal);
             return retVal;
         }
     }
@@ -1810,7 +2379,25 @@ public final class ClassHierarchy implements Cloneable {
      * @return {@code true} iff {@code source} is assignment
      *         compatible with {@code target}.
      */
-    public boolean isAssignmentCompatible(ClassFile source, ClassFile target) {       
+    public boolean isAssignmentCompatible(ClassFile source, ClassFile target) {
+        //for plain classes it is a subclass check, 
+        //that is fast enough not to need caching
+        if (!source.isInterface() && !source.isArray()) {
+            return (!target.isArray() && isSubclass(source, target));
+        }
+        
+        //looks in the cache
+        final CacheKey key = new CacheKey(CacheKey.ASSIGNMENT_COMPATIBLE, target, null, 0);
+        final Boolean cached = (Boolean) source.getHierarchyCache().get(key);
+        if (cached != null) {
+            return cached.booleanValue();
+        }
+        final boolean retVal = isAssignmentCompatibleNoCache(source, target);
+        source.getHierarchyCache().put(key, Boolean.valueOf(retVal));
+        return retVal;
+    }
+    
+    private boolean isAssignmentCompatibleNoCache(ClassFile source, ClassFile target) {       
         final ClassFile cf_JAVA_OBJECT = getClassFileClassArray(CLASSLOADER_BOOT, JAVA_OBJECT);
         if (cf_JAVA_OBJECT == null) {
             throw new UnexpectedInternalException("Method " + this.getClass().getName() + ".createClassFileArray was unable to find standard class java.lang.Object.");
@@ -1932,6 +2519,21 @@ public final class ClassHierarchy implements Cloneable {
         return false; //no such m was found
     }
     
+    /**
+     * Stops the background prefetching of classes (if any),
+     * lets the {@link ClassFileFactory} save what it parsed,
+     * and closes the classpath for this {@link ClassHierarchy} 
+     * and all its clones, that remain usable: Afterwards the 
+     * classes are just looked up when they are loaded.
+     */
+    public void close() {
+        if (this.prefetcher != null) {
+            this.prefetcher.close();
+        }
+        this.f.close();
+        this.cp.close();
+    }
+    
     @Override
     public ClassHierarchy clone() {
         final ClassHierarchy o;
@@ -1941,7 +2543,7 @@ public final class ClassHierarchy implements Cloneable {
             throw new InternalError(e);
         }
         
-        //cp, expansionBackdoor and allFieldsOf may be shared;
+        //cp, expansionBackdoor and fieldLayoutOf may be shared;
         //in a future, expansionBackdoor may possibly be cloned
         
         o.cfs = o.cfs.clone();
@@ -1,23 +1,115 @@
 package jbse.bc;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * Class representing a classpath for symbolic execution.
+ * It keeps open the jar files where classes are looked up,
+ * until it is closed.
  * 
  * @author Pietro Braione
  */
-public class Classpath implements Cloneable {
+public class Classpath implements Cloneable, AutoCloseable {
     private final String javaHome;
     private ArrayList<String> bootClassPath; //nonfinal because of clone
     private ArrayList<String> extClassPath; //nonfinal because of clone
     private ArrayList<String> extDirs; //nonfinal because of clone
     private ArrayList<String> userClassPath; //nonfinal because of clone
     private ArrayList<String> classPath; //nonfinal because of clone
+    
+    /** 
+     * Maps the paths in the classpath to their {@link PathIndex}es, 
+     * built upon the first successful lookup of a class in the path. 
+     * It is shared by all the clones, so every path is indexed once 
+     * during the whole symbolic execution. Missing or unreadable
+     * paths are not indexed, and are tried again at the next lookup.
+     */
+    private final ConcurrentHashMap<String, PathIndex> indices = new ConcurrentHashMap<>();
+    
+    /**
+     * The index of a path in the classpath.
+     * 
+     * @author Pietro Braione
+     */
+    @FunctionalInterface
+    private interface PathIndex extends Closeable {
+        /**
+         * Reads a class file.
+         * 
+         * @param fileName a {@link String}, the name of the 
+         *        class file relative to the path.
+         * @return a {@code byte[]} with the content of the file, 
+         *         or {@code null} if the path does not contain
+         *         {@code fileName}.
+         * @throws IOException if reading the file fails.
+         */
+        byte[] read(String fileName) throws IOException;
+        
+        @Override
+        default void close() throws IOException {
+            //nothing to release by default
+        }
+    }
+    
+    /**
+     * The index of a jar file, that is kept open
+     * and maps the names of its class files to
+     * their entries.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class JarIndex implements PathIndex {
+        private final JarFile jarFile;
+        private final HashMap<String, JarEntry> entries = new HashMap<>();
+        
+        JarIndex(String path) throws IOException {
+            this.jarFile = new JarFile(path);
+            for (Enumeration<JarEntry> es = this.jarFile.entries(); es.hasMoreElements(); ) {
+                final JarEntry e = es.nextElement();
+                if (e.getName().endsWith(".class")) {
+                    this.entries.put(e.getName(), e);
+                }
+            }
+        }
+        
+        @Override
+        public byte[] read(String fileName) throws IOException {
+            final JarEntry e = this.entries.get(fileName);
+            if (e == null) {
+                return null;
+            }
+            try (final InputStream inStr = this.jarFile.getInputStream(e)) {
+                final long size = e.getSize();
+                final ByteArrayOutputStream outStr = new ByteArrayOutputStream(size > 0 && size < Integer.MAX_VALUE ? (int) size : 2048);
+                final byte[] buf = new byte[2048];
+                int nbytes;
+                while ((nbytes = inStr.read(buf)) != -1) {
+                    outStr.write(buf, 0, nbytes);
+                }
+                return outStr.toByteArray();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            this.jarFile.close();
+        }
+    }
 
     /**
      * Constructor.
@@ -96,6 +188,75 @@ public class Classpath implements Cloneable {
         }
     }
     
+    /**
+     * Returns the bytecode of a class by searching 
+     * its class file in a path of this classpath.
+     * 
+     * @param path a {@link String}, one of the paths of 
+     *        this classpath (a directory or a jar file).
+     * @param className a {@link String}, the name of the class.
+     * @return a {@code byte[]} with the content of the class file, 
+     *         or {@code null} if {@code path} does not contain it.
+     * @throws IOException if reading the class file fails.
+     */
+    public byte[] findBytecode(String path, String className) throws IOException {
+        PathIndex index = this.indices.get(path);
+        if (index == null) {
+            index = makeIndex(path);
+            if (index == null) {
+                return null; //nothing to find there, for now
+            }
+            final PathIndex indexPrevious = this.indices.putIfAbsent(path, index);
+            if (indexPrevious != null) {
+                index.close(); //another thread indexed it first
+                index = indexPrevious;
+            }
+        }
+        return index.read(className + ".class");
+    }
+    
+    /**
+     * Builds the index of a path.
+     * 
+     * @param path a {@link String}, a path.
+     * @return the {@link PathIndex} of {@code path}, or 
+     *         {@code null} if {@code path} is neither a 
+     *         directory nor a jar file.
+     * @throws IOException if {@code path} is a jar file
+     *         that cannot be read.
+     */
+    private static PathIndex makeIndex(String path) throws IOException {
+        final Path _path = Paths.get(path);
+        if (Files.isDirectory(_path)) {
+            return fileName -> {
+                final Path pathOfClass = _path.resolve(fileName);
+                return (Files.isRegularFile(pathOfClass) ? Files.readAllBytes(pathOfClass) : null);
+            };
+        } else if (Files.isRegularFile(_path) && path.endsWith(".jar")) {
+            return new JarIndex(path);
+        }
+        return null;
+    }
+    
+    /**
+     * Closes the jar files kept open by this {@link Classpath}
+     * and by all its clones. They remain usable, and reopen 
+     * the jar files upon the next lookup.
+     */
+    @Override
+    public void close() {
+        for (String path : this.indices.keySet()) {
+            final PathIndex index = this.indices.remove(path);
+            if (index != null) {
+                try {
+                    index.close();
+                } catch (IOException e) {
+                    //nothing to do
+                }
+            }
+        }
+    }
+    
     /**
      * Returns the Java home directory.
      * 
@@ -1,13 +1,22 @@
 package jbse.bc;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.TreeSet;
 
 /**
  * Class that represent an exception table.
  */
 public class ExceptionTable {
     private ArrayList<ExceptionTableEntry> exTable;
+    
+    /** 
+     * Caches, for each program counter before the end of the last 
+     * try block, the entries whose try blocks contain it, in 
+     * table order; it is lazily calculated.
+     */
+    private ExceptionTableEntry[][] entriesAt;
 
     /**
      * Constructor, Initialize the structure that will contain the exception table.
@@ -38,15 +47,45 @@ public class ExceptionTable {
      *         one of the exception types at the program counter.
      */
     public ExceptionTableEntry getEntry(List<String> excTypes, int PC) {
-        for (ExceptionTableEntry tmpEntry : this.exTable) {
-            if (excTypes.contains(tmpEntry.getType()) && 
-                (PC >= tmpEntry.getStartPC()) && 
-                (PC < tmpEntry.getEndPC())) {
+        if (this.entriesAt == null) {
+            this.entriesAt = calculateEntriesAt();
+        }
+        if (PC < 0 || PC >= this.entriesAt.length) {
+            return null;
+        }
+        for (ExceptionTableEntry tmpEntry : this.entriesAt[PC]) {
+            if (excTypes.contains(tmpEntry.getType())) {
                 return tmpEntry;
             }
         }
         return null;
     }
+    
+    private ExceptionTableEntry[][] calculateEntriesAt() {
+        //the program counters between two consecutive starts/ends
+        //of try blocks are in the same try blocks
+        final TreeSet<Integer> boundaries = new TreeSet<>();
+        boundaries.add(0);
+        for (ExceptionTableEntry entry : this.exTable) {
+            boundaries.add(Math.max(0, entry.getStartPC()));
+            boundaries.add(Math.max(0, entry.getEndPC()));
+        }
+        final ExceptionTableEntry[][] retVal = new ExceptionTableEntry[boundaries.last()][];
+        for (int from : boundaries) {
+            final Integer to = boundaries.higher(from);
+            if (to == null) {
+                break;
+            }
+            final ArrayList<ExceptionTableEntry> entries = new ArrayList<>();
+            for (ExceptionTableEntry entry : this.exTable) {
+                if (from >= entry.getStartPC() && from < entry.getEndPC()) {
+                    entries.add(entry);
+                }
+            }
+            Arrays.fill(retVal, from, to, entries.toArray(new ExceptionTableEntry[0]));
+        }
+        return retVal;
+    }
 
     /**
      * Adds an entry to the exception table.
@@ -55,5 +94,6 @@ public class ExceptionTable {
      */
     public void addEntry(ExceptionTableEntry entry) {
         exTable.add(entry);
+        this.entriesAt = null;
     }
 }
@@ -0,0 +1,110 @@
+package jbse.bc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The layout of the fields of a class, i.e., the
+ * association of all the field signatures known to the
+ * class (its static and nonstatic fields, and the nonstatic 
+ * fields of its superclasses) to their slot numbers. It is 
+ * immutable, and it is computed once per class by the 
+ * {@link ClassHierarchy} (see {@link ClassHierarchy#getFieldLayout(ClassFile)}), 
+ * so the class and all its instances may store the values 
+ * of their fields in a flat array indexed by slot number.
+ *
+ * @author Pietro Braione
+ *
+ */
+public final class FieldLayout {
+    /** The signatures of the fields, in slot order. */
+    private final List<Signature> signatures;
+
+    /** The number of static fields. */
+    private final int numOfStaticFields;
+
+    /** Maps the signatures of the fields to their slot numbers. */
+    private final HashMap<Signature, Integer> slots;
+
+    /**
+     * Constructor.
+     *
+     * @param numOfStaticFields an {@code int}, the number of static fields.
+     * @param fieldSignatures a {@link Signature}{@code []}, all the
+     *        fields in slot order, the static ones first. It
+     *        is not modified, nor retained.
+     */
+    public FieldLayout(int numOfStaticFields, Signature... fieldSignatures) {
+        final Signature[] fieldSignaturesCopy = fieldSignatures.clone(); //safety copy
+        this.signatures = Collections.unmodifiableList(Arrays.asList(fieldSignaturesCopy));
+        this.numOfStaticFields = numOfStaticFields;
+        this.slots = new HashMap<>();
+        for (int slot = fieldSignaturesCopy.length - 1; slot >= 0; --slot) {
+            //backwards, so with duplicate signatures the first slot wins
+            this.slots.put(fieldSignaturesCopy[slot], slot);
+        }
+    }
+
+    /**
+     * Returns the signatures of the fields.
+     *
+     * @return an immutable {@link List}{@code <}{@link Signature}{@code >},
+     *         the field signatures in slot order.
+     */
+    public List<Signature> signatures() {
+        return this.signatures;
+    }
+
+    /**
+     * Returns the number of static fields.
+     *
+     * @return an {@code int}. The static fields have
+     *         the slots from {@code 0} to this value
+     *         (excluded).
+     */
+    public int numOfStaticFields() {
+        return this.numOfStaticFields;
+    }
+
+    /**
+     * Returns the number of fields.
+     *
+     * @return an {@code int}.
+     */
+    public int numOfFields() {
+        return this.signatures.size();
+    }
+
+    /**
+     * Returns the slot number of a field.
+     *
+     * @param field the {@link Signature} of the field.
+     * @return an {@code int}, the slot number of
+     *         {@code field}, or {@code -1} if there
+     *         is no field with signature {@code field}.
+     */
+    public int slot(Signature field) {
+        final Integer retVal = this.slots.get(field);
+        return (retVal == null ? -1 : retVal.intValue());
+    }
+
+    /**
+     * Returns the slot number of the first field
+     * with a given name.
+     *
+     * @param fieldName a {@link String}, the name of the field.
+     * @return an {@code int}, the least slot number of a
+     *         field with name {@code fieldName}, or {@code -1}
+     *         if there is no field with that name.
+     */
+    public int slot(String fieldName) {
+        for (int slot = 0; slot < this.signatures.size(); ++slot) {
+            if (this.signatures.get(slot).getName().equals(fieldName)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+}
@@ -21,6 +21,12 @@ public class LineNumberTable implements Iterable<LineNumberTable.Row> {
 
     private final Row[] rows;
     private int next;
+    
+    /** 
+     * Caches the line numbers of the program counters
+     * before the last start of a row; it is lazily calculated.
+     */
+    private int[] lineNumbers;
 
     public LineNumberTable(int rowsNumber) {
         this.rows = new Row[rowsNumber];
@@ -35,6 +41,48 @@ public class LineNumberTable implements Iterable<LineNumberTable.Row> {
         
         this.rows[this.next] = new Row(start, lineNumber);
         this.next++;
+        this.lineNumbers = null;
+    }
+    
+    /**
+     * Returns the line number of a program counter.
+     * 
+     * @param programCounter an {@code int}.
+     * @return an {@code int}, the line number of the last row 
+     *         preceding the first row that starts after {@code programCounter}, 
+     *         or {@code -1} if the first row starts after {@code programCounter}
+     *         (or there are no rows).
+     */
+    public int getLineNumber(int programCounter) {
+        if (this.next == 0 || programCounter < 0) {
+            return -1;
+        }
+        if (this.lineNumbers == null) {
+            this.lineNumbers = calculateLineNumbers();
+        }
+        return (programCounter < this.lineNumbers.length ? 
+                this.lineNumbers[programCounter] : 
+                this.rows[this.next - 1].lineNumber);
+    }
+    
+    private int[] calculateLineNumbers() {
+        //the rows may not be sorted by start, so the first row
+        //that starts after a program counter is the first row
+        //whose start, or the start of some previous row, is 
+        //after the program counter
+        final int[] maxStart = new int[this.next];
+        for (int i = 0; i < this.next; ++i) {
+            maxStart[i] = (i == 0 ? this.rows[i].start : Math.max(maxStart[i - 1], this.rows[i].start));
+        }
+        final int[] retVal = new int[maxStart[this.next - 1]];
+        int firstAfter = 0;
+        for (int programCounter = 0; programCounter < retVal.length; ++programCounter) {
+            while (maxStart[firstAfter] <= programCounter) {
+                ++firstAfter;
+            }
+            retVal[programCounter] = (firstAfter == 0 ? -1 : this.rows[firstAfter - 1].lineNumber);
+        }
+        return retVal;
     }
 
     public Iterator<Row> iterator() {
@@ -0,0 +1,94 @@
+package jbse.bc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the results of parsing bytecodes ahead
+ * of the creation of their classfiles (see
+ * {@link ClassFileFactory#parseAhead(byte[])}). The bytecodes
+ * are compared by identity, since the bytecode that is parsed
+ * ahead is the same array that the classfile is later created
+ * from. When the cache is full the least recently used result
+ * is dropped. It is thread-safe, because the results are put
+ * by the threads that prefetch classes, and they are got by
+ * the thread that creates the classfiles.
+ *
+ * @author Pietro Braione
+ *
+ * @param <T> the type of the results of parsing.
+ */
+final class ParsedAheadCache<T> {
+    /**
+     * Wraps a bytecode, so it is compared by identity.
+     *
+     * @author Pietro Braione
+     */
+    private static final class BytecodeKey {
+        final byte[] bytecode;
+
+        BytecodeKey(byte[] bytecode) {
+            this.bytecode = bytecode;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.bytecode);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof BytecodeKey && ((BytecodeKey) obj).bytecode == this.bytecode);
+        }
+    }
+
+    private final LinkedHashMap<BytecodeKey, T> parsed;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize an {@code int}, the maximum number of
+     *        results in the cache.
+     */
+    ParsedAheadCache(int maxSize) {
+        this.parsed = new LinkedHashMap<BytecodeKey, T>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BytecodeKey, T> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Caches the result of parsing a bytecode.
+     *
+     * @param bytecode a {@code byte[]}.
+     * @param result the result of parsing {@code bytecode}.
+     */
+    synchronized void put(byte[] bytecode, T result) {
+        this.parsed.put(new BytecodeKey(bytecode), result);
+    }
+
+    /**
+     * Gets the result of parsing a bytecode.
+     *
+     * @param bytecode a {@code byte[]}.
+     * @return the cached result of parsing {@code bytecode},
+     *         or {@code null} if {@code bytecode} was not
+     *         parsed ahead, or its result was dropped.
+     */
+    synchronized T get(byte[] bytecode) {
+        return this.parsed.get(new BytecodeKey(bytecode));
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return an {@code int}.
+     */
+    synchronized int size() {
+        return this.parsed.size();
+    }
+}
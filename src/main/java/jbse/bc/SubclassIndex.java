@@ -0,0 +1,406 @@
+package jbse.bc;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import jbse.bc.exc.ClassFileIllFormedException;
+import jbse.common.exc.InvalidInputException;
+import jbse.common.exc.UnexpectedInternalException;
+
+/**
+ * An index of the classes in some paths of a classpath, that
+ * associates every class to its direct subclasses and
+ * subinterfaces in the paths. It is built by reading only the
+ * headers of the class files (name, access flags, superclass
+ * and superinterfaces), without loading any class. Since
+ * scanning the paths is costly, the index of each path is
+ * saved to a cache directory and reused by later runs until
+ * the path is modified; moreover, the index is built lazily, 
+ * the first time it is queried, and the answers to the queries
+ * are memoized. It is owned by a {@link ClassHierarchy} (and shared
+ * with its clones), so it is discarded with it.
+ *
+ * @author Pietro Braione
+ */
+final class SubclassIndex {
+    /** The directory where the indices of the paths are saved. */
+    private static final Path CACHE_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "jbse-subclass-index");
+
+    /** The version of the format of the saved indices. */
+    private static final int CACHE_VERSION = 2;
+
+    /**
+     * The header of a class file.
+     *
+     * @author Pietro Braione
+     */
+    static final class Header {
+        final String className;
+        final int accessFlags;
+        final String superclassName; //null for interfaces and java.lang.Object
+        final String[] superInterfaceNames;
+
+        Header(String className, int accessFlags, String superclassName, String[] superInterfaceNames) {
+            this.className = className;
+            this.accessFlags = accessFlags;
+            this.superclassName = superclassName;
+            this.superInterfaceNames = superInterfaceNames;
+        }
+
+        boolean isConcrete() {
+            return (this.accessFlags & (Modifier.ABSTRACT | Modifier.INTERFACE)) == 0;
+        }
+    }
+
+    /** The indexed paths; {@code null} after the index is built. */
+    private ArrayList<String> paths;
+
+    /** Maps the names of the indexed classes to their headers. */
+    private final HashMap<String, Header> headers = new HashMap<>();
+
+    /**
+     * Maps class names (also of classes that are not indexed) to the
+     * names of their direct indexed subclasses and subinterfaces.
+     */
+    private final HashMap<String, ArrayList<String>> directSubclasses = new HashMap<>();
+
+    /** Memoizes {@link #concreteSubclasses(String)}. */
+    private final HashMap<String, Set<String>> concreteSubclassesOf = new HashMap<>();
+
+    /**
+     * Maps the classes that are not indexed, but are superclasses 
+     * or superinterfaces of some indexed class, to their indexed 
+     * concrete subclasses; {@code null} until needed.
+     */
+    private TreeMap<String, Set<String>> notIndexed;
+
+    /**
+     * Constructor. It does not scan the paths, that are
+     * scanned the first time the index is queried.
+     *
+     * @param paths an {@link Iterable}{@code <}{@link String}{@code >},
+     *        the paths (jar files or directories) to index.
+     */
+    SubclassIndex(Iterable<String> paths) {
+        this.paths = new ArrayList<>();
+        paths.forEach(this.paths::add);
+    }
+
+    private void ensureBuilt() {
+        if (this.paths == null) {
+            return;
+        }
+        for (String path : this.paths) {
+            for (Header header : headersOf(Paths.get(path))) {
+                //as in class loading, the first path with a class wins
+                if (this.headers.putIfAbsent(header.className, header) == null) {
+                    if (header.superclassName != null) {
+                        addDirectSubclass(header.superclassName, header.className);
+                    }
+                    for (String superInterfaceName : header.superInterfaceNames) {
+                        addDirectSubclass(superInterfaceName, header.className);
+                    }
+                }
+            }
+        }
+        this.paths = null;
+    }
+
+    private void addDirectSubclass(String superclassName, String subclassName) {
+        this.directSubclasses.computeIfAbsent(superclassName, k -> new ArrayList<>()).add(subclassName);
+    }
+
+    /**
+     * Checks whether a class is indexed.
+     *
+     * @param className a {@link String}, the name of a class.
+     * @return {@code true} iff {@code className} is in one
+     *         of the indexed paths.
+     */
+    boolean isIndexed(String className) {
+        ensureBuilt();
+        return this.headers.containsKey(className);
+    }
+
+    /**
+     * Returns the indexed concrete subclasses of a class that
+     * can be found by looking at the headers of the indexed classes 
+     * only, i.e., that inherit from the class through indexed classes.
+     *
+     * @param className a {@link String}, the name of a class.
+     * @return an immutable, sorted {@link Set}{@code <}{@link String}{@code >} with the names
+     *         of all the indexed classes that are neither abstract nor
+     *         interfaces, and that are subclasses of {@code className}
+     *         (possibly {@code className} itself) through indexed classes.
+     *         If {@code className} is indexed these are all its indexed
+     *         concrete subclasses, otherwise some may inherit from 
+     *         {@code className} through some classes that are not 
+     *         indexed, see {@link #notIndexedSuperclasses(String)}.
+     */
+    Set<String> concreteSubclasses(String className) {
+        ensureBuilt();
+        final Set<String> cached = this.concreteSubclassesOf.get(className);
+        if (cached != null) {
+            return cached;
+        }
+        final ArrayDeque<String> toVisit = new ArrayDeque<>();
+        toVisit.add(className);
+        final HashSet<String> visited = new HashSet<>(toVisit);
+        final TreeSet<String> retVal = new TreeSet<>();
+        while (!toVisit.isEmpty()) {
+            final String current = toVisit.remove();
+            final Header header = this.headers.get(current);
+            if (header != null && header.isConcrete()) {
+                retVal.add(current);
+            }
+            for (String subclassName : this.directSubclasses.getOrDefault(current, new ArrayList<>())) {
+                if (visited.add(subclassName)) {
+                    toVisit.add(subclassName);
+                }
+            }
+        }
+        final Set<String> retValImmutable = Collections.unmodifiableSet(retVal);
+        this.concreteSubclassesOf.put(className, retValImmutable);
+        return retValImmutable;
+    }
+
+    /**
+     * Returns the classes that are not indexed, but 
+     * through which an indexed concrete class might 
+     * inherit from a class that is not indexed either.
+     *
+     * @param className a {@link String}, the name of a class
+     *        that is not indexed.
+     * @return a {@link Map}{@code <}{@link String}{@code , }{@link Set}{@code <}{@link String}{@code >>}
+     *         mapping the name of every class that is not indexed, but 
+     *         that is a superclass or a superinterface of some indexed class,
+     *         to its indexed concrete subclasses, provided that some of 
+     *         them are not already in {@link #concreteSubclasses(String) concreteSubclasses}{@code (className)}. 
+     *         This way, the caller needs to decide whether a mapped class 
+     *         is a subclass of {@code className} (e.g., by loading it) only 
+     *         when this decision yields more subclasses. 
+     */
+    Map<String, Set<String>> notIndexedSuperclasses(String className) {
+        ensureBuilt();
+        if (this.notIndexed == null) {
+            //computed once, since it does not depend on className
+            this.notIndexed = new TreeMap<>();
+            for (String superclassName : this.directSubclasses.keySet()) {
+                if (!isIndexed(superclassName)) {
+                    this.notIndexed.put(superclassName, concreteSubclasses(superclassName));
+                }
+            }
+        }
+        final Set<String> found = concreteSubclasses(className);
+        final TreeMap<String, Set<String>> retVal = new TreeMap<>();
+        for (Map.Entry<String, Set<String>> entry : this.notIndexed.entrySet()) {
+            if (!entry.getKey().equals(className) && !found.containsAll(entry.getValue())) {
+                retVal.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns the headers of the class files in a path,
+     * from the cache directory if possible.
+     *
+     * @param path a {@link Path}, a jar file or a directory.
+     * @return a {@link List}{@code <}{@link Header}{@code >}.
+     */
+    static List<Header> headersOf(Path path) {
+        try {
+            final String fingerprint = fingerprint(path);
+            if (fingerprint == null) {
+                return Collections.emptyList(); //nothing to index there
+            }
+            final String pathString = path.toAbsolutePath().normalize().toString();
+            final Path cacheFile = CACHE_DIRECTORY.resolve(Integer.toHexString(pathString.hashCode()) + ".idx");
+            final List<Header> cached = readCache(cacheFile, pathString, fingerprint);
+            if (cached != null) {
+                return cached;
+            }
+            final List<Header> retVal = (Files.isDirectory(path) ? scanDirectory(path) : scanJar(path));
+            writeCache(cacheFile, pathString, fingerprint, retVal);
+            return retVal;
+        } catch (IOException e) {
+            return Collections.emptyList(); //an unreadable path contributes no class
+        }
+    }
+
+    /**
+     * Calculates a fingerprint of a path, that changes
+     * whenever a file is added to, removed from, renamed
+     * in or rewritten in the path. For a directory it is 
+     * calculated from the names, sizes and modification 
+     * times of its class files, so every class file is 
+     * inspected with a single stat, but none is read.
+     *
+     * @param path a {@link Path}.
+     * @return a {@link String}, or {@code null} if
+     *         {@code path} is neither a directory nor
+     *         a jar file.
+     * @throws IOException if reading the path fails.
+     */
+    static String fingerprint(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            final long[] hashAndCount = new long[2];
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && file.toString().endsWith(".class")) {
+                        //summed, so it does not depend on the visit order
+                        final long fileHash = 31 * (31 * path.relativize(file).toString().hashCode() + attrs.size()) + attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+                        hashAndCount[0] += fileHash ^ (fileHash >>> 29);
+                        ++hashAndCount[1];
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return "dir:" + hashAndCount[1] + ":" + hashAndCount[0];
+        } else if (Files.isRegularFile(path) && path.toString().endsWith(".jar")) {
+            return "jar:" + Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis();
+        } else {
+            return null;
+        }
+    }
+
+    private static boolean isClassFile(Path file) {
+        return Files.isRegularFile(file) && file.toString().endsWith(".class");
+    }
+
+    private static List<Header> scanDirectory(Path path) throws IOException {
+        final ArrayList<Header> retVal = new ArrayList<>();
+        try (final Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                if (isClassFile(file)) {
+                    final String fileName = path.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                    addHeader(retVal, fileName, Files.readAllBytes(file));
+                }
+            }
+        }
+        return retVal;
+    }
+
+    private static List<Header> scanJar(Path path) throws IOException {
+        final ArrayList<Header> retVal = new ArrayList<>();
+        try (final JarFile jarFile = new JarFile(path.toFile())) {
+            for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
+                final JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && entry.getName().endsWith(".class") && !entry.getName().startsWith("META-INF/")) {
+                    try (final InputStream inStr = jarFile.getInputStream(entry)) {
+                        final ByteArrayOutputStream outStr = new ByteArrayOutputStream();
+                        final byte[] buf = new byte[2048];
+                        int nRead;
+                        while ((nRead = inStr.read(buf)) != -1) {
+                            outStr.write(buf, 0, nRead);
+                        }
+                        addHeader(retVal, entry.getName(), outStr.toByteArray());
+                    }
+                }
+            }
+        }
+        return retVal;
+    }
+
+    private static void addHeader(List<Header> headers, String fileName, byte[] bytecode) {
+        try {
+            //a dummy classfile only calculates the offsets of the
+            //constant pool entries, and decodes no more than the
+            //strings we ask for
+            final ClassFileLazy cf = new ClassFileLazy(CLASSLOADER_APP, fileName, bytecode, null, null);
+            if ((cf.getClassName() + ".class").equals(fileName)) { //otherwise it cannot be loaded
+                headers.add(new Header(cf.getClassName(), cf.getAccessFlags(), cf.getSuperclassName(),
+                                       cf.getSuperInterfaceNames().toArray(new String[0])));
+            }
+        } catch (ClassFileIllFormedException | InvalidInputException |
+                 UnexpectedInternalException | IndexOutOfBoundsException e) {
+            //skips the ill-formed class files
+        }
+    }
+
+    static List<Header> readCache(Path cacheFile, String pathString, String fingerprint) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_VERSION || !in.readUTF().equals(pathString) || !in.readUTF().equals(fingerprint)) {
+                return null; //stale
+            }
+            final int count = in.readInt();
+            final ArrayList<Header> retVal = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                final String className = in.readUTF();
+                final int accessFlags = in.readInt();
+                final String superclassName = (in.readBoolean() ? in.readUTF() : null);
+                final String[] superInterfaceNames = new String[in.readInt()];
+                for (int j = 0; j < superInterfaceNames.length; ++j) {
+                    superInterfaceNames[j] = in.readUTF();
+                }
+                retVal.add(new Header(className, accessFlags, superclassName, superInterfaceNames));
+            }
+            return retVal;
+        } catch (IOException e) {
+            return null; //corrupted, ignores it
+        }
+    }
+
+    static void writeCache(Path cacheFile, String pathString, String fingerprint, List<Header> headers) {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            final Path tmpFile = Files.createTempFile(cacheFile.getParent(), null, ".tmp");
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeInt(CACHE_VERSION);
+                out.writeUTF(pathString);
+                out.writeUTF(fingerprint);
+                out.writeInt(headers.size());
+                for (Header header : headers) {
+                    out.writeUTF(header.className);
+                    out.writeInt(header.accessFlags);
+                    out.writeBoolean(header.superclassName != null);
+                    if (header.superclassName != null) {
+                        out.writeUTF(header.superclassName);
+                    }
+                    out.writeInt(header.superInterfaceNames.length);
+                    for (String superInterfaceName : header.superInterfaceNames) {
+                        out.writeUTF(superInterfaceName);
+                    }
+                }
+            }
+            //so concurrent runs never read a partially written cache file
+            Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            //the cache is an optimization, so failing to save it is harmless
+        }
+    }
+}
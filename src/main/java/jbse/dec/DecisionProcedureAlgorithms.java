@@ -7,8 +7,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.SortedSet;
-import java.util.TreeMap;
 
 import jbse.bc.ClassFile;
 import jbse.bc.ClassHierarchy;
@@ -25,8 +25,6 @@ import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionException;
 import jbse.mem.Array;
-import jbse.mem.Clause;
-import jbse.mem.ClauseAssumeExpands;
 import jbse.mem.Objekt;
 import jbse.mem.State;
 import jbse.mem.SwitchTable;
@@ -1097,6 +1095,7 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
 	 * @return a {@link Map}{@code <}{@link Long}{@code, }{@link Objekt}{@code >}, 
 	 *         representing the subview of {@code state}'s heap that contains
 	 *         all the objects that are compatible, in their type and epoch, with {@code ref}.
+	 *         The objects are not copied, thus they must not be modified.
 	 *         If {@code ref} does not denote a reference or array type, the method 
 	 *         returns {@code null}.
 	 */
@@ -1106,44 +1105,24 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
 	        return null;
 	    }
 
-	    final TreeMap<Long, Objekt> retVal = new TreeMap<>();
-
-	    //TODO extract this code and share with State.getObjectInitial
-	    //scans the path condition for compatible objects
-	    final ClassHierarchy classHierarchy = state.getClassHierarchy();
-	    final Iterable<Clause> pathCondition = state.getPathCondition();
-	    for (Clause c : pathCondition) {
-	        if (c instanceof ClauseAssumeExpands) {
-	            //gets the object and its position in the heap
-	            final ClauseAssumeExpands cExp = (ClauseAssumeExpands) c;
-	            final Long i = cExp.getHeapPosition();
-	            final Objekt o = cExp.getObjekt();
-	            
-	            //if it is time and epoch compatible, adds the object
-	            //to the result
-	            if (isTypeAndEpochCompatible(o, refClass, classHierarchy)) {
-	                retVal.put(i, o);
-	            }
-	        }
-	    }
+	    //gets the objects in the path condition with compatible type 
+	    //(not copied, they are only read), and filters them by epoch
+	    final SortedMap<Long, Objekt> retVal = state.getObjectsInitialSubclassOf(refClass);
+	    retVal.values().removeIf(o -> !isEpochCompatible(o));
 	    return retVal;
 	}
 	
 	/**
 	 * Checks whether an {@link Objekt} can be used 
-	 * to resolve of a symbolic reference.
+	 * to resolve of a symbolic reference, based
+	 * on its epoch.
 	 * 
 	 * @param o an {@link Objekt}.
-	 * @param refClass a {@link ClassFile} for the static type of the symbolic reference.
-	 * @param classHierarchy a {@link ClassHierarchy}.
-	 * @return {@code true} iff {@code refClass} can be resolved by {@code o}. 
-	 *         More precisely, returns {@code true} iff the creation epoch of 
-	 *         {@code o} comes before that of the symbolic reference, and {@code o}'s type 
-	 *         is a subclass of {@code refClass}.
+	 * @return {@code true} iff the creation epoch of 
+	 *         {@code o} comes before that of the symbolic reference.
 	 */
-	private static boolean isTypeAndEpochCompatible(Objekt o, ClassFile refClass, ClassHierarchy classHierarchy) {
-	    return (o.isSymbolic() && //TODO this works only with the two-epoch approach 
-	            classHierarchy.isSubclass(o.getType(), refClass));
+	private static boolean isEpochCompatible(Objekt o) {
+	    return o.isSymbolic(); //TODO this works only with the two-epoch approach 
 	}
 
 	/**
@@ -1204,7 +1183,12 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
 	        retVal = new HashSet<>();
 	        retVal.add(refClass);
 	    } else {
-	        retVal = state.getClassHierarchy().getAllConcreteSubclasses(refClass);
+	        try {
+	            retVal = state.getClassHierarchy().getAllConcreteSubclasses(refClass, true);
+	        } catch (PleaseLoadClassException e) {
+	            //this should never happen since we bypassed standard loading
+	            throw new UnexpectedInternalException(e);
+	        }
 	    }
 
 	    return retVal;
@@ -1,5 +1,6 @@
 package jbse.dec;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
@@ -18,6 +19,7 @@ import jbse.mem.ClauseAssumeClassInitialized;
 import jbse.mem.ClauseAssumeClassNotInitialized;
 import jbse.mem.ClauseAssumeExpands;
 import jbse.mem.ClauseAssumeNull;
+import jbse.mem.ClauseList;
 import jbse.mem.ClauseVisitor;
 import jbse.mem.Objekt;
 import jbse.rewr.CalculatorRewriting;
@@ -51,6 +53,13 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
      */
     protected Rewriter[] rewriters;
 
+    /** 
+     * The (not simplified) clauses received by this decision 
+     * procedure that form the current assumptions, or {@code null}
+     * if they are unknown (e.g., after a failure).
+     */
+    private ClauseList assumptionsReceived = ClauseList.EMPTY;
+
     /**
      * Constructor.
      * 
@@ -129,11 +138,14 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         if (c == null) {
             throw new InvalidInputException("pushAssumption invoked with a null parameter.");
         }
+        final ClauseList assumptionsReceivedOld = this.assumptionsReceived;
+        this.assumptionsReceived = null;
         final Clause cSimpl = simplifyLocal(c);
         pushAssumptionLocal(cSimpl);
         if (hasNext()) {
             this.next.pushAssumption(cSimpl);
         }
+        this.assumptionsReceived = (assumptionsReceivedOld == null ? null : assumptionsReceivedOld.append(c));
     }
 
     /**
@@ -274,10 +286,12 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
 
     @Override
     public final void clearAssumptions() throws DecisionException {
+        this.assumptionsReceived = null;
         clearAssumptionsLocal();
         if (hasNext()) {
             this.next.clearAssumptions();
         }
+        this.assumptionsReceived = ClauseList.EMPTY;
     }
 
     /**
@@ -297,17 +311,14 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         if (newAssumptions == null) {
             throw new InvalidInputException("setAssumptions invoked with a null parameter.");
         }
-        Collection<Clause> currentAssumptions;
-        try {
-            currentAssumptions = getAssumptionsLocal();
-        } catch (DecisionException e) {
-            //sorry, no locally stored assumptions
-            currentAssumptions = getAssumptions(); //queries the successor (best effort)
-        }
-        final int common = numCommonAssumptions(currentAssumptions, newAssumptions);
-        final int toPop = currentAssumptions.size() - common;
+        final ClauseList currentAssumptions = this.assumptionsReceived;
+        this.assumptionsReceived = null;
+        final int common = (currentAssumptions == null ? 0 : numCommonAssumptions(currentAssumptions, newAssumptions));
+        final int toPop = (currentAssumptions == null ? 0 : currentAssumptions.size() - common);
         final int toPush = newAssumptions.size() - common;
-        if (canPopAssumptions() && toPop < common) { //TODO toPop < common is a guess! Implement better heuristics
+        //if the new assumptions extend the current ones (e.g., 
+        //after a step) nothing must be popped
+        if (currentAssumptions != null && (toPop == 0 || (canPopAssumptions() && toPop < common))) { //TODO toPop < common is a guess! Implement better heuristics
             setAssumptionsLocalConservatively(newAssumptions, toPop, toPush);
         } else {
             setAssumptionsLocalDestructively(newAssumptions);
@@ -315,16 +326,39 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         if (hasNext()) {
             this.next.setAssumptions(newAssumptions);
         }
+        this.assumptionsReceived = ClauseList.of(newAssumptions);
     }
 
-    private static int numCommonAssumptions(Collection<Clause> oldAssumptions, Collection<Clause> newAssumptions) {
-        final Iterator<Clause> iterOld = oldAssumptions.iterator();
-        final Iterator<Clause> iterNew = newAssumptions.iterator();
-        int retVal = 0;
+    /**
+     * Calculates the length of the common prefix of two 
+     * sequences of assumptions. 
+     * 
+     * @param oldAssumptions a {@link ClauseList}.
+     * @param newAssumptions a {@link Collection}{@code <}{@link Clause}{@code >}.
+     * @return the number of initial clauses of {@code oldAssumptions}
+     *         and {@code newAssumptions} that are equal. If 
+     *         {@code newAssumptions} is a {@link ClauseList}, 
+     *         their shared nodes are not compared.
+     */
+    private static int numCommonAssumptions(ClauseList oldAssumptions, Collection<Clause> newAssumptions) {
+        final int shared;
+        final Iterator<Clause> iterOld, iterNew;
+        if (newAssumptions instanceof ClauseList) {
+            //skips the shared prefix without visiting it
+            final ClauseList newAssumptionsList = (ClauseList) newAssumptions;
+            shared = ClauseList.sharedPrefixLength(oldAssumptions, newAssumptionsList);
+            iterOld = Arrays.asList(oldAssumptions.last(oldAssumptions.size() - shared)).iterator();
+            iterNew = Arrays.asList(newAssumptionsList.last(newAssumptionsList.size() - shared)).iterator();
+        } else {
+            shared = 0;
+            iterOld = oldAssumptions.iterator();
+            iterNew = newAssumptions.iterator();
+        }
+        int retVal = shared;
         while (iterOld.hasNext() && iterNew.hasNext()) {
             final Clause oldAssumption = iterOld.next();
             final Clause newAssumption = iterNew.next();
-            if (!oldAssumption.equals(newAssumption)) {
+            if (oldAssumption != newAssumption && !oldAssumption.equals(newAssumption)) {
                 break;
             }
             ++retVal;
@@ -349,6 +383,14 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         }
 
         //pushes
+        if (newAssumptions instanceof ClauseList) {
+            //visits just the clauses to push
+            for (Clause c : ((ClauseList) newAssumptions).last(toPush)) {
+                final Clause cSimpl = simplifyLocal(c);
+                pushAssumptionLocal(cSimpl);
+            }
+            return;
+        }
         final int common = newAssumptions.size() - toPush;
         int i = 1;
         for (Clause c : newAssumptions) {
@@ -9,14 +9,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 import jbse.bc.ClassHierarchy;
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.ExternalProtocolInterfaceException;
 import jbse.dec.exc.NoModelException;
+import jbse.mem.Array;
 import jbse.mem.Objekt;
 import jbse.rewr.CalculatorRewriting;
 import jbse.val.Any;
@@ -26,7 +27,7 @@ import jbse.val.NarrowingConversion;
 import jbse.val.Operator;
 import jbse.val.Primitive;
 import jbse.val.PrimitiveSymbolic;
-import jbse.val.PrimitiveVisitor;
+import jbse.val.PrimitiveTraversal;
 import jbse.val.ReferenceSymbolic;
 import jbse.val.Simplex;
 import jbse.val.Term;
@@ -116,10 +117,10 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         this.hasCurrentClause = true;
 
         try {
-            cond.accept(this.v);
-            this.currentClausePositive = PUSH_1 + this.v.getQueryDeclarations() + "(assert " + this.v.getQueryAssertClause() + ")\n";
-            cond.not().accept(this.v);
-            this.currentClauseNegative = PUSH_1 + this.v.getQueryDeclarations() + "(assert " + this.v.getQueryAssertClause() + ")\n";
+            final String clausePositive = this.v.translate(cond);
+            this.currentClausePositive = PUSH_1 + this.v.getQueryDeclarations() + "(assert " + clausePositive + ")\n";
+            final String clauseNegative = this.v.translate(cond.not());
+            this.currentClauseNegative = PUSH_1 + this.v.getQueryDeclarations() + "(assert " + clauseNegative + ")\n";
         } catch (ExternalProtocolInterfaceException | RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -580,11 +581,13 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
 
     /**
      * Builds a SMTLIB2 string representing an expression.
+     * The translation of a node does not depend on its 
+     * context, with the exception of the boolean constants, 
+     * that are translated as {@code true} and {@code false}
+     * and adapted to {@code 1} and {@code 0} by their parent
+     * when they are used as numbers.
      */
-    private class SMTLIB2ExpressionVisitor implements PrimitiveVisitor {
-        /** Is this a boolean expression? */
-        private boolean isBooleanExpression = true;
-        
+    private class SMTLIB2ExpressionVisitor extends PrimitiveTraversal<String, ExternalProtocolInterfaceException> {
         /** 
          * All the SMTLIB v2 symbols declared in 
          * the visited Primitive. 
@@ -605,13 +608,6 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
          */
         private StringBuilder queryDeclarations = new StringBuilder();
         
-        /**
-         * Clauses stored during the visit.
-         */
-        private Stack<String> clauseStack = new Stack<>();
-
-        public String getQueryAssertClause() { return this.clauseStack.pop(); }
-
         public String getQueryDeclarations() { return this.queryDeclarations.toString(); }
 
         public void clearQueryDeclarations() {
@@ -635,68 +631,118 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
         }
 
         public SMTLIB2ExpressionVisitor() { }
+        
+        /**
+         * Translates a boolean {@link Primitive} to SMTLIB2, 
+         * adding the declarations of the symbols it 
+         * mentions to the query declarations.
+         * 
+         * @param p a {@link Primitive} with boolean type.
+         * @return the SMTLIB2 assert clause for {@code p}.
+         * @throws ExternalProtocolInterfaceException if {@code p}
+         *         cannot be translated.
+         */
+        public String translate(Primitive p) throws ExternalProtocolInterfaceException {
+            checkContext(p, true);
+            return traverse(p);
+        }
+        
+        /**
+         * Checks that a {@link Primitive} is used in the
+         * right context (boolean or numeric).
+         */
+        private void checkContext(Primitive p, boolean isBooleanExpression) {
+            if (p instanceof Expression) {
+                if (((Expression) p).getOperator().returnsBoolean() != isBooleanExpression) {
+                    throw new UnexpectedInternalException("error while parsing expression (expected a boolean expression but it is not): " + p.toString());
+                }
+            } else if (p instanceof FunctionApplication || p instanceof WideningConversion || p instanceof NarrowingConversion) {
+                if (p.getType() == Type.BOOLEAN && !isBooleanExpression) {
+                    throw new UnexpectedInternalException("error while parsing expression (expected a boolean expression but it is not): " + p.toString());
+                } else if (p.getType() != Type.BOOLEAN && isBooleanExpression) {
+                    throw new UnexpectedInternalException("error while parsing expression (expected a numeric expression but it is not): " + p.toString());
+                }
+            }
+        }
+        
+        /**
+         * Adapts the translation of an operand to the context
+         * (boolean or numeric) where it is used.
+         */
+        private String operand(Primitive p, String smtlib2Operand, boolean isBooleanExpression) {
+            if (!isBooleanExpression && p instanceof Simplex && p.getType() == Type.BOOLEAN) {
+                return (((Boolean) ((Simplex) p).getActualValue()) ? "1" : "0");
+            }
+            return smtlib2Operand;
+        }
 
-        public SMTLIB2ExpressionVisitor(SMTLIB2ExpressionVisitor v, boolean isBooleanExpression) {
-            this.isBooleanExpression = isBooleanExpression;
-            this.smtlib2DeclaredSymbols = v.smtlib2DeclaredSymbols;
-            this.smtlib2VarsToJBSESymbols = v.smtlib2VarsToJBSESymbols;
-            this.queryDeclarations = v.queryDeclarations;
-            this.clauseStack = v.clauseStack;
+        @Override
+        protected Primitive[] children(Primitive p) throws ExternalProtocolInterfaceException {
+            if (p instanceof Expression) {
+                final Expression e = (Expression) p;
+                final Operator operation = e.getOperator();
+                final boolean isBooleanOperator = operation.acceptsBoolean();
+                if (operation != Operator.NE && toSMTLIB2Operator(operation, e.getFirstOperand(), e.getSecondOperand()).equals(OTHER)) {
+                    //the operator does not correspond to a SMTLIB2 operator:
+                    //the expression is mangled to a symbol
+                    return new Primitive[] { m.mangle(e) };
+                } else if (e.isUnary()) {
+                    checkContext(e.getOperand(), isBooleanOperator);
+                } else {
+                    checkContext(e.getFirstOperand(), isBooleanOperator);
+                    checkContext(e.getSecondOperand(), isBooleanOperator);
+                }
+            } else if (p instanceof FunctionApplication) {
+                for (Primitive arg : ((FunctionApplication) p).getArgs()) {
+                    checkContext(arg, false);
+                }
+            } else if (p instanceof WideningConversion) {
+                checkContext(((WideningConversion) p).getArg(), false);
+            } else if (p instanceof NarrowingConversion) {
+                checkContext(((NarrowingConversion) p).getArg(), false);
+            }
+            return super.children(p);
         }
 
         @Override
-        public void visitAny(Any x) throws ExternalProtocolInterfaceException {
+        protected String visitAny(Any x, List<String> children) throws ExternalProtocolInterfaceException {
             throw new ExternalProtocolInterfaceException("values of type Any should not reach the SMT solver");         
         }
 
         @Override
-        public void visitExpression(Expression e) throws Exception {
+        protected String visitExpression(Expression e, List<String> operands) {
             final Operator operation = e.getOperator();
             final Primitive firstOperand = e.getFirstOperand();
             final Primitive secondOperand = e.getSecondOperand();
             final String op = toSMTLIB2Operator(operation, firstOperand, secondOperand);
             final boolean isBooleanOperator = operation.acceptsBoolean();
-            if (operation.returnsBoolean() == this.isBooleanExpression) {
-                //operation well formed
-                if (operation == Operator.NE) {
-                    //1-NE is not a SMTLIB2 operator but can be translated to a combination of SMTLIB2 operators
-                    firstOperand.accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                    secondOperand.accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                    final String secondOperandSMT = this.clauseStack.pop();
-                    final String firstOperandSMT = this.clauseStack.pop();
-                    this.clauseStack.push("(not (= " + firstOperandSMT + " " + secondOperandSMT + "))");
-                } else if (op.equals(OTHER)) {
-                    //2-Operator does not correspond to a SMTLIB2 operator
-                    m.mangle(e).accept(this);
-                } else {
-                    //3-The operator correspond to a SMTLIB2 operator
-                    final String clause;
-                    if (e.isUnary()) {
-                        e.getOperand().accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                        clause = "("+ op +" "+ this.clauseStack.pop() + ")";
-                    } else {
-                        firstOperand.accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                        secondOperand.accept(new SMTLIB2ExpressionVisitor(this, isBooleanOperator));
-                        final String secondOperandSMT = this.clauseStack.pop();
-                        final String firstOperandSMT = this.clauseStack.pop();
-                        clause = "("+ op + " " + firstOperandSMT + " " + secondOperandSMT + ")";
-                    }
-                    this.clauseStack.push(clause);
-                }
+            if (operation == Operator.NE) {
+                //1-NE is not a SMTLIB2 operator but can be translated to a combination of SMTLIB2 operators
+                final String firstOperandSMT = operand(firstOperand, operands.get(0), isBooleanOperator);
+                final String secondOperandSMT = operand(secondOperand, operands.get(1), isBooleanOperator);
+                return "(not (= " + firstOperandSMT + " " + secondOperandSMT + "))";
+            } else if (op.equals(OTHER)) {
+                //2-Operator does not correspond to a SMTLIB2 operator, 
+                //the only operand is the mangled symbol
+                return operands.get(0);
+            } else if (e.isUnary()) {
+                //3-The operator correspond to a SMTLIB2 operator (unary)
+                return "(" + op + " " + operand(e.getOperand(), operands.get(0), isBooleanOperator) + ")";
             } else {
-                throw new UnexpectedInternalException("error while parsing expression (expected a boolean expression but it is not): " + e.toString());
+                //3-The operator correspond to a SMTLIB2 operator (binary)
+                final String firstOperandSMT = operand(firstOperand, operands.get(0), isBooleanOperator);
+                final String secondOperandSMT = operand(secondOperand, operands.get(1), isBooleanOperator);
+                return "(" + op + " " + firstOperandSMT + " " + secondOperandSMT + ")";
             }
         }
 
         @Override
-        public void visitFunctionApplication(FunctionApplication x) throws Exception {
-            if (x.getType() == Type.BOOLEAN && !this.isBooleanExpression) {
-                throw new UnexpectedInternalException("error while parsing expression (expected a boolean expression but it is not): " + x.toString());
-            } else if (x.getType() != Type.BOOLEAN && this.isBooleanExpression) {
-                throw new UnexpectedInternalException("error while parsing expression (expected a numeric expression but it is not): " + x.toString());
-            }
+        protected String visitFunctionApplication(FunctionApplication x, List<String> args) {
             final String operator = x.getOperator().split(":")[2];
             final char type = x.getType();
+            if (operator.startsWith(Array.SELECT_PREFIX)) {
+                return select(operator.substring(Array.SELECT_PREFIX.length()), type, x.getArgs()[0], args.get(0));
+            }
             final StringBuilder clause = new StringBuilder();
             final StringBuilder smtlib2Signature = new StringBuilder();
             boolean builtIn = false;
@@ -713,16 +759,16 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
                 clause.append("(" + operator + " ");
                 smtlib2Signature.append(operator + " (");
             }
-            for (Primitive p : x.getArgs()) {
-                p.accept(new SMTLIB2ExpressionVisitor(this, false));
-                clause.append(this.clauseStack.pop());
+            final Primitive[] xArgs = x.getArgs();
+            for (int i = 0; i < xArgs.length; ++i) {
+                final Primitive p = xArgs[i];
+                clause.append(operand(p, args.get(i), false));
                 clause.append(" ");
                 final String smtlib2Type = toSMTLIB2Type(p.getType());
                 smtlib2Signature.append(smtlib2Type);
                 smtlib2Signature.append(" ");
             }
             clause.append(")");
-            this.clauseStack.push(clause.toString());
             smtlib2Signature.append(") ");
             smtlib2Signature.append(toSMTLIB2Type(type));
 
@@ -735,47 +781,55 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
                 nSymCurrent = nSymCurrent + 1;
                 nTotalSymbols = nTotalSymbols + 1;
             }
+            return clause.toString();
         }
 
-        @Override
-        public void visitWideningConversion(WideningConversion x) throws Exception {
-            if (x.getType() == Type.BOOLEAN && !this.isBooleanExpression) {
-                throw new UnexpectedInternalException("error while parsing expression (expected a boolean expression but it is not): " + x.toString());
-            } else if (x.getType() != Type.BOOLEAN && this.isBooleanExpression) {
-                throw new UnexpectedInternalException("error while parsing expression (expected a numeric expression but it is not): " + x.toString());
+        /**
+         * Translates a read of an array member in the theory of arrays,
+         * declaring the array if it is not yet declared.
+         */
+        private String select(String smtlib2Array, char memberType, Primitive index, String smtlib2Index) {
+            if (!this.smtlib2DeclaredSymbols.contains(smtlib2Array)) {
+                this.smtlib2DeclaredSymbols.add(smtlib2Array);
+                //not added to smtlib2VarsToJBSESymbols, no model for arrays
+                this.queryDeclarations.append("(declare-fun " + smtlib2Array + " () (Array Int " + toSMTLIB2Type(memberType) + "))\n");
+                nSymCurrent = nSymCurrent + 1;
+                nTotalSymbols = nTotalSymbols + 1;
             }
-            final Primitive arg = x.getArg();
-            arg.accept(new SMTLIB2ExpressionVisitor(this, false));
-            if (Type.isPrimitiveIntegral(x.getType()) != Type.isPrimitiveIntegral(arg.getType())) {
-                this.clauseStack.push("(to_real " + this.clauseStack.pop() + ")");
+            return "(select " + smtlib2Array + " " + operand(index, smtlib2Index, false) + ")";
+        }
+
+        @Override
+        protected String visitWideningConversion(WideningConversion x, List<String> arg) {
+            final Primitive xArg = x.getArg();
+            final String argSMT = operand(xArg, arg.get(0), false);
+            if (Type.isPrimitiveIntegral(x.getType()) != Type.isPrimitiveIntegral(xArg.getType())) {
+                return "(to_real " + argSMT + ")";
             }
+            return argSMT;
         }   
 
         @Override
-        public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
-            if (x.getType() == Type.BOOLEAN && !this.isBooleanExpression) {
-                throw new UnexpectedInternalException("error while parsing expression (expected a boolean expression but it is not): " + x.toString());
-            } else if (x.getType() != Type.BOOLEAN && this.isBooleanExpression) {
-                throw new UnexpectedInternalException("error while parsing expression (expected a numeric expression but it is not): " + x.toString());
-            }
-            final Primitive arg = x.getArg();
-            arg.accept(new SMTLIB2ExpressionVisitor(this, false));
-            if (Type.isPrimitiveIntegral(x.getType()) != Type.isPrimitiveIntegral(arg.getType())) {
-                this.clauseStack.push("(round_to_zero " + this.clauseStack.pop() + ")");
+        protected String visitNarrowingConversion(NarrowingConversion x, List<String> arg) {
+            final Primitive xArg = x.getArg();
+            final String argSMT = operand(xArg, arg.get(0), false);
+            if (Type.isPrimitiveIntegral(x.getType()) != Type.isPrimitiveIntegral(xArg.getType())) {
+                return "(round_to_zero " + argSMT + ")";
             }
+            return argSMT;
         }
 
         @Override
-        public void visitSimplex(Simplex x) {
+        protected String visitSimplex(Simplex x, List<String> children) {
             final Object obj = x.getActualValue();
             final char mytype = x.getType();
             if (mytype == Type.BYTE || mytype == Type.SHORT ||
                 mytype == Type.INT || mytype == Type.LONG ||
                 mytype == Type.CHAR) {
                 if (obj instanceof Number && ((Number) obj).doubleValue() < 0) {
-                    this.clauseStack.push("(- " + obj.toString().substring(1) + ")");
+                    return "(- " + obj.toString().substring(1) + ")";
                 } else {
-                    this.clauseStack.push(obj.toString());
+                    return obj.toString();
                 }
             } else if (mytype == Type.FLOAT || mytype == Type.DOUBLE) {
                 String value = obj.toString();
@@ -817,28 +871,30 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
                     smtlib2Value = String.format("(%s %s %s)", smtlib2Operator, smtlib2Significand, smtlib2Multiplier.toString());                   
                 }
 
-                //pushes it
-                this.clauseStack.push(smtlib2Value);
+                return smtlib2Value;
               } else if (mytype == Type.BOOLEAN) {
                 if ((Boolean) obj) {
-                    this.clauseStack.push(this.isBooleanExpression ? "true" : "1");
+                    return "true";
                 } else {
-                    this.clauseStack.push(this.isBooleanExpression ? "false" : "0");
+                    return "false";
                 }
+            } else {
+                //this should never happen
+                throw new UnexpectedInternalException("unexpected type " + mytype + " of simplex " + x.toString());
             }
         }
 
         @Override
-        public void visitPrimitiveSymbolic(PrimitiveSymbolic s) {
-            putSymbol(s);
+        protected String visitPrimitiveSymbolic(PrimitiveSymbolic s, List<String> children) {
+            return putSymbol(s);
         }
 
         @Override
-        public void visitTerm(Term x) {
-            putSymbol(x);
+        protected String visitTerm(Term x, List<String> children) {
+            return putSymbol(x);
         }
 
-        private void putSymbol(Primitive symbol) {
+        private String putSymbol(Primitive symbol) {
             final char type = symbol.getType();
             final String symbolToString = symbol.toString();
             final String smtlib2Variable = (symbolToString.charAt(0) == '{' ? 
@@ -853,7 +909,7 @@ class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedur
                 ++nSymCurrent;
                 ++nTotalSymbols;
             }
-            this.clauseStack.push(smtlib2Variable);
+            return smtlib2Variable;
         }
     }
 
@@ -1,6 +1,7 @@
 package jbse.dec;
 
 import java.util.HashMap;
+import java.util.List;
 
 import jbse.bc.ClassHierarchy;
 import jbse.common.Type;
@@ -17,6 +18,7 @@ import jbse.val.NarrowingConversion;
 import jbse.val.Operator;
 import jbse.val.Primitive;
 import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveTraversal;
 import jbse.val.PrimitiveVisitor;
 import jbse.val.Simplex;
 import jbse.val.Term;
@@ -646,12 +648,7 @@ public final class DecisionProcedureSignAnalysis extends DecisionProcedureChainO
 	 */
 	private SignPredicate deduceSignPredicate(Primitive p) {
 		final SignPredicatePrimitiveVisitor v = new SignPredicatePrimitiveVisitor();
-		try {
-			p.accept(v);
-		} catch (Exception e) {
-			throw new AssertionError(); //never happens
-		}
-		return v.result;
+		return v.traverse(p);
 	}
 	
 	private static SignPredicate bestApproxRange(Expression exp) {
@@ -750,7 +747,7 @@ public final class DecisionProcedureSignAnalysis extends DecisionProcedureChainO
 		}		
 	}
 	
-	private class SignPredicatePrimitiveVisitor implements PrimitiveVisitor {
+	private class SignPredicatePrimitiveVisitor extends PrimitiveTraversal<SignPredicate, RuntimeException> {
 		/**
 		 * A poor man sign detection for some sums of 
 		 * trigonometric functions with sufficiently big constants.
@@ -838,48 +835,71 @@ public final class DecisionProcedureSignAnalysis extends DecisionProcedureChainO
 			}
 		}
 		
-		SignPredicate result = null;
 		TrigPrimitiveVisitor vTrig = new TrigPrimitiveVisitor();
 		
 		@Override
-		public void visitAny(Any x) {
-			this.result = SignPredicate.UNK;
+		protected Primitive[] children(Primitive p) {
+			if (p instanceof Expression) {
+				final Operator operator = ((Expression) p).getOperator();
+				if (operator == Operator.MUL || operator == Operator.DIV || 
+					operator == Operator.ADD || operator == Operator.SUB || 
+					operator == Operator.NEG) {
+					return super.children(p);
+				} else {
+					return null;
+				}
+			} else if (p instanceof FunctionApplication) {
+				//sin(atan(x)) has the same sign of x
+				final FunctionApplication x = (FunctionApplication) p;
+				if (x.getOperator().equals(FunctionApplication.SIN)) {
+					final Primitive arg = x.getArgs()[0];
+					if (arg instanceof FunctionApplication) {
+						final FunctionApplication argFA = (FunctionApplication) arg;
+						if (argFA.getOperator().equals(FunctionApplication.ATAN)) {
+							return new Primitive[] { argFA.getArgs()[0] };
+						}
+					}
+				}
+				return null;
+			} else {
+				return super.children(p);
+			}
+		}
+		
+		@Override
+		protected SignPredicate visitAny(Any x, List<SignPredicate> children) {
+			return SignPredicate.UNK;
 		}
 
 		@Override
-		public void visitExpression(Expression e) {
+		protected SignPredicate visitExpression(Expression e, List<SignPredicate> operands) {
 			try {
 				final SignPredicate infoFromArguments;
 				final Operator operator = e.getOperator();
 				if (operator == Operator.MUL || operator == Operator.DIV) {
-					e.getFirstOperand().accept(this);
-					final SignPredicate first = this.result;
-					e.getSecondOperand().accept(this);
-					final SignPredicate second = this.result;
+					final SignPredicate first = operands.get(0);
+					final SignPredicate second = operands.get(1);
 					infoFromArguments = first.mul(second);
 				} else if (operator == Operator.ADD || operator == Operator.SUB) {
-					e.getFirstOperand().accept(this);
-					final SignPredicate first = this.result;
-					e.getSecondOperand().accept(this);
-					final SignPredicate second = this.result;
+					final SignPredicate first = operands.get(0);
+					final SignPredicate second = operands.get(1);
 					e.accept(this.vTrig);
 					infoFromArguments = first.add(operator == Operator.ADD ? second : second.neg()).and(this.vTrig.result);
 				} else if (operator == Operator.NEG) {
-					e.getOperand().accept(this);
-					final SignPredicate sign = this.result;
+					final SignPredicate sign = operands.get(0);
 					infoFromArguments = sign.neg();
 				}  else {
 					infoFromArguments = SignPredicate.UNK;
 				}
 				final SignPredicate infoFromCurrentAssumptions = fetch(e);
-				this.result = infoFromCurrentAssumptions.and(infoFromArguments);
+				return infoFromCurrentAssumptions.and(infoFromArguments);
 			} catch (Exception exc) {
 				throw new AssertionError(); //never happens
 			}
 		}
 
 		@Override
-		public void visitFunctionApplication(FunctionApplication x) {
+		protected SignPredicate visitFunctionApplication(FunctionApplication x, List<SignPredicate> children) {
 			final SignPredicate infoFromOperator;
 			final String operator = x.getOperator();
 			if (operator.equals(FunctionApplication.EXP)) {
@@ -933,14 +953,7 @@ public final class DecisionProcedureSignAnalysis extends DecisionProcedureChainO
 					final FunctionApplication argFA = (FunctionApplication) arg;
 					final String argOperator = argFA.getOperator();
 					if (argOperator.equals(FunctionApplication.ATAN)) {
-						final Primitive argArg = argFA.getArgs()[0];
-						try {
-							argArg.accept(this);
-						} catch (Exception e) {
-							//shall never happen
-							throw new AssertionError();
-						}
-						infoFromOperator = this.result;
+						infoFromOperator = children.get(0); //the sign of the argument of atan
 					} else {
 						infoFromOperator = SignPredicate.UNK;
 					}
@@ -951,49 +964,44 @@ public final class DecisionProcedureSignAnalysis extends DecisionProcedureChainO
 				infoFromOperator = SignPredicate.UNK;
 			}
 			final SignPredicate infoFromCurrentAssumptions = fetch(x);
-			this.result = infoFromCurrentAssumptions.and(infoFromOperator);
+			return infoFromCurrentAssumptions.and(infoFromOperator);
 		}
 
 		@Override
-		public void visitWideningConversion(WideningConversion x)
-		throws Exception {
-			x.getArg().accept(this); //same sign as argument
+		protected SignPredicate visitWideningConversion(WideningConversion x, List<SignPredicate> arg) {
+			return arg.get(0); //same sign as argument
 		}
 
 		@Override
-		public void visitNarrowingConversion(NarrowingConversion x)
-		throws Exception {
-			final Primitive arg = x.getArg();
-			arg.accept(this);
-			final SignPredicate argSign = this.result;
+		protected SignPredicate visitNarrowingConversion(NarrowingConversion x, List<SignPredicate> arg) {
+			final SignPredicate argSign = arg.get(0);
 			if (argSign == SignPredicate.EQ) {
-				return; //zero is always narrowed to zero
+				return argSign; //zero is always narrowed to zero
 			}
-			if (Type.isPrimitiveIntegral(arg.getType())) {
+			if (Type.isPrimitiveIntegral(x.getArg().getType())) {
 				//narrowing of integrals (to integrals) can lose sign 
 				//and magnitude
-				this.result = SignPredicate.UNK;  
+				return SignPredicate.UNK;  
 			} else { //from is floating, 
 				//all other narrowing conversion preserve sign but may
 				//lose magnitude
-				this.result = argSign.or(SignPredicate.EQ);
+				return argSign.or(SignPredicate.EQ);
 			}
 		}
 
 		@Override
-		public void visitPrimitiveSymbolic(PrimitiveSymbolic s) {
-			this.result = fetch(s);
+		protected SignPredicate visitPrimitiveSymbolic(PrimitiveSymbolic s, List<SignPredicate> children) {
+			return fetch(s);
 		}
 
 		@Override
-		public void visitSimplex(Simplex x) {
-			final SignPredicate sign = signOf(x);
-			this.result = sign;
+		protected SignPredicate visitSimplex(Simplex x, List<SignPredicate> children) {
+			return signOf(x);
 		}
 
 		@Override
-		public void visitTerm(Term x) {
-			this.result = fetch(x);
+		protected SignPredicate visitTerm(Term x, List<SignPredicate> children) {
+			return fetch(x);
 		}
 	}
 
@@ -27,6 +27,7 @@ import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionBacktrackException;
 import jbse.dec.exc.DecisionException;
+import jbse.jvm.EngineParameters.GarbageCollectionPolicy;
 import jbse.jvm.exc.CannotBacktrackException;
 import jbse.jvm.exc.EngineStuckException;
 import jbse.jvm.exc.FailureException;
@@ -68,6 +69,12 @@ public class Engine implements AutoCloseable {
     /** The {@link VariableObserverManager}. */
     private final VariableObserverManager vom;
 
+    /** The {@link GarbageCollectionPolicy}. */
+    private final GarbageCollectionPolicy gcPolicy;
+
+    /** The garbage collection threshold (steps or objects, depending on {@link #gcPolicy}). */
+    private final long gcThreshold;
+
     //State of the execution
 
     /** The current JVM {@link State} of the symbolic execution. */
@@ -114,16 +121,27 @@ public class Engine implements AutoCloseable {
     /** {@code true} iff the current state is the initial state. */
     private boolean atInitialState;
 
+    /** The number of steps since the last garbage collection. */
+    private long gcSteps = 0L;
+
+    /** The number of objects in the heap after the last garbage collection. */
+    private long gcSurvivors = 0L;
+
     //Construction.
 
     /**
      * Constructor. Used by the builder.
      * 
      * @param ctx an {@link ExecutionContext}.
+     * @param vom a {@link VariableObserverManager}.
+     * @param gcPolicy a {@link GarbageCollectionPolicy}.
+     * @param gcThreshold a {@code long}, the garbage collection threshold.
      */
-    Engine(ExecutionContext ctx, VariableObserverManager vom) {
+    Engine(ExecutionContext ctx, VariableObserverManager vom, GarbageCollectionPolicy gcPolicy, long gcThreshold) {
         this.ctx = ctx;
         this.vom = vom;
+        this.gcPolicy = gcPolicy;
+        this.gcThreshold = gcThreshold;
     }
 
     /**
@@ -350,6 +368,11 @@ public class Engine implements AutoCloseable {
             retVal = null;
             this.currentState.incSequenceNumber();
         }
+        
+        //possibly removes the unreachable objects from the heap
+        if (!this.atInitialState) {
+            possiblyCollectGarbage();
+        }
 
         //updates the counters for depth/count scope
         if (this.currentState.branchingDecision()) {
@@ -359,9 +382,11 @@ public class Engine implements AutoCloseable {
             this.currentState.incCount();
         }
 
-        //synchronizes the decision procedure with the current path condition
+        //synchronizes the decision procedure with the current path condition;
+        //the path condition shares its nodes with the previous one, so the 
+        //decision procedure just pushes the clauses added by the step
         try {
-            this.ctx.decisionProcedure.addAssumptions(this.currentState.getLastPathConditionPushedClauses());
+            this.ctx.decisionProcedure.setAssumptions(this.currentState.getPathCondition());
         } catch (InvalidInputException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -380,6 +405,38 @@ public class Engine implements AutoCloseable {
         return retVal;
     }
 
+    /**
+     * Collects the garbage in the current state if
+     * the garbage collection policy requires so.
+     */
+    private void possiblyCollectGarbage() {
+        if (this.currentState.isPhasePreInit() || this.currentState.isStuck()) {
+            return;
+        }
+        ++this.gcSteps;
+        final boolean collect;
+        switch (this.gcPolicy) {
+        case PERIODIC:
+            collect = (this.gcSteps >= this.gcThreshold);
+            break;
+        case ON_METHOD_RETURN:
+            collect = (this.currentState.getStackSize() < this.preStepStackSize);
+            break;
+        case HEAP_SIZE:
+            //when most of the heap is reachable, waits for it
+            //to double before collecting again
+            collect = (this.currentState.getHeapSize() > Math.max(this.gcThreshold, 2 * this.gcSurvivors));
+            break;
+        default: //INITIAL_STATE
+            collect = false;
+        }
+        if (collect) {
+            this.currentState.gc();
+            this.gcSteps = 0L;
+            this.gcSurvivors = this.currentState.getHeapSize();
+        }
+    }
+
     /**
      * Returns the engine's current JVM state 
      * (<em>not</em> a copy).
@@ -591,12 +648,19 @@ public class Engine implements AutoCloseable {
     }
 
     /**
-     * Cleans up the decision procedure after the usage of the engine.
+     * Cleans up the decision procedure and the class hierarchy
+     * after the usage of the engine.
      * 
      * @throws DecisionException when clean-up of decision procedure fails.
      */
     @Override
     public void close() throws DecisionException {
-        this.ctx.decisionProcedure.close();
+        try {
+            this.ctx.decisionProcedure.close();
+        } finally {
+            if (this.currentState != null) {
+                this.currentState.getClassHierarchy().close();
+            }
+        }
     }
 }
\ No newline at end of file
@@ -5,7 +5,6 @@ import java.util.List;
 import jbse.algo.ExecutionContext;
 import jbse.algo.exc.MetaUnsupportedException;
 import jbse.algo.exc.NotYetImplementedException;
-import jbse.bc.ClassFileFactoryJavassist;
 import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.ClasspathException;
@@ -77,9 +76,12 @@ public class EngineBuilder {
                              parameters.getBypassStandardLoading(),
                              parameters.getMaxSimpleArrayLength(),
                              parameters.getMaxHeapSize(),
+                             parameters.getUseArrayTheory(),
                              parameters.getClasspath(),
-                             ClassFileFactoryJavassist.class,          //default
+                             parameters.getClassFileFactoryClass(),
                              parameters.getExpansionBackdoor(), 
+                             parameters.getUseSubclassIndex(),
+                             parameters.getPrefetchClasses(),
                              parameters.getCalculator(),
                              new DecisionAlternativeComparators(),     //default 
                              parameters.getMethodSignature(),
@@ -96,7 +98,7 @@ public class EngineBuilder {
         //sets the observers
         setObservers(vom, parameters);
 
-        return new Engine(ctx, vom);
+        return new Engine(ctx, vom, parameters.getGarbageCollectionPolicy(), parameters.getGarbageCollectionThreshold());
     }
 
     private static void setOverrides(ExecutionContext ctx, EngineParameters parameters) {
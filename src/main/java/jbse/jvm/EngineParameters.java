@@ -10,6 +10,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import jbse.bc.ClassFileFactory;
+import jbse.bc.ClassFileFactoryJavassist;
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.dec.DecisionProcedureAlgorithms;
@@ -141,12 +143,57 @@ public final class EngineParameters implements Cloneable {
         }
     }
 
+    /**
+     * Enumeration indicating when the unreachable objects
+     * in the heap of the current state will be collected.
+     * 
+     * @author Pietro Braione
+     */
+    public static enum GarbageCollectionPolicy {
+        /**
+         * Collects only once, at the initial state.
+         */
+        INITIAL_STATE,
+        
+        /**
+         * Collects at the initial state, and then 
+         * every time the engine performs a number of 
+         * steps equal to the garbage collection threshold. 
+         */
+        PERIODIC,
+        
+        /**
+         * Collects at the initial state, and then 
+         * every time the current method returns.
+         */
+        ON_METHOD_RETURN,
+        
+        /**
+         * Collects at the initial state, and then 
+         * every time the number of objects in the 
+         * heap exceeds the garbage collection threshold
+         * (or, if bigger, twice the number of objects 
+         * that survived the last collection).
+         */
+        HEAP_SIZE
+    }
+
     /** The state identification mode. */
     private StateIdentificationMode stateIdMode = StateIdentificationMode.COMPACT;
 
     /** The breadth mode. */
     private BreadthMode breadthMode = BreadthMode.MORE_THAN_ONE;
 
+    /** The garbage collection policy. */
+    private GarbageCollectionPolicy gcPolicy = GarbageCollectionPolicy.INITIAL_STATE;
+
+    /** 
+     * The garbage collection threshold, either a number 
+     * of steps or a number of objects depending on 
+     * {@link #gcPolicy}. 
+     */
+    private long gcThreshold = 10_000;
+
     /** 
      * The initial {@link State} of the symbolic execution, or
      * {@code null} iff an initial state for a method invocation 
@@ -161,6 +208,13 @@ public final class EngineParameters implements Cloneable {
      */
     private boolean bypassStandardLoading = true;
     
+    /** 
+     * The class of the {@link ClassFileFactory} that analyzes the
+     * class files; ignored when {@code initialState != null}. 
+     * By default it is {@link ClassFileFactoryJavassist}.
+     */
+    private Class<? extends ClassFileFactory> classFileFactoryClass = ClassFileFactoryJavassist.class;
+    
     /** 
      * The Java home, where the JRE resides; overridden by 
      * {@code initialState}'s bootstrap path when 
@@ -201,6 +255,18 @@ public final class EngineParameters implements Cloneable {
     /** The expansion backdoor. */
     private HashMap<String, Set<String>> expansionBackdoor = new HashMap<>();
 
+    /** 
+     * {@code true} iff the symbolic references should also be expanded
+     * to all the concrete subclasses in the user classpath.
+     */
+    private boolean useSubclassIndex = false;
+
+    /** 
+     * {@code true} iff the classes referred by the loaded 
+     * classes should be prefetched in background.
+     */
+    private boolean prefetchClasses = false;
+
     /** The methods overridden at the meta-level. */
     private ArrayList<String[]> metaOverridden = new ArrayList<>();
 
@@ -218,6 +284,12 @@ public final class EngineParameters implements Cloneable {
     
     /** The maximum size of the heap (number of objects). */
     private long maxHeapSize = 1_000_000;
+    
+    /** 
+     * Whether the unknown members of the symbolic arrays 
+     * should be represented in the theory of arrays. 
+     */
+    private boolean useArrayTheory = false;
 
     /**
      * Constructor.
@@ -290,6 +362,55 @@ public final class EngineParameters implements Cloneable {
         return this.breadthMode;
     }
 
+    /**
+     * Sets the garbage collection policy, i.e., when the 
+     * unreachable objects in the heap will be collected. 
+     * By default it is set to {@link GarbageCollectionPolicy#INITIAL_STATE}.
+     * 
+     * @param gcPolicy a {@link GarbageCollectionPolicy}.
+     * @throws NullPointerException if {@code gcPolicy == null}.
+     */
+    public void setGarbageCollectionPolicy(GarbageCollectionPolicy gcPolicy) {
+        if (gcPolicy == null) {
+            throw new NullPointerException();
+        }
+        this.gcPolicy = gcPolicy;
+    }
+
+    /**
+     * Gets the garbage collection policy.
+     * 
+     * @return the {@link GarbageCollectionPolicy} set by the
+     *         last call to {@link #setGarbageCollectionPolicy(GarbageCollectionPolicy)}.
+     */
+    public GarbageCollectionPolicy getGarbageCollectionPolicy() {
+        return this.gcPolicy;
+    }
+
+    /**
+     * Sets the garbage collection threshold, i.e., the 
+     * number of steps between two collections when the 
+     * garbage collection policy is {@link GarbageCollectionPolicy#PERIODIC}, 
+     * or the number of objects in the heap that triggers a
+     * collection when it is {@link GarbageCollectionPolicy#HEAP_SIZE}.
+     * By default it is set to {@code 10000}.
+     * 
+     * @param gcThreshold a positive {@code long}.
+     */
+    public void setGarbageCollectionThreshold(long gcThreshold) {
+        this.gcThreshold = gcThreshold;
+    }
+
+    /**
+     * Gets the garbage collection threshold.
+     * 
+     * @return a {@code long}, the value set by the
+     *         last call to {@link #setGarbageCollectionThreshold(long)}.
+     */
+    public long getGarbageCollectionThreshold() {
+        return this.gcThreshold;
+    }
+
     /** 
      * Adds an {@link ExecutionObserver} performing additional
      * actions when a field changes its value.
@@ -397,6 +518,35 @@ public final class EngineParameters implements Cloneable {
             return this.initialState.shouldAlwaysBypassStandardLoading();
         }
     }
+    
+    /**
+     * Sets the class of the {@link ClassFileFactory} that 
+     * analyzes the class files, e.g., {@link ClassFileFactoryJavassist}
+     * (the default) or {@link jbse.bc.ClassFileFactoryLazy}. 
+     * Also cancels the effect of any previous call to 
+     * {@link #setInitialState(State)}.
+     * 
+     * @param classFileFactoryClass a {@link Class}{@code <? extends }{@link ClassFileFactory}{@code >}.
+     *        It must have a public constructor with no parameters.
+     * @throws NullPointerException if {@code classFileFactoryClass == null}.
+     */
+    public void setClassFileFactoryClass(Class<? extends ClassFileFactory> classFileFactoryClass) {
+        if (classFileFactoryClass == null) {
+            throw new NullPointerException();
+        }
+        this.classFileFactoryClass = classFileFactoryClass;
+        this.initialState = null;
+    }
+    
+    /**
+     * Gets the class of the {@link ClassFileFactory} that 
+     * analyzes the class files.
+     * 
+     * @return a {@link Class}{@code <? extends }{@link ClassFileFactory}{@code >}.
+     */
+    public Class<? extends ClassFileFactory> getClassFileFactoryClass() {
+        return this.classFileFactoryClass;
+    }
 
     /**
      * Sets the {@link Calculator}, and cancels the effect
@@ -558,6 +708,62 @@ public final class EngineParameters implements Cloneable {
     public Map<String, Set<String>> getExpansionBackdoor() {
         return this.expansionBackdoor;
     }
+    
+    /**
+     * Sets whether the symbolic references should be expanded to 
+     * all the concrete subclasses of their static types that are in the 
+     * user classpath, in addition to the classes in the expansion backdoor.
+     * The classes are found by means of an index of the headers
+     * of the class files in the user classpath, that is saved to a
+     * cache directory and reused by later runs. By default 
+     * it is set to {@code false}. Also cancels the effect 
+     * of any previous call to {@link #setInitialState(State)}.
+     * 
+     * @param useSubclassIndex a {@code boolean}.
+     */
+    public void setUseSubclassIndex(boolean useSubclassIndex) {
+        this.useSubclassIndex = useSubclassIndex;
+        this.initialState = null;
+    }
+    
+    /**
+     * Gets whether the symbolic references should be expanded to 
+     * all the concrete subclasses of their static types that are in the 
+     * user classpath.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getUseSubclassIndex() {
+        return this.useSubclassIndex;
+    }
+    
+    /**
+     * Sets whether the classes referred by the loaded classes should 
+     * be searched in the classpath and parsed by a pool of background 
+     * threads, so they are ready when they are loaded. Only the classes
+     * loaded by the bootstrap classloader, or by all the standard classloaders
+     * when standard loading is bypassed, are prefetched. Prefetching 
+     * does not change the order in which classes are loaded, linked and 
+     * initialized. By default it is set to {@code false}. Also cancels the 
+     * effect of any previous call to {@link #setInitialState(State)}.
+     * 
+     * @param prefetchClasses a {@code boolean}.
+     */
+    public void setPrefetchClasses(boolean prefetchClasses) {
+        this.prefetchClasses = prefetchClasses;
+        this.initialState = null;
+    }
+    
+    /**
+     * Gets whether the classes referred by the loaded classes should 
+     * be searched in the classpath and parsed by a pool of background 
+     * threads.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getPrefetchClasses() {
+        return this.prefetchClasses;
+    }
 
     /**
      * Adds a trigger method that fires when some references are resolved by
@@ -877,6 +1083,37 @@ public final class EngineParameters implements Cloneable {
     public long getMaxHeapSize() {
         return this.maxHeapSize;
     }
+    
+    /**
+     * Sets whether the unknown members of the symbolic arrays 
+     * with numeric primitive members should be represented in
+     * the theory of arrays. When set, reading such a member 
+     * yields a {@code select} term over a constant array 
+     * associated to the origin of the array, rather than a fresh 
+     * symbol, and all the entries with unknown members are read 
+     * by a single outcome, so the decision procedure, rather 
+     * than the symbolic executor, resolves the aliasing between 
+     * the indices. This holds both for the array access bytecodes 
+     * and for the {@code sun.misc.Unsafe} array reads. Note that 
+     * the decision procedure yields no model for such members, so
+     * no JUnit test case is generated for the paths that constrain 
+     * them. By default it is set to {@code false}.
+     * 
+     * @param useArrayTheory a {@code boolean}.
+     */
+    public void setUseArrayTheory(boolean useArrayTheory) {
+        this.useArrayTheory = useArrayTheory;
+    }
+    
+    /**
+     * Gets whether the unknown members of the symbolic arrays 
+     * should be represented in the theory of arrays.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getUseArrayTheory() {
+        return this.useArrayTheory;
+    }
 
     @SuppressWarnings("unchecked")
     @Override
@@ -5,10 +5,13 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import jbse.bc.ClassFileFactory;
+import jbse.bc.ClassFileFactoryJavassist;
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.jvm.EngineParameters.BreadthMode;
+import jbse.jvm.EngineParameters.GarbageCollectionPolicy;
 import jbse.jvm.EngineParameters.StateIdentificationMode;
 import jbse.jvm.Runner.Actions;
 import jbse.mem.State;
@@ -139,6 +142,48 @@ public final class RunnerParameters implements Cloneable {
         return this.engineParameters.getBreadthMode();
     }
 
+    /**
+     * Sets the garbage collection policy, i.e., when the 
+     * unreachable objects in the heap will be collected,
+     * see {@link EngineParameters#setGarbageCollectionPolicy(GarbageCollectionPolicy)}.
+     * 
+     * @param gcPolicy a {@link GarbageCollectionPolicy}.
+     * @throws NullPointerException if {@code gcPolicy == null}.
+     */
+    public void setGarbageCollectionPolicy(GarbageCollectionPolicy gcPolicy) {
+        this.engineParameters.setGarbageCollectionPolicy(gcPolicy);
+    }
+
+    /**
+     * Gets the garbage collection policy.
+     * 
+     * @return the {@link GarbageCollectionPolicy} set by the
+     *         last call to {@link #setGarbageCollectionPolicy(GarbageCollectionPolicy)}.
+     */
+    public GarbageCollectionPolicy getGarbageCollectionPolicy() {
+        return this.engineParameters.getGarbageCollectionPolicy();
+    }
+
+    /**
+     * Sets the garbage collection threshold, 
+     * see {@link EngineParameters#setGarbageCollectionThreshold(long)}.
+     * 
+     * @param gcThreshold a positive {@code long}.
+     */
+    public void setGarbageCollectionThreshold(long gcThreshold) {
+        this.engineParameters.setGarbageCollectionThreshold(gcThreshold);
+    }
+
+    /**
+     * Gets the garbage collection threshold.
+     * 
+     * @return a {@code long}, the value set by the
+     *         last call to {@link #setGarbageCollectionThreshold(long)}.
+     */
+    public long getGarbageCollectionThreshold() {
+        return this.engineParameters.getGarbageCollectionThreshold();
+    }
+
     /**
      * Sets the initial state of the symbolic execution, and cancels the 
      * effect of any previous call to {@link #addUserClasspath(String...)},
@@ -184,6 +229,107 @@ public final class RunnerParameters implements Cloneable {
     public boolean getBypassStandardLoading() {
         return this.engineParameters.getBypassStandardLoading();
     }
+    
+    /**
+     * Sets the class of the {@link ClassFileFactory} that 
+     * analyzes the class files, e.g., {@link ClassFileFactoryJavassist}
+     * (the default) or {@link jbse.bc.ClassFileFactoryLazy}. 
+     * Also cancels the effect of any previous call to 
+     * {@link #setInitialState(State)}.
+     * 
+     * @param classFileFactoryClass a {@link Class}{@code <? extends }{@link ClassFileFactory}{@code >}.
+     *        It must have a public constructor with no parameters.
+     * @throws NullPointerException if {@code classFileFactoryClass == null}.
+     */
+    public void setClassFileFactoryClass(Class<? extends ClassFileFactory> classFileFactoryClass) {
+        this.engineParameters.setClassFileFactoryClass(classFileFactoryClass);
+    }
+    
+    /**
+     * Gets the class of the {@link ClassFileFactory} that 
+     * analyzes the class files.
+     * 
+     * @return a {@link Class}{@code <? extends }{@link ClassFileFactory}{@code >}.
+     */
+    public Class<? extends ClassFileFactory> getClassFileFactoryClass() {
+        return this.engineParameters.getClassFileFactoryClass();
+    }
+    
+    /**
+     * Sets whether the symbolic references should be expanded to 
+     * all the concrete subclasses of their static types that are in the 
+     * user classpath, in addition to the classes in the expansion backdoor.
+     * The classes are found by means of an index of the headers
+     * of the class files in the user classpath, that is saved to a
+     * cache directory and reused by later runs. By default 
+     * it is set to {@code false}. Also cancels the effect 
+     * of any previous call to {@link #setInitialState(State)}.
+     * 
+     * @param useSubclassIndex a {@code boolean}.
+     */
+    public void setUseSubclassIndex(boolean useSubclassIndex) {
+        this.engineParameters.setUseSubclassIndex(useSubclassIndex);
+    }
+    
+    /**
+     * Gets whether the symbolic references should be expanded to 
+     * all the concrete subclasses of their static types that are in the 
+     * user classpath.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getUseSubclassIndex() {
+        return this.engineParameters.getUseSubclassIndex();
+    }
+    
+    /**
+     * Sets whether the classes referred by the loaded classes should 
+     * be searched in the classpath and parsed by a pool of background 
+     * threads, so they are ready when they are loaded. Only the classes
+     * loaded by the bootstrap classloader, or by all the standard classloaders
+     * when standard loading is bypassed, are prefetched. Prefetching 
+     * does not change the order in which classes are loaded, linked and 
+     * initialized. By default it is set to {@code false}. Also cancels the 
+     * effect of any previous call to {@link #setInitialState(State)}.
+     * 
+     * @param prefetchClasses a {@code boolean}.
+     */
+    public void setPrefetchClasses(boolean prefetchClasses) {
+        this.engineParameters.setPrefetchClasses(prefetchClasses);
+    }
+    
+    /**
+     * Gets whether the classes referred by the loaded classes should 
+     * be searched in the classpath and parsed by a pool of background 
+     * threads.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getPrefetchClasses() {
+        return this.engineParameters.getPrefetchClasses();
+    }
+    
+    /**
+     * Sets whether the unknown members of the symbolic arrays 
+     * with numeric primitive members should be represented in
+     * the theory of arrays, see {@link EngineParameters#setUseArrayTheory(boolean)}.
+     * By default it is set to {@code false}.
+     * 
+     * @param useArrayTheory a {@code boolean}.
+     */
+    public void setUseArrayTheory(boolean useArrayTheory) {
+        this.engineParameters.setUseArrayTheory(useArrayTheory);
+    }
+    
+    /**
+     * Gets whether the unknown members of the symbolic arrays 
+     * should be represented in the theory of arrays.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getUseArrayTheory() {
+        return this.engineParameters.getUseArrayTheory();
+    }
 
     /**
      * Sets the {@link Calculator}, and cancels the effect
@@ -3,6 +3,9 @@ package jbse.mem;
 import static jbse.common.Type.getArrayMemberType;
 import static jbse.common.Type.isPrimitive;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -12,12 +15,14 @@ import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 
 import jbse.bc.ClassFile;
+import jbse.bc.FieldLayout;
 import jbse.bc.Signature;
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.exc.FastArrayAccessNotAllowedException;
 import jbse.val.Calculator;
 import jbse.val.Expression;
+import jbse.val.FunctionApplication;
 import jbse.val.MemoryPath;
 import jbse.val.Primitive;
 import jbse.val.Reference;
@@ -43,6 +48,13 @@ public final class Array extends Objekt {
      */
     public static final String INDEX_ID = "{INDEX}";
 
+    /**
+     * The prefix of the name of the functions that {@link #select(Primitive)}
+     * applies to the index. It is not a valid Java identifier, thus 
+     * these functions cannot clash with the uninterpreted methods. 
+     */
+    public static final String SELECT_PREFIX = "select@";
+
     private static final int T_BOOLEAN = 4;
     private static final int T_CHAR    = 5;
     private static final int T_FLOAT   = 6;
@@ -78,8 +90,39 @@ public final class Array extends Objekt {
     /** An {@link Expression} stating that {@code INDEX} is in range. */
     private final Expression indexInRange;
 
-    /** Describes the values stored in the array. */
-    private LinkedList<AccessOutcomeIn> entries; //TODO do not use AccessOutcome..., but define a suitable private Entry class
+    /** 
+     * Describes the values stored in the array. It is an {@link ArrayList}
+     * so the entries of an array with simple representation can be 
+     * accessed by index in constant time. It is {@code null} iff 
+     * {@link #dense} is not.
+     */
+    private ArrayList<AccessOutcomeIn> entries; //TODO do not use AccessOutcome..., but define a suitable private Entry class
+
+    /**
+     * The values of the members of an array with simple representation
+     * whose members are all {@link AccessOutcomeInValue}s, by index 
+     * ({@code null} for an unknown value). This way, accessing, setting 
+     * and cloning such an array does not allocate one object per member. 
+     * When it is not {@code null} the array has no {@link #entries}, 
+     * that are created from it when first needed. 
+     */
+    private Value[] dense;
+
+    /**
+     * The outcomes of the reads of the members of {@link #dense}, by 
+     * index. The outcome of a member is created when it is first read, 
+     * and is shared by all the reads until the member is set, so reading 
+     * a member does not allocate. It is {@code null} when no member was 
+     * read since {@link #dense} was created or copied.
+     */
+    private List<AccessOutcome>[] denseReads;
+
+    /** 
+     * The outcome of the reads out of range of an array 
+     * with simple representation, shared by all of them; 
+     * {@code null} until first needed. 
+     */
+    private List<AccessOutcome> outOfRangeRead;
 
     /** 
      * Indicates whether the array has a simple representation, i.e., 
@@ -107,6 +150,12 @@ public final class Array extends Objekt {
          */
         protected Expression accessCondition;
 
+        /**
+         * Whether this {@link AccessOutcome} is shared by many 
+         * reads, and thus must not be modified.
+         */
+        private boolean shared;
+
         /**
          * Constructor (outcome returned by a concrete get).
          */
@@ -148,6 +197,9 @@ public final class Array extends Objekt {
          */
         void strengthenAccessCondition(Expression condition) 
         throws InvalidOperandException, InvalidTypeException {
+            if (this.shared) {
+                throw new UnsupportedOperationException("Attempted to modify an array access outcome shared by many reads.");
+            }
             if (this.accessCondition == null) {
                 this.accessCondition = condition;
             } else {
@@ -228,7 +280,9 @@ public final class Array extends Objekt {
 
         protected AccessOutcomeIn clone() {
             try {
-                return (AccessOutcomeIn) super.clone();
+                final AccessOutcomeIn o = (AccessOutcomeIn) super.clone();
+                ((AccessOutcome) o).shared = false;
+                return o;
             } catch (CloneNotSupportedException e) {
                 throw new InternalError(e);
             }
@@ -468,6 +522,8 @@ public final class Array extends Objekt {
      * @param length a {@link Primitive}, the number of elements in the array.
      * @param classFile a {@code classFile}, the class of 
      *        this {@link Instance}; It must be {@code classFile.}{@link ClassFile#isReference() isArray}{@code () == true}.
+     * @param layout the {@link FieldLayout} of {@code classFile}, 
+     *        whose only field is the {@code length} of the array.
      * @param origin a {@link MemoryPath}, the
      *        chain of memory accesses which allowed to discover
      *        the {@link Array} for the first time. It can be null when
@@ -480,14 +536,14 @@ public final class Array extends Objekt {
      *        to be granted simple representation.
      * @throws InvalidTypeException iff {@code classFile} is invalid. 
      */
-    public Array(Calculator calc, boolean initSymbolic, Value initValue, Primitive length, ClassFile classFile, MemoryPath origin, Epoch epoch, boolean isInitial, int maxSimpleArrayLength) 
+    public Array(Calculator calc, boolean initSymbolic, Value initValue, Primitive length, ClassFile classFile, FieldLayout layout, MemoryPath origin, Epoch epoch, boolean isInitial, int maxSimpleArrayLength) 
     throws InvalidTypeException {
-        super(calc, classFile, origin, epoch, false, 0, new Signature(classFile.getClassName(), "" + Type.INT, "length"));
+        super(calc, classFile, origin, epoch, false, layout);
         if (classFile == null || !classFile.isArray()) {
             throw new InvalidTypeException("Attempted creation of an array with type " + classFile.getClassName());
         }
         this.isInitial = isInitial;
-        this.lengthSignature = new Signature(classFile.getClassName(), "" + Type.INT, "length");
+        this.lengthSignature = layout.signatures().get(0);
         this.calc = calc;
         try {
             this.INDEX = this.calc.valTerm(Type.INT, INDEX_ID);
@@ -516,10 +572,10 @@ public final class Array extends Objekt {
      * @throws NullPointerException if {@code otherArray == null}.
      */
     public Array(Reference referenceToOtherArray, Array otherArray) throws InvalidOperandException {
-        super(otherArray.calc, otherArray.classFile, otherArray.getOrigin(), Epoch.EPOCH_BEFORE_START, false, 0, new Signature(otherArray.classFile.getClassName(), "" + Type.INT, "length"));
+        super(otherArray.calc, otherArray.classFile, otherArray.getOrigin(), Epoch.EPOCH_BEFORE_START, false, otherArray.getFieldLayout());
         //TODO assert other is an initial symbolic array
         this.isInitial = false;
-        this.lengthSignature = new Signature(this.classFile.getClassName(), "" + Type.INT, "length");
+        this.lengthSignature = otherArray.lengthSignature;
         this.calc = otherArray.calc;
         try {
             this.INDEX = this.calc.valTerm(Type.INT, INDEX_ID);
@@ -527,7 +583,7 @@ public final class Array extends Objekt {
             //this should never happen
             throw new UnexpectedInternalException(e);
         }
-        this.fields.get(this.lengthSignature.toString()).setValue(otherArray.getLength());  //toString() is necessary, type erasure doesn't play well
+        setFieldValue(this.lengthSignature, otherArray.getLength());
         try {
             final Expression indexGreaterThanZero = (Expression) INDEX.ge(this.calc.valInt(0));
             final Expression indexLessThanLength = (Expression) INDEX.lt(getLength());
@@ -536,7 +592,7 @@ public final class Array extends Objekt {
             //this should never happen
             throw new UnexpectedInternalException(e);
         }
-        this.entries = new LinkedList<AccessOutcomeIn>();
+        this.entries = new ArrayList<AccessOutcomeIn>();
         this.entries.add(new AccessOutcomeInInitialArray(this.indexInRange, referenceToOtherArray));
     }
 
@@ -556,25 +612,19 @@ public final class Array extends Objekt {
         //most workload is on the theorem prover side, and with restrictive entries 
         //we may hope that normalization will succeed upon array access, thus reducing 
         //the calls to the prover.
-        this.entries = new LinkedList<AccessOutcomeIn>();
         if (getLength() instanceof Simplex) {
             final int ln = ((Integer) ((Simplex) getLength()).getActualValue()).intValue();
             if (ln <= maxSimpleArrayLength) {
                 this.simpleRep = true;
-                for (int i = 0; i < ln; i++) {
-                    try {
-                        this.entries.add(new AccessOutcomeInValue((Expression) INDEX.eq(this.calc.valInt(i)),
-                                                                  entryValue));
-                    } catch (InvalidOperandException | InvalidTypeException e) {
-                        //this should never happen
-                        throw new UnexpectedInternalException(e);
-                    }
-                }
+                this.dense = new Value[ln];
+                Arrays.fill(this.dense, entryValue);
+                this.entries = null;
                 return;
             }
         }
         //otherwise, do not use simple representation
         this.simpleRep = false;
+        this.entries = new ArrayList<AccessOutcomeIn>();
         this.entries.add(new AccessOutcomeInValue(this.indexInRange, entryValue));
     }
 
@@ -590,7 +640,15 @@ public final class Array extends Objekt {
         if (!this.classFile.equals(other.classFile)) {
             throw new InvalidTypeException("tried to clone entries of a " + other.classFile + " array into a " + this.classFile + " array");
         }
-        this.entries.clear();
+        this.simpleRep = other.simpleRep;
+        this.denseReads = null;
+        if (other.dense != null) {
+            this.dense = other.dense.clone();
+            this.entries = null;
+            return;
+        }
+        this.dense = null;
+        this.entries = new ArrayList<AccessOutcomeIn>(other.entries.size());
         for (AccessOutcomeIn entry : other.entries) {
             final AccessOutcomeIn entryClone = entry.clone();
             try {
@@ -603,6 +661,69 @@ public final class Array extends Objekt {
         }
     }
 
+    /**
+     * Returns the entries of this array, creating them from {@link #dense}
+     * if the array has a dense representation, that is dropped. It must 
+     * be used by the methods that modify the entries, or that hand 
+     * them out to be modified.
+     * 
+     * @return {@link #entries}.
+     */
+    private ArrayList<AccessOutcomeIn> entries() {
+        if (this.dense != null) {
+            final ArrayList<AccessOutcomeIn> entries = new ArrayList<>(this.dense.length);
+            for (int i = 0; i < this.dense.length; ++i) {
+                entries.add(new AccessOutcomeInValue(denseAccessCondition(i), this.dense[i]));
+            }
+            this.entries = entries;
+            this.dense = null;
+            this.denseReads = null;
+        }
+        return this.entries;
+    }
+
+    /**
+     * Returns a read-only view of the entries of this array, 
+     * that does not drop its dense representation. 
+     * 
+     * @return a {@link List}{@code <}{@link AccessOutcomeIn}{@code >}.
+     *         If the array has a dense representation its members 
+     *         are created upon access and are not stored by the array.
+     */
+    private List<AccessOutcomeIn> entriesView() {
+        if (this.dense == null) {
+            return this.entries;
+        }
+        final Value[] dense = this.dense;
+        return new AbstractList<AccessOutcomeIn>() {
+            @Override
+            public AccessOutcomeIn get(int index) {
+                return new AccessOutcomeInValue(denseAccessCondition(index), dense[index]);
+            }
+
+            @Override
+            public int size() {
+                return dense.length;
+            }
+        };
+    }
+
+    /**
+     * Returns the access condition of the entry 
+     * at an index of an array with simple representation.
+     * 
+     * @param index an {@code int}.
+     * @return the {@link Expression} {@code INDEX == index}.
+     */
+    private Expression denseAccessCondition(int index) {
+        try {
+            return (Expression) INDEX.eq(this.calc.valInt(index));
+        } catch (InvalidOperandException | InvalidTypeException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
     /**
      * Returns the length of the array.
      * 
@@ -632,8 +753,17 @@ public final class Array extends Objekt {
      */
     public boolean isSimple() {
         if (hasSimpleRep()) {
+            if (this.dense != null) {
+                for (Value v : this.dense) {
+                    if (v == null || v.isSymbolic()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
             for (AccessOutcomeIn e : this.entries) {
-                if (!(e instanceof AccessOutcomeInValue) || ((AccessOutcomeInValue) e).returnedValue.isSymbolic()) {
+                if (!(e instanceof AccessOutcomeInValue) || ((AccessOutcomeInValue) e).returnedValue == null || 
+                    ((AccessOutcomeInValue) e).returnedValue.isSymbolic()) {
                     return false;
                 }
             }
@@ -658,7 +788,8 @@ public final class Array extends Objekt {
      * @param index the index of the element in the array, a {@link Simplex}
      *        with type {@code int}.
      * @return an {@link AccessOutcome} whose {@link AccessOutcome#getExpression}s 
-     *         is specialized on {@code index}.
+     *         is specialized on {@code index}. It may be shared by 
+     *         many reads, thus it must not be modified.
      * @throws InvalidOperandException if {@code index} is {@code null}.
      * @throws InvalidTypeException if {@code index} has not {@code int} type.
      * @throws FastArrayAccessNotAllowedException if the array has not
@@ -675,7 +806,54 @@ public final class Array extends Objekt {
         if (!this.simpleRep) {
             throw new FastArrayAccessNotAllowedException();
         }
-        return get(index).iterator().next();
+        return getSimpleRep(((Integer) index.getActualValue()).intValue()).get(0);
+    }
+
+    /**
+     * Returns the outcome of an access to the array when the
+     * index is concrete and the array has simple representation.
+     * It runs in constant time, and does not modify the array. 
+     * If the index is out of range, or the array has a dense 
+     * representation, it does not allocate either: The 
+     * returned outcome is shared by the reads, and must 
+     * not be modified.
+     * 
+     * @param index an {@code int}, the index of the element in the array.
+     * @return an immutable {@link List}{@code <}{@link AccessOutcome}{@code >} 
+     *         with one {@link AccessOutcome} with {@code null} access condition.
+     * @throws InvalidOperandException never.
+     */
+    private List<AccessOutcome> getSimpleRep(int index) throws InvalidOperandException {
+        final int length = ((Integer) ((Simplex) getLength()).getActualValue()).intValue();
+        if (index < 0 || index >= length) {
+            if (this.outOfRangeRead == null) {
+                this.outOfRangeRead = shared(new AccessOutcomeOut());
+            }
+            return this.outOfRangeRead;
+        }
+        if (this.dense != null) {
+            if (this.denseReads == null) {
+                @SuppressWarnings("unchecked")
+                final List<AccessOutcome>[] denseReads = (List<AccessOutcome>[]) new List<?>[this.dense.length];
+                this.denseReads = denseReads;
+            }
+            if (this.denseReads[index] == null) {
+                this.denseReads[index] = shared(new AccessOutcomeInValue(this.dense[index]));
+            }
+            return this.denseReads[index];
+        }
+        final AccessOutcomeIn e = this.entries.get(index);
+        if (e instanceof AccessOutcomeInValue) {
+            return Collections.singletonList(new AccessOutcomeInValue(((AccessOutcomeInValue) e).returnedValue));
+        } else { //e instanceof AccessOutcomeInInitialArray
+            final AccessOutcomeInInitialArray eCast = (AccessOutcomeInInitialArray) e;
+            return Collections.singletonList(new AccessOutcomeInInitialArray(eCast.initialArray, eCast.offset));
+        }
+    }
+
+    private static List<AccessOutcome> shared(AccessOutcome outcome) {
+        outcome.shared = true;
+        return Collections.singletonList(outcome);
     }
 
     /**
@@ -691,59 +869,169 @@ public final class Array extends Objekt {
      */
     public Collection<AccessOutcome> get(Primitive index) 
     throws InvalidOperandException, InvalidTypeException {
+        if (hasSimpleRep() && index instanceof Simplex) { 
+            //the fast case, access the members directly by index
+            if (index.getType() != Type.INT) {
+                throw new InvalidTypeException("attempted array access with an index with type " + index.getType());
+            }
+            return getSimpleRep(((Integer) ((Simplex) index).getActualValue()).intValue());
+        }
+
         final LinkedList<AccessOutcome> retVal = new LinkedList<AccessOutcome>();
         final Primitive inRange = inRange(index);
 
-        //builds the answer
-        if (hasSimpleRep() && index instanceof Simplex) { 
-            //the fast case, access this.values directly by index			
-            if (inRange.surelyTrue()) {
-                final int indexInt = (Integer) ((Simplex) index).getActualValue();
-                final AccessOutcomeIn e = this.entries.get(indexInt);
+        //scans the entries and adds all the (possibly) satisfiable 
+        //inbound cases
+        for (AccessOutcomeIn e : entriesView()) {
+            final Primitive inRangeEntry = e.inRange(index);
+            if (inRangeEntry.surelyTrue()) { //this may only happen when index is Simplex
                 if (e instanceof AccessOutcomeInValue) {
                     retVal.add(new AccessOutcomeInValue(((AccessOutcomeInValue) e).returnedValue));
                 } else { //e instanceof AccessOutcomeInInitialArray
                     final AccessOutcomeInInitialArray eCast = (AccessOutcomeInInitialArray) e;
-                    retVal.add(new AccessOutcomeInInitialArray(eCast.initialArray, eCast.offset));
+                    retVal.add(new AccessOutcomeInInitialArray(eCast.initialArray, eCast.offset));						
                 }
-            } else {
-                retVal.add(new AccessOutcomeOut()); 
-            }
-        } else {
-            //scans the entries and adds all the (possibly) satisfiable 
-            //inbound cases
-            for (AccessOutcomeIn e : this.entries) {
-                final Primitive inRangeEntry = e.inRange(index);
-                if (inRangeEntry.surelyTrue()) { //this may only happen when index is Simplex
-                    if (e instanceof AccessOutcomeInValue) {
-                        retVal.add(new AccessOutcomeInValue(((AccessOutcomeInValue) e).returnedValue));
-                    } else { //e instanceof AccessOutcomeInInitialArray
-                        final AccessOutcomeInInitialArray eCast = (AccessOutcomeInInitialArray) e;
-                        retVal.add(new AccessOutcomeInInitialArray(eCast.initialArray, eCast.offset));						
-                    }
-                } else if (inRangeEntry.surelyFalse()) {
-                    //do nothing
-                } else { //inRangeEntry is possibly satisfiable
-                    if (e instanceof AccessOutcomeInValue) {
-                        retVal.add(new AccessOutcomeInValue((Expression) inRangeEntry, ((AccessOutcomeInValue) e).returnedValue));
-                    } else { //e instanceof AccessOutcomeInInitialArray
-                        final AccessOutcomeInInitialArray eCast = (AccessOutcomeInInitialArray) e;
-                        retVal.add(new AccessOutcomeInInitialArray((Expression) inRangeEntry, eCast.initialArray, eCast.offset));						
-                    }
+            } else if (inRangeEntry.surelyFalse()) {
+                //do nothing
+            } else { //inRangeEntry is possibly satisfiable
+                if (e instanceof AccessOutcomeInValue) {
+                    retVal.add(new AccessOutcomeInValue((Expression) inRangeEntry, ((AccessOutcomeInValue) e).returnedValue));
+                } else { //e instanceof AccessOutcomeInInitialArray
+                    final AccessOutcomeInInitialArray eCast = (AccessOutcomeInInitialArray) e;
+                    retVal.add(new AccessOutcomeInInitialArray((Expression) inRangeEntry, eCast.initialArray, eCast.offset));						
                 }
             }
+        }
 
-            //manages the out-of-bounds case
-            final Primitive outOfRange = inRange.not();
-            if (outOfRange.surelyTrue()) {
-                retVal.add(new AccessOutcomeOut());
-            } else if (outOfRange.surelyFalse()) {
-                //do nothing
-            } else { //outOfRange is possibly satisfiable
-                retVal.add(new AccessOutcomeOut((Expression) outOfRange));
+        //manages the out-of-bounds case
+        final Primitive outOfRange = inRange.not();
+        if (outOfRange.surelyTrue()) {
+            retVal.add(new AccessOutcomeOut());
+        } else if (outOfRange.surelyFalse()) {
+            //do nothing
+        } else { //outOfRange is possibly satisfiable
+            retVal.add(new AccessOutcomeOut((Expression) outOfRange));
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Checks whether the unknown members of this array can 
+     * be represented by {@link #select(Primitive)}. 
+     * 
+     * @return {@code true} iff this array has an origin and its
+     *         members have numeric primitive type. 
+     */
+    public boolean canSelect() {
+        final String memberType = getArrayMemberType(this.classFile.getClassName());
+        return getOrigin() != null && isPrimitive(memberType) && memberType.charAt(0) != Type.BOOLEAN;
+    }
+
+    /**
+     * Returns the initial, unknown value of a member of this 
+     * array as the application of the SMT-LIB2 {@code select} function 
+     * to a constant array determined by the origin of this array. 
+     * Thus, the members of the arrays with same origin at equal 
+     * indices are equal, and it is up to the decision procedure
+     * to decide whether two indices are equal.
+     * 
+     * @param index a {@link Primitive} with type {@code int}, the 
+     *        index of the member.
+     * @return a {@link Primitive}, the application of a function whose name 
+     *         is {@link #SELECT_PREFIX} followed by an identifier of the 
+     *         constant array made only of letters, digits and underscores.
+     * @throws InvalidOperandException if {@code index} is {@code null}.
+     * @throws InvalidTypeException if {@code index} has not {@code int} type, 
+     *         or {@code !}{@link #canSelect()}.
+     */
+    public Primitive select(Primitive index) 
+    throws InvalidOperandException, InvalidTypeException {
+        if (index == null) {
+            throw new InvalidOperandException("attempted array access with null index");
+        }
+        if (index.getType() != Type.INT) {
+            throw new InvalidTypeException("attempted array access with an index with type " + index.getType());
+        }
+        if (!canSelect()) {
+            throw new InvalidTypeException("attempted select on array " + this.classFile.getClassName() + " with origin " + getOrigin());
+        }
+        final char memberType = getArrayMemberType(this.classFile.getClassName()).charAt(0);
+        final String originString = getOrigin().toString();
+        final StringBuilder arrayName = new StringBuilder("array");
+        for (int i = 0; i < originString.length(); ++i) {
+            final char c = originString.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                arrayName.append(c);
+            } else {
+                arrayName.append('_').append(Integer.toHexString(c)).append('_');
             }
         }
+        final String operator = this.classFile.getClassName() + ":(" + Type.INT + ")" + memberType + ":" + SELECT_PREFIX + arrayName;
+        return this.calc.applyFunction(memberType, operator, index);
+    }
 
+    /**
+     * Checks whether a function application is 
+     * a {@link #select(Primitive) select}.
+     * 
+     * @param x a {@link FunctionApplication}.
+     * @return {@code true} iff {@code x} was returned by 
+     *         {@link #select(Primitive)} for some array.
+     */
+    public static boolean isSelect(FunctionApplication x) {
+        final String[] operatorParts = x.getOperator().split(":");
+        return operatorParts.length == 3 && operatorParts[2].startsWith(SELECT_PREFIX);
+    }
+
+    /**
+     * Returns the outcomes of an access to the array as 
+     * {@link #get(Primitive)}, but with all the inbound outcomes
+     * with unknown value coalesced into one outcome, whose access 
+     * condition is the disjunction of theirs, and whose value 
+     * is {@link #select(Primitive) select}{@code (index)}. 
+     * If {@code !}{@link #canSelect()} it is equivalent to
+     * {@link #get(Primitive)}.
+     * 
+     * @param index the index of the element in the array, a {@code Primitive}
+     *        with type {@code int}.
+     * @return a {@link Collection}{@code <}{@link AccessOutcome}{@code >}.
+     * @throws InvalidOperandException if {@code index} is {@code null}.
+     * @throws InvalidTypeException if {@code index} has not {@code int} type.
+     */
+    public Collection<AccessOutcome> getSelect(Primitive index) 
+    throws InvalidOperandException, InvalidTypeException {
+        final Collection<AccessOutcome> outcomes = get(index);
+        if (!canSelect()) {
+            return outcomes;
+        }
+        final LinkedList<AccessOutcome> retVal = new LinkedList<AccessOutcome>();
+        int unknownPosition = -1; //where the coalesced outcome goes
+        Expression unknownCondition = null; //null denotes true
+        for (AccessOutcome e : outcomes) {
+            if (e instanceof AccessOutcomeInValue && ((AccessOutcomeInValue) e).returnedValue == null) {
+                if (unknownPosition < 0) {
+                    unknownPosition = retVal.size();
+                    unknownCondition = e.accessCondition;
+                } else if (unknownCondition != null) {
+                    if (e.accessCondition == null) {
+                        unknownCondition = null;
+                    } else {
+                        final Primitive disjunction = unknownCondition.or(e.accessCondition);
+                        unknownCondition = (disjunction instanceof Expression ? (Expression) disjunction : null);
+                    }
+                }
+            } else {
+                retVal.add(e);
+            }
+        }
+        if (unknownPosition >= 0) {
+            final Primitive selected = select(index);
+            final AccessOutcomeInValue coalesced = (unknownCondition == null ? 
+                                                    new AccessOutcomeInValue(selected) : 
+                                                    new AccessOutcomeInValue(unknownCondition, selected));
+            retVal.add(unknownPosition, coalesced);
+        }
         return retVal;
     }
 
@@ -771,8 +1059,15 @@ public final class Array extends Objekt {
             throw new FastArrayAccessNotAllowedException();
         }
         final int actualIndex = (Integer) index.getActualValue();
-        final int actualLength = (Integer) ((Simplex) this.getLength()).getActualValue();
+        final int actualLength = (Integer) ((Simplex) getLength()).getActualValue();
         if (actualIndex >= 0 && actualIndex < actualLength) {
+            if (this.dense != null) {
+                this.dense[actualIndex] = item;
+                if (this.denseReads != null) {
+                    this.denseReads[actualIndex] = null;
+                }
+                return;
+            }
             final AccessOutcomeIn e = this.entries.get(actualIndex);
             if (e instanceof AccessOutcomeInValue) {
                 ((AccessOutcomeInValue) e).returnedValue = item;
@@ -815,7 +1110,7 @@ public final class Array extends Objekt {
         this.simpleRep = false;
         final Expression formalIndexIsSetIndex = (Expression) INDEX.eq(index);
         final Expression accessExpression = (Expression) this.indexInRange.and(formalIndexIsSetIndex); //if we assume that index may be in range, this is an Expression
-        this.entries.add(new AccessOutcomeInValue(accessExpression, valToSet));
+        entries().add(new AccessOutcomeInValue(accessExpression, valToSet));
     }
 
     /**
@@ -838,7 +1133,7 @@ public final class Array extends Objekt {
         return new Iterator<Array.AccessOutcomeIn>() {
             //this iterator filters the relevant members in Array.this.values
             //by wrapping the default iterator to it
-            private final Iterator<Array.AccessOutcomeIn> it = Array.this.entries.iterator();
+            private final Iterator<Array.AccessOutcomeIn> it = entries().iterator();
             private Array.AccessOutcomeIn next = null;
             private boolean emitted = true;
             private boolean canRemove = false;
@@ -941,8 +1236,23 @@ public final class Array extends Objekt {
             int srcPosInt = ((Integer) ((Simplex) srcPos).getActualValue()).intValue();
             int destPosInt = ((Integer) ((Simplex) destPos).getActualValue()).intValue();
             int lengthInt = ((Integer) ((Simplex) length).getActualValue()).intValue();
+            if (this.dense != null && src.dense != null) {
+                //copies the source values first, in case src == this 
+                //and the ranges overlap
+                final Value[] srcValues = Arrays.copyOfRange(src.dense, srcPosInt, srcPosInt + lengthInt);
+                for (int ofst = 0; ofst < lengthInt; ++ofst) {
+                    if (!isPrimitive(srcTypeComponent) && !isPrimitive(destTypeComponent)) { 
+                        checkOk.accept((Reference) srcValues[ofst]);
+                    }
+                    this.dense[destPosInt + ofst] = srcValues[ofst];
+                }
+                this.denseReads = null;
+                return EMPTY_ITERATOR;
+            }
+            final List<AccessOutcomeIn> srcEntries = src.entriesView();
+            final ArrayList<AccessOutcomeIn> destEntries = entries();
             for (int ofst = 0; ofst < lengthInt; ++ofst) {
-                final AccessOutcomeIn srcEntry = src.entries.get(srcPosInt + ofst);
+                final AccessOutcomeIn srcEntry = srcEntries.get(srcPosInt + ofst);
                 final AccessOutcomeIn destEntry;
                 if (srcEntry instanceof AccessOutcomeInValue) {
                     final Value srcValue = ((AccessOutcomeInValue) srcEntry).returnedValue;
@@ -956,7 +1266,7 @@ public final class Array extends Objekt {
                     //TODO find a way to perform assignment compatibility check
                     destEntry = new AccessOutcomeInInitialArray(srcEntry.accessCondition, initialArray, offset.sub(destPos).add(srcPos));
                 }
-                this.entries.set(destPosInt + ofst, destEntry);
+                destEntries.set(destPosInt + ofst, destEntry);
             }
             return EMPTY_ITERATOR;
         } else {
@@ -965,13 +1275,14 @@ public final class Array extends Objekt {
             final Expression indexNotInDestRange = (Expression) indexInDestRange.not();
 
             //constrains the entries of the destination array
-            for (AccessOutcomeIn destEntry : this.entries) {
+            final ArrayList<AccessOutcomeIn> destEntries = entries();
+            for (AccessOutcomeIn destEntry : destEntries) {
                 destEntry.strengthenAccessCondition(indexNotInDestRange);
             }
 
             //adds new entries corresponding to the source array entries
             final Primitive srcIndex = INDEX.sub(destPos).add(srcPos);
-            for (AccessOutcomeIn srcEntry : src.entries) {
+            for (AccessOutcomeIn srcEntry : (src == this ? new ArrayList<>(destEntries) : src.entriesView())) {
                 final Expression accessCondition = (Expression) this.indexInRange.and(srcEntry.inRange(srcIndex)).and(indexInDestRange);
                 final AccessOutcomeIn destEntry;
                 if (srcEntry instanceof AccessOutcomeInValue) {
@@ -986,11 +1297,11 @@ public final class Array extends Objekt {
                     //TODO find a way to perform assignment compatibility check
                     destEntry = new AccessOutcomeInInitialArray(accessCondition, initialArray, offset.sub(destPos).add(srcPos));
                 }
-                this.entries.add(destEntry);
+                destEntries.add(destEntry);
             }
 
             //returns the iterator
-            return Array.this.entries.iterator(); //for sake of simplicity all the entries are considered potentially affected
+            return destEntries.iterator(); //for sake of simplicity all the entries are considered potentially affected
         }
     }
 
@@ -1038,7 +1349,7 @@ public final class Array extends Objekt {
      * @return a {@link List}{@code <}{@link AccessOutcomeIn}{@code >}.
      */
     public List<AccessOutcomeIn> values() {
-        return Collections.unmodifiableList(this.entries);
+        return Collections.unmodifiableList(entriesView());
     }
 
     /**
@@ -1051,7 +1362,7 @@ public final class Array extends Objekt {
     public String valueString() {
         if (this.classFile.getMemberClass().getClassName().equals("char") && isSimple()) {
             final StringBuilder buf = new StringBuilder();
-            for (AccessOutcomeIn e : this.entries) {
+            for (AccessOutcomeIn e : entriesView()) {
                 buf.append(((AccessOutcomeInValue) e).returnedValue.toString());
             }
             return buf.toString();
@@ -1070,7 +1381,7 @@ public final class Array extends Objekt {
         String str = "[Type:" + this.classFile + ", Length:" + this.getLength().toString() + ", Elements: {";
         boolean firstEntryPassed = false;
         final StringBuilder buf = new StringBuilder();
-        for (AccessOutcomeIn e : this.entries) {
+        for (AccessOutcomeIn e : entriesView()) {
             if (firstEntryPassed) {
                 buf.append(", ");
             } else {
@@ -1086,9 +1397,14 @@ public final class Array extends Objekt {
     public Array clone() {
         final Array o = (Array) super.clone();
 
-        o.entries = new LinkedList<AccessOutcomeIn>();
-        for (AccessOutcomeIn e : this.entries) {
-            o.entries.add(e.clone());
+        if (this.dense == null) {
+            o.entries = new ArrayList<AccessOutcomeIn>(this.entries.size());
+            for (AccessOutcomeIn e : this.entries) {
+                o.entries.add(e.clone());
+            }
+        } else {
+            o.dense = this.dense.clone();
+            o.denseReads = null;
         }
 
         return o;
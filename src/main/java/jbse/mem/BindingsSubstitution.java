@@ -0,0 +1,126 @@
+package jbse.mem;
+
+import java.util.List;
+
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.val.Any;
+import jbse.val.Calculator;
+import jbse.val.Expression;
+import jbse.val.FunctionApplication;
+import jbse.val.NarrowingConversion;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveTraversal;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.WideningConversion;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidOperatorException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Replaces, in a {@link Primitive}, the primitive symbols
+ * that a {@link PathCondition} binds to some value (either
+ * a constant or another symbol), and recalculates the
+ * {@link Primitive} with a {@link Calculator}, so that, e.g.,
+ * an expression whose symbols are all bound to constants
+ * yields a constant. The subterms where no substitution
+ * occurs are not rebuilt.
+ *
+ * @author Pietro Braione
+ *
+ */
+final class BindingsSubstitution extends PrimitiveTraversal<Primitive, RuntimeException> {
+    final Calculator calc;
+    private final PathCondition pathCondition;
+
+    BindingsSubstitution(Calculator calc, PathCondition pathCondition) {
+        this.calc = calc;
+        this.pathCondition = pathCondition;
+    }
+
+    @Override
+    protected Primitive visitAny(Any x, List<Primitive> children) {
+        return x;
+    }
+
+    @Override
+    protected Primitive visitExpression(Expression e, List<Primitive> operands) {
+        try {
+            if (e.isUnary()) {
+                final Primitive operand = operands.get(0);
+                return (operand == e.getOperand() ? e : this.calc.applyUnary(e.getOperator(), operand));
+            } else {
+                final Primitive firstOperand = operands.get(0);
+                final Primitive secondOperand = operands.get(1);
+                return (firstOperand == e.getFirstOperand() && secondOperand == e.getSecondOperand() ? e :
+                        this.calc.applyBinary(firstOperand, e.getOperator(), secondOperand));
+            }
+        } catch (InvalidOperandException | InvalidTypeException | InvalidOperatorException exc) {
+            //this should never happen
+            throw new UnexpectedInternalException(exc);
+        }
+    }
+
+    @Override
+    protected Primitive visitFunctionApplication(FunctionApplication x, List<Primitive> args) {
+        final Primitive[] argsOld = x.getArgs();
+        boolean changed = false;
+        for (int i = 0; i < argsOld.length; ++i) {
+            changed = changed || (args.get(i) != argsOld[i]);
+        }
+        if (!changed) {
+            return x;
+        }
+        try {
+            return this.calc.applyFunction(x.getType(), x.getOperator(), args.toArray(new Primitive[args.size()]));
+        } catch (InvalidOperandException | InvalidTypeException exc) {
+            //this should never happen
+            throw new UnexpectedInternalException(exc);
+        }
+    }
+
+    @Override
+    protected Primitive visitPrimitiveSymbolic(PrimitiveSymbolic s, List<Primitive> children) {
+        final Primitive binding = this.pathCondition.getBinding(s);
+        return (binding == null ? s : binding);
+    }
+
+    @Override
+    protected Primitive visitSimplex(Simplex x, List<Primitive> children) {
+        return x;
+    }
+
+    @Override
+    protected Primitive visitTerm(Term x, List<Primitive> children) {
+        return x;
+    }
+
+    @Override
+    protected Primitive visitNarrowingConversion(NarrowingConversion x, List<Primitive> args) {
+        final Primitive arg = args.get(0);
+        if (arg == x.getArg()) {
+            return x;
+        }
+        try {
+            return this.calc.narrow(x.getType(), arg);
+        } catch (InvalidOperandException | InvalidTypeException exc) {
+            //this should never happen
+            throw new UnexpectedInternalException(exc);
+        }
+    }
+
+    @Override
+    protected Primitive visitWideningConversion(WideningConversion x, List<Primitive> args) {
+        final Primitive arg = args.get(0);
+        if (arg == x.getArg()) {
+            return x;
+        }
+        try {
+            return this.calc.widen(x.getType(), arg);
+        } catch (InvalidOperandException | InvalidTypeException exc) {
+            //this should never happen
+            throw new UnexpectedInternalException(exc);
+        }
+    }
+}
@@ -41,6 +41,16 @@ public class ClauseAssumeExpands extends ClauseAssumeReferenceSymbolic {
 		return this.object.clone(); //preserves the safety copy 
 	}
 	
+	/**
+	 * Returns the expansion object without copying it.
+	 * 
+	 * @return the expansion {@link Objekt}. It must not 
+	 *         be modified.
+	 */
+	Objekt getObjektNoCopy() {
+		return this.object;
+	}
+	
 	@Override
 	public void accept(ClauseVisitor v) throws Exception {
 		v.visitClauseAssumeExpands(this);
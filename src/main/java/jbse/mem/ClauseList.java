@@ -0,0 +1,308 @@
+package jbse.mem;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * An immutable list of {@link Clause}s, e.g., the clauses
+ * of a path condition. It is implemented as a chain of nodes
+ * linked to their predecessor, so appending a clause does not
+ * modify nor copy the list, and the lists obtained by
+ * appending clauses to a same list share all the nodes of
+ * their common prefix. This allows to find a common prefix
+ * of two lists without comparing their clauses. Every node 
+ * also has a jump pointer to one of its ancestors, arranged 
+ * as in a skew-binary random access list, so accessing a clause 
+ * by its index takes logarithmic time without copying the list. 
+ * Iterating over the list takes linear time, and memory bounded
+ * by a constant.
+ *
+ * @author Pietro Braione
+ *
+ */
+public final class ClauseList extends AbstractList<Clause> {
+    /** The empty {@link ClauseList}. */
+    public static final ClauseList EMPTY = new ClauseList(null);
+
+    /**
+     * A node of the chain.
+     *
+     * @author Pietro Braione
+     *
+     */
+    private static final class Node {
+        /** The {@link Clause} at this node. */
+        final Clause clause;
+
+        /** The previous node, or {@code null} if this is the first one. */
+        final Node parent;
+
+        /** The number of nodes from the first one to this one (included). */
+        final int depth;
+
+        /** 
+         * An ancestor of this node, or {@code null} for the
+         * (fictitious) node before the first one. It depends
+         * only on {@code depth}.
+         */
+        final Node jump;
+
+        Node(Node parent, Clause clause) {
+            this.clause = clause;
+            this.parent = parent;
+            this.depth = (parent == null ? 1 : parent.depth + 1);
+            if (parent != null && parent.jump != null && 
+                parent.depth - parent.jump.depth == parent.jump.depth - depth(parent.jump.jump)) {
+                this.jump = parent.jump.jump;
+            } else {
+                this.jump = parent;
+            }
+        }
+    }
+
+    /** 
+     * The maximum number of clauses that an iterator 
+     * buffers, see {@link #iterator()}.
+     */
+    private static final int ITERATOR_CHUNK = 64;
+
+    /** The last node, or {@code null} if the list is empty. */
+    private final Node last;
+
+    private ClauseList(Node last) {
+        this.last = last;
+    }
+
+    /**
+     * Returns a {@link ClauseList} with the same clauses
+     * of a {@link Collection}.
+     *
+     * @param c a {@link Collection}{@code <}{@link Clause}{@code >}.
+     * @return {@code c} itself if it is a {@link ClauseList},
+     *         otherwise a new {@link ClauseList} with the clauses
+     *         in {@code c} in their iteration order.
+     */
+    public static ClauseList of(Collection<Clause> c) {
+        if (c instanceof ClauseList) {
+            return (ClauseList) c;
+        }
+        ClauseList retVal = EMPTY;
+        for (Clause clause : c) {
+            retVal = retVal.append(clause);
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns the list obtained by appending
+     * a clause to this list. This list is not
+     * modified.
+     *
+     * @param clause a {@link Clause}.
+     * @return a {@link ClauseList} with the clauses of
+     *         this list followed by {@code clause}.
+     */
+    public ClauseList append(Clause clause) {
+        return new ClauseList(new Node(this.last, clause));
+    }
+
+    /**
+     * Returns the list obtained by removing a clause
+     * from this list. This list is not modified, and
+     * the result shares with it all the nodes before 
+     * the removed clause.
+     *
+     * @param clause a {@link Clause}. It is compared by
+     *        identity with the clauses in this list.
+     * @return a {@link ClauseList} with the clauses of
+     *         this list except (the last occurrence of)
+     *         {@code clause}, or this list if {@code clause} 
+     *         is not in it.
+     */
+    public ClauseList without(Clause clause) {
+        final ArrayList<Clause> after = new ArrayList<>();
+        for (Node node = this.last; node != null; node = node.parent) {
+            if (node.clause == clause) {
+                ClauseList retVal = (node.parent == null ? EMPTY : new ClauseList(node.parent));
+                for (int i = after.size() - 1; i >= 0; --i) {
+                    retVal = retVal.append(after.get(i));
+                }
+                return retVal;
+            }
+            after.add(node.clause);
+        }
+        return this;
+    }
+
+    /**
+     * Returns a prefix of this list. The prefix
+     * shares all its nodes with this list.
+     *
+     * @param n an {@code int}, the number of clauses. It must be
+     *        between {@code 0} and {@link #size()} (included).
+     * @return a {@link ClauseList} with the first {@code n}
+     *         clauses of this list.
+     * @throws IndexOutOfBoundsException if {@code n} is not a
+     *         valid number of clauses.
+     */
+    public ClauseList prefix(int n) {
+        if (n < 0 || n > size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (n == size()) {
+            return this;
+        }
+        return (n == 0 ? EMPTY : new ClauseList(ancestor(this.last, n)));
+    }
+
+    /**
+     * Returns the last clauses of this list.
+     *
+     * @param n an {@code int}, the number of clauses. It must be
+     *        between {@code 0} and {@link #size()} (included).
+     * @return a {@link Clause}{@code []} with the last {@code n}
+     *         clauses of this list, in their order.
+     * @throws IndexOutOfBoundsException if {@code n} is not a
+     *         valid number of clauses.
+     */
+    public Clause[] last(int n) {
+        if (n < 0 || n > size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        final Clause[] retVal = new Clause[n];
+        Node node = this.last;
+        for (int i = n - 1; i >= 0; --i) {
+            retVal[i] = node.clause;
+            node = node.parent;
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns the length of a common prefix of two
+     * {@link ClauseList}s that share their nodes up to
+     * a point. It follows the jump pointers of the two
+     * lists rather than comparing their clauses, so it
+     * takes time logarithmic in the length of the longer
+     * list.
+     *
+     * @param first a {@link ClauseList}.
+     * @param second a {@link ClauseList}.
+     * @return an {@code int}, the number of nodes that
+     *         {@code first} and {@code second} share. Their
+     *         first clauses in such number are equal; they might
+     *         have further (equal but not shared) clauses in common.
+     */
+    public static int sharedPrefixLength(ClauseList first, ClauseList second) {
+        final int depth = Math.min(first.size(), second.size());
+        Node a = ancestor(first.last, depth);
+        Node b = ancestor(second.last, depth);
+        //a and b have same depth, so their jumps have same depth
+        while (a != b) {
+            if (a.jump == b.jump) {
+                a = a.parent;
+                b = b.parent;
+            } else {
+                a = a.jump;
+                b = b.jump;
+            }
+        }
+        return depth(a);
+    }
+
+    private static int depth(Node node) {
+        return (node == null ? 0 : node.depth);
+    }
+
+    /**
+     * Returns the ancestor of a node at a given depth.
+     * 
+     * @param node a {@link Node}.
+     * @param depth an {@code int} between {@code 0} and 
+     *        {@code depth(node)} (included).
+     * @return the ancestor of {@code node} (possibly {@code node}
+     *         itself) with depth {@code depth}, or {@code null} if
+     *         {@code depth == 0}.
+     */
+    private static Node ancestor(Node node, int depth) {
+        Node retVal = node;
+        while (depth(retVal) > depth) {
+            retVal = (depth(retVal.jump) >= depth ? retVal.jump : retVal.parent);
+        }
+        return retVal;
+    }
+
+    @Override
+    public int size() {
+        return depth(this.last);
+    }
+
+    @Override
+    public Clause get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return ancestor(this.last, index + 1).clause;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return last(size());
+    }
+
+    /**
+     * {@inheritDoc}
+     * The returned iterator walks the chain of nodes 
+     * chunk by chunk: It jumps to the last node of the 
+     * next chunk, and buffers the clauses of the chunk
+     * by following their parents. This way it neither
+     * copies the whole list nor accesses every clause
+     * by index.
+     */
+    @Override
+    public Iterator<Clause> iterator() {
+        return new Iterator<Clause>() {
+            private final int size = size();
+            private final Clause[] buffer = new Clause[Math.min(ITERATOR_CHUNK, this.size)];
+            private int bufferStart = 0;
+            private int bufferEnd = 0;
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < this.size;
+            }
+
+            @Override
+            public Clause next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (this.next == this.bufferEnd) {
+                    fill();
+                }
+                return this.buffer[this.next++ - this.bufferStart];
+            }
+
+            private void fill() {
+                this.bufferStart = this.next;
+                this.bufferEnd = Math.min(this.size, this.next + this.buffer.length);
+                Node node = ancestor(ClauseList.this.last, this.bufferEnd);
+                for (int i = this.bufferEnd - this.bufferStart - 1; i >= 0; --i) {
+                    this.buffer[i] = node.clause;
+                    node = node.parent;
+                }
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Clause> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+    }
+}
@@ -30,8 +30,18 @@ public abstract class Frame implements Cloneable {
     /** the {@link ClassFile} for the current class. */
     private ClassFile currentClass;
     
-    /** The bytecode of the frame's method. */
-    private byte[] bytecode; //not final to implement clone method (bytecode may be patched)
+    /** 
+     * The bytecode of the frame's method. It is shared with the 
+     * class file and with the clones of this frame until this
+     * frame's bytecode is patched.
+     */
+    private byte[] bytecode; //not final because bytecode may be patched
+
+    /** 
+     * Whether {@link #bytecode} may be shared with some other 
+     * object, and thus must be copied before being patched.
+     */
+    private boolean bytecodeShared;
 
     /** The program counter for the frame's method. */
     private int programCounter;
@@ -42,11 +52,15 @@ public abstract class Frame implements Cloneable {
     /**
      * Constructor.
      * 
+     * @param currentClass the {@link ClassFile} for the current class.
      * @param bytecode a {@code byte[]}, the bytecode to be executed.
+     *        It is not copied, and it must not be modified afterwards
+     *        (the frame copies it before patching it).
      */
     public Frame(ClassFile currentClass, byte[] bytecode) {
         this.currentClass = currentClass;
-        this.bytecode = bytecode.clone();
+        this.bytecode = bytecode;
+        this.bytecodeShared = true;
         this.programCounter = 0;
         this.returnProgramCounter = UNKNOWN_PC;
     }
@@ -114,15 +128,30 @@ public abstract class Frame implements Cloneable {
         return this.bytecode.clone();
     }
     
+    /**
+     * Return the code of this frame without copying it.
+     * 
+     * @return code a {@code byte[]}, the (possibly patched) 
+     *         frame code. It must not be modified.
+     */
+    final byte[] code() {
+        return this.bytecode;
+    }
+    
     /**
      * Patches the bytecode at the current program counter.
      * 
      * @param bytecode a {@code byte}. The frame's code
      *        will be modified at the frame's program counter
      *        by replacing the pointed bytecode with {@code bytecode}.
-     *        Note that the action is destructive.
+     *        Note that the action is destructive, but it does not
+     *        affect the class file nor the clones of the frame.
      */
     public final void patchCode(byte bytecode) {
+        if (this.bytecodeShared) {
+            this.bytecode = this.bytecode.clone();
+            this.bytecodeShared = false;
+        }
         this.bytecode[this.programCounter] = bytecode;
     }
 
@@ -335,7 +364,9 @@ public abstract class Frame implements Cloneable {
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }
-        o.bytecode = o.bytecode.clone();
+        //from now on this frame and its clone share the bytecode
+        this.bytecodeShared = true;
+        o.bytecodeShared = true;
         return o;
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -10,11 +11,22 @@ import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.exc.HeapMemoryExhaustedException;
 
 /**
- * Class that implements the heap in the JVM's memory.
+ * Class that implements the heap in the JVM's memory. A heap 
+ * and its clones share the objects they do not modify, and 
+ * copy an object only when it is first accessed for modification
+ * after cloning, so a clone stores only the objects that 
+ * differ from the ones of the heap it was cloned from.
  */
 final class Heap implements Cloneable {
     private final long maxHeapSize;
     private SortedMap<Long, Objekt> objects; //TODO nonfinal to allow cloning
+    
+    /** 
+     * The positions of the objects that are not shared 
+     * with other heaps. 
+     */
+    private HashSet<Long> exclusive; //nonfinal to allow cloning
+    
     private long nextIndex;
 
     /**
@@ -26,6 +38,7 @@ final class Heap implements Cloneable {
     Heap(long maxHeapSize) {
         this.maxHeapSize = maxHeapSize;
         this.objects = new TreeMap<>();
+        this.exclusive = new HashSet<>();
         this.nextIndex = Util.POS_ROOT;
     }
 
@@ -58,6 +71,7 @@ final class Heap implements Cloneable {
      */
     long addNewSurely(Objekt item) {
         this.objects.put(this.nextIndex, item);
+        this.exclusive.add(this.nextIndex);
         long retVal = this.nextIndex;
         while (this.objects.containsKey(this.nextIndex)) {
             ++this.nextIndex;
@@ -74,6 +88,7 @@ final class Heap implements Cloneable {
      */
     void set(long pos, Objekt item) {
         this.objects.put(pos, item);
+        this.exclusive.add(pos);
         //next free position, without garbage collection
         while (objects.containsKey(this.nextIndex)) {
             if (this.nextIndex == Long.MAX_VALUE) {
@@ -84,24 +99,48 @@ final class Heap implements Cloneable {
     }
 
     /**
-     * Gets an object from the heap.
+     * Gets an object from the heap for reading.
      * 
      * @param pos a {@code long}, the location where the object
-     *        must be stored.
+     *        is stored.
      * @return the {@link Objekt} at position {@code pos}, or 
      *         {@code null} if nothing is stored at {@code pos}.
+     *         The object may be shared with other heaps, thus 
+     *         it must not be modified.
      **/
     Objekt getObject(long pos) {
         return this.objects.get(pos);
     }
 
+    /**
+     * Gets an object from the heap for modification.
+     * 
+     * @param pos a {@code long}, the location where the object
+     *        is stored.
+     * @return the {@link Objekt} at position {@code pos}, or 
+     *         {@code null} if nothing is stored at {@code pos}.
+     *         The object is not shared with other heaps (it is
+     *         copied if it was), so it can be modified. 
+     **/
+    Objekt getObjectModifiable(long pos) {
+        final Objekt o = this.objects.get(pos);
+        if (o == null || this.exclusive.contains(pos)) {
+            return o;
+        }
+        final Objekt oCopy = o.clone();
+        this.objects.put(pos, oCopy);
+        this.exclusive.add(pos);
+        return oCopy;
+    }
+
     /**
      * Returns the objects in the heap as a {@link Map}.
      * 
      * @return a 
      * {@link SortedMap}{@code <}{@link Long}{@code , }{@link Objekt}{@code >}
      * mapping heap positions to the {@link Objekt}s stored 
-     * at them.
+     * at them. The {@link Objekt}s may be shared with other 
+     * heaps, thus they must not be modified.
      */
     SortedMap<Long, Objekt> getObjects() {
         return new TreeMap<>(this.objects);
@@ -126,10 +165,12 @@ final class Heap implements Cloneable {
      */
     void disposeExcept(Set<Long> exceptPos) {
         for (Iterator<Map.Entry<Long, Objekt>> it = this.objects.entrySet().iterator(); it.hasNext(); ) {
-            if (exceptPos.contains(it.next().getKey())) {
+            final Long pos = it.next().getKey();
+            if (exceptPos.contains(pos)) {
                 continue;
             }
             it.remove();
+            this.exclusive.remove(pos);
         }
     }
 
@@ -161,13 +202,10 @@ final class Heap implements Cloneable {
             throw new InternalError(e);
         }
 
-        final SortedMap<Long, Objekt> objListClone = new TreeMap<>();
-
-        for (Map.Entry<Long, Objekt> e : this.objects.entrySet()) {
-            final Objekt val = e.getValue();
-            objListClone.put(e.getKey(), val.clone());
-        }
-        h.objects = objListClone;
+        //from now on this heap and its clone share all the objects
+        h.objects = new TreeMap<>(this.objects);
+        this.exclusive = new HashSet<>();
+        h.exclusive = new HashSet<>();
         return h;
     }
 }
\ No newline at end of file
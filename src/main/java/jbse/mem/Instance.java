@@ -1,9 +1,7 @@
 package jbse.mem;
 
-import java.util.Map;
-
 import jbse.bc.ClassFile;
-import jbse.bc.Signature;
+import jbse.bc.FieldLayout;
 import jbse.val.Calculator;
 import jbse.val.MemoryPath;
 import jbse.val.exc.InvalidTypeException;
@@ -23,14 +21,13 @@ public class Instance extends Objekt {
      * @param epoch the creation {@link Epoch} of this {@link Instance}. 
      *        It can be null when
      *        {@code epoch == }{@link Epoch#EPOCH_AFTER_START}.
-     * @param numOfStaticFields an {@code int}, the number of static fields.
-     * @param fieldSignatures varargs of field {@link Signature}s, all the
+     * @param layout the {@link FieldLayout} of all the 
      *        fields this instance knows.
      * @throws InvalidTypeException iff {@code classFile} is invalid. 
      */
-    protected Instance(Calculator calc, ClassFile classFile, MemoryPath origin, Epoch epoch, int numOfStaticFields, Signature... fieldSignatures) 
+    protected Instance(Calculator calc, ClassFile classFile, MemoryPath origin, Epoch epoch, FieldLayout layout) 
     throws InvalidTypeException {
-        super(calc, classFile, origin, epoch, false, numOfStaticFields, fieldSignatures);
+        super(calc, classFile, origin, epoch, false, layout);
         if (classFile == null || !classFile.isReference()) {
             throw new InvalidTypeException("Attempted creation of an instance with type " + classFile.getClassName());
         }
@@ -43,13 +40,13 @@ public class Instance extends Objekt {
         buf.append(this.classFile);
         buf.append(", Fields:{");
         boolean isFirst = true;
-        for (Map.Entry<String, Variable> e : this.fields.entrySet()) {
+        for (Variable v : fields().values()) {
             if (isFirst) {
                 isFirst = false;
             } else {
                 buf.append(", ");
             }
-            buf.append(e.getValue().toString());
+            buf.append(v.toString());
         }
         buf.append("}]");
         return buf.toString();
@@ -57,9 +54,6 @@ public class Instance extends Objekt {
     
     @Override
     public Instance clone() {
-        final Instance o = (Instance) super.clone();
-        o.fields = fieldsDeepCopy();
-        
-        return o;
+        return (Instance) super.clone();
     }
 }
\ No newline at end of file
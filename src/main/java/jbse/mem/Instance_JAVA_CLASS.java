@@ -3,6 +3,7 @@ package jbse.mem;
 import static jbse.bc.Signatures.JAVA_CLASS;
 
 import jbse.bc.ClassFile;
+import jbse.bc.FieldLayout;
 import jbse.bc.Signature;
 import jbse.val.Calculator;
 import jbse.val.MemoryPath;
@@ -16,9 +17,9 @@ public final class Instance_JAVA_CLASS extends Instance {
     /** The java class it represents. Immutable. */
     private final ClassFile representedClass;
     
-    protected Instance_JAVA_CLASS(Calculator calc, ClassFile cf_JAVA_CLASS, MemoryPath origin, Epoch epoch, ClassFile representedClass, int numOfStaticFields, Signature... fieldSignatures) 
+    protected Instance_JAVA_CLASS(Calculator calc, ClassFile cf_JAVA_CLASS, MemoryPath origin, Epoch epoch, ClassFile representedClass, FieldLayout layout) 
     throws InvalidTypeException {
-        super(calc, cf_JAVA_CLASS, origin, epoch, numOfStaticFields, fieldSignatures);
+        super(calc, cf_JAVA_CLASS, origin, epoch, layout);
         if (cf_JAVA_CLASS == null || !JAVA_CLASS.equals(cf_JAVA_CLASS.getClassName())) {
             throw new InvalidTypeException("Attempted creation of an instance of java.lang.Class with type " + classFile.getClassName());
         }
@@ -1,7 +1,7 @@
 package jbse.mem;
 
 import jbse.bc.ClassFile;
-import jbse.bc.Signature;
+import jbse.bc.FieldLayout;
 import jbse.val.Calculator;
 import jbse.val.MemoryPath;
 import jbse.val.exc.InvalidTypeException;
@@ -14,9 +14,9 @@ public final class Instance_JAVA_CLASSLOADER extends Instance {
     /** The identifier of this classloader. It must be >= 1. */
     private final int classLoaderIdentifier;
     
-    protected Instance_JAVA_CLASSLOADER(Calculator calc, ClassFile classFile, MemoryPath origin, Epoch epoch, int classLoaderIdentifier, int numOfStaticFields, Signature... fieldSignatures) 
+    protected Instance_JAVA_CLASSLOADER(Calculator calc, ClassFile classFile, MemoryPath origin, Epoch epoch, int classLoaderIdentifier, FieldLayout layout) 
     throws InvalidTypeException {
-        super(calc, classFile, origin, epoch, numOfStaticFields, fieldSignatures);
+        super(calc, classFile, origin, epoch, layout);
         if (classFile == null) {
             throw new InvalidTypeException("Attempted creation of an instance of a subclass of java.lang.ClassLoader with type null.");
         }
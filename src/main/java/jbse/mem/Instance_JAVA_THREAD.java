@@ -1,7 +1,7 @@
 package jbse.mem;
 
 import jbse.bc.ClassFile;
-import jbse.bc.Signature;
+import jbse.bc.FieldLayout;
 import jbse.val.Calculator;
 import jbse.val.MemoryPath;
 import jbse.val.exc.InvalidTypeException;
@@ -14,9 +14,9 @@ public final class Instance_JAVA_THREAD extends Instance {
     /** The interruption state of the thread. */
     private boolean interrupted;
     
-    protected Instance_JAVA_THREAD(Calculator calc, ClassFile classFile, MemoryPath origin, Epoch epoch, int numOfStaticFields, Signature... fieldSignatures) 
+    protected Instance_JAVA_THREAD(Calculator calc, ClassFile classFile, MemoryPath origin, Epoch epoch, FieldLayout layout) 
     throws InvalidTypeException {
-        super(calc, classFile, origin, epoch, numOfStaticFields, fieldSignatures);
+        super(calc, classFile, origin, epoch, layout);
         if (classFile == null) {
             throw new InvalidTypeException("Attempted creation of an instance of a subclass of java.lang.Thread with type null.");
         }
@@ -1,6 +1,6 @@
 package jbse.mem;
 
-import jbse.bc.Signature;
+import jbse.bc.FieldLayout;
 import jbse.val.Calculator;
 import jbse.val.MemoryPath;
 
@@ -20,12 +20,11 @@ public final class Klass extends Objekt {
      *        the object for the first time. It can be null when
      *        {@code epoch == }{@link Epoch#EPOCH_AFTER_START}.
      * @param epoch the creation {@link Epoch} of this {@link Klass}.
-     * @param numOfStaticFields an {@code int}, the number of static fields.
-     * @param fieldSignatures varargs of field {@link Signature}s, all the
+     * @param layout the {@link FieldLayout} of all the 
      *        fields this object knows.
      */
-    Klass(Calculator calc, MemoryPath origin, Epoch epoch, int numOfStaticFields, Signature... fieldSignatures) {
-        super(calc, null, origin, epoch, true, numOfStaticFields, fieldSignatures);
+    Klass(Calculator calc, MemoryPath origin, Epoch epoch, FieldLayout layout) {
+        super(calc, null, origin, epoch, true, layout);
         this.initialized = false;
     }
 
@@ -51,9 +50,6 @@ public final class Klass extends Objekt {
 
     @Override
     public Klass clone() {
-        final Klass o = (Klass) super.clone();
-        o.fields = fieldsDeepCopy();
-
-        return o;
+        return (Klass) super.clone();
     }
 }
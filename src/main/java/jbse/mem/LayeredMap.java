@@ -0,0 +1,231 @@
+package jbse.mem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A map that can be cloned in constant time. It is
+ * implemented as a chain of layers, each a {@link HashMap}
+ * linked to the layer below it, where an entry in a layer
+ * hides the entries with same key in the layers below. The
+ * layers are shared with the clones of the map, and a map
+ * adds a layer of its own on top of them the first time it
+ * is modified after being cloned, so the cost of modifying a
+ * clone is proportional to the number of modifications,
+ * rather than to the size of the map. The top layer is merged
+ * with the one below when it grows at least half as large, so 
+ * every layer is more than twice as large as the one above it, 
+ * and a map has a number of layers that is logarithmic in its 
+ * size.
+ *
+ * @author Pietro Braione
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+final class LayeredMap<K, V> implements Cloneable {
+    /** The value of a removed key, that hides its entries in the layers below. */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * A layer of the chain.
+     *
+     * @author Pietro Braione
+     *
+     */
+    private static final class Layer {
+        /** The entries in this layer, possibly mapping keys to {@link LayeredMap#REMOVED}. */
+        final HashMap<Object, Object> entries;
+
+        /** The layer below this one, or {@code null} if this is the bottom one. */
+        final Layer below;
+
+        Layer(HashMap<Object, Object> entries, Layer below) {
+            this.entries = entries;
+            this.below = below;
+        }
+    }
+
+    /** The top layer, or {@code null} if the map has no layer. */
+    private Layer top;
+
+    /**
+     * Whether {@code top} may be shared with other maps,
+     * and thus must not be modified.
+     */
+    private boolean topShared;
+
+    /** The number of keys in this map. */
+    private int size;
+
+    /**
+     * Constructor. Builds an empty map.
+     */
+    LayeredMap() {
+        this.top = null;
+        this.topShared = false;
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     *
+     * @return an {@code int}.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether this map is empty.
+     *
+     * @return {@code true} iff {@link #size()} {@code == 0}.
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the value associated to a key.
+     *
+     * @param key a {@code K}.
+     * @return the {@code V} associated to {@code key},
+     *         or {@code null} if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        for (Layer layer = this.top; layer != null; layer = layer.below) {
+            final Object value = layer.entries.get(key);
+            if (value != null) {
+                return (value == REMOVED ? null : (V) value);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a key is in this map.
+     *
+     * @param key a {@code K}.
+     * @return {@code true} iff {@link #get(Object) get}{@code (key) != null}.
+     */
+    boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates a value to a key.
+     *
+     * @param key a {@code K}, must not be {@code null}.
+     * @param value a {@code V}, must not be {@code null}.
+     */
+    void put(K key, V value) {
+        if (get(key) == null) {
+            ++this.size;
+        }
+        writableTop().entries.put(key, value);
+        mergeTop();
+    }
+
+    /**
+     * Removes a key from this map.
+     *
+     * @param key a {@code K}.
+     * @return the {@code V} that was associated to {@code key},
+     *         or {@code null} if there was none.
+     */
+    V remove(K key) {
+        final V retVal = get(key);
+        if (retVal != null) {
+            --this.size;
+            final Layer top = writableTop();
+            if (top.below == null) {
+                top.entries.remove(key);
+            } else {
+                top.entries.put(key, REMOVED);
+                mergeTop();
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns the top layer, after adding a layer
+     * if the top one may not be modified.
+     *
+     * @return a {@link Layer}.
+     */
+    private Layer writableTop() {
+        if (this.top == null || this.topShared) {
+            this.top = new Layer(new HashMap<>(), this.top);
+            this.topShared = false;
+        }
+        return this.top;
+    }
+
+    /**
+     * Merges the top layer with the ones below, as
+     * long as it is at least half as large as the one 
+     * below.
+     * The top layer must not be shared.
+     */
+    private void mergeTop() {
+        while (this.top.below != null && 2 * this.top.entries.size() >= this.top.below.entries.size()) {
+            final Layer below = this.top.below;
+            final HashMap<Object, Object> merged = new HashMap<>(below.entries);
+            for (Map.Entry<Object, Object> entry : this.top.entries.entrySet()) {
+                if (entry.getValue() == REMOVED && below.below == null) {
+                    merged.remove(entry.getKey()); //nothing left to hide
+                } else {
+                    merged.put(entry.getKey(), entry.getValue());
+                }
+            }
+            this.top = new Layer(merged, below.below);
+        }
+    }
+
+    /**
+     * Returns the content of this map. It takes
+     * time proportional to the size of the map.
+     *
+     * @return a new {@link HashMap}{@code <K, V>} with
+     *         the same entries of this map.
+     */
+    @SuppressWarnings("unchecked")
+    HashMap<K, V> toMap() {
+        final ArrayList<Layer> layers = new ArrayList<>();
+        for (Layer layer = this.top; layer != null; layer = layer.below) {
+            layers.add(layer);
+        }
+        final HashMap<K, V> retVal = new HashMap<>();
+        for (int i = layers.size() - 1; i >= 0; --i) {
+            for (Map.Entry<Object, Object> entry : layers.get(i).entries.entrySet()) {
+                if (entry.getValue() == REMOVED) {
+                    retVal.remove(entry.getKey());
+                } else {
+                    retVal.put((K) entry.getKey(), (V) entry.getValue());
+                }
+            }
+        }
+        return retVal;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public LayeredMap<K, V> clone() {
+        final LayeredMap<K, V> o;
+        try {
+            o = (LayeredMap<K, V>) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+
+        //the layers are shared, so the first of the
+        //two maps that is modified adds a layer
+        this.topShared = true;
+        o.topShared = true;
+
+        return o;
+    }
+}
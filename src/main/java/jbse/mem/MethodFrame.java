@@ -48,7 +48,7 @@ public final class MethodFrame extends Frame implements Cloneable {
         this.methodSignature = methodSignature;
         this.lnt = classMethodImpl.getLineNumberTable(methodSignature);
         this.localVariables = new LocalVariablesArea(classMethodImpl.getLocalVariableTable(methodSignature));
-        this.operandStack = new OperandStack();
+        this.operandStack = new OperandStack(classMethodImpl.getOperandStackLength(methodSignature));
     }
 
     @Override
@@ -58,14 +58,8 @@ public final class MethodFrame extends Frame implements Cloneable {
 
     @Override
     public int getSourceRow() {
-        int retVal = UNKNOWN_SOURCE_ROW;
-        for (LineNumberTable.Row r : this.lnt) {
-            if (r.start > getProgramCounter()) {
-                break;
-            }
-            retVal = r.lineNumber;
-        }
-        return retVal;
+        final int retVal = this.lnt.getLineNumber(getProgramCounter());
+        return (retVal == -1 ? UNKNOWN_SOURCE_ROW : retVal);
     }
     
     @Override
@@ -1,13 +1,18 @@
 package jbse.mem;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import jbse.bc.ClassFile;
+import jbse.bc.FieldLayout;
 import jbse.bc.Signature;
 import jbse.val.Calculator;
 import jbse.val.MemoryPath;
@@ -42,21 +47,21 @@ public abstract class Objekt implements Cloneable {
     private final Epoch epoch;
 
     /** 
-     * {@code true} if the object must store the static fields,
-     * {@code false} if it must store the object (nonstatic) fields.
+     * The layout of all the fields declared by 
+     * this {@link Objekt}'s class (static and nonstatic)
+     * or superclasses (nonstatic). The slot numbers 
+     * of the fields are also used to support sun.misc.Unsafe. 
+     * Immutable and shared by all the objects with the same 
+     * fields. 
      */
-    private final boolean staticFields;
-
-    /** The number of static fields. Immutable. */
-    private final int numOfStaticFields;
-
+    private final FieldLayout layout;
+    
     /** 
-     * All the signatures of all the fields declared by 
-     * this {@link Objekt}'s class (static and nonstatic)
-     * or superclasses (nonstatic). The position of a field
-     * signature in this list is its slot number,
-     * used to support sun.misc.Unsafe. Immutable. */
-    private final List<Signature> fieldSignatures;
+     * The slot number of the first field stored by this 
+     * {@link Objekt}, i.e., {@code 0} if it stores the static
+     * fields, the number of static fields otherwise. Immutable.
+     */
+    private final int firstSlot;
 
     /** 
      * The hash code of this {@link Objekt}. Mutable only
@@ -66,12 +71,14 @@ public abstract class Objekt implements Cloneable {
     private Primitive defaultHashCode;
 
     /** 
-     * The fields as a map of signatures (as strings) to variables.
-     * Immutable for arrays, but mutable otherwise (the map
-     * is by itself immutable but the stored Variables may be 
-     * mutable). 
+     * The values of the fields stored by this {@link Objekt}: 
+     * The value of the field with slot number {@code slot}
+     * is at position {@code slot - firstSlot}.
      */
-    protected HashMap<String, Variable> fields;
+    private Value[] fieldValues;
+
+    /** The view returned by {@link #fields()}, lazily created. */
+    private Map<String, Variable> fieldsView;
 
     /**
      * Constructor.
@@ -86,22 +93,16 @@ public abstract class Objekt implements Cloneable {
      * @param staticFields {@code true} if this object stores
      *        the static fields, {@code false} if this object stores
      *        the object (nonstatic) fields.
-     * @param numOfStaticFields an {@code int}, the number of static fields.
-     * @param fieldSignatures varargs of field {@link Signature}s, all the
-     *        fields this object knows.
+     * @param layout the {@link FieldLayout} of all the fields 
+     *        this object knows.
      */
-    protected Objekt(Calculator calc, ClassFile classFile, MemoryPath origin, Epoch epoch, boolean staticFields, int numOfStaticFields, Signature... fieldSignatures) {
-        this.fields = new HashMap<>();
-        this.staticFields = staticFields;
-        this.numOfStaticFields = numOfStaticFields;
-        this.fieldSignatures = Arrays.asList(fieldSignatures.clone()); //safety copy
-        int curSlot = 0;
-        for (Signature s : this.fieldSignatures) {
-            if ((staticFields && curSlot < numOfStaticFields) ||
-                (!staticFields && curSlot >= numOfStaticFields)) {
-                this.fields.put(s.toString(), new Variable(calc, s.getDescriptor(), s.getName()));
-            }
-            ++curSlot;
+    protected Objekt(Calculator calc, ClassFile classFile, MemoryPath origin, Epoch epoch, boolean staticFields, FieldLayout layout) {
+        this.layout = layout;
+        this.firstSlot = (staticFields ? 0 : layout.numOfStaticFields());
+        final int lastSlot = (staticFields ? layout.numOfStaticFields() : layout.numOfFields());
+        this.fieldValues = new Value[lastSlot - this.firstSlot];
+        for (int slot = this.firstSlot; slot < lastSlot; ++slot) {
+            this.fieldValues[slot - this.firstSlot] = calc.createDefault(layout.signatures().get(slot).getDescriptor().charAt(0));
         }
         this.classFile = classFile;
         this.origin = origin;
@@ -167,11 +168,7 @@ public abstract class Objekt implements Cloneable {
      *         {@link Collection}{@code <}{@link Signature}{@code >}.
      */
     public final Collection<Signature> getStoredFieldSignatures() {
-        if (this.staticFields) {
-            return Collections.unmodifiableCollection(this.fieldSignatures.subList(0, this.numOfStaticFields));
-        } else {
-            return Collections.unmodifiableCollection(this.fieldSignatures.subList(this.numOfStaticFields, this.fieldSignatures.size()));
-        }
+        return Collections.unmodifiableCollection(this.layout.signatures().subList(this.firstSlot, this.firstSlot + this.fieldValues.length));
     }
 
     /**
@@ -185,11 +182,21 @@ public abstract class Objekt implements Cloneable {
      */
     //TODO overridden by array, refactor to avoid this
     public boolean hasSlot(int slot) {
-        if (this.staticFields) {
-            return (0 <= slot && slot < this.numOfStaticFields);
-        } else {
-            return (this.numOfStaticFields <= slot && slot < this.fieldSignatures.size());
-        }
+        return (this.firstSlot <= slot && slot < this.firstSlot + this.fieldValues.length);
+    }
+    
+    /**
+     * Converts a slot number to a position in 
+     * {@link #fieldValues}.
+     * 
+     * @param slot an {@code int}.
+     * @return the position in {@link #fieldValues} of the value
+     *         of the field with slot number {@code slot}, or 
+     *         {@code -1} if this object does not store such field.
+     */
+    private int position(int slot) {
+        final int retVal = slot - this.firstSlot;
+        return (0 <= retVal && retVal < this.fieldValues.length ? retVal : -1);
     }
 
     /**
@@ -203,11 +210,7 @@ public abstract class Objekt implements Cloneable {
      */
     public final Value getFieldValue(Signature sig) {
         //TODO does it work with visibility modifiers???
-        try {
-            return this.fields.get(sig.toString()).getValue();  //toString() is necessary, type erasure doesn't play well
-        } catch (Exception e) {
-            return null;
-        }
+        return getFieldValue(this.layout.slot(sig));
     }
 
     /**
@@ -221,11 +224,19 @@ public abstract class Objekt implements Cloneable {
      * of a field. 
      */
     public final Value getFieldValue(int slot) {
-        try {
-            return getFieldValue(this.fieldSignatures.get(slot));
-        } catch (IndexOutOfBoundsException e) {
-            return null;
-        }
+        final int position = position(slot);
+        return (position < 0 ? null : this.fieldValues[position]);
+    }
+
+    /**
+     * Returns the layout of the fields of this 
+     * {@link Objekt}.
+     * 
+     * @return a {@link FieldLayout}, shared by all 
+     *         the objects with same class.
+     */
+    public final FieldLayout getFieldLayout() {
+        return this.layout;
     }
 
     /**
@@ -238,7 +249,7 @@ public abstract class Objekt implements Cloneable {
      *         if such field does not exist.
      */
     public final int getFieldSlot(Signature field) {
-        return this.fieldSignatures.indexOf(field); //not very efficient but we don't care
+        return this.layout.slot(field);
     }
 
     /**
@@ -251,7 +262,7 @@ public abstract class Objekt implements Cloneable {
      */
     //TODO throw a better exception in the case a field does not exist or is immutable
     public final void setFieldValue(Signature field, Value item) {
-        this.fields.get(field.toString()).setValue(item); //toString() is necessary, type erasure doesn't play well
+        setFieldValue(this.layout.slot(field), item);
     }
 
     /**
@@ -265,19 +276,85 @@ public abstract class Objekt implements Cloneable {
      */
     //TODO throw a better exception in the case a field does not exist or is immutable
     public final void setFieldValue(int slot, Value item) {
-        setFieldValue(this.fieldSignatures.get(slot), item);
+        final int position = position(slot);
+        if (position < 0) {
+            throw new IndexOutOfBoundsException("the object has no field with slot number " + slot);
+        }
+        this.fieldValues[position] = item;
     }
 
     /**
-     * Returns an immutable view of this 
+     * Returns a view of this 
      * {@link Objekt}'s fields.
      * 
      * @return an immutable 
-     *         {@link Map}{@code <}{@link String}{@code , }{@link Variable}{@code <}
-     *         backed by this {@link Objekt}'s fields map.
+     *         {@link Map}{@code <}{@link String}{@code , }{@link Variable}{@code >}
+     *         mapping the signatures (as strings) of the fields 
+     *         stored by this {@link Objekt}, in slot order, to 
+     *         {@link Variable}s with their current values. 
+     *         It is backed by this {@link Objekt}, so subsequent 
+     *         changes to the fields are reflected by it, and the 
+     *         {@link Variable}s are built only when accessed.
      */
     public final Map<String, Variable> fields() {
-        return Collections.unmodifiableMap(this.fields);
+        if (this.fieldsView == null) {
+            this.fieldsView = new FieldsView();
+        }
+        return this.fieldsView;
+    }
+
+    /**
+     * The view of the fields of this {@link Objekt} 
+     * returned by {@link Objekt#fields()}.
+     * 
+     * @author Pietro Braione
+     */
+    private final class FieldsView extends AbstractMap<String, Variable> {
+        private final Set<Map.Entry<String, Variable>> entrySet = new AbstractSet<Map.Entry<String, Variable>>() {
+            @Override
+            public Iterator<Map.Entry<String, Variable>> iterator() {
+                return new Iterator<Map.Entry<String, Variable>>() {
+                    private int position = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.position < Objekt.this.fieldValues.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Variable> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final int position = this.position++;
+                        final Signature sig = Objekt.this.layout.signatures().get(Objekt.this.firstSlot + position);
+                        return new SimpleImmutableEntry<>(sig.toString(), new Variable(sig.getDescriptor(), sig.getName(), Objekt.this.fieldValues[position]));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return Objekt.this.fieldValues.length;
+            }
+        };
+
+        @Override
+        public Set<Map.Entry<String, Variable>> entrySet() {
+            return this.entrySet;
+        }
+    }
+
+    /**
+     * Returns the values of the fields stored by
+     * this {@link Objekt}, without building a 
+     * {@link Variable} as {@link #fields()} does.
+     * 
+     * @return an immutable {@link List}{@code <}{@link Value}{@code >}
+     *         backed by this {@link Objekt}'s fields, in slot order.
+     */
+    public final List<Value> fieldValues() {
+        return Collections.unmodifiableList(Arrays.asList(this.fieldValues));
     }
 
     /**
@@ -291,34 +368,23 @@ public abstract class Objekt implements Cloneable {
      */
     public final Value getFieldValue(String fieldName) {
         //TODO does it work with visibility modifiers???
-        for (Signature sig: this.fieldSignatures) {
-            if (sig.getName().equals(fieldName)) {
-                return getFieldValue(sig);
-            }
-        }
-        return null;
-    }
-
-    protected final HashMap<String, Variable> fieldsDeepCopy() {
-        final HashMap<String, Variable> retVal = new HashMap<>();
-        for (String key : this.fields.keySet()) {
-            final Variable variableClone = this.fields.get(key).clone();
-            retVal.put(key, variableClone);
-        }
-        return retVal;
+        return getFieldValue(this.layout.slot(fieldName));
     }
 
     @Override
     public Objekt clone() {
+        final Objekt o;
         try {
-            return (Objekt) super.clone();
+            o = (Objekt) super.clone();
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }
-        //note that we do not clone this.fields because
-        //it is immutable for arrays and mutable for instances
-        //so the two subclasses may either deep-copy it or share;
-        //note also that the clone will have same
-        //hash code as the original.
+        //the layout is immutable and shared, the 
+        //field values are copied (values are immutable,
+        //so a shallow copy suffices); note that the clone 
+        //will have same hash code as the original.
+        o.fieldValues = this.fieldValues.clone();
+        o.fieldsView = null; //it is backed by this object
+        return o;
     }
 }
\ No newline at end of file
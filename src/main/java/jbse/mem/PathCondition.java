@@ -1,15 +1,25 @@
 package jbse.mem;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import jbse.bc.ClassFile;
+import jbse.common.Type;
+import jbse.val.Calculator;
+import jbse.val.Expression;
+import jbse.val.Operator;
 import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
 import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+import jbse.val.WideningConversion;
+import jbse.val.exc.InvalidTypeException;
 
 /**
  * A path condition. It retains all the clauses gathered at the 
@@ -17,38 +27,456 @@ import jbse.val.ReferenceSymbolic;
  * suitable {@link Collection}{@code <}{@link Clause}{@code >}. 
  */
 final class PathCondition implements Cloneable {
-    /** {@link ArrayList} of all the {@link Clause}s forming the path condition. */
-    private ArrayList<Clause> clauses;
+    /** The maximum number of cached results of {@link #simplify(Calculator, Primitive)}. */
+    private static final int MAX_SIMPLIFIED = 4096;
+
+    /** 
+     * {@link ClauseList} of all the {@link Clause}s forming the path condition.
+     * It is immutable, so it is shared with the clones of the path condition.
+     */
+    private ClauseList clauses;
+
+    /** 
+     * {@link ClauseList} of the {@link Clause}s forming the path condition,
+     * except the {@link ClauseAssume}s that repeat earlier ones or that are 
+     * implied by earlier or later ones. It is 
+     * immutable, so it is shared with the clones of the path condition.
+     */
+    private ClauseList clausesCompact;
+
+    /*
+     * The following caches of the information contained in {@code clauses}
+     * are {@link LayeredMap}s, so they are shared with the clones of the 
+     * path condition, and each clone pays only for the entries it adds.
+     */
 
     /** 
      * Maps symbolic reference identifiers to their respective heap positions.
      * It is just a cache of information already contained in {@code clauses}.
      */
-    private HashMap<Integer, Long> referenceResolutionMap;
+    private LayeredMap<Integer, Long> referenceResolutionMap;
 
     /**
      * Maps each class with the number of assumed objects in it. 
      * It is just a cache of information already contained in {@code clauses}.
      */
-    private HashMap<String, Integer> objectCounters;
+    private LayeredMap<String, Integer> objectCounters;
+
+    /**
+     * Maps the primitive symbols that the path condition constrains
+     * to be equal to a constant, or to another (older) symbol, to 
+     * the constant or symbol. The bound values are never bound 
+     * in turn. It is just a cache of information already contained 
+     * in {@code clauses}.
+     */
+    private LayeredMap<PrimitiveSymbolic, Primitive> bindings;
+
+    /**
+     * Maps the primitive symbols that are bound values in 
+     * {@code bindings} to the symbols bound to them. The arrays
+     * are never modified. It is just a cache of information 
+     * already contained in {@code clauses}.
+     */
+    private LayeredMap<PrimitiveSymbolic, PrimitiveSymbolic[]> bindingsInverse;
+
+    /**
+     * Caches the results of {@link #simplify(Calculator, Primitive)} 
+     * under the current {@code bindings}. It is replaced by an empty
+     * one whenever {@code bindings} changes, and it is never shared 
+     * with the clones of the path condition.
+     */
+    private HashMap<Primitive, Primitive> simplified;
+
+    /** 
+     * The {@link BindingsSubstitution} used by 
+     * {@link #simplify(Calculator, Primitive)}, lazily created.
+     */
+    private BindingsSubstitution substitution;
+
+    /**
+     * The conditions of all the {@link ClauseAssume}s in the path condition,
+     * as keys mapped to {@link Boolean#TRUE}. It is just a cache of 
+     * information already contained in {@code clauses}.
+     */
+    private LayeredMap<Primitive, Boolean> assumed;
+
+    /**
+     * Maps terms with integral type to the interval of values they may 
+     * assume, as an array <code>{lo, hi}</code>. It is just a cache of 
+     * information already contained in {@code clauses}.
+     */
+    private LayeredMap<Primitive, long[]> intervals;
+
+    /**
+     * Maps terms with integral type to the {@link ClauseAssume}s 
+     * in {@code clausesCompact} that bound them, and that may 
+     * be dropped from {@code clausesCompact} should a later clause
+     * imply them. It is just a cache of information already contained 
+     * in {@code clauses}.
+     */
+    private LayeredMap<Primitive, ClauseList> boundsDroppable;
+
+    /**
+     * The lengths of the arrays assumed by expansion that are not
+     * yet bounded by any {@link ClauseAssume}, as keys mapped to 
+     * {@link Boolean#TRUE}. The first clause that
+     * bounds the length of an array is never dropped from {@code clausesCompact}:
+     * It immediately follows the {@link ClauseAssumeExpands} of the 
+     * array, and the consumers of the compact path condition (e.g., 
+     * {@link jbse.apps.StateFormatterJUnitTestSuite}) read it there. It 
+     * is just a cache of information already contained in {@code clauses}.
+     */
+    private LayeredMap<Primitive, Boolean> lengthsUnbounded;
+
+    /**
+     * Maps the heap positions of the objects assumed by expansion
+     * to their {@link ClauseAssumeExpands}. It is just a cache of 
+     * information already contained in {@code clauses}.
+     */
+    private LayeredMap<Long, ClauseAssumeExpands> expansionsByPosition;
+
+    /**
+     * Maps the classes of the objects assumed by expansion to the
+     * {@link ClauseAssumeExpands} of the objects with that class, 
+     * in their order. It is just a cache of information already 
+     * contained in {@code clauses}.
+     */
+    private LayeredMap<ClassFile, ClauseList> expansionsByClass;
 
     /**
      * Constructor.
      */
     PathCondition() {
-        this.clauses = new ArrayList<>();
-        this.referenceResolutionMap = new HashMap<>();
-        this.objectCounters = new HashMap<>();
+        this.clauses = ClauseList.EMPTY;
+        this.clausesCompact = ClauseList.EMPTY;
+        this.referenceResolutionMap = new LayeredMap<>();
+        this.objectCounters = new LayeredMap<>();
+        this.bindings = new LayeredMap<>();
+        this.bindingsInverse = new LayeredMap<>();
+        this.simplified = new HashMap<>();
+        this.substitution = null;
+        this.assumed = new LayeredMap<>();
+        this.intervals = new LayeredMap<>();
+        this.boundsDroppable = new LayeredMap<>();
+        this.lengthsUnbounded = new LayeredMap<>();
+        this.expansionsByPosition = new LayeredMap<>();
+        this.expansionsByClass = new LayeredMap<>();
     }
 
     /**
      * Adds a clause to the path condition. The clause is a condition 
-     * over primitive values.
+     * over primitive values. The clause is always appended to the 
+     * path condition, but it is not appended to the compact path 
+     * condition if it is redundant, i.e., if the path condition already 
+     * contains it, or if it bounds a term to an interval that includes 
+     * the (nonempty) interval to which the path condition already bounds 
+     * the term (e.g., {@code x > 0} when the path condition contains 
+     * {@code x > 10}).
      * 
      * @param condition the additional condition as a {@link Primitive}.
      */
     void addClauseAssume(Primitive condition) {
-        this.clauses.add(new ClauseAssume(condition));
+        final ClauseAssume clause = new ClauseAssume(condition);
+        this.clauses = this.clauses.append(clause);
+        if (this.assumed.containsKey(condition)) {
+            return;
+        }
+        this.assumed.put(condition, Boolean.TRUE);
+        addBinding(condition);
+        final Bound bound = Bound.of(condition);
+        if (bound != null) {
+            final long[] interval = this.intervals.get(bound.term);
+            if (interval == null) {
+                this.intervals.put(bound.term, new long[] { bound.lo, bound.hi });
+            } else if (interval[0] <= interval[1] && bound.includes(interval)) {
+                //an empty interval includes nothing: the clauses 
+                //that made it empty must stay in the compact path
+                //condition, together with all the later ones
+                return;
+            } else {
+                this.intervals.put(bound.term, new long[] { Math.max(interval[0], bound.lo), Math.min(interval[1], bound.hi) });
+            }
+        }
+        addCompact(clause, bound);
+    }
+
+    /**
+     * Appends a clause to the compact path condition.
+     * 
+     * @param clause a {@link Clause}.
+     */
+    private void addCompact(Clause clause) {
+        this.clausesCompact = this.clausesCompact.append(clause);
+    }
+
+    /**
+     * Appends a {@link ClauseAssume} to the compact path 
+     * condition, and drops from it the {@link ClauseAssume}s 
+     * that the appended one implies, i.e., those that bound 
+     * the same term to an interval that includes the interval 
+     * of the appended one. The clauses that some consumer of
+     * the compact path condition depends on (see 
+     * {@link #lengthsUnbounded}) are never dropped.
+     * 
+     * @param clause a {@link ClauseAssume}.
+     * @param bound the {@link Bound} stated by {@code clause}, 
+     *        or {@code null} if it does not state a bound.
+     */
+    private void addCompact(ClauseAssume clause, Bound bound) {
+        if (bound == null) {
+            addCompact(clause);
+            return;
+        }
+        if (this.lengthsUnbounded.remove(bound.term) != null) {
+            //it is the clause on the length of an array,
+            //that must follow its expansion: never drops it
+            addCompact(clause);
+            return;
+        }
+        final ClauseList boundsOld = this.boundsDroppable.get(bound.term);
+        ClauseList boundsNew = ClauseList.EMPTY;
+        if (boundsOld != null) {
+            final long[] interval = new long[] { bound.lo, bound.hi };
+            for (Clause c : boundsOld) {
+                if (Bound.of(((ClauseAssume) c).getCondition()).includes(interval)) {
+                    this.clausesCompact = this.clausesCompact.without(c);
+                } else {
+                    boundsNew = boundsNew.append(c);
+                }
+            }
+        }
+        this.boundsDroppable.put(bound.term, boundsNew.append(clause));
+        addCompact(clause);
+    }
+
+    /**
+     * A bound on the values of a term with integral 
+     * type, as stated by a comparison between the term 
+     * and a constant.
+     * 
+     * @author Pietro Braione
+     *
+     */
+    private static final class Bound {
+        final Primitive term;
+        final long lo;
+        final long hi;
+
+        private Bound(Primitive term, long lo, long hi) {
+            this.term = term;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        /**
+         * Checks whether this bound is implied by an interval.
+         * 
+         * @param interval a {@code long[]} <code>{lo, hi}</code>.
+         * @return {@code true} iff {@code interval} is included 
+         *         in the interval of this bound.
+         */
+        boolean includes(long[] interval) {
+            return (this.lo <= interval[0] && interval[1] <= this.hi);
+        }
+
+        /**
+         * Extracts the bound stated by a condition.
+         * 
+         * @param condition a {@link Primitive}.
+         * @return the {@link Bound} stated by {@code condition}, or
+         *         {@code null} if {@code condition} is not a comparison 
+         *         between a term and a constant with integral type.
+         */
+        static Bound of(Primitive condition) {
+            if (!(condition instanceof Expression) || ((Expression) condition).isUnary()) {
+                return null;
+            }
+            final Expression e = (Expression) condition;
+            final Primitive term;
+            final Simplex constant;
+            Operator operator = e.getOperator();
+            if (e.getSecondOperand() instanceof Simplex && !(e.getFirstOperand() instanceof Simplex)) {
+                term = e.getFirstOperand();
+                constant = (Simplex) e.getSecondOperand();
+            } else if (e.getFirstOperand() instanceof Simplex && !(e.getSecondOperand() instanceof Simplex)) {
+                term = e.getSecondOperand();
+                constant = (Simplex) e.getFirstOperand();
+                operator = (operator == Operator.LT ? Operator.GT : 
+                            operator == Operator.LE ? Operator.GE :
+                            operator == Operator.GT ? Operator.LT :
+                            operator == Operator.GE ? Operator.LE :
+                            operator);
+            } else {
+                return null;
+            }
+            final Object value = constant.getActualValue();
+            final long v;
+            if (value instanceof Character) {
+                v = ((Character) value).charValue();
+            } else if (value instanceof Long || value instanceof Integer || 
+                       value instanceof Short || value instanceof Byte) {
+                v = ((Number) value).longValue();
+            } else {
+                return null;
+            }
+            switch (operator) {
+            case EQ:
+                return new Bound(term, v, v);
+            case LT:
+                return (v == Long.MIN_VALUE ? null : new Bound(term, Long.MIN_VALUE, v - 1));
+            case LE:
+                return new Bound(term, Long.MIN_VALUE, v);
+            case GT:
+                return (v == Long.MAX_VALUE ? null : new Bound(term, v + 1, Long.MAX_VALUE));
+            case GE:
+                return new Bound(term, v, Long.MAX_VALUE);
+            default:
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Updates {@link #bindings} if a condition is an equality 
+     * between a primitive symbol with integral type and a constant, 
+     * or between two primitive symbols with same integral type. 
+     * Floating point symbols are never bound, because their equality 
+     * does not imply their substitutivity (e.g., {@code 0.0 == -0.0}).
+     * 
+     * @param condition a {@link Primitive}.
+     */
+    private void addBinding(Primitive condition) {
+        if (!(condition instanceof Expression)) {
+            return;
+        }
+        final Expression e = (Expression) condition;
+        if (e.getOperator() != Operator.EQ) {
+            return;
+        }
+        final Primitive first = resolve(e.getFirstOperand());
+        final Primitive second = resolve(e.getSecondOperand());
+        if (first instanceof Simplex) {
+            bindToConstant(second, (Simplex) first);
+        } else if (second instanceof Simplex) {
+            bindToConstant(first, (Simplex) second);
+        } else if (first instanceof PrimitiveSymbolic && second instanceof PrimitiveSymbolic && 
+                   first.getType() == second.getType() && isIntegral(first.getType())) {
+            final PrimitiveSymbolic firstSymbol = (PrimitiveSymbolic) first;
+            final PrimitiveSymbolic secondSymbol = (PrimitiveSymbolic) second;
+            if (firstSymbol.getId() > secondSymbol.getId()) {
+                bind(firstSymbol, secondSymbol);
+            } else if (firstSymbol.getId() < secondSymbol.getId()) {
+                bind(secondSymbol, firstSymbol);
+            }
+        }
+    }
+
+    private void bindToConstant(Primitive p, Simplex constant) {
+        if (p instanceof PrimitiveSymbolic && isIntegral(p.getType())) {
+            bind((PrimitiveSymbolic) p, constant);
+        } else if (p instanceof WideningConversion && 
+                   ((WideningConversion) p).getArg() instanceof PrimitiveSymbolic &&
+                   isIntegral(p.getType())) {
+            //WIDEN(s) == constant: binds s to the narrowed constant, 
+            //provided that narrowing loses no information
+            final PrimitiveSymbolic s = (PrimitiveSymbolic) ((WideningConversion) p).getArg();
+            try {
+                final Primitive constantNarrowed = constant.narrow(s.getType());
+                if (constantNarrowed instanceof Simplex && 
+                    constantNarrowed.widen(constant.getType()).equals(constant)) {
+                    bind(s, constantNarrowed);
+                }
+            } catch (InvalidTypeException e) {
+                //cannot narrow, does not bind
+            }
+        }
+    }
+
+    private static boolean isIntegral(char type) {
+        return (type == Type.BOOLEAN || type == Type.BYTE || type == Type.CHAR || 
+                type == Type.SHORT || type == Type.INT || type == Type.LONG);
+    }
+
+    private void bind(PrimitiveSymbolic s, Primitive value) {
+        //keeps bound values unbound: the symbols
+        //bound to s are rebound to value
+        final PrimitiveSymbolic[] boundToS = this.bindingsInverse.remove(s);
+        if (boundToS != null) {
+            for (PrimitiveSymbolic t : boundToS) {
+                this.bindings.put(t, value);
+            }
+        }
+        this.bindings.put(s, value);
+        if (value instanceof PrimitiveSymbolic) {
+            final PrimitiveSymbolic[] boundToValueOld = this.bindingsInverse.get(value);
+            final int nOld = (boundToValueOld == null ? 0 : boundToValueOld.length);
+            final int nS = (boundToS == null ? 0 : boundToS.length);
+            final PrimitiveSymbolic[] boundToValue = new PrimitiveSymbolic[nOld + 1 + nS];
+            if (nOld > 0) {
+                System.arraycopy(boundToValueOld, 0, boundToValue, 0, nOld);
+            }
+            boundToValue[nOld] = s;
+            if (nS > 0) {
+                System.arraycopy(boundToS, 0, boundToValue, nOld + 1, nS);
+            }
+            this.bindingsInverse.put((PrimitiveSymbolic) value, boundToValue);
+        }
+        this.simplified = new HashMap<>();
+    }
+
+    private Primitive resolve(Primitive p) {
+        if (p instanceof PrimitiveSymbolic) {
+            final Primitive binding = this.bindings.get(p);
+            if (binding != null) {
+                return binding;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Simplifies a {@link Primitive} by replacing the primitive
+     * symbols bound by the path condition with their bound values, 
+     * and recalculating it. The results are cached until the 
+     * bindings change.
+     * 
+     * @param calc the {@link Calculator} used to recalculate.
+     * @param p a {@link Primitive}.
+     * @return a {@link Primitive} equal to {@code p} under the 
+     *         path condition; it is {@code p} itself if no 
+     *         binding applies.
+     */
+    Primitive simplify(Calculator calc, Primitive p) {
+        if (!p.isSymbolic() || this.bindings.isEmpty()) {
+            return p;
+        }
+        final Primitive cached = this.simplified.get(p);
+        if (cached != null) {
+            return cached;
+        }
+        if (this.substitution == null || this.substitution.calc != calc) {
+            this.substitution = new BindingsSubstitution(calc, this);
+        }
+        final Primitive retVal = this.substitution.traverse(p);
+        if (this.simplified.size() >= MAX_SIMPLIFIED) {
+            this.simplified.clear();
+        }
+        this.simplified.put(p, retVal);
+        this.simplified.put(retVal, retVal); //bound values are unbound
+        return retVal;
+    }
+
+    /**
+     * Returns the value to which a primitive symbol 
+     * is bound by an equality clause.
+     * 
+     * @param s a {@link PrimitiveSymbolic}.
+     * @return a {@link Primitive}, either a {@link Simplex} or
+     *         a {@link PrimitiveSymbolic} that is not bound, 
+     *         or {@code null} if {@code s} is not bound. 
+     */
+    Primitive getBinding(PrimitiveSymbolic s) {
+        return this.bindings.get(s);
     }
 
     /**
@@ -63,15 +491,20 @@ final class PathCondition implements Cloneable {
      *        is expanded.
      */
     void addClauseAssumeExpands(ReferenceSymbolic reference, long heapPosition, Objekt object) {
-        this.clauses.add(new ClauseAssumeExpands(reference, heapPosition, object));
+        final ClauseAssumeExpands clause = new ClauseAssumeExpands(reference, heapPosition, object);
+        this.clauses = this.clauses.append(clause);
+        addCompact(clause);
+        if (object instanceof Array && ((Array) object).getLength() instanceof PrimitiveSymbolic) {
+            this.lengthsUnbounded.put(((Array) object).getLength(), Boolean.TRUE);
+        }
         this.referenceResolutionMap.put(reference.getId(), heapPosition);
+        this.expansionsByPosition.put(heapPosition, clause);
+        final ClauseList expansionsOfClass = this.expansionsByClass.get(object.getType());
+        this.expansionsByClass.put(object.getType(), (expansionsOfClass == null ? ClauseList.EMPTY : expansionsOfClass).append(clause));
 
         //increments objectCounters
-        if (!this.objectCounters.containsKey(object.getType().getClassName())) {
-            this.objectCounters.put(object.getType().getClassName(), 0);
-        }
-        final int nobjects = this.objectCounters.get(object.getType().getClassName());
-        this.objectCounters.put(object.getType().getClassName(), nobjects + 1);
+        final Integer nobjects = this.objectCounters.get(object.getType().getClassName());
+        this.objectCounters.put(object.getType().getClassName(), (nobjects == null ? 1 : nobjects + 1));
     }
 
     /**
@@ -86,7 +519,9 @@ final class PathCondition implements Cloneable {
      *        at the time of its assumption.
      */
     void addClauseAssumeAliases(ReferenceSymbolic reference, long heapPosition, Objekt object) {
-        this.clauses.add(new ClauseAssumeAliases(reference, heapPosition, object));
+        final ClauseAssumeAliases clause = new ClauseAssumeAliases(reference, heapPosition, object);
+        this.clauses = this.clauses.append(clause);
+        addCompact(clause);
         this.referenceResolutionMap.put(reference.getId(), heapPosition);
     }
 
@@ -97,7 +532,9 @@ final class PathCondition implements Cloneable {
      * @param reference the {@link ReferenceSymbolic} which is resolved. 
      */
     void addClauseAssumeNull(ReferenceSymbolic reference) {
-        this.clauses.add(new ClauseAssumeNull(reference));
+        final ClauseAssumeNull clause = new ClauseAssumeNull(reference);
+        this.clauses = this.clauses.append(clause);
+        addCompact(clause);
         this.referenceResolutionMap.put(reference.getId(), Util.POS_NULL);
     }
 
@@ -110,7 +547,9 @@ final class PathCondition implements Cloneable {
      *        is resolved, or {@code null} if the initial class was not symbolic.
      */
     void addClauseAssumeClassInitialized(ClassFile classFile, Klass klass) {
-        this.clauses.add(new ClauseAssumeClassInitialized(classFile, klass));
+        final ClauseAssumeClassInitialized clause = new ClauseAssumeClassInitialized(classFile, klass);
+        this.clauses = this.clauses.append(clause);
+        addCompact(clause);
     }
 
     /**
@@ -120,7 +559,9 @@ final class PathCondition implements Cloneable {
      * @param classFile a {@link ClassFile}.
      */
     void addClauseAssumeClassNotInitialized(ClassFile classFile) {
-        this.clauses.add(new ClauseAssumeClassNotInitialized(classFile));
+        final ClauseAssumeClassNotInitialized clause = new ClauseAssumeClassNotInitialized(classFile);
+        this.clauses = this.clauses.append(clause);
+        addCompact(clause);
     }
 
     /**
@@ -148,6 +589,43 @@ final class PathCondition implements Cloneable {
         return this.referenceResolutionMap.get(reference.getId());
     }
 
+    /**
+     * Returns the clause that assumes an object by expansion.
+     * 
+     * @param heapPosition a {@code long}, a heap position.
+     * @return the {@link ClauseAssumeExpands} for the object at
+     *         {@code heapPosition}, or {@code null} if no object 
+     *         at {@code heapPosition} is assumed by expansion.
+     */
+    ClauseAssumeExpands getExpansion(long heapPosition) {
+        return this.expansionsByPosition.get(heapPosition);
+    }
+
+    /**
+     * Returns the clauses that assume objects by expansion, 
+     * grouped by the class of the objects.
+     * 
+     * @return an unmodifiable {@link Map}{@code <}{@link ClassFile}{@code , }{@link ClauseList}{@code >}
+     *         mapping each class to the {@link ClauseAssumeExpands} of the 
+     *         objects with that class, in their order. It is a snapshot,
+     *         built in time proportional to the number of classes.
+     */
+    Map<ClassFile, ClauseList> getExpansionsByClass() {
+        return Collections.unmodifiableMap(this.expansionsByClass.toMap());
+    }
+
+    /**
+     * Returns the heap positions of the objects 
+     * assumed by expansion.
+     * 
+     * @return an unmodifiable {@link Set}{@code <}{@link Long}{@code >}.
+     *         It is a snapshot, built in time proportional to the 
+     *         number of expanded objects.
+     */
+    Set<Long> getExpansionsPositions() {
+        return Collections.unmodifiableSet(this.expansionsByPosition.toMap().keySet());
+    }
+
     /**
      * Tests whether this path condition refines, i.e., 
      * if it has more clauses than, another one.
@@ -160,6 +638,10 @@ final class PathCondition implements Cloneable {
      *         {@code pathCondition} returns {@code null}.
      */
     Iterator<Clause> refines(PathCondition pathCondition) {
+        final int shared = ClauseList.sharedPrefixLength(this.clauses, pathCondition.clauses);
+        if (shared == pathCondition.clauses.size()) {
+            return this.clauses.listIterator(shared);
+        }
         final Iterator<Clause> i = this.clauses.iterator();
         for (Clause c : pathCondition.clauses) {
             if (!i.hasNext()) {
@@ -181,21 +663,52 @@ final class PathCondition implements Cloneable {
      * assumed by this path condition.
      */
     int getNumAssumed(String className) {
-        if (this.objectCounters.containsKey(className)) {
-            return this.objectCounters.get(className);
-        }
-        return 0;
+        final Integer nobjects = this.objectCounters.get(className);
+        return (nobjects == null ? 0 : nobjects);
     }
 
     /**
      * Returns all the {@link Clause}s of the path condition.
      *  
-     * @return a read-only {@link List}{@code <}{@link Clause}{@code >} 
+     * @return an immutable {@link ClauseList} 
      * representing all the {@link Clause}s cumulated in {@code this}. 
-     * It is valid until {@code this} is modified.
+     * It is not affected by later modifications of {@code this}.
+     */
+    ClauseList getClauses() {
+        return this.clauses;
+    }
+
+    /**
+     * Returns the last {@link Clause}s added to the path condition.
+     * 
+     * @param n an {@code int}, the number of clauses. It must be between 
+     *        {@code 0} and the number of clauses in the path condition.
+     * @return a {@link List}{@code <}{@link Clause}{@code >} with the 
+     *         last {@code n} clauses, in their order.
      */
-    List<Clause> getClauses() {
-        return Collections.unmodifiableList(this.clauses);
+    List<Clause> getLastClauses(int n) {
+        return Collections.unmodifiableList(Arrays.asList(this.clauses.last(n)));
+    }
+
+    /**
+     * Returns the {@link Clause}s of the path condition, 
+     * except the {@link ClauseAssume}s that repeat earlier
+     * ones, or that are implied by earlier or later ones 
+     * (e.g., {@code x > 0} when preceded or followed by 
+     * {@code x > 10}). The result is equivalent to 
+     * {@link #getClauses()}, and the retained clauses are in the 
+     * same order. The first clause bounding the length of an 
+     * array assumed by expansion is always retained, see 
+     * {@link #lengthsUnbounded}.
+     * 
+     * @return an immutable {@link ClauseList}. It is maintained 
+     *         incrementally, so it shares its nodes with the compact
+     *         path conditions of the other states up to the first clause 
+     *         dropped after they diverged, and it only grows by appending
+     *         until some appended clause implies a previous one.
+     */
+    ClauseList getClausesCompact() {
+        return this.clausesCompact;
     }
 
     @Override
@@ -228,10 +741,23 @@ final class PathCondition implements Cloneable {
             throw new InternalError(e);
         }
 
-        //does a deep copy
-        o.clauses = new ArrayList<Clause>(this.clauses);
-        o.referenceResolutionMap = new HashMap<>(this.referenceResolutionMap);
-        o.objectCounters = new HashMap<>(this.objectCounters);
+        //the clauses are immutable, and the caches 
+        //share their content with the clones
+        o.referenceResolutionMap = this.referenceResolutionMap.clone();
+        o.objectCounters = this.objectCounters.clone();
+        o.bindings = this.bindings.clone();
+        o.bindingsInverse = this.bindingsInverse.clone();
+        o.assumed = this.assumed.clone();
+        o.intervals = this.intervals.clone();
+        o.boundsDroppable = this.boundsDroppable.clone();
+        o.lengthsUnbounded = this.lengthsUnbounded.clone();
+        o.expansionsByPosition = this.expansionsByPosition.clone();
+        o.expansionsByClass = this.expansionsByClass.clone();
+
+        //the cache of simplified terms is filled while
+        //reading, so it is not shared
+        o.simplified = new HashMap<>();
+        o.substitution = null;
 
         return o;
     }
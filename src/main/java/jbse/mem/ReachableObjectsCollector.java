@@ -35,7 +35,8 @@ public final class ReachableObjectsCollector {
      * @param s a {@link State}. It must not be {@code null}.
      * @param precise a {@code boolean}, if {@code true}, 
      *        then it includes in the roots for collection all 
-     *        the static fields, the string literals.
+     *        the static fields, the string literals, the 
+     *        main thread and the objects assumed by expansion.
      * @return a {@link Set}{@code <}{@link Long}{@code >}
      *         containing all the heap positions of the objects
      *         reachable from the collection roots.
@@ -65,7 +66,8 @@ public final class ReachableObjectsCollector {
      * @param s a {@link State}. It must not be {@code null}.
      * @param precise a {@code boolean}, if {@code true}, 
      *        then it includes in the roots for collection all 
-     *        the static fields, the string literals.
+     *        the static fields, the string literals, the 
+     *        main thread and the objects assumed by expansion.
      * @param rootObject a {@code long}. If {@code rootObject >= 0}
      *        this parameter is interpreted as the heap position of 
      *        the root object, and all its static and nonstatic 
@@ -87,11 +89,9 @@ public final class ReachableObjectsCollector {
         //possibly adds the root object and its static fields
         if (rootObject >= 0) {
             reachable.add(rootObject);
-            final ClassFile rootObjectClass = s.getObject(new ReferenceConcrete(rootObject)).getType();
+            final ClassFile rootObjectClass = s.getObjectReadOnly(new ReferenceConcrete(rootObject)).getType();
             final Klass k = s.getKlass(rootObjectClass);
-            final Map<String, Variable> fields = k.fields();
-            for (Variable var : fields.values()) {
-                final Value v = var.getValue();
+            for (Value v : k.fieldValues()) {
                 addIfReference(reachable, s, v);
             }
         }
@@ -99,9 +99,7 @@ public final class ReachableObjectsCollector {
         //possibly adds the root class' static fields
         if (rootClass != null) {
             final Klass k = s.getKlass(rootClass);
-            final Map<String, Variable> fields = k.fields();
-            for (Variable var : fields.values()) {
-                final Value v = var.getValue();
+            for (Value v : k.fieldValues()) {
                 addIfReference(reachable, s, v);
             }
         }
@@ -125,9 +123,7 @@ public final class ReachableObjectsCollector {
         if (precise) {
             final Map<ClassFile, Klass> staticMethodArea = s.getStaticMethodArea();
             for (Klass k : staticMethodArea.values()) {
-                final Map<String, Variable> fields = k.fields();
-                for (Variable var : fields.values()) {
-                    final Value v = var.getValue();
+                for (Value v : k.fieldValues()) {
                     addIfReference(reachable, s, v);
                 }
             }
@@ -173,15 +169,36 @@ public final class ReachableObjectsCollector {
                 .forEachOrdered(reachable::add);
         }
 
+        //possibly adds the linked adapters and appendices
+        if (precise) {
+            s.getLinks().stream()
+                .filter(r -> !s.isNull(r))
+                .map(ReferenceConcrete::getHeapPosition)
+                .forEachOrdered(reachable::add);
+        }
+
+        //possibly adds the main thread and thread group, 
+        //and the thrown exception and return value
+        if (precise) {
+            addIfReference(reachable, s, s.getMainThread());
+            addIfReference(reachable, s, s.getMainThreadGroup());
+            addIfReference(reachable, s, s.getStuckException());
+            addIfReference(reachable, s, s.getStuckReturn());
+        }
+
+        //possibly adds the objects assumed by expansion,
+        //that symbolic references may still resolve to
+        if (precise) {
+            reachable.addAll(s.getExpandedObjectsPositions());
+        }
+
         //closes reachable
         HashSet<Long> toVisit = new HashSet<>(reachable);
         while (true) {
             final HashSet<Long> toVisitNext = new HashSet<>();
             for (long nextObject : toVisit) {
-                final Objekt o = s.getObject(new ReferenceConcrete(nextObject));
-                final Map<String, Variable> fields = o.fields();
-                for (Variable var : fields.values()) {
-                    final Value v = var.getValue();
+                final Objekt o = s.getObjectReadOnly(new ReferenceConcrete(nextObject));
+                for (Value v : o.fieldValues()) {
                     addIfReferenceAndMarkNext(reachable, toVisitNext, s, v);
                 }
                 if (o instanceof Array) {
@@ -33,15 +33,17 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jbse.bc.ClassFile;
 import jbse.bc.ClassFileFactory;
 import jbse.bc.ClassHierarchy;
+import jbse.bc.FieldLayout;
 import jbse.bc.Classpath;
 import jbse.bc.ExceptionTable;
 import jbse.bc.ExceptionTableEntry;
@@ -95,6 +97,66 @@ public final class State implements Cloneable {
     /** The slot number of the "this" (method receiver) object. */
     private static final int ROOT_THIS_SLOT = 0;
     
+    /**
+     * Class that stores a (meta-level) host resource, i.e., an 
+     * open file, a raw memory block, an open zip file or zip 
+     * file entry, or an inflater. A host resource is shared by 
+     * a state and its clones until one of them performs on it 
+     * an operation with side effects, so it counts the states
+     * that own it, and it is released when the last of them
+     * discards it.
+     * 
+     * @author Pietro Braione
+     */
+    private static abstract class HostResource {
+        /** The number of {@link State}s that own the resource. */
+        final AtomicInteger owners;
+        
+        HostResource(AtomicInteger owners) {
+            this.owners = owners;
+        }
+        
+        HostResource() {
+            this(new AtomicInteger(1));
+        }
+        
+        /**
+         * Checks whether the resource is owned by
+         * more than one state.
+         * 
+         * @return {@code true} iff it is.
+         */
+        final boolean isShared() {
+            return this.owners.get() > 1;
+        }
+        
+        /**
+         * Relinquishes the ownership of the 
+         * resource by a state.
+         * 
+         * @return {@code true} iff no state owns 
+         *         the resource anymore, and thus
+         *         it must be released.
+         */
+        final boolean disown() {
+            return this.owners.decrementAndGet() == 0;
+        }
+    }
+    
+    /**
+     * Class that stores an open file.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class OpenFile extends HostResource {
+        /** The {@link FileInputStream} or {@link FileOutputStream}. */
+        final Object stream;
+        
+        OpenFile(Object stream) {
+            this.stream = stream;
+        }
+    }
+    
     /**
      * Class that stores the information about a raw memory
      * block allocated to support {@link sun.misc.Unsafe}
@@ -102,7 +164,7 @@ public final class State implements Cloneable {
      * 
      * @author Pietro Braione
      */
-    private static final class MemoryBlock {
+    private static final class MemoryBlock extends HostResource {
         /** The base address of the memory block. */
         final long address;
         
@@ -122,7 +184,7 @@ public final class State implements Cloneable {
      * 
      * @author Pietro Braione
      */
-    private static final class ZipFile {
+    private static final class ZipFile extends HostResource {
         /** 
          * The address of a jzfile C data structure for the
          * entry. 
@@ -157,7 +219,7 @@ public final class State implements Cloneable {
      * 
      * @author Pietro Braione
      */
-    private static final class ZipFileEntry {
+    private static final class ZipFileEntry extends HostResource {
         /** 
          * The address of a jzentry C data structure for the
          * entry. 
@@ -180,14 +242,15 @@ public final class State implements Cloneable {
         }
     }
     
-    private static class Inflater {
+    private static class Inflater extends HostResource {
         final long address;
         
         final boolean nowrap;
         
         final byte[] dictionary;
         
-        Inflater(long address, boolean nowrap, byte[] dictionary, int off, int len) {
+        Inflater(AtomicInteger owners, long address, boolean nowrap, byte[] dictionary, int off, int len) {
+            super(owners);
             this.address = address;
             this.nowrap = nowrap;
             if (dictionary == null) {
@@ -198,6 +261,10 @@ public final class State implements Cloneable {
             }
         }
         
+        Inflater(long address, boolean nowrap, byte[] dictionary, int off, int len) {
+            this(new AtomicInteger(1), address, nowrap, dictionary, off, len);
+        }
+        
         Inflater(long address, boolean nowrap) {
             this(address, nowrap, null, 0, 0);
         }
@@ -254,7 +321,7 @@ public final class State implements Cloneable {
     private HashMap<String, ReferenceConcrete> methodTypes = new HashMap<>();
     
     /** Maps file descriptors to (meta-level) open files. */
-    private HashMap<Integer, Object> files = new HashMap<>();
+    private HashMap<Integer, OpenFile> files = new HashMap<>();
     
     /** Maps memory addresses to (meta-level) allocated memory blocks. */
     private HashMap<Long, MemoryBlock> allocatedMemory = new HashMap<>();
@@ -373,6 +440,10 @@ public final class State implements Cloneable {
      *        {@link Map}{@code <}{@link String}{@code , }{@link Set}{@code <}{@link String}{@code >>}
      *        associating class names to sets of names of their subclasses. It 
      *        is used in place of the class hierarchy to perform expansion.
+     * @param useSubclassIndex a {@code boolean}, {@code true} iff expansion
+     *        must also consider all the concrete subclasses in the user classpath.
+     * @param prefetchClasses a {@code boolean}, {@code true} iff the classes referred
+     *        by the loaded classes must be searched and parsed in background.
      * @param calc a {@link Calculator}. It will be used to do all kinds of calculations
      *        on concrete and symbolic values.
      * @throws InvalidClassFileFactoryClassException in the case {@link fClass}
@@ -385,13 +456,15 @@ public final class State implements Cloneable {
                  Classpath cp, 
                  Class<? extends ClassFileFactory> fClass, 
                  Map<String, Set<String>> expansionBackdoor, 
+                 boolean useSubclassIndex,
+                 boolean prefetchClasses,
                  Calculator calc) 
                  throws InvalidClassFileFactoryClassException {
         this.bypassStandardLoading = bypassStandardLoading;
         this.classLoaders.add(Null.getInstance()); //classloader 0 is the bootstrap classloader
         setStandardFiles();
         this.heap = new Heap(maxHeapSize);
-        this.classHierarchy = new ClassHierarchy(cp, fClass, expansionBackdoor);
+        this.classHierarchy = new ClassHierarchy(cp, fClass, expansionBackdoor, useSubclassIndex, prefetchClasses);
         this.maxSimpleArrayLength = maxSimpleArrayLength;
         this.calc = calc;
         this.symbolFactory = new SymbolFactory(this.calc);
@@ -549,7 +622,8 @@ public final class State implements Cloneable {
     }
 
     /**
-     * Puts a {@link Value} on the top of the current operand stack.
+     * Puts a {@link Value} on the top of the current operand stack,
+     * after {@link #simplify(Value) simplifying} it.
      * If tracking is active and the value is a {@link Reference}, it 
      * informs the tracker about this.
      * 
@@ -559,7 +633,48 @@ public final class State implements Cloneable {
      */
     //TODO check that only operand stack types (int, long, float, double, reference) can be pushed, or convert smaller values automatically
     public void pushOperand(Value val) throws ThreadStackEmptyException {
-        getCurrentFrame().push(val);		
+        getCurrentFrame().push(simplify(val));		
+    }
+
+    /**
+     * Simplifies a {@link Value} by exploiting the equalities in 
+     * the path condition. Every primitive symbol that the path 
+     * condition constrains to be equal to a constant (e.g., by 
+     * a clause {@code x == 5}) or to another symbol (e.g., by 
+     * a clause {@code a == b}) is replaced with the constant or
+     * the symbol, and the resulting term is recalculated. 
+     * It is invoked on the values pushed on the operand stack
+     * and on the operands read by the algorithms, so the values
+     * that are loaded from the memory and the branch conditions
+     * are simplified before they reach the decision procedure.
+     * 
+     * @param val a {@link Value}.
+     * @return a {@link Value} equal to {@code val} under the 
+     *         path condition of this state; it is {@code val} 
+     *         itself if no simplification applies.
+     */
+    public Value simplify(Value val) {
+        if (val instanceof Primitive) {
+            return this.pathCondition.simplify(this.calc, (Primitive) val);
+        }
+        return val;
+    }
+
+    /**
+     * Abstracts a term that exceeds the term budget 
+     * of the state's {@link Calculator}. Must be invoked
+     * by the algorithms that build terms on the terms they 
+     * build, before storing them anywhere.
+     * 
+     * @param term a {@link Primitive}.
+     * @return {@code term} if it is not a numeric {@link Primitive} 
+     *         that exceeds the term budget, otherwise a fresh 
+     *         {@link PrimitiveSymbolic}; in the latter case the clause
+     *         stating that the symbol is equal to {@code term} is added
+     *         to the path condition.
+     */
+    public Primitive abstractIfOverBudget(Primitive term) {
+        return this.calc.abstractIfOverBudget(term, this.symbolFactory, this::assume);
     }
 
     /**
@@ -762,7 +877,7 @@ public final class State implements Cloneable {
     }
 
     /**
-     * Gets an object from the heap.
+     * Gets an object from the heap for modification.
      * 
      * @param ref a {@link Reference}.
      * @return the {@link Objekt} referred to by {@code ref}, or 
@@ -774,24 +889,31 @@ public final class State implements Cloneable {
      *         <li>{@code ref} is symbolic and resolved to null, or</li> 
      *         <li>{@code ref} is symbolic and unresolved.</li>
      *         </ul>
+     *         The object is not shared with other states, so it 
+     *         can be modified. Note that it is so only until 
+     *         this state is cloned: A client that clones the
+     *         state must get the object again to modify it.
      * @throws NullPointerException if {@code ref == null}.
      */
     public Objekt getObject(Reference ref) {
-        final Objekt retVal;
-        if (ref.isSymbolic()) {
-            final ReferenceSymbolic refSymbolic = (ReferenceSymbolic) ref;
-            if (resolved(refSymbolic)) {
-                final long pos = getResolution(refSymbolic);
-                retVal = this.heap.getObject(pos);
-            } else {
-                retVal = null;
-            }
-        } else {
-            final ReferenceConcrete refConcrete = (ReferenceConcrete) ref;
-            final long pos = refConcrete.getHeapPosition();
-            retVal = this.heap.getObject(pos);
-        }
-        return retVal;
+        final long pos = jbse.mem.Util.heapPosition(this, ref);
+        return (pos == jbse.mem.Util.POS_UNKNOWN ? null : this.heap.getObjectModifiable(pos));
+    }
+
+    /**
+     * Gets an object from the heap for reading.
+     * 
+     * @param ref a {@link Reference}.
+     * @return the {@link Objekt} referred to by {@code ref}, or 
+     *         {@code null} if {@code ref} does not refer to 
+     *         an object in the heap (see {@link #getObject(Reference)}).
+     *         The object may be shared with other states, thus 
+     *         it must not be modified.
+     * @throws NullPointerException if {@code ref == null}.
+     */
+    public Objekt getObjectReadOnly(Reference ref) {
+        final long pos = jbse.mem.Util.heapPosition(this, ref);
+        return (pos == jbse.mem.Util.POS_UNKNOWN ? null : this.heap.getObject(pos));
     }
 
     /**
@@ -821,16 +943,35 @@ public final class State implements Cloneable {
             pos = refConcrete.getHeapPosition();
         }
 
-        //TODO extract this code and share with DecisionProcedureAlgorithms.getPossibleAliases
-        for (Clause c : this.pathCondition.getClauses()) {
-            if (c instanceof ClauseAssumeExpands) {
-                final ClauseAssumeExpands cExpands = (ClauseAssumeExpands) c;
-                if (cExpands.getHeapPosition() == pos) {
-                    return cExpands.getObjekt();
+        final ClauseAssumeExpands cExpands = this.pathCondition.getExpansion(pos);
+        return (cExpands == null ? null : cExpands.getObjekt());
+    }
+
+    /**
+     * Gets the symbolic objects, as they were initially, 
+     * whose class is a subclass of a given one. 
+     * 
+     * @param superclass a {@link ClassFile}.
+     * @return a {@link SortedMap}{@code <}{@link Long}{@code , }{@link Objekt}{@code >}
+     *         mapping the heap positions of all the objects assumed 
+     *         by expansion in the state's path condition, whose 
+     *         class is a subclass of {@code superclass} according 
+     *         to the state's {@link ClassHierarchy}, to the objects
+     *         in the state they were at their epoch. The objects 
+     *         are not copied, thus they must not be modified. 
+     */
+    public SortedMap<Long, Objekt> getObjectsInitialSubclassOf(ClassFile superclass) {
+        final TreeMap<Long, Objekt> retVal = new TreeMap<>();
+        for (Map.Entry<ClassFile, ClauseList> e : this.pathCondition.getExpansionsByClass().entrySet()) {
+            //checks the subclass relation once per class
+            if (this.classHierarchy.isSubclass(e.getKey(), superclass)) {
+                for (Clause c : e.getValue()) {
+                    final ClauseAssumeExpands cExpands = (ClauseAssumeExpands) c;
+                    retVal.put(cExpands.getHeapPosition(), cExpands.getObjektNoCopy());
                 }
             }
         }
-        return null;
+        return retVal;
     }
 
     /**
@@ -945,9 +1086,90 @@ public final class State implements Cloneable {
      * @return a {@link FileInputStream} of a {@link FileOutputStream}, or
      *         {@code null} if {@code descriptor} is not the descriptor
      *         of an open file previously associated with a call to {@link #setFile(int, Object)}.
+     *         It may be shared with other states, thus it must not be used 
+     *         for operations with side effects (e.g., reading), see 
+     *         {@link #getFileExclusive(int)}.
      */
     public Object getFile(int descriptor) {
-        return this.files.get(Integer.valueOf(descriptor));
+        final OpenFile file = this.files.get(Integer.valueOf(descriptor));
+        return (file == null ? null : file.stream);
+    }
+    
+    /**
+     * Returns the file stream associated to a open file descriptor, 
+     * so it can be used for operations with side effects.
+     * 
+     * @param descriptor an {@code int}.
+     * @return a {@link FileInputStream} of a {@link FileOutputStream}, or
+     *         {@code null} if {@code descriptor} is not the descriptor
+     *         of an open file previously associated with a call to {@link #setFile(int, Object)}.
+     *         Unless {@code descriptor} is the descriptor of the standard
+     *         input, output or error, the file stream is not shared with other
+     *         states: If it was, it is reopened (at the same position) for 
+     *         this state.
+     */
+    public Object getFileExclusive(int descriptor) {
+        final OpenFile file = this.files.get(Integer.valueOf(descriptor));
+        if (file == null) {
+            return null;
+        }
+        if (descriptor == 0 || descriptor == 1 || descriptor == 2 || !file.isShared()) {
+            return file.stream;
+        }
+        final Object streamNew;
+        try {
+            if (file.stream instanceof FileInputStream) {
+                final FileInputStream fis = (FileInputStream) file.stream;
+                final FileInputStream fisNew = new FileInputStream(filePath(fis));
+                fisNew.skip(fis.getChannel().position());
+                streamNew = fisNew;
+            } else { //file.stream instanceof FileOutputStream
+                streamNew = new FileOutputStream(filePath(file.stream), true);
+            }
+        } catch (IOException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+        if (file.disown()) {
+            //the other owners discarded it in the meanwhile
+            closeFile(file.stream);
+        }
+        this.files.put(Integer.valueOf(descriptor), new OpenFile(streamNew));
+        return streamNew;
+    }
+    
+    /**
+     * Returns the path of a file stream.
+     * 
+     * @param stream a {@link FileInputStream} or a {@link FileOutputStream}.
+     * @return a {@link String}, the path of the file.
+     */
+    private static String filePath(Object stream) {
+        try {
+            final Field fieldPath = (stream instanceof FileInputStream ? FileInputStream.class : FileOutputStream.class).getDeclaredField("path");
+            fieldPath.setAccessible(true);
+            return (String) fieldPath.get(stream);
+        } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+    
+    /**
+     * Closes a file stream.
+     * 
+     * @param stream a {@link FileInputStream} or a {@link FileOutputStream}.
+     */
+    private static void closeFile(Object stream) {
+        try {
+            if (stream instanceof FileInputStream) {
+                ((FileInputStream) stream).close();
+            } else { //stream instanceof FileOutputStream
+                ((FileOutputStream) stream).close();
+            }
+        } catch (IOException e) {
+            //nothing to do
+        }
     }
     
     /**
@@ -960,7 +1182,7 @@ public final class State implements Cloneable {
      */
     public void setFile(int descriptor, Object fileStream) {
         if (fileStream instanceof FileInputStream || fileStream instanceof FileOutputStream) {
-            this.files.put(Integer.valueOf(descriptor), fileStream);
+            this.files.put(Integer.valueOf(descriptor), new OpenFile(fileStream));
         }
     }
     
@@ -970,9 +1192,13 @@ public final class State implements Cloneable {
      * @param descriptor an {@code int}, the open file descriptor to remove
      *        (if it is not a previously associated open file descriptor
      *        the method does nothing).
+     * @return {@code true} iff the file stream associated to {@code descriptor}
+     *         is not shared with other states, and thus the caller must 
+     *         close it.
      */
-    public void removeFile(int descriptor) {
-        this.files.remove(Integer.valueOf(descriptor));
+    public boolean removeFile(int descriptor) {
+        final OpenFile file = this.files.remove(Integer.valueOf(descriptor));
+        return (file != null && file.disown());
     }
     
     /**
@@ -1031,14 +1257,16 @@ public final class State implements Cloneable {
      * 
      * @param address a {@code long}, the address as known by this {@link State}
      *        (base-level address).
+     * @return {@code true} iff the memory block is not shared
+     *         with other states, and thus the caller must free it.
      * @throws InvalidInputException if {@code address} is not a memory block
      *         address previously registered by a call to {@link #addMemoryBlock(long, long) addMemoryBlock}.
      */
-    public void removeMemoryBlock(long address) throws InvalidInputException {
+    public boolean removeMemoryBlock(long address) throws InvalidInputException {
         if (!this.allocatedMemory.containsKey(address)) {
             throw new InvalidInputException("Tried to remove a raw memory block corresponding to an unknown (base-level) address.");
         }
-        this.allocatedMemory.remove(address);
+        return this.allocatedMemory.remove(address).disown();
     }
     
     /**
@@ -1183,14 +1411,17 @@ public final class State implements Cloneable {
      * 
      * @param jzfile a {@code long}, the address of a jzfile C structure as known 
      *        by this {@link State} (base-level address).
+     * @return {@code true} iff the zip file is not shared
+     *         with other states, and thus the caller must close it.
      * @throws InvalidInputException if {@code jzfile} was not added before by a call to
      *         {@link #addZipFile(long, String, int, long, boolean) addZipFile}.
      */
-    public void removeZipFile(long jzfile) throws InvalidInputException {
+    public boolean removeZipFile(long jzfile) throws InvalidInputException {
         if (!this.zipFiles.containsKey(jzfile)) {
             throw new InvalidInputException("Tried to remove an unknown zip file.");
         }
-        this.zipFiles.remove(jzfile);
+        final ZipFile zipFile = this.zipFiles.remove(jzfile);
+        final boolean retVal = zipFile.disown();
         final HashSet<Long> toRemove = new HashSet<>();
         for (Map.Entry<Long, ZipFileEntry> entry : this.zipFileEntries.entrySet()) {
             if (entry.getValue().jzfile == jzfile) {
@@ -1198,7 +1429,34 @@ public final class State implements Cloneable {
             }
         }
         for (long jzentry : toRemove) {
-            this.zipFileEntries.remove(jzentry);
+            final ZipFileEntry entry = this.zipFileEntries.remove(jzentry);
+            if (entry.disown() && !retVal) {
+                //the zip file stays open for the other states 
+                //but no one uses the entry anymore: frees it 
+                //(otherwise closing the zip file releases it)
+                freeZipFileEntry(zipFile.jzfile, entry.jzentry);
+            }
+        }
+        return retVal;
+    }
+    
+    /**
+     * Frees a (meta-level) zip file entry.
+     * 
+     * @param jzfile a {@code long}, the address of the jzfile 
+     *        C structure of the zip file (meta-level address).
+     * @param jzentry a {@code long}, the address of the jzentry 
+     *        C structure of the entry (meta-level address).
+     */
+    private static void freeZipFileEntry(long jzfile, long jzentry) {
+        try {
+            final Method methodFreeEntry = java.util.zip.ZipFile.class.getDeclaredMethod("freeEntry", long.class, long.class);
+            methodFreeEntry.setAccessible(true);
+            methodFreeEntry.invoke(null, jzfile, jzentry);
+        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | 
+                 IllegalArgumentException | InvocationTargetException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
         }
     }
     
@@ -1207,14 +1465,16 @@ public final class State implements Cloneable {
      * 
      * @param jzentry a {@code long}, the address of a jzentry C structure as known 
      *        by this {@link State} (base-level address).
+     * @return {@code true} iff the zip file entry is not shared
+     *         with other states, and thus the caller must free it.
      * @throws InvalidInputException if {@code jzentry} was not added before by a call to
      *         {@link #addZipFileEntry(long, long, byte[]) addZipFileEntry}.
      */
-    public void removeZipFileEntry(long jzentry) throws InvalidInputException {
+    public boolean removeZipFileEntry(long jzentry) throws InvalidInputException {
         if (!this.zipFileEntries.containsKey(jzentry)) {
             throw new InvalidInputException("Tried to remove an unknown zip file entry.");
         }
-        this.zipFileEntries.remove(jzentry);
+        return this.zipFileEntries.remove(jzentry).disown();
     }
     
     /**
@@ -1240,6 +1500,8 @@ public final class State implements Cloneable {
      *        as known by this state (base-level address).
      * @return a {@code long}, the true address of the inflater block
      *         (meta-level address).
+     *         It may be shared with other states, thus it must not be used 
+     *         for operations with side effects, see {@link #getInflaterExclusive(long)}.
      * @throws InvalidInputException  if {@code address} was not previously
      *         registered.
      */
@@ -1250,6 +1512,71 @@ public final class State implements Cloneable {
         return this.inflaters.get(address).address;
     }
     
+    /**
+     * Gets the address of an inflater block, so it can be used 
+     * for operations with side effects.
+     * 
+     * @param address a {@code long}, the address of an inflater block
+     *        as known by this state (base-level address).
+     * @return a {@code long}, the true address of the inflater block
+     *         (meta-level address). The inflater block is not shared 
+     *         with other states: If it was, a new one (with the same
+     *         dictionary) is created for this state.
+     * @throws InvalidInputException  if {@code address} was not previously
+     *         registered.
+     */
+    public long getInflaterExclusive(long address) throws InvalidInputException {
+        if (!this.inflaters.containsKey(address)) {
+            throw new InvalidInputException("Tried to get the address of an unknown inflater.");
+        }
+        final Inflater inf = this.inflaters.get(address);
+        if (!inf.isShared()) {
+            return inf.address;
+        }
+        final Inflater infNew;
+        try {
+            final Method methodInit = java.util.zip.Inflater.class.getDeclaredMethod("init", boolean.class);
+            methodInit.setAccessible(true);
+            final long addressNew = (long) methodInit.invoke(null, inf.nowrap);
+            if (inf.dictionary == null) {
+                infNew = new Inflater(addressNew, inf.nowrap);
+            } else {
+                final Method methodSetDictionary = java.util.zip.Inflater.class.getDeclaredMethod("setDictionary", long.class, byte[].class, int.class, int.class);
+                methodSetDictionary.setAccessible(true);
+                methodSetDictionary.invoke(null, addressNew, inf.dictionary, 0, inf.dictionary.length);
+                infNew = new Inflater(addressNew, inf.nowrap, inf.dictionary, 0, inf.dictionary.length);
+            }
+        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | 
+                 IllegalArgumentException | InvocationTargetException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+        if (inf.disown()) {
+            //the other owners discarded it in the meanwhile
+            endInflater(inf.address);
+        }
+        this.inflaters.put(address, infNew);
+        return infNew.address;
+    }
+    
+    /**
+     * Ends a (meta-level) inflater block.
+     * 
+     * @param address a {@code long}, the true address 
+     *        of the inflater block (meta-level address).
+     */
+    private static void endInflater(long address) {
+        try {
+            final Method methodEnd = java.util.zip.Inflater.class.getDeclaredMethod("end", long.class);
+            methodEnd.setAccessible(true);
+            methodEnd.invoke(null, address);
+        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | 
+                 IllegalArgumentException | InvocationTargetException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+    
     /**
      * Stores the dictionary of an inflater.
      * 
@@ -1272,7 +1599,7 @@ public final class State implements Cloneable {
             throw new InvalidInputException("Tried to set the dictionary of an inflater with wrong dictionary, offset or length.");
         }
         final Inflater inflaterOld = this.inflaters.get(address);
-        final Inflater inflaterNew = new Inflater(inflaterOld.address, inflaterOld.nowrap, dictionary, ofst, len);
+        final Inflater inflaterNew = new Inflater(inflaterOld.owners, inflaterOld.address, inflaterOld.nowrap, dictionary, ofst, len);
         this.inflaters.put(address, inflaterNew);
     }
     
@@ -1281,14 +1608,16 @@ public final class State implements Cloneable {
      * 
      * @param address a {@code long}, the address of an inflater block
      *        as known by this state (base-level address).
+     * @return {@code true} iff the inflater block is not shared
+     *         with other states, and thus the caller must end it.
      * @throws InvalidInputException if {@code address} was not previously
      *         registered.
      */
-    public void removeInflater(long address) throws InvalidInputException {
+    public boolean removeInflater(long address) throws InvalidInputException {
         if (!this.inflaters.containsKey(address)) {
             throw new InvalidInputException("Tried to remove an unknown inflater.");
         }
-        this.inflaters.remove(address);
+        return this.inflaters.remove(address).disown();
     }
     
     /**
@@ -1321,7 +1650,7 @@ public final class State implements Cloneable {
      */
     public ReferenceConcrete createArray(Value initValue, Primitive length, ClassFile arrayClass) 
     throws InvalidTypeException, HeapMemoryExhaustedException {
-        final Array a = new Array(this.calc, false, initValue, length, arrayClass, null, Epoch.EPOCH_AFTER_START, false, this.maxSimpleArrayLength);
+        final Array a = new Array(this.calc, false, initValue, length, arrayClass, this.classHierarchy.getFieldLayout(arrayClass), null, Epoch.EPOCH_AFTER_START, false, this.maxSimpleArrayLength);
         final ReferenceConcrete retVal = new ReferenceConcrete(this.heap.addNew(a));
         initDefaultHashCodeConcrete(a, retVal);
         return retVal;
@@ -1381,8 +1710,7 @@ public final class State implements Cloneable {
     }
     
     private Instance doCreateInstance(ClassFile classFile) {
-        final Signature[] fieldsSignatures = this.classHierarchy.getAllFields(classFile);
-        final int numOfStaticFields = this.classHierarchy.numOfStaticFields(classFile);
+        final FieldLayout layout = this.classHierarchy.getFieldLayout(classFile);
         final ClassFile cf_JAVA_CLASSLOADER;
         final ClassFile cf_JAVA_THREAD;
         try {
@@ -1396,11 +1724,11 @@ public final class State implements Cloneable {
         }
         try {
             if (this.classHierarchy.isSubclass(classFile, cf_JAVA_CLASSLOADER)) {
-                return new Instance_JAVA_CLASSLOADER(this.calc, classFile, null, Epoch.EPOCH_AFTER_START, this.nextClassLoaderIdentifier++, numOfStaticFields, fieldsSignatures);
+                return new Instance_JAVA_CLASSLOADER(this.calc, classFile, null, Epoch.EPOCH_AFTER_START, this.nextClassLoaderIdentifier++, layout);
             } else if (this.classHierarchy.isSubclass(classFile, cf_JAVA_THREAD)) {
-                return new Instance_JAVA_THREAD(this.calc, classFile, null, Epoch.EPOCH_AFTER_START, numOfStaticFields, fieldsSignatures);
+                return new Instance_JAVA_THREAD(this.calc, classFile, null, Epoch.EPOCH_AFTER_START, layout);
             } else {
-                return new Instance(this.calc, classFile, null, Epoch.EPOCH_AFTER_START, numOfStaticFields, fieldsSignatures);
+                return new Instance(this.calc, classFile, null, Epoch.EPOCH_AFTER_START, layout);
             }
         } catch (InvalidTypeException e) {
             //this should never happen
@@ -1426,9 +1754,8 @@ public final class State implements Cloneable {
             if (cf_JAVA_CLASS == null) {
                 throw new UnexpectedInternalException("Could not find the classfile for java.lang.Class.");
             }
-            final int numOfStaticFields = this.classHierarchy.numOfStaticFields(cf_JAVA_CLASS);
-            final Signature[] fieldsSignatures = this.classHierarchy.getAllFields(cf_JAVA_CLASS);
-            final Instance myObj = new Instance_JAVA_CLASS(this.calc, cf_JAVA_CLASS, null, Epoch.EPOCH_AFTER_START, representedClass, numOfStaticFields, fieldsSignatures);
+            final FieldLayout layout = this.classHierarchy.getFieldLayout(cf_JAVA_CLASS);
+            final Instance myObj = new Instance_JAVA_CLASS(this.calc, cf_JAVA_CLASS, null, Epoch.EPOCH_AFTER_START, representedClass, layout);
             final ReferenceConcrete retVal = new ReferenceConcrete(this.heap.addNew(myObj));
             
             //initializes the fields of the new instance: The only
@@ -1475,9 +1802,8 @@ public final class State implements Cloneable {
         if (existsKlass(classFile)) {
             return;
         }
-        final int numOfStaticFields = this.classHierarchy.numOfStaticFields(classFile);
-        final Signature[] fieldsSignatures = this.classHierarchy.getAllFields(classFile);
-        final Klass k = new Klass(this.calc, null, Objekt.Epoch.EPOCH_AFTER_START, numOfStaticFields, fieldsSignatures);
+        final FieldLayout layout = this.classHierarchy.getFieldLayout(classFile);
+        final Klass k = new Klass(this.calc, null, Objekt.Epoch.EPOCH_AFTER_START, layout);
         k.setObjektDefaultHashCode(this.calc.valInt(0)); //doesn't care because it is not used
         this.staticMethodArea.set(classFile, k);
     }
@@ -1497,9 +1823,8 @@ public final class State implements Cloneable {
         if (existsKlass(classFile)) {
             return;
         }
-        final int numOfStaticFields = this.classHierarchy.numOfStaticFields(classFile);
-        final Signature[] fieldsSignatures = this.classHierarchy.getAllFields(classFile);
-        final Klass k = new Klass(this.calc, MemoryPath.mkStatic(classFile), Objekt.Epoch.EPOCH_BEFORE_START, numOfStaticFields, fieldsSignatures);
+        final FieldLayout layout = this.classHierarchy.getFieldLayout(classFile);
+        final Klass k = new Klass(this.calc, MemoryPath.mkStatic(classFile), Objekt.Epoch.EPOCH_BEFORE_START, layout);
         initWithSymbolicValues(k);
         k.setObjektDefaultHashCode(this.calc.valInt(0)); //doesn't care because it is not used
         this.staticMethodArea.set(classFile, k);
@@ -1556,7 +1881,7 @@ public final class State implements Cloneable {
     private Array newArraySymbolic(ClassFile arrayClass, MemoryPath origin, boolean isInitial) 
     throws InvalidTypeException {
         final Primitive length = (Primitive) createSymbol("" + Type.INT, origin.thenArrayLength());
-        final Array obj = new Array(this.calc, true, null, length, arrayClass, origin, Epoch.EPOCH_BEFORE_START, isInitial, this.maxSimpleArrayLength);
+        final Array obj = new Array(this.calc, true, null, length, arrayClass, this.classHierarchy.getFieldLayout(arrayClass), origin, Epoch.EPOCH_BEFORE_START, isInitial, this.maxSimpleArrayLength);
         initDefaultHashCodeSymbolic(obj);
         return obj;
     }
@@ -1566,9 +1891,8 @@ public final class State implements Cloneable {
         if (JAVA_CLASS.equals(classFile.getClassName()) || JAVA_CLASSLOADER.equals(classFile.getClassName())) {
             throw new CannotAssumeSymbolicObjectException(classFile.getClassName());
         }
-        final int numOfStaticFields = this.classHierarchy.numOfStaticFields(classFile);
-        final Signature[] fieldsSignatures = this.classHierarchy.getAllFields(classFile);
-        final Instance obj = new Instance(this.calc, classFile, origin, Epoch.EPOCH_BEFORE_START, numOfStaticFields, fieldsSignatures);
+        final FieldLayout layout = this.classHierarchy.getFieldLayout(classFile);
+        final Instance obj = new Instance(this.calc, classFile, origin, Epoch.EPOCH_BEFORE_START, layout);
         initWithSymbolicValues(obj);
         initDefaultHashCodeSymbolic(obj);
         return obj;
@@ -2305,8 +2629,10 @@ public final class State implements Cloneable {
     public Frame popCurrentFrame() throws ThreadStackEmptyException {
         final Frame popped = this.stack.pop();
         if (popped instanceof SnippetFrameContext) {
-            //reinstates the activation context of the popped frame
-            this.stack.push(((SnippetFrameContext) popped).getContextFrame());
+            //reinstates (a copy of, since the popped frame might be 
+            //shared with other states) the activation context of the 
+            //popped frame
+            this.stack.push(((SnippetFrameContext) popped).getContextFrame().clone());
         }
         return popped;
     }
@@ -2322,7 +2648,7 @@ public final class State implements Cloneable {
      * Returns the root frame.
      * 
      * @return a {@link MethodFrame}, the root (first  
-     *         pushed) one.
+     *         pushed) one. It must not be modified.
      * @throws ThreadStackEmptyException if the 
      *         thread stack is empty.
      */
@@ -2348,6 +2674,7 @@ public final class State implements Cloneable {
      * @return a {@link List}{@code <}{@link Frame}{@code >} 
      *         of the method activation frames in the thread stack, 
      *         in their push order.
+     *         The frames must not be modified.
      */
     public List<Frame> getStack() {
         return this.stack.frames();
@@ -2362,13 +2689,22 @@ public final class State implements Cloneable {
         return getStack().size();
     }
 
+    /**
+     * Returns the number of objects in the state's heap.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    public int getHeapSize() {
+        return this.heap.getSize();
+    }
+
     /**
      * Returns a copy of the state's heap.
      * 
      * @return a copy the state's heap as a 
      * {@link SortedMap}{@code <}{@link Integer}{@code , }{@link Objekt}{@code >}
      * mapping heap positions to the {@link Objekt}s stored 
-     * at them.
+     * at them. The {@link Objekt}s must not be modified.
      */
     //TODO raise the abstraction level and make this method return a SortedMap<Reference, Objekt>
     public SortedMap<Long, Objekt> getHeap() {
@@ -2437,6 +2773,7 @@ public final class State implements Cloneable {
      * 
      * @return the state's static method area as an 
      * immutable {@link Map}{@code <}{@link ClassFile}{@code , }{@link Klass}{@code >}.
+     * The {@link Klass} objects must not be modified.
      */
     public Map<ClassFile, Klass> getStaticMethodArea() {
         return Collections.unmodifiableMap(this.staticMethodArea.getObjects());
@@ -2540,7 +2877,10 @@ public final class State implements Cloneable {
 
     /**
      * Assumes a predicate over primitive values (numeric assumption).
-     * Its effect is adding a clause to the path condition.
+     * Its effect is adding a clause to the path condition. The clause
+     * is omitted from the compact path condition (see 
+     * {@link #getPathConditionCompact()}) if the path condition 
+     * already contains it or trivially implies it.
      * 
      * @param p the primitive clause which must be added to the state's 
      *          path condition. It must be {@code p != null && 
@@ -2689,6 +3029,19 @@ public final class State implements Cloneable {
         return this.pathCondition.getClauses();
     }
 
+    /**
+     * Returns the state's path condition clauses, except 
+     * the numeric assumptions that repeat earlier ones, or
+     * that are implied by earlier or later ones.
+     * 
+     * @return a {@link Collection}{@code <}{@link Clause}{@code >} 
+     * equivalent to {@link #getPathCondition()}, with the 
+     * retained clauses in the same order.
+     */
+    public Collection<Clause> getPathConditionCompact() {
+        return this.pathCondition.getClausesCompact();
+    }
+
     /**
      * Returns the path condition clauses that have been pushed since
      * the last call of {@link #resetLastPathConditionClauses()}. Used to determine
@@ -2700,12 +3053,7 @@ public final class State implements Cloneable {
      * is invoked.
      */
     public Iterable<Clause> getLastPathConditionPushedClauses() {
-        final ListIterator<Clause> it = this.pathCondition.getClauses().listIterator();
-        final int fwdEnd = this.pathCondition.getClauses().size() - this.nPushedClauses;
-        for (int i = 1; i <= fwdEnd; ++i) {
-            it.next();
-        }
-        return () -> it;
+        return this.pathCondition.getLastClauses(this.nPushedClauses);
     }
 
     /**
@@ -3031,7 +3379,10 @@ public final class State implements Cloneable {
     }
     
     /**
-     * Collects and disposes the unreachable heap objects.
+     * Collects and disposes the unreachable heap objects. 
+     * The objects assumed by expansion in the path condition 
+     * are always considered reachable, so the symbolic 
+     * references that resolve to them stay valid.
      */
     public void gc() {
         final Set<Long> doNotDispose = new ReachableObjectsCollector().reachable(this, true);
@@ -3088,30 +3439,60 @@ public final class State implements Cloneable {
         return this.methodTypes.values();
     }
     
+    /**
+     * Getter for garbage collection.
+     * 
+     * @return the {@link Collection}{@code <}{@link ReferenceConcrete}{@code >}
+     *         of all the references to the adapters and appendices of the 
+     *         linked signature polymorphic methods.
+     */
+    Collection<ReferenceConcrete> getLinks() {
+        final ArrayList<ReferenceConcrete> retVal = new ArrayList<>(this.linkInvokers.values());
+        retVal.addAll(this.linkAppendices.values());
+        return retVal;
+    }
+    
+    /**
+     * Getter for garbage collection.
+     * 
+     * @return the {@link Collection}{@code <}{@link Long}{@code >}
+     *         of the heap positions of all the objects assumed 
+     *         by expansion in the path condition.
+     */
+    Collection<Long> getExpandedObjectsPositions() {
+        return this.pathCondition.getExpansionsPositions();
+    }
+    
     @Override
     protected void finalize() {
-        //closes all files except stdin/out/err
-        for (Map.Entry<Integer, Object> fileEntry : this.files.entrySet()) {
+        //closes all files except stdin/out/err, 
+        //unless other states still own them
+        for (Map.Entry<Integer, OpenFile> fileEntry : this.files.entrySet()) {
             final int fileId = fileEntry.getKey();
             if (fileId == 0 || fileId == 1 || fileId == 2) {
                 continue;
             }
-            final Object file = fileEntry.getValue();
-            try {
-                if (file instanceof FileInputStream) {
-                    ((FileInputStream) file).close();
-                } else { //file instanceof FileOutputStream
-                    ((FileOutputStream) file).close();
-                }
-            } catch (IOException e) {
-                //go on with the next file
+            final OpenFile file = fileEntry.getValue();
+            if (file.disown()) {
+                closeFile(file.stream);
             }
         }
         
-        //deallocates all memory blocks
+        //deallocates all memory blocks, 
+        //unless other states still own them
         final Unsafe unsafe = unsafe();
         for (MemoryBlock memoryBlock : this.allocatedMemory.values()) {
-            unsafe.freeMemory(memoryBlock.address);
+            if (memoryBlock.disown()) {
+                unsafe.freeMemory(memoryBlock.address);
+            }
+        }
+        
+        //ends all inflaters, 
+        //unless other states still own them
+        for (Inflater inflater : this.inflaters.values()) {
+            if (inflater.disown()) {
+                endInflater(inflater.address);
+            }
         }
     }
 
@@ -3139,6 +3520,21 @@ public final class State implements Cloneable {
         return(tmp);
     }
 
+    /**
+     * Shares a map of host resources with a clone.
+     * 
+     * @param resources a {@link HashMap}{@code <K, R>}.
+     * @return a copy of {@code resources}, after having
+     *         registered one more owner for all its 
+     *         host resources.
+     */
+    private static <K, R extends HostResource> HashMap<K, R> share(HashMap<K, R> resources) {
+        for (R resource : resources.values()) {
+            resource.owners.incrementAndGet();
+        }
+        return new HashMap<>(resources);
+    }
+
     @Override
     public State clone() {
         final State o;
@@ -3160,120 +3556,14 @@ public final class State implements Cloneable {
         //methodTypes
         o.methodTypes = new HashMap<>(o.methodTypes);
         
-        //files
-        try {
-            o.files = new HashMap<>();
-            final Field fisPath = FileInputStream.class.getDeclaredField("path");
-            fisPath.setAccessible(true);
-            final Field fosPath = FileOutputStream.class.getDeclaredField("path");
-            fosPath.setAccessible(true);
-            for (Map.Entry<Integer, Object> entry : this.files.entrySet()) {
-                if (entry.getValue() instanceof FileInputStream) {
-                    final FileInputStream fisClone;
-                    if (entry.getKey() == 0) {
-                        fisClone = (FileInputStream) entry.getValue();
-                    } else {
-                        final FileInputStream fisThis = (FileInputStream) entry.getValue();
-                        final String path = (String) fisPath.get(fisThis);
-                        fisClone = new FileInputStream(path);
-                        fisClone.skip(fisThis.getChannel().position());
-                    }
-                    o.files.put(entry.getKey(), fisClone);
-                } else { //entry.getValue() instanceof FileOutputStream
-                    final FileOutputStream fosClone;
-                    if (entry.getKey() == 1 ||  entry.getKey() == 2) {
-                        fosClone = (FileOutputStream) entry.getValue();
-                    } else {
-                        final FileOutputStream fosThis = (FileOutputStream) entry.getValue();
-                        final String path = (String) fosPath.get(fosThis);
-                        fosClone = new FileOutputStream(path);
-                    }
-                    o.files.put(entry.getKey(), fosClone);
-                }
-            }
-        } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | 
-                 IllegalAccessException | IOException e) {
-            //this should never happen
-            throw new UnexpectedInternalException(e);
-        }
-        
-        //allocatedMemory
-        o.allocatedMemory = new HashMap<>();
-        final Unsafe unsafe = unsafe();
-        for (Map.Entry<Long, MemoryBlock> entry : this.allocatedMemory.entrySet()) {
-            final long baseLevelAddress = entry.getKey();
-            final long oldMemoryBlockAddress = entry.getValue().address;
-            final long size = entry.getValue().size;
-            final long newMemoryBlockAddress = unsafe.allocateMemory(size);
-            unsafe.copyMemory(oldMemoryBlockAddress, newMemoryBlockAddress, size);
-            o.allocatedMemory.put(baseLevelAddress, new MemoryBlock(newMemoryBlockAddress, size));
-        }
-        
-        //zipFiles
-        o.zipFiles = new HashMap<>();
-        try {
-            final Method methodOpen = java.util.zip.ZipFile.class.getDeclaredMethod("open", String.class, int.class, long.class, boolean.class);
-            methodOpen.setAccessible(true);
-            for (Map.Entry<Long, ZipFile> entry : this.zipFiles.entrySet()) {
-                final ZipFile zf = entry.getValue();
-                final String name = zf.name;
-                final int mode = zf.mode;
-                final long lastModified = zf.lastModified;
-                final boolean usemmap = zf.usemmap;
-                final long jzfileNew = (long) methodOpen.invoke(null, name, mode, lastModified, usemmap);
-                final ZipFile zfNew = new ZipFile(jzfileNew, name, mode, lastModified, usemmap);
-                o.zipFiles.put(entry.getKey(), zfNew);
-            }
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | 
-                 NoSuchMethodException | SecurityException e) {
-            //this should never happen
-            throw new UnexpectedInternalException(e);
-        }
-        
-        //zipFileEntries
-        o.zipFileEntries = new HashMap<>();
-        try {
-            final Method methodGetEntry = java.util.zip.ZipFile.class.getDeclaredMethod("getEntry", long.class, byte[].class, boolean.class);
-            methodGetEntry.setAccessible(true);
-            for (Map.Entry<Long, ZipFileEntry> entry : this.zipFileEntries.entrySet()) {
-                final ZipFileEntry zfe = entry.getValue();
-                final long _jzfile = zfe.jzfile;
-                final long jzfile = o.zipFiles.get(_jzfile).jzfile;
-                final byte[] name = zfe.name;
-                final long jzentryNew = (long) methodGetEntry.invoke(null, jzfile, name, true);
-                final ZipFileEntry zfeNew = new ZipFileEntry(jzentryNew, _jzfile, name);
-                o.zipFileEntries.put(entry.getKey(), zfeNew);
-            }
-        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | 
-                 IllegalArgumentException | InvocationTargetException e) {
-            //this should never happen
-            throw new UnexpectedInternalException(e);
-        }
-        
-        //inflaters
-        o.inflaters = new HashMap<>();
-        try {
-            final Method methodInit = java.util.zip.Inflater.class.getDeclaredMethod("init", boolean.class);
-            methodInit.setAccessible(true);
-            final Method methodSetDictionary = java.util.zip.Inflater.class.getDeclaredMethod("setDictionary", long.class, byte[].class, int.class, int.class);
-            methodSetDictionary.setAccessible(true);
-            for (Map.Entry<Long, Inflater> entry : this.inflaters.entrySet()) {
-                final Inflater inf = entry.getValue();
-                final long addressNew = (long) methodInit.invoke(null, inf.nowrap);
-                final Inflater infNew;
-                if (inf.dictionary == null) {
-                    infNew = new Inflater(addressNew, inf.nowrap);
-                } else {
-                    methodSetDictionary.invoke(null, addressNew, inf.dictionary, 0, inf.dictionary.length);
-                    infNew = new Inflater(addressNew, inf.nowrap, inf.dictionary, 0, inf.dictionary.length);
-                }
-                o.inflaters.put(entry.getKey(), infNew);
-            }
-        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | 
-                 IllegalArgumentException | InvocationTargetException e) {
-            //this should never happen
-            throw new UnexpectedInternalException(e);
-        }
+        //files, allocatedMemory, zipFiles, zipFileEntries, inflaters:
+        //the host resources are shared with the clone (until one
+        //of the two states needs them exclusively)
+        o.files = share(this.files);
+        o.allocatedMemory = share(this.allocatedMemory);
+        o.zipFiles = share(this.zipFiles);
+        o.zipFileEntries = share(this.zipFileEntries);
+        o.inflaters = share(this.inflaters);
 
         //perfCounters
         o.perfCounters = new HashSet<>(o.perfCounters);
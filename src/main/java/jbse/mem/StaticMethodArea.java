@@ -1,6 +1,7 @@
 package jbse.mem;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -8,16 +9,25 @@ import jbse.bc.ClassFile;
 
 /**
  * The static method area, where all the {@link Klass} objects of a 
- * JVM state are stored.
+ * JVM state are stored. A static method area and its clones share 
+ * the {@link Klass} objects they do not modify, and copy one only 
+ * when they access it for the first time after cloning.
  * 
  * @author Pietro Braione
  *
  */
 public final class StaticMethodArea implements Cloneable {
     private HashMap<ClassFile, Klass> objTable;
+    
+    /** 
+     * The classes whose {@link Klass} objects are not 
+     * shared with other static method areas. 
+     */
+    private HashSet<ClassFile> exclusive; //nonfinal to allow cloning
 
     public StaticMethodArea() {
         this.objTable = new HashMap<>();
+        this.exclusive = new HashSet<>();
     }
 
     public boolean contains(ClassFile classFile) { 
@@ -25,13 +35,28 @@ public final class StaticMethodArea implements Cloneable {
     }
 
     public Klass get(ClassFile classFile) {
-        return this.objTable.get(classFile);
+        final Klass k = this.objTable.get(classFile);
+        if (k == null || this.exclusive.contains(classFile)) {
+            return k;
+        }
+        final Klass kCopy = k.clone();
+        this.objTable.put(classFile, kCopy);
+        this.exclusive.add(classFile);
+        return kCopy;
     }
 
     public Klass set(ClassFile classFile, Klass k) {
+        this.exclusive.add(classFile);
         return this.objTable.put(classFile, k);
     }
 
+    /**
+     * Returns all the {@link Klass} objects.
+     * 
+     * @return a {@link Map}{@code <}{@link ClassFile}{@code , }{@link Klass}{@code >}.
+     *         The {@link Klass} objects may be shared with other static 
+     *         method areas, thus they must not be modified.
+     */
     public Map<ClassFile, Klass> getObjects() {
         return this.objTable;
     }
@@ -69,13 +94,11 @@ public final class StaticMethodArea implements Cloneable {
             throw new InternalError(e);
         }
 
-        //objTable
-        final HashMap<ClassFile, Klass> objTableClone = new HashMap<>();
-        for (Map.Entry<ClassFile, Klass> e : this.objTable.entrySet()) {
-            final Klass val = e.getValue();
-            objTableClone.put(e.getKey(), val.clone());
-        }
-        o.objTable = objTableClone;
+        //objTable: from now on this static method area 
+        //and its clone share all the Klass objects
+        o.objTable = new HashMap<>(this.objTable);
+        this.exclusive = new HashSet<>();
+        o.exclusive = new HashSet<>();
 
         return o;
     }
@@ -58,7 +58,7 @@ public class SwitchTable implements Iterable<Integer> {
     throws InvalidProgramCounterException {
         this.ts = isTableSwitch;
         this.calc = calc;
-        this.code = f.getCode();
+        this.code = f.code();
 
         //skips the alignment bytes
         final byte[] ops = (this.ts ? new byte[12] : new byte[8]);
@@ -7,7 +7,10 @@ import java.util.List;
 import jbse.mem.exc.ThreadStackEmptyException;
 
 /**
- * Class representing JVM thread stacks.
+ * Class representing JVM thread stacks. A thread stack and 
+ * its clones share the frames they do not modify, and copy
+ * the current frame only when they access it for the first 
+ * time after cloning.
  */
 class ThreadStack implements Cloneable {
     /** The stack position of the root frame. */
@@ -15,12 +18,19 @@ class ThreadStack implements Cloneable {
 
     /** The actual stack of {@link Frame}s. */
     private ArrayList<Frame> frameStack;
+    
+    /** 
+     * The frames at stack positions below this one 
+     * may be shared with other thread stacks.
+     */
+    private int sharedBelow;
 
     /**
      * Constructor of stack.
      */
     ThreadStack() {
         this.frameStack = new ArrayList<Frame>();
+        this.sharedBelow = 0;
     }
 
     /**
@@ -46,7 +56,9 @@ class ThreadStack implements Cloneable {
         if (isEmpty()) {
             throw new ThreadStackEmptyException();
         }
-        return this.frameStack.remove(this.frameStack.size() - 1);
+        final Frame retVal = this.frameStack.remove(this.frameStack.size() - 1);
+        this.sharedBelow = Math.min(this.sharedBelow, this.frameStack.size());
+        return retVal;
     }
 
     /**
@@ -63,13 +75,16 @@ class ThreadStack implements Cloneable {
      */
     void clear() {
         this.frameStack.clear();
+        this.sharedBelow = 0;
     }
 
     /**
      * Returns the current frame.
      * 
      * @return the current {@link Frame}, i.e., the 
-     *         {@link Frame} on the top of the stack.
+     *         {@link Frame} on the top of the stack. It
+     *         is not shared with other thread stacks, so
+     *         it can be modified.
      * @throws ThreadStackEmptyException if the stack
      *         is empty.
      */
@@ -77,14 +92,21 @@ class ThreadStack implements Cloneable {
         if (isEmpty()) {
             throw new ThreadStackEmptyException();
         }
-        return this.frameStack.get(this.frameStack.size() - 1);
+        final int top = this.frameStack.size() - 1;
+        if (top < this.sharedBelow) {
+            this.frameStack.set(top, this.frameStack.get(top).clone());
+            this.sharedBelow = top;
+        }
+        return this.frameStack.get(top);
     }
 
     /**
      * Returns the root frame.
      * 
-     * @return the current {@link Frame}, i.e., the 
-     *         one on the bottom of the stack.
+     * @return the root {@link Frame}, i.e., the 
+     *         one on the bottom of the stack. It may
+     *         be shared with other thread stacks, thus 
+     *         it must not be modified.
      * @throws ThreadStackEmptyException if the stack
      *         is empty.
      */
@@ -101,6 +123,8 @@ class ThreadStack implements Cloneable {
      * 
      * @return a {@link List}{@code <}{@link Frame}{@code >} 
      *         of the frames in the stack, in their push order.
+     *         The frames may be shared with other thread stacks, 
+     *         thus they must not be modified.
      */
     List<Frame> frames() {
         return Collections.unmodifiableList(this.frameStack);
@@ -134,11 +158,10 @@ class ThreadStack implements Cloneable {
             throw new InternalError(e);
         }
 
-        final ArrayList<Frame> frameStackClone = new ArrayList<Frame>();
-        for (int i = 0; i < this.frameStack.size(); ++i) {
-            frameStackClone.add(this.frameStack.get(i).clone());
-        }
-        o.frameStack = frameStackClone;
+        //from now on this thread stack and its clone share all the frames
+        o.frameStack = new ArrayList<Frame>(this.frameStack);
+        this.sharedBelow = this.frameStack.size();
+        o.sharedBelow = this.sharedBelow;
         return o;
     }   
 }
\ No newline at end of file
@@ -25,6 +25,12 @@ import jbse.val.exc.InvalidTypeException;
  */
 public class CalculatorRewriting extends Calculator {
     private final ArrayList<Rewriter> rewriters = new ArrayList<Rewriter>();
+    
+    /** Interns (weakly) the (non {@link jbse.val.Simplex}) factors of {@link Monomial}s. */
+    private final InternTable<Primitive> monomialFactors = new InternTable<>();
+    
+    /** Interns (weakly) the {@link Monomial} bases of {@link Polynomial}s. */
+    private final InternTable<Monomial> polynomialBases = new InternTable<>();
 
     /**
      * Constructor.
@@ -33,6 +39,14 @@ public class CalculatorRewriting extends Calculator {
         super();
     }
 
+    InternTable<Primitive> monomialFactors() {
+        return this.monomialFactors;
+    }
+    
+    InternTable<Monomial> polynomialBases() {
+        return this.polynomialBases;
+    }
+
     /**
      * {@inheritDoc}
      */
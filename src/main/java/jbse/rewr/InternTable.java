@@ -0,0 +1,114 @@
+package jbse.rewr;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * A table that interns objects, associating each distinct
+ * (w.r.t. {@link Object#equals(Object)}) object with an
+ * {@link Interned} handle carrying a nonnegative integer
+ * identifier. Identifiers are assigned in order of first
+ * occurrence and are never reused, so they can be used as
+ * sort keys for sparse representations. The table holds
+ * its entries weakly: An entry is dropped as soon as its
+ * handle is no longer reachable, i.e., as soon as no
+ * representation refers to it anymore; should an equal
+ * object be interned afterwards, it will get a fresh
+ * identifier.
+ *
+ * @author Pietro Braione
+ *
+ * @param <T> the type of the interned objects.
+ */
+final class InternTable<T> {
+	/**
+	 * The handle of an interned object. Two handles
+	 * from the same table are equal iff they are the
+	 * same object, iff their identifiers are equal.
+	 *
+	 * @param <T> the type of the interned object.
+	 */
+	static final class Interned<T> {
+		/** The identifier. */
+		final int id;
+
+		/** The interned object. */
+		final T value;
+
+		private Interned(int id, T value) {
+			this.id = id;
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.id;
+		}
+	}
+
+	/**
+	 * Maps each interned object to (a weak reference to) its handle.
+	 * The handle refers its key strongly, so the key is not dropped
+	 * before the handle.
+	 */
+	private final WeakHashMap<T, WeakReference<Interned<T>>> handles = new WeakHashMap<>();
+
+	/** The next identifier to be assigned. */
+	private int nextId = 0;
+
+	/**
+	 * Returns the handle of an object, interning
+	 * it if it was not interned before.
+	 *
+	 * @param t a {@code T}, must not be {@code null}.
+	 * @return the {@link Interned} handle of {@code t}.
+	 */
+	Interned<T> intern(T t) {
+		final WeakReference<Interned<T>> ref = this.handles.get(t);
+		final Interned<T> handle = (ref == null ? null : ref.get());
+		if (handle == null) {
+			final Interned<T> handleNew = new Interned<>(this.nextId++, t);
+			//removes first, otherwise the map would keep the previous
+			//(equal, possibly soon unreachable) key
+			this.handles.remove(t);
+			this.handles.put(t, new WeakReference<>(handleNew));
+			return handleNew;
+		}
+		return handle;
+	}
+
+	/**
+	 * Returns the handle of an object, without
+	 * interning it.
+	 *
+	 * @param t a {@code T}, must not be {@code null}.
+	 * @return the {@link Interned} handle of {@code t},
+	 *         or {@code null} if {@code t} is not
+	 *         currently interned.
+	 */
+	Interned<T> find(T t) {
+		final WeakReference<Interned<T>> ref = this.handles.get(t);
+		return (ref == null ? null : ref.get());
+	}
+
+	/**
+	 * Returns the number of objects currently interned.
+	 *
+	 * @return an {@code int}.
+	 */
+	int size() {
+		return this.handles.size();
+	}
+
+	/**
+	 * Creates an array of handles.
+	 *
+	 * @param length the length of the array.
+	 * @return a new array of {@link Interned}{@code <U>}
+	 *         with length {@code length}.
+	 */
+	@SuppressWarnings("unchecked")
+	static <U> Interned<U>[] newArray(int length) {
+		return (Interned<U>[]) new Interned<?>[length];
+	}
+}
@@ -1,15 +1,12 @@
 package jbse.rewr;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.TreeSet;
 
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.rewr.InternTable.Interned;
 import jbse.val.Any;
 import jbse.val.Expression;
 import jbse.val.FunctionApplication;
@@ -27,11 +24,17 @@ import jbse.val.exc.InvalidTypeException;
 
 /**
  * Class for monomials, i.e., the product of powers of numeric {@link Primitive}s 
- * which are not themselves monomials.
+ * which are not themselves monomials. A monomial is represented sparsely 
+ * as two parallel arrays, the first storing the handles of the 
+ * multipliers as interned by the {@link CalculatorRewriting}, sorted in 
+ * ascending order of identifier, the second their (positive) powers.
  * 
  * @author Pietro Braione
  */
 class Monomial implements Comparable<Monomial> {
+	private static final Interned<Primitive>[] EMPTY = InternTable.newArray(0);
+	private static final int[] EMPTY_POWERS = new int[0];
+	
 	/** {@link CalculatorRewriting} for the {@link Primitive} it represents. */
 	private final CalculatorRewriting calc;
 	
@@ -42,17 +45,23 @@ class Monomial implements Comparable<Monomial> {
 	private final Simplex scale;
 
 	/** 
-	 * {@link Map} which associates each (non {@link Simplex}) multiplier
-	 * in the monomial with its integer positive power.
+	 * The handles of the (non {@link Simplex}) multipliers
+	 * in the monomial, sorted in ascending order of identifier.
+	 */
+	private final Interned<Primitive>[] factors;
+
+	/** 
+	 * The integer positive powers of the multipliers, 
+	 * {@code powers[i]} is the power of {@code factors[i]}.
 	 */
-	private final Map<Primitive, Integer> rep;
+	private final int[] powers;
 
 	/**
 	 * A {@link Comparator} over all the {@link Primitive}s. It is used when
 	 * constructing a normalized {@link Primitive} from the monomial's 
 	 * representation.
 	 */
-	private final Comparator<Primitive> comparatorPrimitive = Collections.reverseOrder(new Comparator<Primitive>() {
+	private static final Comparator<Primitive> COMPARATOR_PRIMITIVE = Collections.reverseOrder(new Comparator<Primitive>() {
 		@Override
 		public int compare(Primitive o1, Primitive o2) {
 			int i = o1.getClass().getName().compareTo(o2.getClass().getName());
@@ -63,31 +72,29 @@ class Monomial implements Comparable<Monomial> {
 		}
 	});
 
-	private Monomial(CalculatorRewriting calc, char type, Simplex scale, Map<Primitive, Integer> rep) {
+	private Monomial(CalculatorRewriting calc, char type, Simplex scale, Interned<Primitive>[] factors, int[] powers) {
 		this.calc = calc;
 		this.type = type;
 		this.scale = scale;
-		this.rep = rep;
+		this.factors = factors;
+		this.powers = powers;
 	}
 	
-	private static Map<Primitive, Integer> makeRep() {
-		return new HashMap<Primitive, Integer>(512);
-	}
-
 	public static Monomial of(CalculatorRewriting calc, Primitive p) {
-		return new MonomialBuilder(calc, makeRep()).of(p).make();
+		return new MonomialBuilder(calc).of(p).make();
 	}
 
 	public static class MonomialBuilder {
 		private final CalculatorRewriting calc;
 		private char type = Type.UNKNOWN;
 		private Simplex scale;
-		private final Map<Primitive, Integer> rep;
+		private Interned<Primitive>[] factors = EMPTY;
+		private int[] powers = EMPTY_POWERS;
+		private int size = 0;
 		
-		private MonomialBuilder(CalculatorRewriting calc, Map<Primitive, Integer> rep) {
+		private MonomialBuilder(CalculatorRewriting calc) {
 			this.calc = calc;
 			this.scale = (Simplex) this.calc.valInt(1); //wrong type! to be patched when type will be available
-			this.rep = rep;
 		}
 		
 		public MonomialBuilder of(Primitive p) {
@@ -114,19 +121,54 @@ class Monomial implements Comparable<Monomial> {
 			if (this.type == Type.UNKNOWN || this.type == Type.ERROR) {
 				throw new UnexpectedInternalException(); //TODO throw better exception
 			}
-			return new Monomial(calc, this.type, this.scale, Collections.unmodifiableMap(this.rep));
+			if (this.size == 0) {
+				return new Monomial(this.calc, this.type, this.scale, EMPTY, EMPTY_POWERS);
+			}
+			final Interned<Primitive>[] factors = (this.size == this.factors.length ? this.factors : Arrays.copyOf(this.factors, this.size));
+			final int[] powers = (this.size == this.powers.length ? this.powers : Arrays.copyOf(this.powers, this.size));
+			return new Monomial(this.calc, this.type, this.scale, factors, powers);
+		}
+		
+		private void ensureCapacity(int capacity) {
+			if (capacity > this.factors.length) {
+				final int capacityNew = Math.max(capacity, 2 * this.factors.length);
+				this.factors = Arrays.copyOf(this.factors, capacityNew);
+				this.powers = Arrays.copyOf(this.powers, capacityNew);
+			}
+		}
+
+		/**
+		 * Appends a multiplier to the representation. Must be
+		 * invoked with {@code factor}s with increasing identifiers
+		 * on an empty builder.
+		 */
+		private void append(Interned<Primitive> factor, int power) {
+			ensureCapacity(this.size + 1);
+			this.factors[this.size] = factor;
+			this.powers[this.size] = power;
+			++this.size;
 		}
 
 		private MonomialBuilder incExponent(Primitive p, int howMuch) {
-			if (rep.containsKey(p)) {
-				int pow = rep.get(p);
+			final Interned<Primitive> factor = this.calc.monomialFactors().intern(p);
+			final int pos = search(this.factors, this.size, factor.id);
+			if (pos >= 0) {
+				final int pow = this.powers[pos];
 				if (pow + howMuch == 0) {
-					rep.remove(p);
+					System.arraycopy(this.factors, pos + 1, this.factors, pos, this.size - pos - 1);
+					System.arraycopy(this.powers, pos + 1, this.powers, pos, this.size - pos - 1);
+					--this.size;
 				} else {
-					rep.put(p, pow + howMuch);
+					this.powers[pos] = pow + howMuch;
 				}
 			} else {
-				rep.put(p, howMuch);
+				final int ins = -pos - 1;
+				ensureCapacity(this.size + 1);
+				System.arraycopy(this.factors, ins, this.factors, ins + 1, this.size - ins);
+				System.arraycopy(this.powers, ins, this.powers, ins + 1, this.size - ins);
+				this.factors[ins] = factor;
+				this.powers[ins] = howMuch;
+				++this.size;
 			}
 			return this;
 		}
@@ -139,22 +181,49 @@ class Monomial implements Comparable<Monomial> {
 				//should never happen
 				throw new UnexpectedInternalException(e);
 			}
-			this.rep.putAll(m.rep);
+			if (this.size == 0) {
+				this.factors = m.factors.clone();
+				this.powers = m.powers.clone();
+				this.size = m.factors.length;
+			} else {
+				for (int i = 0; i < m.factors.length; ++i) {
+					incExponent(m.factors[i].value, m.powers[i]);
+				}
+			}
 			return this;
 		}
 		
 		public MonomialBuilder mul(Monomial first, Monomial other) 
 		throws InvalidTypeException {
 			Operator.typeCheck(Operator.MUL, first.type, other.type);
-			base(first);
+			this.type = first.type;
 			try {
-				this.scale = (Simplex) this.scale.mul(other.scale);
+				this.scale = (Simplex) this.scale.to(this.type).mul(other.scale);
 			} catch (InvalidOperandException e) {
 				//this should never happen after type check
 				throw new UnexpectedInternalException(e);
 			}
-			for (Entry<Primitive, Integer> e : other.rep.entrySet()) {
-				incExponent(e.getKey(), e.getValue());
+			//merges the (sorted) representations
+			ensureCapacity(first.factors.length + other.factors.length);
+			int i = 0, j = 0;
+			while (i < first.factors.length && j < other.factors.length) {
+				if (first.factors[i].id < other.factors[j].id) {
+					append(first.factors[i], first.powers[i]);
+					++i;
+				} else if (first.factors[i].id > other.factors[j].id) {
+					append(other.factors[j], other.powers[j]);
+					++j;
+				} else {
+					append(first.factors[i], first.powers[i] + other.powers[j]);
+					++i;
+					++j;
+				}
+			}
+			for (; i < first.factors.length; ++i) {
+				append(first.factors[i], first.powers[i]);
+			}
+			for (; j < other.factors.length; ++j) {
+				append(other.factors[j], other.powers[j]);
 			}
 			return this;
 		}
@@ -164,11 +233,17 @@ class Monomial implements Comparable<Monomial> {
 			Operator.typeCheck(Operator.DIV, first.type, other.type);
 			this.type = first.type;
 			this.scale = (Simplex) this.scale.to(this.type);
-			for (Entry<Primitive, Integer> e : first.rep.entrySet()) {
-				final Primitive multiplier = e.getKey(); 
-				if (other.rep.containsKey(multiplier)) {
-					this.rep.put(multiplier, Math.min(e.getValue(), other.rep.get(multiplier)));
-				} 
+			int i = 0, j = 0;
+			while (i < first.factors.length && j < other.factors.length) {
+				if (first.factors[i].id < other.factors[j].id) {
+					++i;
+				} else if (first.factors[i].id > other.factors[j].id) {
+					++j;
+				} else {
+					append(first.factors[i], Math.min(first.powers[i], other.powers[j]));
+					++i;
+					++j;
+				}
 			}
 			return this;
 		}
@@ -182,19 +257,17 @@ class Monomial implements Comparable<Monomial> {
 			} else {
 				this.scale = first.scale;
 			}
-			for (Entry<Primitive, Integer> e : first.rep.entrySet()) {
-				final Primitive multiplier = e.getKey(); 
-				final int powerFirst = e.getValue();
-				final int powerGCD; //rather than calling gcd we calculate it here on-the-fly
-				if (other.rep.containsKey(multiplier)) {
-					final int powerOther = other.rep.get(multiplier);
-					powerGCD = Math.min(powerFirst, powerOther); 
-				} else {
-					powerGCD = 0;
+			int j = 0;
+			for (int i = 0; i < first.factors.length; ++i) {
+				final Interned<Primitive> factor = first.factors[i];
+				while (j < other.factors.length && other.factors[j].id < factor.id) {
+					++j;
 				}
+				final int powerFirst = first.powers[i];
+				final int powerGCD = (j < other.factors.length && other.factors[j] == factor ? Math.min(powerFirst, other.powers[j]) : 0); //rather than calling gcd we calculate it here on-the-fly
 				final int power = powerFirst - powerGCD;
 				if (power > 0) {
-					this.rep.put(multiplier, power);
+					append(factor, power);
 				}
 			}
 			return this;
@@ -209,20 +282,17 @@ class Monomial implements Comparable<Monomial> {
 			} else {
 				this.scale = other.scale;
 			}
-			this.rep.putAll(other.rep);
-			for (Entry<Primitive, Integer> e : first.rep.entrySet()) {
-				final Primitive key = e.getKey(); 
-				final Integer valueFirst = e.getValue();
-				final Integer valueGCD; //rather than calling gcd we calculate it here on-the-fly
-				if (other.rep.containsKey(key)) {
-					final Integer valueOther = other.rep.get(key);
-					valueGCD = Math.min(valueFirst, valueOther); 
-					final int valueDenom = valueOther - valueGCD;
-					if (valueDenom == 0) {
-						this.rep.remove(key);
-					} else {
-						this.rep.put(key, valueDenom);
-					}
+			int i = 0;
+			for (int j = 0; j < other.factors.length; ++j) {
+				final Interned<Primitive> factor = other.factors[j];
+				while (i < first.factors.length && first.factors[i].id < factor.id) {
+					++i;
+				}
+				final int powerOther = other.powers[j];
+				final int powerGCD = (i < first.factors.length && first.factors[i] == factor ? Math.min(first.powers[i], powerOther) : 0); //rather than calling gcd we calculate it here on-the-fly
+				final int power = powerOther - powerGCD;
+				if (power > 0) {
+					append(factor, power);
 				}
 			}
 			return this;
@@ -235,11 +305,10 @@ class Monomial implements Comparable<Monomial> {
 			}
 			this.type = m.type;
 			this.scale = (Simplex) this.scale.to(this.type);
-			for (Entry<Primitive, Integer> e : m.rep.entrySet()) {
-				final Primitive key = e.getKey();
-				final int pow = e.getValue();
+			for (int i = 0; i < m.factors.length; ++i) {
+				final int pow = m.powers[i];
 				if (pow / 2 != 0) {
-					this.rep.put(key, pow / 2);
+					append(m.factors[i], pow / 2);
 				}
 			}
 			return this;
@@ -252,11 +321,10 @@ class Monomial implements Comparable<Monomial> {
 			}
 			this.type = m.type;
 			this.scale = m.scale;
-			for (Entry<Primitive, Integer> e : m.rep.entrySet()) {
-				final Primitive key = e.getKey();
-				final int pow = e.getValue();
+			for (int i = 0; i < m.factors.length; ++i) {
+				final int pow = m.powers[i];
 				if (pow % 2 != 0) {
-					this.rep.put(key, pow & 2);
+					append(m.factors[i], 1);
 				}
 			}
 			return this;
@@ -336,16 +404,73 @@ class Monomial implements Comparable<Monomial> {
 		};
 	};
 
+	/**
+	 * Binary search of an identifier in a prefix of an
+	 * array of handles sorted by identifier.
+	 * 
+	 * @param handles an array of {@link Interned}, sorted 
+	 *        in ascending order of identifier.
+	 * @param size the length of the prefix of {@code handles}
+	 *        to search.
+	 * @param id the identifier to search.
+	 * @return the same as {@link Arrays#binarySearch(int[], int, int, int)}.
+	 */
+	static int search(Interned<?>[] handles, int size, int id) {
+		int low = 0, high = size - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int midId = handles[mid].id;
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
 	public char getType() {
 		return this.type;
 	}
 
-	public Map<Primitive, Integer> representation() {
-		return this.rep;
-	}	
+	/**
+	 * Returns the number of (non {@link Simplex}) multipliers 
+	 * in this monomial.
+	 * 
+	 * @return an {@code int}.
+	 */
+	public int numFactors() {
+		return this.factors.length;
+	}
+
+	/**
+	 * Returns a (non {@link Simplex}) multiplier in this monomial.
+	 * 
+	 * @param i an {@code int} between {@code 0} (included) and 
+	 *        {@link #numFactors()} (excluded).
+	 * @return the {@code i}-th multiplier, a {@link Primitive}.
+	 */
+	public Primitive getFactor(int i) {
+		return this.factors[i].value;
+	}
+
+	/**
+	 * Returns the power of a (non {@link Simplex}) multiplier 
+	 * in this monomial.
+	 * 
+	 * @param i an {@code int} between {@code 0} (included) and 
+	 *        {@link #numFactors()} (excluded).
+	 * @return the power of the {@code i}-th multiplier, a 
+	 *         positive {@code int}.
+	 */
+	public int getPower(int i) {
+		return this.powers[i];
+	}
 
 	public boolean isNumber() {
-		return (this.rep.size() == 0);
+		return (this.factors.length == 0);
 	}
 
 	public boolean isZeroOne(boolean zero) {
@@ -364,14 +489,25 @@ class Monomial implements Comparable<Monomial> {
 	 * @throws InvalidTypeException  
 	 */
 	public Monomial createBase() {
-		return new MonomialBuilder(this.calc, makeRep()).base(this).make();
+		final Simplex one;
+		try {
+			one = (Simplex) this.calc.valInt(1).to(this.type);
+		} catch (InvalidTypeException e) {
+			//should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		if (this.scale.equals(one)) {
+			return this;
+		}
+		return new Monomial(this.calc, this.type, one, this.factors, this.powers);
 	}
 
-	private Primitive makePrimitive(boolean normalize, Set<Primitive> bases) {
+	private Primitive makePrimitive(boolean normalize, Primitive[] bases, int[] exps) {
 		Primitive retVal = this.scale;
-		for (Primitive base : bases) {
+		for (int k = 0; k < bases.length; ++k) {
+			final Primitive base = bases[k];
 			final Primitive baseNew = (normalize ? this.calc.applyRewriters(base, new RewriterNormalize()) : base);
-			final int exp = this.rep.get(base);
+			final int exp = exps[k];
 			for (int i = 1; i <= exp; ++i) {
 				if ((retVal instanceof Simplex) && ((Simplex) retVal).isZeroOne(false)) {
 					retVal = baseNew;
@@ -388,6 +524,14 @@ class Monomial implements Comparable<Monomial> {
 		return retVal;
 	}
 
+	private Primitive[] factorsArray() {
+		final Primitive[] retVal = new Primitive[this.factors.length];
+		for (int i = 0; i < retVal.length; ++i) {
+			retVal[i] = getFactor(i);
+		}
+		return retVal;
+	}
+
 	private volatile Primitive toPrimitive;
 	
 	public Primitive toPrimitive() {
@@ -396,7 +540,7 @@ class Monomial implements Comparable<Monomial> {
 			if (this.scale.isZeroOne(true)) {
 				this.toPrimitive = this.scale;
 			} else {
-				this.toPrimitive = makePrimitive(false, this.rep.keySet());
+				this.toPrimitive = makePrimitive(false, factorsArray(), this.powers);
 			}
 			retVal = this.toPrimitive;
 		}
@@ -411,9 +555,19 @@ class Monomial implements Comparable<Monomial> {
 			if (this.scale.isZeroOne(true)) {
 				this.toPrimitiveNormalized = this.scale;
 			} else {
-				final TreeSet<Primitive> keysSorted = new TreeSet<Primitive>(this.comparatorPrimitive);
-				keysSorted.addAll(this.rep.keySet());
-				this.toPrimitiveNormalized = makePrimitive(true, keysSorted);
+				final Integer[] order = new Integer[this.factors.length];
+				for (int i = 0; i < order.length; ++i) {
+					order[i] = i;
+				}
+				final Primitive[] factorsUnsorted = factorsArray();
+				Arrays.sort(order, (i, j) -> COMPARATOR_PRIMITIVE.compare(factorsUnsorted[i], factorsUnsorted[j]));
+				final Primitive[] factorsSorted = new Primitive[order.length];
+				final int[] powersSorted = new int[order.length];
+				for (int i = 0; i < order.length; ++i) {
+					factorsSorted[i] = factorsUnsorted[order[i]];
+					powersSorted[i] = this.powers[order[i]];
+				}
+				this.toPrimitiveNormalized = makePrimitive(true, factorsSorted, powersSorted);
 			}
 			retVal = this.toPrimitiveNormalized;
 		}
@@ -422,36 +576,36 @@ class Monomial implements Comparable<Monomial> {
 
 	public Monomial mul(Monomial other) 
 	throws InvalidTypeException {
-		return new MonomialBuilder(this.calc, makeRep()).mul(this, other).make();
+		return new MonomialBuilder(this.calc).mul(this, other).make();
 	}
 
 	public Monomial gcd(Monomial other)
 	throws InvalidTypeException {
-		return new MonomialBuilder(this.calc, makeRep()).gcd(this, other).make();
+		return new MonomialBuilder(this.calc).gcd(this, other).make();
 	}
 
 	public Monomial[] div(Monomial other) 
 	throws InvalidTypeException {
-		final Monomial numer = new MonomialBuilder(this.calc, makeRep()).divNumer(this, other).make();
-		final Monomial denom = new MonomialBuilder(this.calc, makeRep()).divDenom(this, other).make();
+		final Monomial numer = new MonomialBuilder(this.calc).divNumer(this, other).make();
+		final Monomial denom = new MonomialBuilder(this.calc).divDenom(this, other).make();
 		return new Monomial[] { numer, denom };
 	}
 
 	public Monomial[] sqrt()
 	throws InvalidTypeException {
-		final Monomial sqrt = new MonomialBuilder(this.calc, makeRep()).sqrtRoot(this).make();
-		final Monomial etc = new MonomialBuilder(this.calc, makeRep()).sqrtNonRoot(this).make();
+		final Monomial sqrt = new MonomialBuilder(this.calc).sqrtRoot(this).make();
+		final Monomial etc = new MonomialBuilder(this.calc).sqrtNonRoot(this).make();
 		return new Monomial[] { sqrt, etc };
 	}
 
 	@Override
 	public int compareTo(Monomial o) {
 		try {
-			return this.comparatorPrimitive.compare(this.toPrimitive(), o.toPrimitive());
+			return COMPARATOR_PRIMITIVE.compare(this.toPrimitive(), o.toPrimitive());
 		} catch (UnexpectedInternalException e) {
 			throw new RuntimeException(e); //TODO ugly!
 		}
-		//alternative: return this.comparatorPrimitive.compare(this.toPrimitiveNormalized(), o.toPrimitiveNormalized());
+		//alternative: return COMPARATOR_PRIMITIVE.compare(this.toPrimitiveNormalized(), o.toPrimitiveNormalized());
 	}
 
 	@Override
@@ -473,11 +627,10 @@ class Monomial implements Comparable<Monomial> {
 		} else if (!scale.equals(other.scale)) {
 			return false;
 		}
-		if (rep == null) {
-			if (other.rep != null) {
-				return false;
-			}
-		} else if (!rep.equals(other.rep)) {
+		if (!Arrays.equals(this.factors, other.factors)) {
+			return false;
+		}
+		if (!Arrays.equals(this.powers, other.powers)) {
 			return false;
 		}
 		return true;
@@ -490,7 +643,8 @@ class Monomial implements Comparable<Monomial> {
 		int result = 1;
 		result = prime * result
 				+ ((scale == null) ? 0 : scale.hashCode());
-		result = prime * result + ((rep == null) ? 0 : rep.hashCode());
+		result = prime * result + Arrays.hashCode(this.factors);
+		result = prime * result + Arrays.hashCode(this.powers);
 		return result;
 		//alternative: return toPrimitiveNormalized().hashCode();
 	}
@@ -499,11 +653,11 @@ class Monomial implements Comparable<Monomial> {
 	public String toString() {
 	    final StringBuilder sb = new StringBuilder();
 		sb.append(this.scale.toString());
-		for (Entry<Primitive, Integer> e : this.rep.entrySet()) {
+		for (int i = 0; i < this.factors.length; ++i) {
 			sb.append("*");
-			sb.append(e.getKey().toString());
+			sb.append(getFactor(i).toString());
 			sb.append("^");
-			sb.append(e.getValue().toString());
+			sb.append(this.powers[i]);
 		}
 		return sb.toString();
 	}
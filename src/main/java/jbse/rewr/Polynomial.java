@@ -1,14 +1,10 @@
 package jbse.rewr;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Arrays;
 
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.rewr.InternTable.Interned;
 import jbse.val.Any;
 import jbse.val.Expression;
 import jbse.val.FunctionApplication;
@@ -24,7 +20,19 @@ import jbse.val.exc.InvalidOperandException;
 import jbse.val.exc.InvalidOperatorException;
 import jbse.val.exc.InvalidTypeException;
 
+/**
+ * Class for polynomials, i.e., sums of {@link Monomial}s. A polynomial 
+ * is represented sparsely as two parallel arrays, the first storing 
+ * the handles of its bases (i.e., monomials with scale set to 1)
+ * as interned by the {@link CalculatorRewriting}, sorted in ascending 
+ * order of identifier, the second their multipliers as {@link Simplex}.
+ * 
+ * @author Pietro Braione
+ */
 class Polynomial {
+	private static final Interned<Monomial>[] EMPTY_BASES = InternTable.newArray(0);
+	private static final Simplex[] EMPTY_MULTIPLIERS = new Simplex[0];
+
 	/** {@link CalculatorRewriting} for the {@link Primitive} it represents. */
 	private final CalculatorRewriting calc;
 	
@@ -32,37 +40,41 @@ class Polynomial {
 	private final char type;
 
 	/** 
-	 * The representation of the polynomial as a map from bases (i.e., monomials
-	 * with scale set to 1) to their multipliers as {@link Simplex}. 
+	 * The handles of the bases of the polynomial, sorted
+	 * in ascending order of identifier. 
+	 */
+	private final Interned<Monomial>[] bases;
+
+	/** 
+	 * The multipliers of the bases, {@code multipliers[i]} 
+	 * is the multiplier of {@code bases[i]}. 
 	 */
-	private final Map<Monomial, Simplex> rep;
+	private final Simplex[] multipliers;
 
-	private Polynomial(CalculatorRewriting calc, char type, Map<Monomial, Simplex> rep) {
+	private Polynomial(CalculatorRewriting calc, char type, Interned<Monomial>[] bases, Simplex[] multipliers) {
 		this.calc = calc;
 		this.type = type;
-		this.rep = rep;
+		this.bases = bases;
+		this.multipliers = multipliers;
 	}
 
 	public static Polynomial of(CalculatorRewriting calc, Primitive p) {
-		return new PolynomialBuilder(calc, makeRep()).of(p).make();
-	}
-
-	private static Map<Monomial, Simplex> makeRep() {
-		return new HashMap<Monomial, Simplex>(512);
+		return new PolynomialBuilder(calc).of(p).make();
 	}
 
 	public static PolynomialBuilder build(CalculatorRewriting calc) {
-		return new PolynomialBuilder(calc, makeRep());
+		return new PolynomialBuilder(calc);
 	}
 
 	public static class PolynomialBuilder {
 		private final CalculatorRewriting calc;
 		private char type = Type.UNKNOWN;
-		private final Map<Monomial, Simplex> rep;
+		private Interned<Monomial>[] bases = EMPTY_BASES;
+		private Simplex[] multipliers = EMPTY_MULTIPLIERS;
+		private int size = 0;
 
-		private PolynomialBuilder(CalculatorRewriting calc, Map<Monomial, Simplex> rep) {
+		private PolynomialBuilder(CalculatorRewriting calc) {
 			this.calc = calc;
-			this.rep = rep;
 		}
 
 		public PolynomialBuilder of(Primitive p) {
@@ -81,8 +93,9 @@ class Polynomial {
 
 		public PolynomialBuilder as(Polynomial p) {
 			this.type = p.type;
-			this.rep.clear();
-			this.rep.putAll(p.rep);
+			this.bases = p.bases.clone();
+			this.multipliers = p.multipliers.clone();
+			this.size = p.bases.length;
 			return this;
 		}
 
@@ -90,7 +103,32 @@ class Polynomial {
 			if (this.type == Type.UNKNOWN || this.type == Type.ERROR) {
 				throw new UnexpectedInternalException();
 			}
-			return new Polynomial(this.calc, this.type, Collections.unmodifiableMap(this.rep));
+			if (this.size == 0) {
+				return new Polynomial(this.calc, this.type, EMPTY_BASES, EMPTY_MULTIPLIERS);
+			}
+			final Interned<Monomial>[] bases = (this.size == this.bases.length ? this.bases : Arrays.copyOf(this.bases, this.size));
+			final Simplex[] multipliers = (this.size == this.multipliers.length ? this.multipliers : Arrays.copyOf(this.multipliers, this.size));
+			return new Polynomial(this.calc, this.type, bases, multipliers);
+		}
+		
+		private void ensureCapacity(int capacity) {
+			if (capacity > this.bases.length) {
+				final int capacityNew = Math.max(capacity, 2 * this.bases.length);
+				this.bases = Arrays.copyOf(this.bases, capacityNew);
+				this.multipliers = Arrays.copyOf(this.multipliers, capacityNew);
+			}
+		}
+
+		/**
+		 * Appends a base to the representation. Must be
+		 * invoked with {@code base}s with increasing identifiers
+		 * on an empty builder.
+		 */
+		private void append(Interned<Monomial> base, Simplex multiplier) {
+			ensureCapacity(this.size + 1);
+			this.bases[this.size] = base;
+			this.multipliers[this.size] = multiplier;
+			++this.size;
 		}
 
 		public PolynomialBuilder addMonomial(Monomial m) 
@@ -109,20 +147,44 @@ class Polynomial {
 
 		private void addMonomial(Monomial base, Simplex multiplier) 
 		throws InvalidOperandException, InvalidTypeException {
-			if (this.rep.containsKey(base)) {
-				Simplex multiplierNew = (Simplex) this.rep.get(base).add(multiplier);
+			final Interned<Monomial> handle = this.calc.polynomialBases().intern(base);
+			final int pos = Monomial.search(this.bases, this.size, handle.id);
+			if (pos >= 0) {
+				final Simplex multiplierNew = (Simplex) this.multipliers[pos].add(multiplier);
 				if (multiplierNew.isZeroOne(true)) {
-					this.rep.remove(base);
+					System.arraycopy(this.bases, pos + 1, this.bases, pos, this.size - pos - 1);
+					System.arraycopy(this.multipliers, pos + 1, this.multipliers, pos, this.size - pos - 1);
+					--this.size;
+					this.multipliers[this.size] = null;
 				} else {
-					this.rep.put(base, (Simplex) multiplierNew);
+					this.multipliers[pos] = multiplierNew;
 				}
 			} else if (multiplier.isZeroOne(true)) {
 				return; //do nothing
 			} else {
-				this.rep.put(base, multiplier);
+				insert(-pos - 1, handle, multiplier);
 			}
 		}
 
+		private void putMonomial(Monomial base, Simplex multiplier) {
+			final Interned<Monomial> handle = this.calc.polynomialBases().intern(base);
+			final int pos = Monomial.search(this.bases, this.size, handle.id);
+			if (pos >= 0) {
+				this.multipliers[pos] = multiplier;
+			} else {
+				insert(-pos - 1, handle, multiplier);
+			}
+		}
+		
+		private void insert(int pos, Interned<Monomial> handle, Simplex multiplier) {
+			ensureCapacity(this.size + 1);
+			System.arraycopy(this.bases, pos, this.bases, pos + 1, this.size - pos);
+			System.arraycopy(this.multipliers, pos, this.multipliers, pos + 1, this.size - pos);
+			this.bases[pos] = handle;
+			this.multipliers[pos] = multiplier;
+			++this.size;
+		}
+
 		public PolynomialBuilder mul(Polynomial first, Polynomial other) 
 		throws InvalidOperandException, InvalidTypeException {
 			if (first == null || other == null) {
@@ -130,12 +192,12 @@ class Polynomial {
 			}
 			Operator.typeCheck(Operator.MUL, first.type, other.type);
 			this.type = first.type;
-			for (Entry<Monomial, Simplex> eThis : first.rep.entrySet()) {
-				for (Entry<Monomial, Simplex> eOther : other.rep.entrySet()) {
-					final Monomial base = eThis.getKey().mul(eOther.getKey());
+			for (int i = 0; i < first.bases.length; ++i) {
+				for (int j = 0; j < other.bases.length; ++j) {
+					final Monomial base = first.getBase(i).mul(other.getBase(j));
 					final Simplex multiplier;
 					try {
-						multiplier = (Simplex) eThis.getValue().mul(eOther.getValue());
+						multiplier = (Simplex) first.multipliers[i].mul(other.multipliers[j]);
 					} catch (InvalidOperandException e) {
 						//this should never happen
 						throw new UnexpectedInternalException(e);
@@ -153,14 +215,10 @@ class Polynomial {
 			}
 			Operator.typeCheck(Operator.NEG, p.type);
 			this.type = p.type;
-			for (Entry<Monomial, Simplex> eThis : p.rep.entrySet()) {
-				final Monomial base = eThis.getKey();
-				final Simplex multiplier = (Simplex) eThis.getValue().neg();
-				try {
-					addMonomial(base, multiplier);
-				} catch (InvalidOperandException | InvalidTypeException exc) {
-					//this should never happen
-					throw new UnexpectedInternalException(exc);
+			ensureCapacity(p.bases.length);
+			for (int i = 0; i < p.bases.length; ++i) {
+				if (!p.multipliers[i].isZeroOne(true)) {
+					append(p.bases[i], (Simplex) p.multipliers[i].neg());
 				}
 			}
 			return this;
@@ -173,13 +231,39 @@ class Polynomial {
 			}
 			Operator.typeCheck(Operator.ADD, first.type, other.type);
 			this.type = first.type;
-			this.rep.putAll(first.rep);
-			for (Entry<Monomial, Simplex> eOther : other.rep.entrySet()) {
-				try {
-					addMonomial(eOther.getKey(), eOther.getValue());
-				} catch (InvalidOperandException | InvalidTypeException exc) {
-					//this should never happen
-					throw new UnexpectedInternalException(exc);
+			//merges the (sorted) representations
+			ensureCapacity(first.bases.length + other.bases.length);
+			int i = 0, j = 0;
+			while (i < first.bases.length && j < other.bases.length) {
+				if (first.bases[i].id < other.bases[j].id) {
+					append(first.bases[i], first.multipliers[i]);
+					++i;
+				} else if (first.bases[i].id > other.bases[j].id) {
+					if (!other.multipliers[j].isZeroOne(true)) {
+						append(other.bases[j], other.multipliers[j]);
+					}
+					++j;
+				} else {
+					final Simplex multiplierNew;
+					try {
+						multiplierNew = (Simplex) first.multipliers[i].add(other.multipliers[j]);
+					} catch (InvalidOperandException | InvalidTypeException exc) {
+						//this should never happen
+						throw new UnexpectedInternalException(exc);
+					}
+					if (!multiplierNew.isZeroOne(true)) {
+						append(first.bases[i], multiplierNew);
+					}
+					++i;
+					++j;
+				}
+			}
+			for (; i < first.bases.length; ++i) {
+				append(first.bases[i], first.multipliers[i]);
+			}
+			for (; j < other.bases.length; ++j) {
+				if (!other.multipliers[j].isZeroOne(true)) {
+					append(other.bases[j], other.multipliers[j]);
 				}
 			}
 			return this;
@@ -193,18 +277,18 @@ class Polynomial {
 			Operator.typeCheck(Operator.DIV, first.type, other.type);
 			this.type = first.type;
 			final Monomial gcd = first.gcdMonomials().gcd(other.gcdMonomials());
-			final boolean allMultipliersEqual = allMultipliersEqual(first.rep, other.rep);
+			final boolean allMultipliersEqual = allMultipliersEqual(first, other);
 			final Primitive otherPrimitive = other.toPrimitive();
 			final boolean otherIsSimplexFloat = Type.isPrimitiveFloating(other.type) && otherPrimitive instanceof Simplex;
 			final boolean allMultipliersDivisibleByOther = Type.isPrimitiveIntegral(other.type) && otherPrimitive instanceof Simplex
-					&& allMultipliersDivisibleBy(first.rep, (Simplex) otherPrimitive);
+					&& allMultipliersDivisibleBy(first, (Simplex) otherPrimitive);
 			final Simplex one = (Simplex) this.calc.valInt(1).to(this.type);
-			for (Entry<Monomial, Simplex> e : first.rep.entrySet()) {
+			for (int i = 0; i < first.bases.length; ++i) {
 				try {
-					this.rep.put(e.getKey().div(gcd)[0], 
+					putMonomial(first.getBase(i).div(gcd)[0], 
 							(allMultipliersEqual ? one :
-								(otherIsSimplexFloat || allMultipliersDivisibleByOther) ? (Simplex) e.getValue().div(otherPrimitive) :
-									e.getValue()));
+								(otherIsSimplexFloat || allMultipliersDivisibleByOther) ? (Simplex) first.multipliers[i].div(otherPrimitive) :
+									first.multipliers[i]));
 				} catch (InvalidOperandException | InvalidTypeException exc) {
 					//this should never happen
 					throw new UnexpectedInternalException(exc);
@@ -221,29 +305,29 @@ class Polynomial {
 			Operator.typeCheck(Operator.DIV, first.type, other.type);
 			this.type = first.type;
 			final Monomial gcd = first.gcdMonomials().gcd(other.gcdMonomials());
-			final boolean allMultipliersEqual = allMultipliersEqual(first.rep, other.rep);
+			final boolean allMultipliersEqual = allMultipliersEqual(first, other);
 			final Primitive otherPrimitive = other.toPrimitive();
 			final boolean otherIsSimplexFloat = Type.isPrimitiveFloating(other.type) && otherPrimitive instanceof Simplex;
 			final boolean allMultipliersDivisibleByOther = Type.isPrimitiveIntegral(other.type) && otherPrimitive instanceof Simplex
-					&& allMultipliersDivisibleBy(first.rep, (Simplex) otherPrimitive);
+					&& allMultipliersDivisibleBy(first, (Simplex) otherPrimitive);
 			final Simplex one = (Simplex) this.calc.valInt(1).to(this.type);
-			for (Entry<Monomial, Simplex> e : other.rep.entrySet()) {
-				this.rep.put(e.getKey().div(gcd)[0], 
+			for (int i = 0; i < other.bases.length; ++i) {
+				putMonomial(other.getBase(i).div(gcd)[0], 
 						((allMultipliersEqual || otherIsSimplexFloat || allMultipliersDivisibleByOther) ? one : 
-						e.getValue()));
+						other.multipliers[i]));
 			}
 			return this;
 		}
 
-		private static boolean allMultipliersEqual(Map<Monomial, Simplex> firstRep, Map<Monomial, Simplex> otherRep) {
+		private static boolean allMultipliersEqual(Polynomial first, Polynomial other) {
 			Simplex previous = null;
-			for (Simplex s : firstRep.values()) {
+			for (Simplex s : first.multipliers) {
 				if (previous != null && !previous.equals(s)) {
 					return false;
 				}
 				previous = s;
 			}
-			for (Simplex s : otherRep.values()) {
+			for (Simplex s : other.multipliers) {
 				if (previous != null && !previous.equals(s)) {
 					return false;
 				}
@@ -252,11 +336,11 @@ class Polynomial {
 			return true;
 		}
 		
-		private boolean allMultipliersDivisibleBy(Map<Monomial, Simplex> rep, Simplex otherPrimitive) 
+		private boolean allMultipliersDivisibleBy(Polynomial p, Simplex otherPrimitive) 
 		throws InvalidOperandException, InvalidTypeException {
 			Simplex previous = null;
 			final Simplex zero = (Simplex) this.calc.valInt(0).to(otherPrimitive.getType()); 
-			for (Simplex s : rep.values()) {
+			for (Simplex s : p.multipliers) {
 				if (previous != null && ((Boolean) ((Simplex) previous.rem(otherPrimitive).ne(zero)).getActualValue())) {
 					return false;
 				}
@@ -337,12 +421,12 @@ class Polynomial {
 		}
 	}
 
-	private Primitive makePrimitive(boolean normalized, Set<Monomial> bases) {
+	private Primitive makePrimitive(boolean normalized, Monomial[] bases, Simplex[] multipliers) {
 		try {
 			final Primitive zero = this.calc.valInt(0).to(this.type);
 			Primitive retVal = zero;
-			for (Monomial base : bases) {
-				Monomial m = base.mul(Monomial.of(this.calc, this.rep.get(base).to(this.type)));
+			for (int i = 0; i < bases.length; ++i) {
+				Monomial m = bases[i].mul(Monomial.of(this.calc, multipliers[i].to(this.type)));
 				Primitive mPrimitive = (normalized ? m.toPrimitiveNormalized() : m.toPrimitive()); 
 				if (retVal.equals(zero)) {
 					retVal = mPrimitive;
@@ -357,12 +441,20 @@ class Polynomial {
 		}
 	}
 
+	private Monomial[] basesArray() {
+		final Monomial[] retVal = new Monomial[this.bases.length];
+		for (int i = 0; i < retVal.length; ++i) {
+			retVal[i] = getBase(i);
+		}
+		return retVal;
+	}
+
 	private volatile Primitive toPrimitive;
 
 	public Primitive toPrimitive() {
 		Primitive retVal = this.toPrimitive;
 		if (retVal == null) {
-			this.toPrimitive = makePrimitive(false, this.rep.keySet());
+			this.toPrimitive = makePrimitive(false, basesArray(), this.multipliers);
 			retVal = this.toPrimitive;
 		}
 		return retVal;
@@ -373,17 +465,63 @@ class Polynomial {
 	public Primitive toPrimitiveNormalized() {
 		Primitive retVal = this.toPrimitiveNormalized;
 		if (retVal == null) {
-			final TreeSet<Monomial> keysSorted = new TreeSet<Monomial>();
-			keysSorted.addAll(this.rep.keySet());
-			this.toPrimitiveNormalized = makePrimitive(true, keysSorted);
+			final Integer[] order = new Integer[this.bases.length];
+			for (int i = 0; i < order.length; ++i) {
+				order[i] = i;
+			}
+			final Monomial[] basesUnsorted = basesArray();
+			Arrays.sort(order, (i, j) -> basesUnsorted[i].compareTo(basesUnsorted[j]));
+			final Monomial[] basesSorted = new Monomial[order.length];
+			final Simplex[] multipliersSorted = new Simplex[order.length];
+			for (int i = 0; i < order.length; ++i) {
+				basesSorted[i] = basesUnsorted[order[i]];
+				multipliersSorted[i] = this.multipliers[order[i]];
+			}
+			this.toPrimitiveNormalized = makePrimitive(true, basesSorted, multipliersSorted);
 			retVal = this.toPrimitiveNormalized;
 		}
 		return retVal;
 	}
 
+	/**
+	 * Returns the number of bases of this polynomial
+	 * with nonzero multiplier.
+	 * 
+	 * @return an {@code int}.
+	 */
+	public int size() {
+		return this.bases.length;
+	}
+
+	/**
+	 * Returns a base of this polynomial.
+	 * 
+	 * @param i an {@code int} between {@code 0} (included) and 
+	 *        {@link #size()} (excluded).
+	 * @return the {@code i}-th base, a {@link Monomial} with
+	 *         scale equal to 1.
+	 */
+	public Monomial getBase(int i) {
+		return this.bases[i].value;
+	}
+
+	/**
+	 * Returns the multiplier of a base of this polynomial.
+	 * 
+	 * @param i an {@code int} between {@code 0} (included) and 
+	 *        {@link #size()} (excluded).
+	 * @return the multiplier of the {@code i}-th base, a {@link Simplex}.
+	 */
+	public Simplex getMultiplier(int i) {
+		return this.multipliers[i];
+	}
+
 	public Simplex getMultiplier(Monomial m) {
-		if (this.rep.containsKey(m)) {
-			return this.rep.get(m);
+		//a base that is not interned is not a base of any polynomial
+		final Interned<Monomial> handle = this.calc.polynomialBases().find(m);
+		final int pos = (handle == null ? -1 : Monomial.search(this.bases, this.bases.length, handle.id));
+		if (pos >= 0) {
+			return this.multipliers[pos];
 		} else {
 			try {
 				return (Simplex) this.calc.valInt(0).to(this.type);
@@ -403,34 +541,29 @@ class Polynomial {
 			throw new UnexpectedInternalException(e);
 		}
 	}
-	
-	public Map<Monomial, Simplex> representation() {
-		return this.rep;
-	}	
 
 	public Polynomial mul(Polynomial other) 
 	throws InvalidOperandException, InvalidTypeException {
-		return new PolynomialBuilder(this.calc, makeRep()).mul(this, other).make();
+		return new PolynomialBuilder(this.calc).mul(this, other).make();
 	}
 
 	public Polynomial neg() 
 			throws InvalidOperandException, InvalidTypeException {
-		return new PolynomialBuilder(this.calc, makeRep()).neg(this).make();
+		return new PolynomialBuilder(this.calc).neg(this).make();
 	}
 
 	public boolean isZeroOne(boolean zero) {
 		if (zero) {
-			for (Entry<Monomial, Simplex> e : this.rep.entrySet()) {
-				if (e.getValue().isZeroOne(zero)) { //NB: the monomial (key) can't be zero!
+			for (Simplex multiplier : this.multipliers) {
+				if (multiplier.isZeroOne(zero)) { //NB: the monomial (base) can't be zero!
 					continue;
 				}
 				return false;
 			}
 			return true;
 		} else {
-			if (this.rep.entrySet().size() == 1) {
-				final Entry<Monomial, Simplex> e = this.rep.entrySet().iterator().next();
-				if (e.getKey().isZeroOne(false) && e.getValue().isZeroOne(false)) {
+			if (this.bases.length == 1) {
+				if (getBase(0).isZeroOne(false) && this.multipliers[0].isZeroOne(false)) {
 					return true;
 				} else {
 					return false;
@@ -443,12 +576,13 @@ class Polynomial {
 
 	public Polynomial add(Polynomial other) 
 			throws InvalidOperandException, InvalidTypeException {
-		return new PolynomialBuilder(this.calc, makeRep()).add(this, other).make();
+		return new PolynomialBuilder(this.calc).add(this, other).make();
 	}
 
 	public Monomial gcdMonomials() throws InvalidTypeException {
 		Monomial retVal = null;
-		for (Monomial m : this.rep.keySet()) {
+		for (int i = 0; i < this.bases.length; ++i) {
+			final Monomial m = getBase(i);
 			if (retVal == null) {
 				retVal = m;
 			} else {
@@ -460,8 +594,8 @@ class Polynomial {
 
 	public Polynomial[] div(Polynomial other) 
 	throws InvalidOperandException, InvalidTypeException {
-		final Polynomial denom = new PolynomialBuilder(this.calc, makeRep()).divDenom(this, other).make();
-		final Polynomial numer = new PolynomialBuilder(this.calc, makeRep()).divNumer(this, other).make();
+		final Polynomial denom = new PolynomialBuilder(this.calc).divDenom(this, other).make();
+		final Polynomial numer = new PolynomialBuilder(this.calc).divNumer(this, other).make();
 		if (numer.isZeroOne(true) || denom.isZeroOne(false)) {
 			return new Polynomial[] { numer, null };
 		}
@@ -483,14 +617,13 @@ class Polynomial {
 		
 		try {
 			//if this polynomial is a monomial, pack
-			if (this.rep.size() == 1) {
-				final Entry<Monomial, Simplex> e = this.rep.entrySet().iterator().next();
-				Monomial rebuiltMonomial = e.getKey().mul(Monomial.of(this.calc, e.getValue()));
+			if (this.bases.length == 1) {
+				Monomial rebuiltMonomial = getBase(0).mul(Monomial.of(this.calc, this.multipliers[0]));
 				final Monomial[] sqrtMonomial = rebuiltMonomial.sqrt();
-				final PolynomialBuilder sqrt = new PolynomialBuilder(this.calc, makeRep());
+				final PolynomialBuilder sqrt = new PolynomialBuilder(this.calc);
 				sqrt.type = this.type;
 				sqrt.addMonomial(sqrtMonomial[0]);
-				final PolynomialBuilder etc = new PolynomialBuilder(this.calc, makeRep());
+				final PolynomialBuilder etc = new PolynomialBuilder(this.calc);
 				etc.type = this.type;
 				etc.addMonomial(sqrtMonomial[1]);
 				return new Polynomial[] { sqrt.make(), etc.make() };
@@ -504,7 +637,7 @@ class Polynomial {
 			final Polynomial[] sameAsInput = new Polynomial[] { one, this };
 
 			//if it is not the sum of three monomials, it is not a square
-			if (this.rep.size() != 3) {
+			if (this.bases.length != 3) {
 				return sameAsInput;
 			}
 
@@ -515,14 +648,14 @@ class Polynomial {
 			int twosCount = 0;
 			Monomial a = null, b = null, c = null;
 			boolean cPositive = true;
-			for (Entry<Monomial, Simplex> e : this.rep.entrySet()) {
-				final Simplex value = e.getValue();
+			for (int i = 0; i < this.bases.length; ++i) {
+				final Simplex value = this.multipliers[i];
 				if (value.isZeroOne(false)) {
 					++onesCount;
 					if (a == null) {
-						a = e.getKey();
+						a = getBase(i);
 					} else {
-						b = e.getKey();
+						b = getBase(i);
 					}
 				} else {
 					if (Type.isPrimitiveIntegral(value.getType())) {
@@ -530,7 +663,7 @@ class Polynomial {
 						final long l = n.longValue();
 						if (l == 2 || l == -2) {
 							++twosCount;
-							c = e.getKey();
+							c = getBase(i);
 							if (l < 0) {
 								cPositive = false;
 							}
@@ -540,7 +673,7 @@ class Polynomial {
 						final double d = n.doubleValue();
 						if (d == 2.0 || d == -2.0) {
 							++twosCount;
-							c = e.getKey();
+							c = getBase(i);
 							if (d < 0) {
 								cPositive = false;
 							}
@@ -552,6 +685,15 @@ class Polynomial {
 				return sameAsInput;
 			}
 
+			//the order of the bases depends on the order they were
+			//interned, so we put a and b in the canonical order to
+			//always return the same square root
+			if (a.compareTo(b) < 0) {
+				final Monomial tmp = a;
+				a = b;
+				b = tmp;
+			}
+
 			//takes the square root of a and b and
 			//checks nothing remains under the square root sign
 			final Monomial aSqrt[] = a.sqrt();
@@ -568,7 +710,7 @@ class Polynomial {
 			}
 
 			//if everything has succeeds, returns the square root
-			final PolynomialBuilder sqrt = new PolynomialBuilder(this.calc, makeRep());
+			final PolynomialBuilder sqrt = new PolynomialBuilder(this.calc);
 			sqrt.type = this.type;
 			sqrt.addMonomial(aSqrt[0], this.calc.valDouble(1));
 			sqrt.addMonomial(bSqrt[0], this.calc.valDouble(cPositive ? 1 : -1));
@@ -583,7 +725,8 @@ class Polynomial {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((rep == null) ? 0 : rep.hashCode());
+		result = prime * result + Arrays.hashCode(this.bases);
+		result = prime * result + Arrays.hashCode(this.multipliers);
 		return result;
 	}
 
@@ -598,12 +741,11 @@ class Polynomial {
 		if (getClass() != obj.getClass()) {
 			return false;
 		}
-		Polynomial other = (Polynomial) obj;
-		if (rep == null) {
-			if (other.rep != null) {
-				return false;
-			}
-		} else if (!rep.equals(other.rep)) {
+		final Polynomial other = (Polynomial) obj;
+		if (!Arrays.equals(this.bases, other.bases)) {
+			return false;
+		}
+		if (!Arrays.equals(this.multipliers, other.multipliers)) {
 			return false;
 		}
 		return true;
@@ -611,20 +753,17 @@ class Polynomial {
 
 	@Override
 	public String toString() {
-		if (this.rep.isEmpty()) {
+		if (this.bases.length == 0) {
 			return (Type.isPrimitiveIntegral(this.type) ? "0" : "0.0");
 		}
 		final StringBuilder sb = new StringBuilder();
-		boolean firstDone = false;
-		for (Entry<Monomial, Simplex> e : this.rep.entrySet()) {
-			if (firstDone) {
+		for (int i = 0; i < this.bases.length; ++i) {
+			if (i > 0) {
 				sb.append(" + ");
-			} else {
-				firstDone = true;
 			}
-			sb.append(e.getValue().toString());
+			sb.append(this.multipliers[i].toString());
 			sb.append("*");
-			sb.append(e.getKey().toString());
+			sb.append(getBase(i).toString());
 		}
 		return sb.toString();
 	}
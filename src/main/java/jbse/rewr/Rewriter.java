@@ -1,5 +1,8 @@
 package jbse.rewr;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.rewr.exc.NoResultException;
 import jbse.val.Any;
@@ -9,6 +12,7 @@ import jbse.val.NarrowingConversion;
 import jbse.val.Operator;
 import jbse.val.Primitive;
 import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveTraversal;
 import jbse.val.PrimitiveVisitor;
 import jbse.val.Simplex;
 import jbse.val.Term;
@@ -23,15 +27,35 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public class Rewriter {
+	/** 
+	 * The nesting level of {@link #rewrite(Primitive)} above which
+	 * the subterms of the {@link Primitive} to rewrite are rewritten
+	 * iteratively before the {@link Primitive} itself.
+	 */
+	private static final int MAX_NESTING = 64;
+	
 	private Primitive value;
 	private RewriteVisitor visitor;
 	
+	/** The current nesting level of {@link #rewrite(Primitive)}. */
+	private int nesting;
+	
+	/** 
+	 * Caches the results of {@link #rewrite(Primitive)} during 
+	 * the outermost invocation of {@link #rewrite(Primitive)}.
+	 * A rewriter is assumed to yield, during one such invocation, 
+	 * the same result when asked twice to rewrite the same 
+	 * {@link Primitive}, but it is not assumed to be idempotent.
+	 */
+	private final IdentityHashMap<Primitive, Primitive> rewritten = new IdentityHashMap<>();
+	
 	protected CalculatorRewriting calc;
 	
 	public Rewriter() {
 		this.calc = null;
 		clear();
 		this.visitor = new RewriteVisitor();
+		this.nesting = 0;
 	}
 	
 	void setCalculator(CalculatorRewriting calc) {
@@ -42,19 +66,91 @@ public class Rewriter {
 		if (p == null || this.calc == null) {
 			throw new NoResultException();
 		} else {
-			clear();
+			final Primitive cached = this.rewritten.get(p);
+			if (cached != null) {
+				return cached;
+			}
+			++this.nesting;
 			try {
-				p.accept(this.visitor);
-			} catch (NoResultException | RuntimeException e) {
-				throw e;
-			} catch (Exception e) {
-				//this should never happen
-				throw new UnexpectedInternalException(e);
+				if (this.nesting > MAX_NESTING) {
+					rewriteSubterms(p);
+				}
+				return rewriteNode(p);
+			} finally {
+				--this.nesting;
+				if (this.nesting == 0) {
+					this.rewritten.clear();
+				}
 			}
-			return this.value;
 		}
 	}
 	
+	private Primitive rewriteNode(Primitive p) throws NoResultException {
+		clear();
+		try {
+			p.accept(this.visitor);
+		} catch (NoResultException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+		final Primitive retVal = this.value;
+		if (retVal != null) {
+			//only the rewritten term is cached: rewriters need not be
+			//idempotent, so retVal must be rewritten again if reached
+			this.rewritten.put(p, retVal);
+		}
+		return retVal;
+	}
+	
+	/**
+	 * Rewrites all the (not yet rewritten) proper subterms of a
+	 * {@link Primitive} in post-order, without recursion. 
+	 * Afterwards, rewriting {@code p} will find the results
+	 * of rewriting its subterms in the cache, thus bounding
+	 * the nesting of the invocations of {@link #rewrite(Primitive)}.
+	 * 
+	 * @param p a {@link Primitive}.
+	 */
+	private void rewriteSubterms(Primitive p) {
+		final PrimitiveTraversal<Void, RuntimeException> t = new PrimitiveTraversal<Void, RuntimeException>() {
+			@Override
+			protected Primitive[] children(Primitive q) {
+				return (Rewriter.this.rewritten.containsKey(q) ? null : super.children(q));
+			}
+			
+			private Void visit(Primitive q) {
+				if (q != p && !Rewriter.this.rewritten.containsKey(q)) {
+					try {
+						rewriteNode(q);
+					} catch (NoResultException e) {
+						//it will be thrown again when (and if) 
+						//the rewriting of p will need q 
+					}
+				}
+				return null;
+			}
+			
+			@Override protected Void visitAny(Any x, List<Void> children) { return visit(x); }
+
+			@Override protected Void visitExpression(Expression e, List<Void> children) { return visit(e); }
+
+			@Override protected Void visitFunctionApplication(FunctionApplication x, List<Void> children) { return visit(x); }
+
+			@Override protected Void visitPrimitiveSymbolic(PrimitiveSymbolic s, List<Void> children) { return visit(s); }
+
+			@Override protected Void visitSimplex(Simplex x, List<Void> children) { return visit(x); }
+
+			@Override protected Void visitTerm(Term x, List<Void> children) { return visit(x); }
+
+			@Override protected Void visitNarrowingConversion(NarrowingConversion x, List<Void> children) { return visit(x); }
+
+			@Override protected Void visitWideningConversion(WideningConversion x, List<Void> children) { return visit(x); }
+		};
+		t.traverse(p);
+	}
+	
 	protected final void setResult(Primitive x) throws NoResultException {
 		if (x == null) {
 			throw new NoResultException();
@@ -91,8 +187,16 @@ public class Rewriter {
 	protected void rewriteFunctionApplication(FunctionApplication x) 
 	throws NoResultException {
 		final Primitive[] args = x.getArgs();
+		boolean unchanged = true;
 		for (int i = 0; i < args.length; i++) {
-			args[i] = rewrite(args[i]);
+			final Primitive arg = args[i];
+			args[i] = rewrite(arg);
+			unchanged = unchanged && (args[i] == arg);
+		}
+		if (unchanged) {
+			//no need to build a copy of x
+			setResult(x);
+			return;
 		}
 		final FunctionApplication result;
 		try {
@@ -110,10 +214,20 @@ public class Rewriter {
 		try {
 			if (x.isUnary()) {
 				final Primitive operand = rewrite(x.getOperand());
+				if (operand == x.getOperand()) {
+					//no need to build a copy of x
+					setResult(x);
+					return;
+				}
 				result = Expression.makeExpressionUnary(calc, operator, operand);
 			} else {
 				final Primitive firstOperand = rewrite(x.getFirstOperand());
 				final Primitive secondOperand = rewrite(x.getSecondOperand());
+				if (firstOperand == x.getFirstOperand() && secondOperand == x.getSecondOperand()) {
+					//no need to build a copy of x
+					setResult(x);
+					return;
+				}
 				result = Expression.makeExpressionBinary(calc, firstOperand, operator, secondOperand);
 			}
 		} catch (InvalidTypeException | InvalidOperandException e) {
@@ -129,6 +243,11 @@ public class Rewriter {
 	protected void rewriteWideningConversion(WideningConversion x) 
 	throws NoResultException {
 		final Primitive arg = rewrite(x.getArg());
+		if (arg == x.getArg()) {
+			//no need to build a copy of x
+			setResult(x);
+			return;
+		}
 		final WideningConversion result;
 		try {
 			result = WideningConversion.make(x.getType(), calc, arg);
@@ -142,6 +261,11 @@ public class Rewriter {
 	protected void rewriteNarrowingConversion(NarrowingConversion x) 
 	throws NoResultException {
 		final Primitive arg = rewrite(x.getArg());
+		if (arg == x.getArg()) {
+			//no need to build a copy of x
+			setResult(x);
+			return;
+		}
 		final NarrowingConversion result;
 		try {
 			result = NarrowingConversion.make(x.getType(), calc, arg);
@@ -28,14 +28,16 @@ public class RewriterSinCos extends Rewriter {
 
 	private List<Monomial> getMonomialsWithSinCos(Polynomial poly) {
 		final ArrayList<Monomial> retVal = new ArrayList<Monomial>();
-		for (Monomial m : poly.representation().keySet()) {
-			for (Primitive p : m.representation().keySet()) {
+		for (int i = 0; i < poly.size(); ++i) {
+			final Monomial m = poly.getBase(i);
+			for (int j = 0; j < m.numFactors(); ++j) {
+				final Primitive p = m.getFactor(j);
 				if (p instanceof FunctionApplication) {
 					final FunctionApplication pF = (FunctionApplication) p;
 					if (pF.getOperator().equals(FunctionApplication.SIN) ||
 						pF.getOperator().equals(FunctionApplication.COS)) {
 						try {
-							retVal.add(m.mul(Monomial.of(this.calc, poly.representation().get(m))));
+							retVal.add(m.mul(Monomial.of(this.calc, poly.getMultiplier(i))));
 						} catch (InvalidTypeException e) {
 							//this should never happen
 							throw new UnexpectedInternalException(e);
@@ -0,0 +1,61 @@
+package jbse.val;
+
+/**
+ * A (fictitious) access to the value of a term that
+ * was replaced by a fresh symbol because it exceeded
+ * the term budget of the {@link Calculator}.
+ * 
+ * @author Pietro Braione
+ *
+ */
+public final class AccessTermAbstraction extends AccessRoot {
+    private final int id;
+    private final Primitive term;
+    private final String toString;
+    private final int hashCode;
+
+    public AccessTermAbstraction(int id, Primitive term) {
+        this.id = id;
+        this.term = term;
+        this.toString = "{ABSTRACTION" + id + "}";
+        final int prime = 6949;
+        this.hashCode = prime + this.id;
+    }
+    
+    /**
+     * Returns the abstracted term.
+     * 
+     * @return a {@link Primitive}.
+     */
+    public Primitive term() {
+        return this.term;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final AccessTermAbstraction other = (AccessTermAbstraction) obj;
+        if (this.id != other.id) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return this.toString;
+    }
+}
@@ -14,6 +14,9 @@ import static jbse.common.Type.REFERENCE;
 import static jbse.common.Type.SHORT;
 import static jbse.common.Type.widens;
 
+import java.util.function.Consumer;
+
+import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.val.exc.InvalidOperandException;
 import jbse.val.exc.InvalidOperatorException;
@@ -59,6 +62,18 @@ public abstract class Calculator {
     /** Default value for reference types. */
     private final ReferenceConcrete DEFAULT_REFERENCE;
 
+    /** 
+     * The maximum size a term may have before it is 
+     * abstracted; {@code 0} means unbounded. 
+     */
+    private int maxTermSize = 0;
+
+    /** 
+     * The maximum depth a term may have before it is 
+     * abstracted; {@code 0} means unbounded. 
+     */
+    private int maxTermDepth = 0;
+
     public Calculator() {
         try {
             this.ANY = Any.make(this);
@@ -80,6 +95,88 @@ public abstract class Calculator {
         this.DEFAULT_REFERENCE = Null.getInstance();
     }
 
+    /**
+     * Sets the budget for the terms built during symbolic 
+     * execution. The terms that exceed the budget are 
+     * replaced by fresh symbols, see {@link #exceedsTermBudget(Primitive)}.
+     * 
+     * @param maxTermSize an {@code int}, the maximum number of 
+     *        nodes of a term, or {@code 0} for no limit. 
+     * @param maxTermDepth an {@code int}, the maximum depth of 
+     *        a term, or {@code 0} for no limit.
+     * @throws InvalidInputException if {@code maxTermSize < 0} or 
+     *         {@code maxTermDepth < 0}.
+     */
+    public void setTermBudget(int maxTermSize, int maxTermDepth) throws InvalidInputException {
+        if (maxTermSize < 0 || maxTermDepth < 0) {
+            throw new InvalidInputException("Attempted to set a negative term budget.");
+        }
+        this.maxTermSize = maxTermSize;
+        this.maxTermDepth = maxTermDepth;
+    }
+
+    /**
+     * Returns the maximum number of nodes of a term.
+     * 
+     * @return an {@code int}, {@code 0} for no limit.
+     */
+    public int getMaxTermSize() {
+        return this.maxTermSize;
+    }
+
+    /**
+     * Returns the maximum depth of a term.
+     * 
+     * @return an {@code int}, {@code 0} for no limit.
+     */
+    public int getMaxTermDepth() {
+        return this.maxTermDepth;
+    }
+
+    /**
+     * Checks whether a {@link Primitive} exceeds the 
+     * term budget set with {@link #setTermBudget(int, int)}.
+     * Runs in constant time.
+     * 
+     * @param p a {@link Primitive}.
+     * @return {@code true} iff {@code p} has more nodes than
+     *         the maximum term size, or is deeper than the maximum 
+     *         term depth.
+     */
+    public boolean exceedsTermBudget(Primitive p) {
+        return ((this.maxTermSize > 0 && p.size() > this.maxTermSize) ||
+                (this.maxTermDepth > 0 && p.depth() > this.maxTermDepth));
+    }
+
+    /**
+     * Abstracts a numeric term that exceeds the term budget 
+     * set with {@link #setTermBudget(int, int)}.
+     * 
+     * @param term a {@link Primitive}.
+     * @param symbolFactory the {@link SymbolFactory} that must
+     *        create the abstraction.
+     * @param assumption a {@link Consumer}{@code <}{@link Primitive}{@code >}; 
+     *        if {@code term} is abstracted, it is passed the equality 
+     *        between the abstraction and {@code term}, that the caller 
+     *        must assume. 
+     * @return {@code term} if it is not numeric or does not exceed the
+     *         term budget, otherwise a fresh {@link PrimitiveSymbolic}
+     *         created by {@code symbolFactory}.
+     */
+    public Primitive abstractIfOverBudget(Primitive term, SymbolFactory symbolFactory, Consumer<Primitive> assumption) {
+        if (term.getType() == BOOLEAN || !exceedsTermBudget(term)) {
+            return term;
+        }
+        final PrimitiveSymbolic symbol = symbolFactory.createSymbolTermAbstraction(term);
+        try {
+            assumption.accept(symbol.eq(term));
+        } catch (InvalidOperandException | InvalidTypeException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+        return symbol;
+    }
+
     /**
      * Factory method for values with type {@link Any}.
      * 
@@ -1,6 +1,7 @@
 package jbse.val;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import jbse.common.Type;
@@ -29,6 +30,12 @@ public final class Expression extends Primitive {
     /** The string representation of this object. */
     private final String toString;
 
+    /** The size of this expression. */
+    private final int size;
+
+    /** The depth of this expression. */
+    private final int depth;
+
     /**
      * Factory method for verbatim expressions (binary).
      * 
@@ -107,6 +114,8 @@ public final class Expression extends Primitive {
         this.firstOp = firstOperand;
         this.operator = operator;
         this.secondOp = secondOperand;
+        this.size = sizeOf(firstOperand, secondOperand);
+        this.depth = depthOf(firstOperand, secondOperand);
 
         //calculates hashCode
         final int prime = 271;
@@ -222,36 +231,87 @@ public final class Expression extends Primitive {
             return this;
         }
 
-        final Primitive first;
-        if (isUnary()) {
-            first = null;
-        } else if (this.firstOp.equals(from)) {
-            first = to;
-        } else if (this.firstOp instanceof Expression) {
-            first = ((Expression) this.firstOp).replace(from, to);
-        } else {
-            first = this.firstOp;
-        }
+        final PrimitiveTraversal<Primitive, InvalidOperandException> replacer = new PrimitiveTraversal<Primitive, InvalidOperandException>() {
+            @Override
+            protected Primitive[] children(Primitive p) {
+                //descends only through the operands that are 
+                //expressions and must not be replaced
+                final Expression e = (Expression) p;
+                final boolean visitFirst = (!e.isUnary() && mustVisit(e.firstOp));
+                final boolean visitSecond = mustVisit(e.secondOp);
+                if (visitFirst && visitSecond) {
+                    return new Primitive[] { e.firstOp, e.secondOp };
+                } else if (visitFirst) {
+                    return new Primitive[] { e.firstOp };
+                } else if (visitSecond) {
+                    return new Primitive[] { e.secondOp };
+                } else {
+                    return null;
+                }
+            }
+            
+            private boolean mustVisit(Primitive operand) {
+                return (operand instanceof Expression && !operand.equals(from));
+            }
 
-        final Primitive second;
-        if (this.secondOp.equals(from)) {
-            second = to;
-        } else if (this.secondOp instanceof Expression) {
-            second = ((Expression) this.secondOp).replace(from, to);
-        } else {
-            second = this.secondOp;
-        }
+            @Override
+            protected Primitive visitExpression(Expression e, List<Primitive> operandsReplaced) 
+            throws InvalidOperandException {
+                int i = 0;
+                final Primitive first;
+                if (e.isUnary()) {
+                    first = null;
+                } else if (e.firstOp.equals(from)) {
+                    first = to;
+                } else if (e.firstOp instanceof Expression) {
+                    first = operandsReplaced.get(i++);
+                } else {
+                    first = e.firstOp;
+                }
+                
+                final Primitive second;
+                if (e.secondOp.equals(from)) {
+                    second = to;
+                } else if (e.secondOp instanceof Expression) {
+                    second = operandsReplaced.get(i);
+                } else {
+                    second = e.secondOp;
+                }
 
-        try {
-            if (isUnary()) {
-                return this.calc.applyUnary(this.operator, second); //TODO possible bug! Here rewriting is applied!
-            } else {
-                return this.calc.applyBinary(first, this.operator, second);//TODO possible bug! Here rewriting is applied!
+                try {
+                    if (e.isUnary()) {
+                        return e.calc.applyUnary(e.operator, second); //TODO possible bug! Here rewriting is applied!
+                    } else {
+                        return e.calc.applyBinary(first, e.operator, second); //TODO possible bug! Here rewriting is applied!
+                    }
+                } catch (InvalidOperatorException | InvalidTypeException exc) {
+                    //this should never happen
+                    throw new UnexpectedInternalException(exc);
+                }
             }
-        } catch (InvalidOperatorException | InvalidTypeException e) {
-            //this should never happen
-            throw new UnexpectedInternalException(e);
-        }
+
+            @Override 
+            protected Primitive visitAny(Any x, List<Primitive> children) { return x; }
+
+            @Override 
+            protected Primitive visitFunctionApplication(FunctionApplication x, List<Primitive> children) { return x; }
+
+            @Override 
+            protected Primitive visitPrimitiveSymbolic(PrimitiveSymbolic s, List<Primitive> children) { return s; }
+
+            @Override 
+            protected Primitive visitSimplex(Simplex x, List<Primitive> children) { return x; }
+
+            @Override 
+            protected Primitive visitTerm(Term x, List<Primitive> children) { return x; }
+
+            @Override 
+            protected Primitive visitNarrowingConversion(NarrowingConversion x, List<Primitive> children) { return x; }
+
+            @Override 
+            protected Primitive visitWideningConversion(WideningConversion x, List<Primitive> children) { return x; }
+        };
+        return replacer.traverse(this);
     }
 
     /**
@@ -319,6 +379,22 @@ public final class Expression extends Primitive {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int depth() {
+        return this.depth;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -358,6 +434,9 @@ public final class Expression extends Primitive {
             return false;
         }
         Expression other = (Expression) obj;
+        if (this.hashCode != other.hashCode) {
+            return false;
+        }
         if (firstOp == null) {
             if (other.firstOp != null) {
                 return false;
@@ -66,6 +66,12 @@ public final class FunctionApplication extends Primitive {
     /** The string representation of this object. */
     private final String toString;
 
+    /** The size of this function application. */
+    private final int size;
+
+    /** The depth of this function application. */
+    private final int depth;
+
     /**
      * Constructor. 
      * 
@@ -88,6 +94,8 @@ public final class FunctionApplication extends Primitive {
             }
             ++i;
         }
+        this.size = sizeOf(this.args);
+        this.depth = depthOf(this.args);
 
         //calculates hash code
         final int prime = 191;
@@ -189,6 +197,22 @@ public final class FunctionApplication extends Primitive {
         throw new ValueDoesNotSupportNativeException();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int depth() {
+        return this.depth;
+    }
+
     /**
      * {@inheritDoc}
      */
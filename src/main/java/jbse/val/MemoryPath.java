@@ -33,6 +33,10 @@ public final class MemoryPath implements Iterable<Access> {
         return new MemoryPath(new AccessLocalVariable(variableName));
     }
     
+    public static MemoryPath mkTermAbstraction(int id, Primitive term) {
+        return new MemoryPath(new AccessTermAbstraction(id, term));
+    }
+    
     public MemoryPath thenField(String fieldName) {
         return new MemoryPath(Stream.concat(Arrays.stream(this.accesses), Stream.of(new AccessField(fieldName))).toArray(Access[]::new));
     }
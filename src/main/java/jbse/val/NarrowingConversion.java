@@ -16,6 +16,8 @@ public final class NarrowingConversion extends Primitive {
     private final Primitive arg;
     private final String toString;
     private final int hashCode;
+    private final int size;
+    private final int depth;
 
     private NarrowingConversion(char type, Calculator calc, Primitive arg) 
     throws InvalidOperandException, InvalidTypeException {
@@ -29,6 +31,8 @@ public final class NarrowingConversion extends Primitive {
             throw new InvalidTypeException("cannot narrow type " + arg.getType() + " to type " + type);
         }
         this.arg = arg;
+        this.size = sizeOf(arg);
+        this.depth = depthOf(arg);
 
         //calculates hashCode
         final int prime = 311;
@@ -75,6 +79,16 @@ public final class NarrowingConversion extends Primitive {
         throw new ValueDoesNotSupportNativeException();
     }
 
+    @Override
+    int size() {
+        return this.size;
+    }
+
+    @Override
+    int depth() {
+        return this.depth;
+    }
+
     @Override
     public String toString() {
         return this.toString;
@@ -28,6 +28,64 @@ public abstract class Primitive extends Value implements Cloneable {
         this.calc = calc;
     }
 
+    /**
+     * Returns the size of this {@link Primitive}, i.e., the number
+     * of the nodes in its syntax tree (shared subterms are counted
+     * once per occurrence).
+     * 
+     * @return a positive {@code int}, saturating at
+     *         {@link Integer#MAX_VALUE}.
+     */
+    int size() {
+        return 1;
+    }
+
+    /**
+     * Returns the depth of this {@link Primitive}, i.e., the
+     * length of the longest path from the root to a leaf
+     * of its syntax tree.
+     * 
+     * @return a positive {@code int}.
+     */
+    int depth() {
+        return 1;
+    }
+
+    /**
+     * Adds the sizes of some {@link Primitive}s, 
+     * saturating at {@link Integer#MAX_VALUE}.
+     * 
+     * @param ps a varargs of {@link Primitive}s.
+     * @return the sum of the {@link #size()}s of {@code ps}, 
+     *         plus one (the root node).
+     */
+    static int sizeOf(Primitive... ps) {
+        long retVal = 1;
+        for (Primitive p : ps) {
+            if (p != null) {
+                retVal += p.size();
+            }
+        }
+        return (int) Math.min(retVal, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the depth of a node with some children.
+     * 
+     * @param ps a varargs of {@link Primitive}s, the children.
+     * @return the maximum of the {@link #depth()}s of {@code ps}, 
+     *         plus one (the root node).
+     */
+    static int depthOf(Primitive... ps) {
+        int retVal = 0;
+        for (Primitive p : ps) {
+            if (p != null) {
+                retVal = Math.max(retVal, p.depth());
+            }
+        }
+        return (retVal == Integer.MAX_VALUE ? retVal : retVal + 1);
+    }
+
     /**
      * Accepts a {@link PrimitiveVisitor}.
      * 
@@ -0,0 +1,207 @@
+package jbse.val;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * A post-order traversal of a {@link Primitive}, performed with
+ * an explicit stack rather than by recursion through
+ * {@link Primitive#accept(PrimitiveVisitor) accept}. The traversal
+ * first computes the results of all the children of a node,
+ * then calls the suitable {@code visitXXX} method passing it
+ * the children results. Every node reachable from the
+ * traversed {@link Primitive} is visited at most once,
+ * its result being cached and reused when the same node is
+ * reached through another path, so the visit of a {@link Primitive}
+ * with shared subterms takes time linear in the number of its
+ * distinct nodes, and stack space independent from its depth.
+ *
+ * @author Pietro Braione
+ *
+ * @param <R> the type of the result of visiting a node.
+ * @param <E> the type of the exceptions that may be raised
+ *        while visiting a node.
+ */
+public abstract class PrimitiveTraversal<R, E extends Exception> {
+    private static final Primitive[] NO_CHILDREN = new Primitive[0];
+
+    /**
+     * Caches the results of the visited nodes, by identity
+     * (we want to avoid the deep {@code equals} of
+     * {@link Expression}s and {@link FunctionApplication}s).
+     */
+    private final IdentityHashMap<Primitive, R> results = new IdentityHashMap<>();
+
+    /** The nodes whose children are being visited. */
+    private final ArrayList<Primitive> stackNodes = new ArrayList<>();
+
+    /** The children of the nodes in {@link #stackNodes}. */
+    private final ArrayList<Primitive[]> stackChildren = new ArrayList<>();
+
+    /**
+     * The index of the next child to visit of the nodes
+     * in {@link #stackNodes}.
+     */
+    private int[] stackNext = new int[16];
+
+    /** The results of the visited children, not yet consumed by their parents. */
+    private final ArrayList<R> stackResults = new ArrayList<>();
+
+    /** Dispatches on the class of the visited node. */
+    private final Dispatcher dispatcher = new Dispatcher();
+
+    /**
+     * Visits a {@link Primitive}. The results of the nodes
+     * visited by a previous invocation of this method are
+     * forgotten. This method is not reentrant: the 
+     * {@code visitXXX} methods must not invoke it on the same 
+     * {@link PrimitiveTraversal} object.
+     *
+     * @param p the {@link Primitive} to visit. It must not be {@code null}.
+     * @return the result of visiting {@code p}.
+     * @throws E if some {@code visitXXX} method throws it.
+     */
+    public final R traverse(Primitive p) throws E {
+        this.results.clear();
+        this.stackNodes.clear();
+        this.stackChildren.clear();
+        this.stackResults.clear();
+        try {
+            push(p);
+            while (!this.stackNodes.isEmpty()) {
+                final int top = this.stackNodes.size() - 1;
+                final Primitive[] children = this.stackChildren.get(top);
+                final int next = this.stackNext[top];
+                if (next < children.length) {
+                    this.stackNext[top] = next + 1;
+                    final Primitive child = children[next];
+                    if (this.results.containsKey(child)) {
+                        this.stackResults.add(this.results.get(child));
+                    } else {
+                        push(child);
+                    }
+                } else {
+                    final Primitive node = this.stackNodes.remove(top);
+                    this.stackChildren.remove(top);
+                    final int nResults = this.stackResults.size();
+                    final List<R> childrenResults = this.stackResults.subList(nResults - children.length, nResults);
+                    final R result = this.dispatcher.dispatch(node, childrenResults);
+                    childrenResults.clear();
+                    this.results.put(node, result);
+                    this.stackResults.add(result);
+                }
+            }
+            return this.stackResults.get(0);
+        } finally {
+            this.results.clear();
+            this.stackNodes.clear();
+            this.stackChildren.clear();
+            this.stackResults.clear();
+        }
+    }
+
+    private void push(Primitive p) throws E {
+        final int top = this.stackNodes.size();
+        if (top == this.stackNext.length) {
+            final int[] stackNextNew = new int[2 * top];
+            System.arraycopy(this.stackNext, 0, stackNextNew, 0, top);
+            this.stackNext = stackNextNew;
+        }
+        final Primitive[] children = children(p);
+        this.stackNodes.add(p);
+        this.stackChildren.add(children == null ? NO_CHILDREN : children);
+        this.stackNext[top] = 0;
+    }
+
+    /**
+     * Returns the children of a node, i.e., the {@link Primitive}s
+     * that must be visited before the node is visited, and whose
+     * results are passed to the {@code visitXXX} method for the node.
+     * By default these are the operands of {@link Expression}s, the
+     * arguments of {@link FunctionApplication}s and the arguments of
+     * {@link WideningConversion}s and {@link NarrowingConversion}s.
+     * Subclasses may override this method to prune the traversal, or
+     * to visit {@link Primitive}s other than the direct subterms of
+     * the node.
+     *
+     * @param p a {@link Primitive}.
+     * @return a {@link Primitive}{@code []}, the children of {@code p}
+     *         in visit order; {@code null} is equivalent to no children.
+     * @throws E possibly.
+     */
+    protected Primitive[] children(Primitive p) throws E {
+        if (p instanceof Expression) {
+            final Expression e = (Expression) p;
+            if (e.isUnary()) {
+                return new Primitive[] { e.getOperand() };
+            } else {
+                return new Primitive[] { e.getFirstOperand(), e.getSecondOperand() };
+            }
+        } else if (p instanceof FunctionApplication) {
+            return ((FunctionApplication) p).getArgs();
+        } else if (p instanceof WideningConversion) {
+            return new Primitive[] { ((WideningConversion) p).getArg() };
+        } else if (p instanceof NarrowingConversion) {
+            return new Primitive[] { ((NarrowingConversion) p).getArg() };
+        } else {
+            return NO_CHILDREN;
+        }
+    }
+
+    protected abstract R visitAny(Any x, List<R> childrenResults) throws E;
+    protected abstract R visitExpression(Expression e, List<R> childrenResults) throws E;
+    protected abstract R visitFunctionApplication(FunctionApplication x, List<R> childrenResults) throws E;
+    protected abstract R visitPrimitiveSymbolic(PrimitiveSymbolic s, List<R> childrenResults) throws E;
+    protected abstract R visitSimplex(Simplex x, List<R> childrenResults) throws E;
+    protected abstract R visitTerm(Term x, List<R> childrenResults) throws E;
+    protected abstract R visitNarrowingConversion(NarrowingConversion x, List<R> childrenResults) throws E;
+    protected abstract R visitWideningConversion(WideningConversion x, List<R> childrenResults) throws E;
+
+    /**
+     * Redispatches to the {@code visitXXX} methods of
+     * the traversal.
+     *
+     * @author Pietro Braione
+     *
+     */
+    private final class Dispatcher implements PrimitiveVisitor {
+        private List<R> childrenResults;
+        private R result;
+
+        @SuppressWarnings("unchecked")
+        R dispatch(Primitive p, List<R> childrenResults) throws E {
+            this.childrenResults = childrenResults;
+            try {
+                p.accept(this);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                //only the visitXXX methods may throw
+                //checked exceptions, and they throw E
+                throw (E) e;
+            } finally {
+                this.childrenResults = null;
+            }
+            final R retVal = this.result;
+            this.result = null;
+            return retVal;
+        }
+
+        @Override public void visitAny(Any x) throws E { this.result = PrimitiveTraversal.this.visitAny(x, this.childrenResults); }
+
+        @Override public void visitExpression(Expression e) throws E { this.result = PrimitiveTraversal.this.visitExpression(e, this.childrenResults); }
+
+        @Override public void visitFunctionApplication(FunctionApplication x) throws E { this.result = PrimitiveTraversal.this.visitFunctionApplication(x, this.childrenResults); }
+
+        @Override public void visitPrimitiveSymbolic(PrimitiveSymbolic s) throws E { this.result = PrimitiveTraversal.this.visitPrimitiveSymbolic(s, this.childrenResults); }
+
+        @Override public void visitSimplex(Simplex x) throws E { this.result = PrimitiveTraversal.this.visitSimplex(x, this.childrenResults); }
+
+        @Override public void visitTerm(Term x) throws E { this.result = PrimitiveTraversal.this.visitTerm(x, this.childrenResults); }
+
+        @Override public void visitNarrowingConversion(NarrowingConversion x) throws E { this.result = PrimitiveTraversal.this.visitNarrowingConversion(x, this.childrenResults); }
+
+        @Override public void visitWideningConversion(WideningConversion x) throws E { this.result = PrimitiveTraversal.this.visitWideningConversion(x, this.childrenResults); }
+    }
+}
@@ -35,6 +35,24 @@ public final class SymbolFactory implements Cloneable {
         }
 	}
 	
+	/**
+	 * Creates a fresh symbol standing for a term.
+	 * 
+	 * @param term a {@link Primitive}, the abstracted term.
+	 * @return a {@link PrimitiveSymbolic} with same type as {@code term}, 
+	 *         whose origin is an {@link AccessTermAbstraction} 
+	 *         to {@code term}.
+	 */
+	public PrimitiveSymbolic createSymbolTermAbstraction(Primitive term) {
+		try {
+			final int id = this.getNextIdPrimitiveSymbolic();
+			return new PrimitiveSymbolic(id, term.getType(), MemoryPath.mkTermAbstraction(id, term), this.calc);
+		} catch (InvalidTypeException e) {
+			//this should never happen
+			throw new UnexpectedInternalException(e);
+		}
+	}
+	
 	private int getNextIdPrimitiveSymbolic() {
 		final int retVal = this.nextIdPrimSym++;
 		return retVal;
@@ -0,0 +1,100 @@
+package jbse.algo;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.algo.Algo_INVOKEX_Abstract.CallSite;
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+
+public class CallSiteTest {
+    //hier/A inherits the default method d from the interface hier/D
+    private static final Signature SIGNATURE_A_D = new Signature("hier/A", "()V", "d");
+
+    private ClassHierarchy hier;
+    private ClassFile cf_A, cf_D;
+
+    private static ClassHierarchy makeHierarchy() throws Exception {
+        final ArrayList<String> userPaths = new ArrayList<>();
+        userPaths.add("src/test/resources/jbse/bc/testdata");
+        final Classpath cp = new Classpath(System.getProperty("java.home"), Collections.emptyList(), userPaths);
+        return new ClassHierarchy(cp, ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.hier = makeHierarchy();
+        this.cf_A = this.hier.loadCreateClass(CLASSLOADER_APP, "hier/A", true);
+        this.cf_D = this.hier.resolveMethod(this.cf_A, SIGNATURE_A_D, false, true);
+    }
+
+    @Test
+    public void testUnresolved() {
+        final CallSite site = new CallSite();
+        assertNull(site.getMethodResolvedClass(this.cf_A));
+        assertNull(site.getMethodResolvedClass(null));
+    }
+
+    @Test
+    public void testInheritedMethodHits() {
+        //A.d resolves to the method declared in D
+        assertEquals("hier/D", this.cf_D.getClassName());
+        assertFalse(this.cf_A.hasMethodDeclaration(SIGNATURE_A_D));
+
+        final CallSite site = new CallSite();
+        site.setMethodResolvedClass(this.cf_A, this.cf_D);
+        assertSame(this.cf_D, site.getMethodResolvedClass(this.cf_A));
+        assertSame(this.cf_D, site.getMethodResolvedClass(this.cf_A));
+    }
+
+    @Test
+    public void testRedefinedClassMisses() throws Exception {
+        final CallSite site = new CallSite();
+        site.setMethodResolvedClass(this.cf_A, this.cf_D);
+
+        //another hierarchy loads different classfiles with the same names
+        final ClassHierarchy hierOther = makeHierarchy();
+        final ClassFile cf_AOther = hierOther.loadCreateClass(CLASSLOADER_APP, "hier/A", true);
+        assertEquals(this.cf_A.getClassName(), cf_AOther.getClassName());
+        assertNotSame(this.cf_A, cf_AOther);
+        assertNull(site.getMethodResolvedClass(cf_AOther));
+
+        final ClassFile cf_DOther = hierOther.resolveMethod(cf_AOther, SIGNATURE_A_D, false, true);
+        assertNotSame(this.cf_D, cf_DOther);
+        site.setMethodResolvedClass(cf_AOther, cf_DOther);
+        assertSame(cf_DOther, site.getMethodResolvedClass(cf_AOther));
+        assertNull(site.getMethodResolvedClass(this.cf_A));
+    }
+
+    @Test
+    public void testHeldByClass() throws Exception {
+        final CallSite site = Algo_INVOKEX_Abstract.callSite(this.cf_A, 0, SIGNATURE_A_D);
+        assertSame(site, Algo_INVOKEX_Abstract.callSite(this.cf_A, 0, SIGNATURE_A_D));
+        assertNotSame(site, Algo_INVOKEX_Abstract.callSite(this.cf_A, 2, SIGNATURE_A_D));
+        assertFalse(this.cf_A.getCallSiteCache().isEmpty());
+
+        //another hierarchy loads a different classfile, that has its own call sites
+        final ClassFile cf_AOther = makeHierarchy().loadCreateClass(CLASSLOADER_APP, "hier/A", true);
+        assertNotSame(site, Algo_INVOKEX_Abstract.callSite(cf_AOther, 0, SIGNATURE_A_D));
+    }
+
+    @Test
+    public void testResolutionInvalidatesImpl() {
+        final CallSite site = new CallSite();
+        site.setMethodResolvedClass(this.cf_A, this.cf_D);
+        site.receiverClass = this.cf_A;
+        site.methodImplClass = this.cf_D;
+        site.setMethodResolvedClass(this.cf_A, this.cf_D);
+        assertNull(site.methodImplClass);
+    }
+}
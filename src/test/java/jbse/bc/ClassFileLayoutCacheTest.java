@@ -0,0 +1,125 @@
+package jbse.bc;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ClassFileLayoutCacheTest {
+    static class Circle {
+        int radius;
+
+        int area() { return 3 * this.radius * this.radius; }
+    }
+
+    static class Unrelated { }
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path classes;
+    private Path cacheDirectory;
+
+    private static String name(Class<?> clazz) {
+        return clazz.getName().replace('.', '/');
+    }
+
+    private byte[] copyClass(Class<?> clazz) throws Exception {
+        final Path source = Paths.get(clazz.getResource(clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class").toURI());
+        final Path target = this.classes.resolve(name(clazz) + ".class");
+        Files.createDirectories(target.getParent());
+        Files.copy(source, target);
+        return Files.readAllBytes(target);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.classes = this.tmp.newFolder("classes").toPath();
+        this.cacheDirectory = this.tmp.getRoot().toPath().resolve("cache");
+    }
+
+    private static void assertLayoutEquals(ClassFileLazy.Layout expected, ClassFileLazy.Layout actual) {
+        assertNotNull(actual);
+        assertArrayEquals(expected.cpOffsets, actual.cpOffsets);
+        assertEquals(expected.interfacesOffset, actual.interfacesOffset);
+        assertArrayEquals(expected.fieldsOffsets, actual.fieldsOffsets);
+        assertArrayEquals(expected.methodsOffsets, actual.methodsOffsets);
+        assertEquals(expected.attributesOffset, actual.attributesOffset);
+    }
+
+    @Test
+    public void testSavedAndReused() throws Exception {
+        final byte[] bytecode = copyClass(Circle.class);
+        final ClassFileLazy.Layout layout = ClassFileLazy.Layout.of(name(Circle.class), bytecode);
+        final ClassFileLayoutCache cache = new ClassFileLayoutCache(this.cacheDirectory);
+        assertNull(cache.get(this.classes.toString(), name(Circle.class), bytecode));
+        cache.put(this.classes.toString(), name(Circle.class), bytecode, layout);
+        cache.save();
+
+        final ClassFileLayoutCache cacheNew = new ClassFileLayoutCache(this.cacheDirectory);
+        final ClassFileLazy.Layout layoutSaved = cacheNew.get(this.classes.toString(), name(Circle.class), bytecode);
+        assertLayoutEquals(layout, layoutSaved);
+        final ClassFile cf = new ClassFileLazy(CLASSLOADER_APP, name(Circle.class), bytecode, layoutSaved, null, null);
+        assertEquals(name(Circle.class), cf.getClassName());
+        assertEquals(layout.fieldsOffsets.length, cf.getDeclaredFields().length);
+    }
+
+    @Test
+    public void testNotReusedWhenPathChanges() throws Exception {
+        final byte[] bytecode = copyClass(Circle.class);
+        final ClassFileLayoutCache cache = new ClassFileLayoutCache(this.cacheDirectory);
+        cache.put(this.classes.toString(), name(Circle.class), bytecode, ClassFileLazy.Layout.of(name(Circle.class), bytecode));
+        cache.save();
+
+        //adding a class changes the fingerprint of the path
+        copyClass(Unrelated.class);
+        assertNull(new ClassFileLayoutCache(this.cacheDirectory).get(this.classes.toString(), name(Circle.class), bytecode));
+    }
+
+    @Test
+    public void testNotReusedForOtherBytecode() throws Exception {
+        final byte[] bytecode = copyClass(Circle.class);
+        final ClassFileLayoutCache cache = new ClassFileLayoutCache(this.cacheDirectory);
+        cache.put(this.classes.toString(), name(Circle.class), bytecode, ClassFileLazy.Layout.of(name(Circle.class), bytecode));
+        assertNull(cache.get(this.classes.toString(), name(Circle.class), new byte[bytecode.length + 1]));
+        assertNull(cache.get(this.classes.toString(), name(Unrelated.class), bytecode));
+    }
+
+    @Test
+    public void testNotSavedForOtherPaths() throws Exception {
+        final byte[] bytecode = copyClass(Circle.class);
+        final ClassFileLayoutCache cache = new ClassFileLayoutCache(this.cacheDirectory);
+        final String notAPath = this.classes.resolve("missing.jar").toString();
+        cache.put(notAPath, name(Circle.class), bytecode, ClassFileLazy.Layout.of(name(Circle.class), bytecode));
+        assertNull(cache.get(notAPath, name(Circle.class), bytecode));
+        cache.save();
+        assertFalse(Files.exists(this.cacheDirectory));
+    }
+
+    @Test
+    public void testFactoryLoadsSaved() throws Exception {
+        final byte[] bytecode = copyClass(Circle.class);
+        final ClassFileFactoryLazy f = new ClassFileFactoryLazy(new ClassFileLayoutCache(this.cacheDirectory));
+        f.foundIn(name(Circle.class), bytecode, this.classes.toString());
+        assertNotNull(f.parsedAhead.get(bytecode));
+        f.close();
+
+        //a later run finds the layout saved by the earlier one
+        final byte[] bytecodeNew = Files.readAllBytes(this.classes.resolve(name(Circle.class) + ".class"));
+        final ClassFileLayoutCache cacheNew = new ClassFileLayoutCache(this.cacheDirectory);
+        final ClassFileLazy.Layout layoutSaved = cacheNew.get(this.classes.toString(), name(Circle.class), bytecodeNew);
+        assertNotNull(layoutSaved);
+        final ClassFileFactoryLazy fNew = new ClassFileFactoryLazy(cacheNew);
+        fNew.foundIn(name(Circle.class), bytecodeNew, this.classes.toString());
+        assertSame(layoutSaved, fNew.parsedAhead.get(bytecodeNew));
+        final ClassFile cf = fNew.newClassFileClass(CLASSLOADER_APP, name(Circle.class), bytecodeNew, null, null);
+        assertEquals(name(Circle.class), cf.getClassName());
+    }
+}
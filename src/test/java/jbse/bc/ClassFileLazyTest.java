@@ -0,0 +1,185 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jbse.bc.exc.InvalidIndexException;
+
+/**
+ * Checks that a {@link ClassFileLazy} answers all the queries
+ * exactly as a {@link ClassFileJavassist} for the same class file.
+ */
+public class ClassFileLazyTest {
+    private static final ClassFileFactory JAVASSIST = new ClassFileFactoryJavassist();
+    private static final ClassFileFactory LAZY = new ClassFileFactoryLazy();
+
+    private static List<Path> classFiles;
+
+    @FunctionalInterface
+    private interface Query {
+        Object ask(ClassFile cf) throws Exception;
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        //all the classes of JBSE, plus a test class
+        final Path classes = Paths.get(ClassFile.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        try (final Stream<Path> paths = Files.walk(classes)) {
+            classFiles = paths.filter(p -> p.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+        }
+        classFiles.add(Paths.get("src/test/resources/jbse/bc/testdata/tsafe/main/SimpleCalculator.class"));
+        assertTrue(classFiles.size() > 100);
+    }
+
+    private static Object answer(ClassFile cf, Query query) {
+        try {
+            final Object retVal = query.ask(cf);
+            if (retVal instanceof Object[]) {
+                return Arrays.asList((Object[]) retVal);
+            } else if (retVal instanceof ConstantPoolValue) {
+                return retVal.getClass().getName() + ":" + retVal;
+            } else if (retVal instanceof byte[]) {
+                return Arrays.toString((byte[]) retVal);
+            } else {
+                return retVal;
+            }
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+
+    private static void assertSameAnswer(String what, ClassFile expected, ClassFile actual, Query query) {
+        final Object expectedAnswer = answer(expected, query);
+        final Object actualAnswer = answer(actual, query);
+        if (expectedAnswer instanceof Class<?> && RuntimeException.class.isAssignableFrom((Class<?>) expectedAnswer)) {
+            //Javassist fails on some invalid inputs (e.g., the 
+            //unusable constant pool entries after longs and doubles)
+            //where the lazy class file detects them
+            assertTrue(expected.getClassName() + ": " + what, actualAnswer instanceof Class<?> && Exception.class.isAssignableFrom((Class<?>) actualAnswer));
+        } else {
+            assertEquals(expected.getClassName() + ": " + what, expectedAnswer, actualAnswer);
+        }
+    }
+
+    private static List<String> sorted(Signature[] signatures) {
+        return Arrays.stream(signatures).map(Signature::toString).sorted().collect(Collectors.toList());
+    }
+
+    private static List<String> rows(LineNumberTable table) {
+        final ArrayList<String> retVal = new ArrayList<>();
+        for (LineNumberTable.Row row : table) {
+            retVal.add(row.start + ":" + row.lineNumber);
+        }
+        return retVal;
+    }
+
+    private static List<String> rows(LocalVariableTable table) {
+        final ArrayList<String> retVal = new ArrayList<>();
+        for (LocalVariableTable.Row row : table) {
+            retVal.add(row.toString());
+        }
+        Collections.sort(retVal); //the rows of a slot are unordered
+        return retVal;
+    }
+
+    private static void assertSameClass(ClassFile expected, ClassFile actual) throws Exception {
+        assertSameAnswer("class name", expected, actual, ClassFile::getClassName);
+        assertSameAnswer("source file", expected, actual, ClassFile::getSourceFile);
+        assertSameAnswer("major version", expected, actual, ClassFile::getMajorVersion);
+        assertSameAnswer("minor version", expected, actual, ClassFile::getMinorVersion);
+        assertSameAnswer("modifiers", expected, actual, ClassFile::getModifiers);
+        assertSameAnswer("access flags", expected, actual, ClassFile::getAccessFlags);
+        assertSameAnswer("enum", expected, actual, ClassFile::isEnum);
+        assertSameAnswer("local", expected, actual, ClassFile::isLocal);
+        assertSameAnswer("anonymous", expected, actual, ClassFile::isAnonymous);
+        assertSameAnswer("container", expected, actual, ClassFile::classContainer);
+        assertSameAnswer("enclosing method", expected, actual, ClassFile::getEnclosingMethodOrConstructor);
+        assertSameAnswer("superclass", expected, actual, ClassFile::getSuperclassName);
+        assertSameAnswer("superinterfaces", expected, actual, ClassFile::getSuperInterfaceNames);
+        assertSameAnswer("constant pool size", expected, actual, ClassFile::constantPoolSize);
+        for (int index = 0; index <= expected.constantPoolSize(); ++index) {
+            final int i = index;
+            assertSameAnswer("constant pool value " + i, expected, actual, cf -> cf.getValueFromConstantPool(i));
+            assertSameAnswer("class signature " + i, expected, actual, cf -> cf.getClassSignature(i));
+            assertSameAnswer("field signature " + i, expected, actual, cf -> cf.getFieldSignature(i));
+            assertSameAnswer("method signature " + i, expected, actual, cf -> cf.getMethodSignature(i));
+            assertSameAnswer("interface method signature " + i, expected, actual, cf -> cf.getInterfaceMethodSignature(i));
+        }
+        assertSameAnswer("fields", expected, actual, cf -> sorted(cf.getDeclaredFields()));
+        assertSameAnswer("static fields", expected, actual, cf -> sorted(cf.getDeclaredFieldsStatic()));
+        assertSameAnswer("nonstatic fields", expected, actual, cf -> sorted(cf.getDeclaredFieldsNonStatic()));
+        for (Signature field : expected.getDeclaredFields()) {
+            assertSameAnswer(field + " declared", expected, actual, cf -> cf.hasFieldDeclaration(field));
+            assertSameAnswer(field + " modifiers", expected, actual, cf -> cf.getFieldModifiers(field));
+            assertSameAnswer(field + " generic type", expected, actual, cf -> cf.getFieldGenericSignatureType(field));
+            assertSameAnswer(field + " constant value", expected, actual, cf -> cf.hasFieldConstantValue(field) ? cf.fieldConstantValue(field) : null);
+            assertSameAnswer(field + " annotations", expected, actual, cf -> cf.getFieldAnnotationsRaw(field));
+        }
+        assertSameAnswer("constructors", expected, actual, cf -> sorted(cf.getDeclaredConstructors()));
+        assertSameAnswer("methods", expected, actual, cf -> sorted(cf.getDeclaredMethods()));
+        final List<String> exceptionTypes = new ArrayList<>();
+        exceptionTypes.add(Signatures.JAVA_THROWABLE);
+        for (int index = 1; index < expected.constantPoolSize(); ++index) {
+            try {
+                exceptionTypes.add(expected.getClassSignature(index));
+            } catch (InvalidIndexException e) {
+                //not a class
+            }
+        }
+        for (Signature method : expected.getDeclaredMethods()) {
+            assertSameAnswer(method + " declared", expected, actual, cf -> cf.hasMethodDeclaration(method));
+            assertSameAnswer(method + " implemented", expected, actual, cf -> cf.hasMethodImplementation(method));
+            assertSameAnswer(method + " modifiers", expected, actual, cf -> cf.getMethodModifiers(method));
+            assertSameAnswer(method + " varargs", expected, actual, cf -> cf.isMethodVarargs(method));
+            assertSameAnswer(method + " caller sensitive", expected, actual, cf -> cf.isMethodCallerSensitive(method));
+            assertSameAnswer(method + " signature polymorphic", expected, actual, cf -> cf.isMethodSignaturePolymorphic(method));
+            assertSameAnswer(method + " generic type", expected, actual, cf -> cf.getMethodGenericSignatureType(method));
+            assertSameAnswer(method + " thrown", expected, actual, cf -> cf.getMethodThrownExceptions(method));
+            assertSameAnswer(method + " annotations", expected, actual, cf -> cf.getMethodAnnotationsRaw(method));
+            assertSameAnswer(method + " available annotations", expected, actual, cf -> cf.getMethodAvailableAnnotations(method));
+            assertSameAnswer(method + " code", expected, actual, cf -> cf.getMethodCodeBySignature(method));
+            assertSameAnswer(method + " code length", expected, actual, cf -> cf.getCodeLength(method));
+            assertSameAnswer(method + " locals", expected, actual, cf -> cf.getLocalVariableLength(method));
+            assertSameAnswer(method + " stack", expected, actual, cf -> cf.getOperandStackLength(method));
+            assertSameAnswer(method + " line number table", expected, actual, cf -> rows(cf.getLineNumberTable(method)));
+            assertSameAnswer(method + " local variable table", expected, actual, cf -> rows(cf.getLocalVariableTable(method)));
+            assertSameAnswer(method + " exception table length", expected, actual, cf -> cf.getExceptionTable(method).getLength());
+            if (answer(expected, cf -> cf.getExceptionTable(method)) instanceof ExceptionTable) {
+                final ExceptionTable expectedTable = expected.getExceptionTable(method);
+                final ExceptionTable actualTable = actual.getExceptionTable(method);
+                for (int pc = 0; pc < expected.getCodeLength(method); ++pc) {
+                    final ExceptionTableEntry expectedEntry = expectedTable.getEntry(exceptionTypes, pc);
+                    final ExceptionTableEntry actualEntry = actualTable.getEntry(exceptionTypes, pc);
+                    if (expectedEntry == null) {
+                        assertNull(actualEntry);
+                    } else {
+                        assertEquals(expectedEntry.getType(), actualEntry.getType());
+                        assertEquals(expectedEntry.getPCHandle(), actualEntry.getPCHandle());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsJavassist() throws Exception {
+        for (Path classFile : classFiles) {
+            final byte[] bytecode = Files.readAllBytes(classFile);
+            final ClassFile expected = JAVASSIST.newClassFileClass(ClassLoaders.CLASSLOADER_APP, "dummy", bytecode, null, null);
+            final ClassFile actual = LAZY.newClassFileClass(ClassLoaders.CLASSLOADER_APP, "dummy", bytecode, null, null);
+            assertSameClass(expected, actual);
+        }
+    }
+}
@@ -52,7 +52,7 @@ public class ClassInitTest {
         final CalculatorRewriting calc = new CalculatorRewriting();
         calc.addRewriter(new RewriterOperationOnSimplex());
         final DecisionProcedureAlgorithms dec = new DecisionProcedureAlgorithms(new DecisionProcedureClassInit(new DecisionProcedureAlwSat(), calc, new ClassInitRulesRepo()), calc);
-        this.ctx = new ExecutionContext(null, true, 10, 10, cp, ClassFileFactoryJavassist.class, Collections.emptyMap(), calc, new DecisionAlternativeComparators(), new Signature("hier/A", "()V", "a"), dec, null, null, new TriggerRulesRepo());
+        this.ctx = new ExecutionContext(null, true, 10, 10, false, cp, ClassFileFactoryJavassist.class, Collections.emptyMap(), false, false, calc, new DecisionAlternativeComparators(), new Signature("hier/A", "()V", "a"), dec, null, null, new TriggerRulesRepo());
         this.state = this.ctx.createVirginPreInitialState();
     }
     
@@ -0,0 +1,130 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ClasspathTest {
+    private static final byte[] BYTECODE_A = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 1 };
+    private static final byte[] BYTECODE_B = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 2 };
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Classpath cp;
+
+    @After
+    public void tearDown() {
+        if (this.cp != null) {
+            this.cp.close();
+        }
+    }
+
+    private static void writeJar(File jar, String entryName, byte[] content) throws IOException {
+        try (final JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry(entryName));
+            out.write(content);
+            out.closeEntry();
+        }
+    }
+
+    private static void writeClass(File dir, String fileName, byte[] content) throws IOException {
+        final Path pathOfClass = dir.toPath().resolve(fileName);
+        Files.createDirectories(pathOfClass.getParent());
+        Files.write(pathOfClass, content);
+    }
+
+    @Test
+    public void testJar() throws Exception {
+        final File jar = new File(this.tmp.getRoot(), "a.jar");
+        writeJar(jar, "p/A.class", BYTECODE_A);
+        this.cp = new Classpath("", Collections.emptyList(), Collections.singletonList(jar.getPath()));
+        assertArrayEquals(BYTECODE_A, this.cp.findBytecode(jar.getPath(), "p/A"));
+        assertArrayEquals(BYTECODE_A, this.cp.findBytecode(jar.getPath(), "p/A"));
+        assertArrayEquals(BYTECODE_A, this.cp.clone().findBytecode(jar.getPath(), "p/A"));
+    }
+
+    @Test
+    public void testDirectory() throws Exception {
+        final File dir = this.tmp.newFolder("classes");
+        writeClass(dir, "p/A.class", BYTECODE_A);
+        this.cp = new Classpath("", Collections.emptyList(), Collections.singletonList(dir.getPath()));
+        final String path = this.cp.userClassPath().iterator().next();
+        assertArrayEquals(BYTECODE_A, this.cp.findBytecode(path, "p/A"));
+
+        //directories are not snapshotted
+        writeClass(dir, "p/B.class", BYTECODE_B);
+        assertArrayEquals(BYTECODE_B, this.cp.findBytecode(path, "p/B"));
+    }
+
+    @Test
+    public void testMissingEntry() throws Exception {
+        final File jar = new File(this.tmp.getRoot(), "a.jar");
+        writeJar(jar, "p/A.class", BYTECODE_A);
+        final File dir = this.tmp.newFolder("classes");
+        this.cp = new Classpath("", Collections.emptyList(), Arrays.asList(jar.getPath(), dir.getPath()));
+        for (String path : this.cp.userClassPath()) {
+            assertNull(this.cp.findBytecode(path, "p/Missing"));
+            assertNull(this.cp.findBytecode(path, "Missing"));
+        }
+    }
+
+    @Test
+    public void testMissingPathNotCached() throws Exception {
+        final File jar = new File(this.tmp.getRoot(), "late.jar");
+        final File dir = new File(this.tmp.getRoot(), "late");
+        this.cp = new Classpath("", Collections.emptyList(), Arrays.asList(jar.getPath(), dir.getPath()));
+        final String dirPath = dir.getPath() + "/";
+        assertNull(this.cp.findBytecode(jar.getPath(), "p/A"));
+        assertNull(this.cp.findBytecode(dirPath, "p/A"));
+
+        //the paths are found once they exist
+        writeJar(jar, "p/A.class", BYTECODE_A);
+        writeClass(dir, "p/A.class", BYTECODE_A);
+        assertArrayEquals(BYTECODE_A, this.cp.findBytecode(jar.getPath(), "p/A"));
+        assertArrayEquals(BYTECODE_A, this.cp.findBytecode(dirPath, "p/A"));
+    }
+
+    @Test
+    public void testUnreadableJarNotCached() throws Exception {
+        final File jar = new File(this.tmp.getRoot(), "bad.jar");
+        Files.write(jar.toPath(), new byte[] { 1, 2, 3 });
+        this.cp = new Classpath("", Collections.emptyList(), Collections.singletonList(jar.getPath()));
+        try {
+            this.cp.findBytecode(jar.getPath(), "p/A");
+            fail();
+        } catch (IOException e) {
+            //expected
+        }
+        writeJar(jar, "p/A.class", BYTECODE_A);
+        assertArrayEquals(BYTECODE_A, this.cp.findBytecode(jar.getPath(), "p/A"));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final File jar = new File(this.tmp.getRoot(), "a.jar");
+        writeJar(jar, "p/A.class", BYTECODE_A);
+        this.cp = new Classpath("", Collections.emptyList(), Collections.singletonList(jar.getPath()));
+        final Classpath clone = this.cp.clone();
+        assertArrayEquals(BYTECODE_A, clone.findBytecode(jar.getPath(), "p/A"));
+        this.cp.close();
+
+        //the jar file is reopened, also by the clones
+        writeJar(jar, "p/A.class", BYTECODE_B);
+        assertArrayEquals(BYTECODE_B, clone.findBytecode(jar.getPath(), "p/A"));
+        assertArrayEquals(BYTECODE_B, this.cp.findBytecode(jar.getPath(), "p/A"));
+    }
+}
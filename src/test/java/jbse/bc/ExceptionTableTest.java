@@ -0,0 +1,98 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ExceptionTableTest {
+    private static final List<String> TYPES = Arrays.asList("java/lang/Throwable", "java/lang/Exception", "java/lang/RuntimeException", "java/io/IOException");
+
+    /** The linear scan that {@link ExceptionTable#getEntry(List, int)} replaces. */
+    private static ExceptionTableEntry getEntryByScan(List<ExceptionTableEntry> entries, List<String> excTypes, int PC) {
+        for (ExceptionTableEntry tmpEntry : entries) {
+            if (excTypes.contains(tmpEntry.getType()) && 
+                (PC >= tmpEntry.getStartPC()) && 
+                (PC < tmpEntry.getEndPC())) {
+                return tmpEntry;
+            }
+        }
+        return null;
+    }
+
+    private static void assertSameAsScan(ExceptionTable table, List<ExceptionTableEntry> entries, int maxPC) {
+        final ArrayList<List<String>> typeLists = new ArrayList<>();
+        typeLists.add(Collections.emptyList());
+        for (String type : TYPES) {
+            typeLists.add(Collections.singletonList(type));
+        }
+        typeLists.add(TYPES);
+        typeLists.add(TYPES.subList(1, 3));
+        for (List<String> excTypes : typeLists) {
+            for (int PC = -2; PC <= maxPC; ++PC) {
+                assertSame("types " + excTypes + ", PC " + PC, getEntryByScan(entries, excTypes, PC), table.getEntry(excTypes, PC));
+            }
+        }
+    }
+
+    private static ExceptionTable table(List<ExceptionTableEntry> entries) {
+        final ExceptionTable retVal = new ExceptionTable(entries.size());
+        for (ExceptionTableEntry entry : entries) {
+            retVal.addEntry(entry);
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testEmpty() {
+        final ExceptionTable table = new ExceptionTable(0);
+        assertEquals(0, table.getLength());
+        assertNull(table.getEntry(TYPES, 0));
+        assertNull(table.getEntry(TYPES, -1));
+    }
+
+    @Test
+    public void testNestedFirstMatchWins() {
+        //try { try { ... } catch (IOException) { ... } } catch (Exception) { ... }
+        final ExceptionTableEntry inner = new ExceptionTableEntry(4, 10, 12, "java/io/IOException");
+        final ExceptionTableEntry outer = new ExceptionTableEntry(0, 20, 22, "java/lang/Exception");
+        final List<ExceptionTableEntry> entries = Arrays.asList(inner, outer);
+        final ExceptionTable table = table(entries);
+        assertSame(inner, table.getEntry(TYPES, 5));
+        assertSame(outer, table.getEntry(Collections.singletonList("java/lang/Exception"), 5));
+        assertSame(outer, table.getEntry(TYPES, 10));
+        assertNull(table.getEntry(TYPES, 20));
+        assertSameAsScan(table, entries, 30);
+    }
+
+    @Test
+    public void testAddEntryAfterLookup() {
+        final ExceptionTableEntry first = new ExceptionTableEntry(0, 5, 6, "java/lang/Exception");
+        final ExceptionTableEntry second = new ExceptionTableEntry(3, 15, 16, "java/lang/Throwable");
+        final ExceptionTable table = table(Collections.singletonList(first));
+        assertNull(table.getEntry(TYPES, 10));
+        table.addEntry(second);
+        assertSame(second, table.getEntry(TYPES, 10));
+        assertSameAsScan(table, Arrays.asList(first, second), 20);
+    }
+
+    @Test
+    public void testRandom() {
+        final Random random = new Random(12345);
+        for (int n = 0; n < 500; ++n) {
+            final int length = random.nextInt(8);
+            final ArrayList<ExceptionTableEntry> entries = new ArrayList<>();
+            for (int i = 0; i < length; ++i) {
+                final int start = random.nextInt(40);
+                final int end = start + random.nextInt(20); //possibly empty
+                entries.add(new ExceptionTableEntry(start, end, end + 1, TYPES.get(random.nextInt(TYPES.size()))));
+            }
+            assertSameAsScan(table(entries), entries, 70);
+        }
+    }
+}
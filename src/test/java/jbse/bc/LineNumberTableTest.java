@@ -0,0 +1,93 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LineNumberTableTest {
+    /** The linear scan that {@link LineNumberTable#getLineNumber(int)} replaces. */
+    private static int getLineNumberByScan(LineNumberTable lnt, int programCounter) {
+        int retVal = -1;
+        for (LineNumberTable.Row r : lnt) {
+            if (r.start > programCounter) {
+                break;
+            }
+            retVal = r.lineNumber;
+        }
+        return retVal;
+    }
+
+    private static void assertSameAsScan(LineNumberTable lnt, int maxProgramCounter) {
+        for (int programCounter = -2; programCounter <= maxProgramCounter; ++programCounter) {
+            assertEquals("program counter " + programCounter, getLineNumberByScan(lnt, programCounter), lnt.getLineNumber(programCounter));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        final LineNumberTable lnt = new LineNumberTable(0);
+        assertEquals(-1, lnt.getLineNumber(0));
+        assertEquals(-1, lnt.getLineNumber(10));
+    }
+
+    @Test
+    public void testSorted() {
+        final LineNumberTable lnt = new LineNumberTable(3);
+        lnt.addRow(0, 10);
+        lnt.addRow(4, 11);
+        lnt.addRow(9, 13);
+        assertEquals(10, lnt.getLineNumber(0));
+        assertEquals(10, lnt.getLineNumber(3));
+        assertEquals(11, lnt.getLineNumber(4));
+        assertEquals(13, lnt.getLineNumber(9));
+        assertEquals(13, lnt.getLineNumber(100));
+        assertSameAsScan(lnt, 20);
+    }
+
+    @Test
+    public void testFirstRowAfterStart() {
+        final LineNumberTable lnt = new LineNumberTable(2);
+        lnt.addRow(5, 20);
+        lnt.addRow(8, 21);
+        assertEquals(-1, lnt.getLineNumber(4));
+        assertEquals(20, lnt.getLineNumber(5));
+        assertSameAsScan(lnt, 20);
+    }
+
+    @Test
+    public void testUnsorted() {
+        //the rows of a loop body may come after the rows of its condition
+        final LineNumberTable lnt = new LineNumberTable(4);
+        lnt.addRow(0, 1);
+        lnt.addRow(12, 4);
+        lnt.addRow(6, 2);
+        lnt.addRow(9, 3);
+        assertSameAsScan(lnt, 20);
+    }
+
+    @Test
+    public void testAddRowAfterLookup() {
+        final LineNumberTable lnt = new LineNumberTable(3);
+        lnt.addRow(0, 1);
+        lnt.addRow(5, 2);
+        assertEquals(2, lnt.getLineNumber(7));
+        lnt.addRow(7, 3);
+        assertEquals(3, lnt.getLineNumber(7));
+        assertSameAsScan(lnt, 10);
+    }
+
+    @Test
+    public void testRandom() {
+        final Random random = new Random(12345);
+        for (int n = 0; n < 500; ++n) {
+            final int rows = random.nextInt(10);
+            final LineNumberTable lnt = new LineNumberTable(rows);
+            for (int i = 0; i < rows; ++i) {
+                lnt.addRow(random.nextInt(50), random.nextInt(1000));
+            }
+            assertSameAsScan(lnt, 60);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package jbse.bc;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static jbse.bc.ClassLoaders.CLASSLOADER_BOOT;
+import static org.junit.Assert.*;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassHierarchy.FindBytecodeResult;
+import jbse.bc.ClassHierarchy.Prefetcher;
+
+public class PrefetcherTest {
+    static class Referred1 { }
+
+    static class Referred2 { }
+
+    static class Referred3 { }
+
+    static class Unreferred { }
+
+    static class Referrer {
+        Object m(Object o) {
+            new Referred1();
+            final Object a = new Referred3[1];
+            return (o == null ? a : (Referred2) o);
+        }
+    }
+
+    private static final String[] NAMES = { name(Referred1.class), name(Referred2.class), name(Referred3.class), name(Unreferred.class), "java/lang/Object" };
+
+    /**
+     * A {@link ClassFileFactory} that records the bytecodes
+     * it is asked to parse ahead.
+     */
+    public static final class ClassFileFactoryRecording extends ClassFileFactoryJavassist {
+        final ConcurrentLinkedQueue<byte[]> recorded = new ConcurrentLinkedQueue<>();
+
+        @Override
+        protected void parseAhead(byte[] bytecode) {
+            this.recorded.add(bytecode);
+            super.parseAhead(bytecode);
+        }
+    }
+
+    private Classpath cp;
+    private ClassFileFactoryRecording f;
+
+    private static String name(Class<?> clazz) {
+        return clazz.getName().replace('.', '/');
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final String testClasses = Paths.get(PrefetcherTest.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        this.cp = new Classpath("", Collections.emptyList(), Collections.singletonList(testClasses));
+        this.f = new ClassFileFactoryRecording();
+    }
+
+    private byte[] bytecodeOfReferrer() throws Exception {
+        return ClassHierarchy.findBytecode(this.cp, name(Referrer.class), CLASSLOADER_APP).bytecode;
+    }
+
+    private static FutureTask<FindBytecodeResult> takeWhenStaged(Prefetcher prefetcher, String className, int loader) throws Exception {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        FutureTask<FindBytecodeResult> retVal;
+        while ((retVal = prefetcher.take(className, loader)) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return retVal;
+    }
+
+    private static void assertSameResult(FindBytecodeResult expected, FindBytecodeResult actual) {
+        if (expected == null) {
+            assertNull(actual);
+        } else {
+            assertNotNull(actual);
+            assertArrayEquals(expected.bytecode, actual.bytecode);
+            assertEquals(expected.loadedFrom, actual.loadedFrom);
+        }
+    }
+
+    @Test
+    public void testPrefetchOnSameAsOff() throws Exception {
+        final Prefetcher prefetcher = new Prefetcher(this.cp, this.f, 100);
+        prefetcher.prefetchReferredBy(name(Referrer.class), bytecodeOfReferrer(), CLASSLOADER_APP);
+        for (String className : NAMES) {
+            for (int loader = CLASSLOADER_BOOT; loader <= CLASSLOADER_APP; ++loader) {
+                final FindBytecodeResult off = ClassHierarchy.findBytecode(this.cp, className, loader);
+                if (className.equals(name(Unreferred.class))) {
+                    assertNull(prefetcher.take(className, loader));
+                    continue;
+                }
+                final FutureTask<FindBytecodeResult> on = takeWhenStaged(prefetcher, className, loader);
+                assertNotNull(className + " was not prefetched", on);
+                assertSameResult(off, on.get());
+                assertSame(on, prefetcher.take(className, loader)); //still available to the clones
+            }
+        }
+    }
+
+    @Test
+    public void testFoundBytecodeParsedAhead() throws Exception {
+        final Prefetcher prefetcher = new Prefetcher(this.cp, this.f, 100);
+        prefetcher.prefetchReferredBy(name(Referrer.class), bytecodeOfReferrer(), CLASSLOADER_APP);
+        final FindBytecodeResult found = takeWhenStaged(prefetcher, name(Referred1.class), CLASSLOADER_APP).get();
+        assertNotNull(found);
+        assertTrue(this.f.recorded.contains(found.bytecode));
+    }
+
+    @Test
+    public void testShippedFactoriesUseParsedAhead() throws Exception {
+        final ClassFileFactoryJavassist fJavassist = new ClassFileFactoryJavassist();
+        final ClassFileFactoryLazy fLazy = new ClassFileFactoryLazy();
+        final byte[] bytecode = bytecodeOfReferrer();
+
+        //parses ahead in another thread, as the prefetcher does
+        final Thread parser = new Thread(() -> {
+            fJavassist.parseAhead(bytecode);
+            fLazy.parseAhead(bytecode);
+        });
+        parser.start();
+        parser.join();
+        final javassist.bytecode.ClassFile parsedJavassist = fJavassist.parsedAhead.get(bytecode);
+        final ClassFileLazy.Layout parsedLazy = fLazy.parsedAhead.get(bytecode);
+        assertNotNull(parsedJavassist);
+        assertNotNull(parsedLazy);
+        assertNull(fLazy.parsedAhead.get(bytecode.clone())); //bytecodes are compared by identity
+
+        //the classfiles created from the parsed bytecode are the same as without parsing ahead
+        final ClassFile cfJavassist = fJavassist.newClassFileClass(CLASSLOADER_APP, name(Referrer.class), bytecode, null, null);
+        final ClassFile cfLazy = fLazy.newClassFileClass(CLASSLOADER_APP, name(Referrer.class), bytecode, null, null);
+        final ClassFile cfExpected = new ClassFileFactoryLazy().newClassFileClass(CLASSLOADER_APP, name(Referrer.class), bytecode, null, null);
+        assertEquals(name(Referrer.class), cfJavassist.getClassName());
+        assertEquals(name(Referrer.class), cfLazy.getClassName());
+        assertArrayEquals(cfExpected.getDeclaredMethods(), cfJavassist.getDeclaredMethods());
+        assertArrayEquals(cfExpected.getDeclaredMethods(), cfLazy.getDeclaredMethods());
+        assertEquals(cfExpected.getSuperclassName(), cfLazy.getSuperclassName());
+    }
+
+    @Test
+    public void testPrefetchedParsedAheadByShippedFactory() throws Exception {
+        final ClassFileFactoryLazy fLazy = new ClassFileFactoryLazy();
+        final Prefetcher prefetcher = new Prefetcher(this.cp, fLazy, 100);
+        try {
+            prefetcher.stage(name(Referred1.class), CLASSLOADER_APP);
+            final FindBytecodeResult found = takeWhenStaged(prefetcher, name(Referred1.class), CLASSLOADER_APP).get();
+            assertNotNull(found);
+            assertNotNull(fLazy.parsedAhead.get(found.bytecode));
+        } finally {
+            prefetcher.close();
+        }
+    }
+
+    @Test
+    public void testParsedAheadBounded() {
+        final ParsedAheadCache<String> cache = new ParsedAheadCache<>(2);
+        final byte[] first = new byte[0], second = new byte[0], third = new byte[0];
+        cache.put(first, "first");
+        cache.put(second, "second");
+        assertEquals("first", cache.get(first)); //now second is the least recently used
+        cache.put(third, "third");
+        assertEquals(2, cache.size());
+        assertEquals("first", cache.get(first));
+        assertNull(cache.get(second));
+        assertEquals("third", cache.get(third));
+    }
+
+    @Test
+    public void testStagingBounded() throws Exception {
+        final Prefetcher prefetcher = new Prefetcher(this.cp, this.f, 2);
+        prefetcher.stage(name(Referred1.class), CLASSLOADER_APP);
+        prefetcher.stage(name(Referred2.class), CLASSLOADER_APP);
+        prefetcher.stage(name(Referred3.class), CLASSLOADER_APP);
+        assertEquals(2, prefetcher.staged(CLASSLOADER_APP));
+        assertNull(prefetcher.take(name(Referred1.class), CLASSLOADER_APP)); //dropped
+        assertNotNull(prefetcher.take(name(Referred2.class), CLASSLOADER_APP).get());
+        assertEquals(1, prefetcher.staged(CLASSLOADER_APP));
+
+        //taken classes are not staged again
+        final FutureTask<FindBytecodeResult> taken = prefetcher.take(name(Referred2.class), CLASSLOADER_APP);
+        prefetcher.stage(name(Referred2.class), CLASSLOADER_APP);
+        assertEquals(1, prefetcher.staged(CLASSLOADER_APP));
+        assertSame(taken, prefetcher.take(name(Referred2.class), CLASSLOADER_APP));
+
+        //dropped ones are
+        prefetcher.stage(name(Referred1.class), CLASSLOADER_APP);
+        prefetcher.stage(name(Unreferred.class), CLASSLOADER_APP);
+        assertEquals(2, prefetcher.staged(CLASSLOADER_APP));
+        assertNotNull(prefetcher.take(name(Referred1.class), CLASSLOADER_APP).get());
+        assertNotNull(prefetcher.take(name(Unreferred.class), CLASSLOADER_APP).get());
+        assertEquals(0, prefetcher.staged(CLASSLOADER_APP));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final Prefetcher prefetcher = new Prefetcher(this.cp, this.f, 100);
+        prefetcher.stage(name(Referred1.class), CLASSLOADER_APP);
+        prefetcher.close();
+        assertNull(prefetcher.take(name(Referred1.class), CLASSLOADER_APP));
+        assertEquals(0, prefetcher.staged(CLASSLOADER_APP));
+        
+        //nothing is prefetched afterwards
+        prefetcher.stage(name(Referred2.class), CLASSLOADER_APP);
+        prefetcher.prefetchReferredBy(name(Referrer.class), bytecodeOfReferrer(), CLASSLOADER_APP);
+        Thread.sleep(100);
+        assertNull(prefetcher.take(name(Referred1.class), CLASSLOADER_APP));
+        assertNull(prefetcher.take(name(Referred2.class), CLASSLOADER_APP));
+    }
+
+    @Test
+    public void testCloseWaitsForWorkers() throws Exception {
+        final AtomicBoolean started = new AtomicBoolean(), finished = new AtomicBoolean();
+        final ClassFileFactory slow = new ClassFileFactoryJavassist() {
+            @Override
+            protected void parseAhead(byte[] bytecode) {
+                started.set(true);
+                final long until = System.currentTimeMillis() + 200;
+                while (System.currentTimeMillis() < until) {
+                    //busy, ignores interruption as a blocking read does
+                }
+                finished.set(true);
+            }
+        };
+        final Prefetcher prefetcher = new Prefetcher(this.cp, slow, 100);
+        prefetcher.stage(name(Referred1.class), CLASSLOADER_APP);
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!started.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(started.get());
+        prefetcher.close();
+        assertTrue(finished.get()); //so the classpath can be closed safely
+    }
+}
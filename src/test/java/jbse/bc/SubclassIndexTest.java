@@ -0,0 +1,184 @@
+package jbse.bc;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jbse.bc.SubclassIndex.Header;
+
+public class SubclassIndexTest {
+    interface Shape { }
+
+    static abstract class AbstractShape implements Shape { }
+
+    static class Circle extends AbstractShape { }
+
+    static class Square extends AbstractShape { }
+
+    static class UnitSquare extends Square { }
+
+    static class Unrelated { }
+
+    static class ShapeList extends AbstractList<Shape> {
+        @Override
+        public Shape get(int index) { return null; }
+
+        @Override
+        public int size() { return 0; }
+    }
+
+    private static final Class<?>[] INDEXED = { Shape.class, AbstractShape.class, Circle.class, Square.class, UnitSquare.class, Unrelated.class, ShapeList.class };
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path classes;
+
+    private static String name(Class<?> clazz) {
+        return clazz.getName().replace('.', '/');
+    }
+
+    private void copyClass(Class<?> clazz) throws Exception {
+        final Path source = Paths.get(clazz.getResource(clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class").toURI());
+        final Path target = this.classes.resolve(name(clazz) + ".class");
+        Files.createDirectories(target.getParent());
+        Files.copy(source, target);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.classes = this.tmp.newFolder("classes").toPath();
+        for (Class<?> clazz : INDEXED) {
+            copyClass(clazz);
+        }
+    }
+
+    private static Set<String> names(Class<?>... classes) {
+        final HashSet<String> retVal = new HashSet<>();
+        for (Class<?> clazz : classes) {
+            retVal.add(name(clazz));
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testConcreteSubclasses() {
+        final SubclassIndex index = new SubclassIndex(Collections.singletonList(this.classes.toString()));
+        assertTrue(index.isIndexed(name(Shape.class)));
+        assertFalse(index.isIndexed("java/lang/Object"));
+        assertEquals(names(Circle.class, Square.class, UnitSquare.class), index.concreteSubclasses(name(Shape.class)));
+        assertEquals(names(Square.class, UnitSquare.class), index.concreteSubclasses(name(Square.class)));
+        assertEquals(names(), index.concreteSubclasses("java/util/List"));
+    }
+
+    @Test
+    public void testNotIndexedSuperclasses() {
+        final SubclassIndex index = new SubclassIndex(Collections.singletonList(this.classes.toString()));
+        final Map<String, Set<String>> supers = index.notIndexedSuperclasses("java/util/List");
+        assertEquals(names(ShapeList.class), supers.get("java/util/AbstractList"));
+        //ShapeList is reached from Object only through
+        //the non-indexed AbstractList, that has its own entry
+        assertEquals(names(Circle.class, Square.class, UnitSquare.class, Unrelated.class), supers.get("java/lang/Object"));
+        assertFalse(supers.containsKey(name(Shape.class))); //indexed
+    }
+
+    @Test
+    public void testQueriesMemoized() {
+        final SubclassIndex index = new SubclassIndex(Collections.singletonList(this.classes.toString()));
+        final Set<String> subclasses = index.concreteSubclasses(name(Shape.class));
+        assertSame(subclasses, index.concreteSubclasses(name(Shape.class)));
+        final Map<String, Set<String>> supers = index.notIndexedSuperclasses("java/util/List");
+        assertEquals(supers, index.notIndexedSuperclasses("java/util/List"));
+        assertSame(supers.get("java/lang/Object"), index.notIndexedSuperclasses("java/io/Serializable").get("java/lang/Object"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testQueriesImmutable() {
+        final SubclassIndex index = new SubclassIndex(Collections.singletonList(this.classes.toString()));
+        index.concreteSubclasses(name(Shape.class)).add(name(Unrelated.class));
+    }
+
+    @Test
+    public void testIndexBuiltLazily() throws Exception {
+        final SubclassIndex index = new SubclassIndex(Collections.singletonList(this.classes.toString()));
+        //the paths are scanned at the first query
+        Files.delete(this.classes.resolve(name(Unrelated.class) + ".class"));
+        assertFalse(index.isIndexed(name(Unrelated.class)));
+        assertTrue(index.isIndexed(name(Circle.class)));
+    }
+
+    private static void assertHeadersEqual(List<Header> expected, List<Header> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            final Header e = expected.get(i);
+            final Header a = actual.get(i);
+            assertEquals(e.className, a.className);
+            assertEquals(e.accessFlags, a.accessFlags);
+            assertEquals(e.superclassName, a.superclassName);
+            assertArrayEquals(e.superInterfaceNames, a.superInterfaceNames);
+        }
+    }
+
+    @Test
+    public void testCacheRoundTrip() throws Exception {
+        final List<Header> headers = SubclassIndex.headersOf(this.classes);
+        assertEquals(INDEXED.length, headers.size());
+        final Path cacheFile = this.tmp.getRoot().toPath().resolve("cache").resolve("index.idx");
+        SubclassIndex.writeCache(cacheFile, "somePath", "someFingerprint", headers);
+        assertTrue(Files.isRegularFile(cacheFile));
+        assertHeadersEqual(headers, SubclassIndex.readCache(cacheFile, "somePath", "someFingerprint"));
+        assertNull(SubclassIndex.readCache(cacheFile, "somePath", "otherFingerprint"));
+        assertNull(SubclassIndex.readCache(cacheFile, "otherPath", "someFingerprint"));
+        assertNull(SubclassIndex.readCache(cacheFile.resolveSibling("missing.idx"), "somePath", "someFingerprint"));
+    }
+
+    @Test
+    public void testCacheReusedAndRefreshed() throws Exception {
+        final List<Header> headers = SubclassIndex.headersOf(this.classes);
+        assertHeadersEqual(headers, SubclassIndex.headersOf(this.classes));
+
+        //removing a class changes the fingerprint,
+        //so the saved index is not reused
+        Files.delete(this.classes.resolve(name(Unrelated.class) + ".class"));
+        final List<Header> headersNew = SubclassIndex.headersOf(this.classes);
+        assertEquals(headers.size() - 1, headersNew.size());
+        assertFalse(headersNew.stream().anyMatch(h -> h.className.equals(name(Unrelated.class))));
+
+        //so does adding it back
+        copyClass(Unrelated.class);
+        assertHeadersEqual(headers, SubclassIndex.headersOf(this.classes));
+    }
+
+    @Test
+    public void testCacheRefreshedOnRewrite() throws Exception {
+        final List<Header> headers = SubclassIndex.headersOf(this.classes);
+        assertTrue(headers.stream().anyMatch(h -> h.className.equals(name(Unrelated.class))));
+
+        //recompiling a class rewrites its file in place, without
+        //touching its directory: the saved index is not reused
+        final Path unrelated = this.classes.resolve(name(Unrelated.class) + ".class");
+        final Path circle = this.classes.resolve(name(Circle.class) + ".class");
+        final FileTime dirTime = Files.getLastModifiedTime(unrelated.getParent());
+        Files.write(unrelated, Files.readAllBytes(circle));
+        Files.setLastModifiedTime(unrelated, FileTime.fromMillis(Files.getLastModifiedTime(unrelated).toMillis() + 2000));
+        Files.setLastModifiedTime(unrelated.getParent(), dirTime);
+        //the rewritten file now declares another class, so it is dropped
+        final List<Header> headersNew = SubclassIndex.headersOf(this.classes);
+        assertEquals(headers.size() - 1, headersNew.size());
+        assertFalse(headersNew.stream().anyMatch(h -> h.className.equals(name(Unrelated.class))));
+    }
+}
@@ -0,0 +1,89 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.ClauseList;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureChainOfResponsibilityTest {
+    private CalculatorRewriting calc;
+    private DecisionProcedureCounting dec;
+
+    /**
+     * A {@link DecisionProcedureChainOfResponsibility}
+     * that counts its local operations.
+     */
+    private static class DecisionProcedureCounting extends DecisionProcedureChainOfResponsibility {
+        int pushed = 0;
+        int popped = 0;
+        int cleared = 0;
+
+        DecisionProcedureCounting(CalculatorRewriting calc) {
+            super(calc);
+        }
+
+        @Override
+        protected void pushAssumptionLocal(Clause cSimpl) {
+            ++this.pushed;
+        }
+
+        @Override
+        protected void clearAssumptionsLocal() {
+            ++this.cleared;
+        }
+
+        @Override
+        protected boolean canPopAssumptions() {
+            return true;
+        }
+
+        @Override
+        protected void popAssumptionLocal() {
+            ++this.popped;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        this.calc = new CalculatorRewriting();
+        this.dec = new DecisionProcedureCounting(this.calc);
+    }
+
+    private ClauseList appendClauses(ClauseList list, String name, int n) throws InvalidOperandException, InvalidTypeException {
+        ClauseList retVal = list;
+        for (int i = 0; i < n; ++i) {
+            retVal = retVal.append(new ClauseAssume(this.calc.valTerm(Type.INT, name).gt(this.calc.valInt(i))));
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testSetExtendingPushesOnlyNewClauses() throws Exception {
+        ClauseList pathCondition = ClauseList.EMPTY;
+        for (int step = 0; step < 100; ++step) {
+            pathCondition = appendClauses(pathCondition, "X" + step, 3);
+            this.dec.setAssumptions(pathCondition);
+        }
+        assertEquals(300, this.dec.pushed);
+        assertEquals(0, this.dec.popped);
+        assertEquals(0, this.dec.cleared);
+    }
+
+    @Test
+    public void testSetSiblingPopsOnlyDivergingClauses() throws Exception {
+        final ClauseList prefix = appendClauses(ClauseList.EMPTY, "X", 50);
+        this.dec.setAssumptions(appendClauses(prefix, "Y", 5));
+        this.dec.setAssumptions(appendClauses(prefix, "Z", 3));
+        assertEquals(58, this.dec.pushed);
+        assertEquals(5, this.dec.popped);
+        assertEquals(0, this.dec.cleared);
+    }
+}
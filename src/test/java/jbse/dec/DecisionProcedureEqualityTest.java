@@ -36,7 +36,7 @@ public class DecisionProcedureEqualityTest {
     public DecisionProcedureEqualityTest() throws InvalidClassFileFactoryClassException {
         this.calc = new CalculatorRewriting();
         this.calc.addRewriter(new RewriterOperationOnSimplex());
-        this.hier = new ClassHierarchy(new Classpath("", Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>());
+        this.hier = new ClassHierarchy(new Classpath("", Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
     }
 
 
@@ -0,0 +1,143 @@
+package jbse.dec;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.common.Type;
+import jbse.mem.Array;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.FunctionApplication;
+import jbse.val.Primitive;
+
+/**
+ * Checks the SMT-LIB2 queries that {@link DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA}
+ * sends to the solver. The solver is a script that answers {@code success}
+ * to all the commands and {@code sat} to all the satisfiability checks,
+ * and records the queries, so no decision procedure is needed.
+ */
+public class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRATest {
+    private static final String SOLVER_SCRIPT =
+        "#!/bin/sh\n" +
+        "while IFS= read -r line; do\n" +
+        "  printf '%s\\n' \"$line\" >> \"$0.log\"\n" +
+        "  case \"$line\" in\n" +
+        "    \"(check-sat)\") echo sat ;;\n" +
+        "    \"(exit)\") exit 0 ;;\n" +
+        "    *) echo success ;;\n" +
+        "  esac\n" +
+        "done\n";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private CalculatorRewriting calc;
+    private ClassHierarchy hier;
+    private File solver;
+    private DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA dec;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(new File("/bin/sh").canExecute());
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+        this.hier = new ClassHierarchy(new Classpath("", Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
+        this.solver = this.tmp.newFile("solver.sh");
+        Files.write(this.solver.toPath(), SOLVER_SCRIPT.getBytes(StandardCharsets.US_ASCII));
+        assertTrue(this.solver.setExecutable(true));
+        this.dec = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(this.calc, this.solver.getPath());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.dec != null) {
+            this.dec.quit();
+        }
+    }
+
+    private String transcript() throws Exception {
+        return new String(Files.readAllBytes(new File(this.solver.getPath() + ".log").toPath()), StandardCharsets.US_ASCII);
+    }
+
+    private static int occurrences(String s, String sub) {
+        int retVal = 0;
+        for (int i = s.indexOf(sub); i >= 0; i = s.indexOf(sub, i + 1)) {
+            ++retVal;
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns a {@link Array#select(Primitive) select} term
+     * on a symbolic {@code int[]}, as an {@link Array} does.
+     */
+    private Primitive select(String arrayName, Primitive index) throws Exception {
+        final String operator = "" + Type.ARRAYOF + Type.INT + ":(" + Type.INT + ")" + Type.INT + ":" + Array.SELECT_PREFIX + arrayName;
+        return this.calc.applyFunction(Type.INT, operator, index);
+    }
+
+    private static String arrayName(Primitive selected) {
+        return ((FunctionApplication) selected).getOperator().split(":")[2].substring(Array.SELECT_PREFIX.length());
+    }
+
+    @Test
+    public void testSelectTranslation() throws Exception {
+        final Primitive selected = select("arraya", this.calc.valTerm(Type.INT, "I"));
+        final String arrayName = arrayName(selected);
+        this.dec.sendClauseAssume(selected.gt(this.calc.valInt(0)));
+        this.dec.pushAssumption(true);
+
+        final String transcript = transcript();
+        final String declaration = "(declare-fun " + arrayName + " () (Array Int Int))";
+        assertEquals(1, occurrences(transcript, declaration));
+        final int assertion = transcript.indexOf("(assert (> (select " + arrayName + " ");
+        assertTrue(transcript, assertion > transcript.indexOf(declaration));
+    }
+
+    @Test
+    public void testSelectDeclaredOnce() throws Exception {
+        final Primitive I = this.calc.valTerm(Type.INT, "I");
+        final Primitive J = this.calc.valTerm(Type.INT, "J");
+        for (Primitive clause : Arrays.asList(select("arraya", I).gt(this.calc.valInt(0)),
+                                              select("arraya", J).lt(this.calc.valInt(10)),
+                                              select("arraya", I).ne(select("arrayb", I)))) {
+            this.dec.sendClauseAssume(clause);
+            this.dec.pushAssumption(true);
+        }
+        this.dec.sendClauseAssume(select("arraya", I).gt(this.calc.valInt(5)));
+        assertTrue(this.dec.checkSat(this.hier, true));
+
+        final String transcript = transcript();
+        assertEquals(1, occurrences(transcript, "(declare-fun " + arrayName(select("arraya", I)) + " "));
+        assertEquals(1, occurrences(transcript, "(declare-fun " + arrayName(select("arrayb", I)) + " "));
+        assertEquals(1, occurrences(transcript, "(check-sat)"));
+    }
+
+    @Test
+    public void testSelectRedeclaredAfterPop() throws Exception {
+        final Primitive selected = select("arraya", this.calc.valTerm(Type.INT, "I"));
+        final String declaration = "(declare-fun " + arrayName(selected) + " ";
+        this.dec.sendClauseAssume(selected.gt(this.calc.valInt(0)));
+        this.dec.pushAssumption(true);
+        this.dec.popAssumption();
+        this.dec.sendClauseAssume(selected.lt(this.calc.valInt(0)));
+        this.dec.pushAssumption(true);
+        assertEquals(2, occurrences(transcript(), declaration));
+    }
+}
@@ -40,7 +40,7 @@ public class DecisionProcedureSignAnalysisTest {
 	public DecisionProcedureSignAnalysisTest() throws InvalidClassFileFactoryClassException {
         this.calc = new CalculatorRewriting();
         this.calc.addRewriter(new RewriterOperationOnSimplex());
-        this.hier = new ClassHierarchy(new Classpath("", Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>());
+        this.hier = new ClassHierarchy(new Classpath("", Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
 	}
 
 	static class NoDecisionException extends DecisionException {
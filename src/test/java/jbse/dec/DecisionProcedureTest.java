@@ -46,7 +46,7 @@ public class DecisionProcedureTest {
     public DecisionProcedureTest() throws InvalidClassFileFactoryClassException {
         this.calc = new CalculatorRewriting();
         this.calc.addRewriter(new RewriterOperationOnSimplex());
-        this.hier = new ClassHierarchy(new Classpath("", Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>());
+        this.hier = new ClassHierarchy(new Classpath("", Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
         this.cmp = new DecisionAlternativeComparators();
     }
 
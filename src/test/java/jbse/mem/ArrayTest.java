@@ -0,0 +1,302 @@
+package jbse.mem;
+
+import static jbse.bc.Signatures.JAVA_CLONEABLE;
+import static jbse.bc.Signatures.JAVA_OBJECT;
+import static jbse.bc.Signatures.JAVA_SERIALIZABLE;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.FieldLayout;
+import jbse.common.Type;
+import jbse.mem.Array.AccessOutcome;
+import jbse.mem.Array.AccessOutcomeInValue;
+import jbse.mem.Array.AccessOutcomeOut;
+import jbse.mem.exc.FastArrayAccessNotAllowedException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.FunctionApplication;
+import jbse.val.MemoryPath;
+import jbse.val.Primitive;
+import jbse.val.Simplex;
+import jbse.val.Value;
+import jbse.val.exc.InvalidTypeException;
+
+public class ArrayTest {
+    private static final int LENGTH = 5;
+
+    private CalculatorRewriting calc;
+    private ClassHierarchy hier;
+    private ClassFile cf_INT_ARRAY;
+    private FieldLayout layout_INT_ARRAY;
+
+    @Before
+    public void setUp() throws Exception {
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+        this.hier = new ClassHierarchy(new Classpath(System.getProperty("java.home"), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
+        //the array classes need the standard classes, that the engine loads at initialization
+        for (String className : Arrays.asList(JAVA_OBJECT, JAVA_CLONEABLE, JAVA_SERIALIZABLE)) {
+            this.hier.loadCreateClass(className);
+        }
+        this.cf_INT_ARRAY = this.hier.loadCreateClass("" + Type.ARRAYOF + Type.INT);
+        this.layout_INT_ARRAY = this.hier.getFieldLayout(this.cf_INT_ARRAY);
+    }
+
+    private Array array(int maxSimpleArrayLength) throws Exception {
+        return new Array(this.calc, false, null, this.calc.valInt(LENGTH), this.cf_INT_ARRAY, this.layout_INT_ARRAY, MemoryPath.mkLocalVariable("a"), Objekt.Epoch.EPOCH_AFTER_START, false, maxSimpleArrayLength);
+    }
+
+    private Array arraySymbolic(Primitive length, MemoryPath origin) throws Exception {
+        return arraySymbolic(this.cf_INT_ARRAY, length, origin);
+    }
+
+    private Array arraySymbolic(ClassFile classFile, Primitive length, MemoryPath origin) throws Exception {
+        return new Array(this.calc, true, null, length, classFile, this.hier.getFieldLayout(classFile), origin, Objekt.Epoch.EPOCH_BEFORE_START, true, 10);
+    }
+
+    /**
+     * The outcomes of an access with unknown value, i.e., 
+     * those that {@link Array#getSelect(Primitive)} coalesces.
+     */
+    private static int unknownOutcomes(Collection<AccessOutcome> outcomes) {
+        int retVal = 0;
+        for (AccessOutcome outcome : outcomes) {
+            if (outcome instanceof AccessOutcomeInValue && ((AccessOutcomeInValue) outcome).getValue() == null) {
+                ++retVal;
+            }
+        }
+        return retVal;
+    }
+
+    private Simplex index(int i) {
+        return (Simplex) this.calc.valInt(i);
+    }
+
+    /**
+     * The value read by a scan of the entries: the entry 
+     * at the index if the index is in range, {@code null} 
+     * otherwise.
+     */
+    private static Value readByScan(Array array, Simplex index) throws Exception {
+        if (array.inRange(index).surelyTrue()) {
+            return ((AccessOutcomeInValue) array.values().get((Integer) index.getActualValue())).getValue();
+        }
+        return null;
+    }
+
+    private static void assertOutcome(Value expected, AccessOutcome actual) {
+        assertNull(actual.getAccessCondition());
+        if (expected == null) {
+            assertTrue(actual instanceof AccessOutcomeOut);
+        } else {
+            assertTrue(actual instanceof AccessOutcomeInValue);
+            assertEquals(expected, ((AccessOutcomeInValue) actual).getValue());
+        }
+    }
+
+    @Test
+    public void testSimpleRepSameAsScan() throws Exception {
+        final Random random = new Random(12345);
+        final Array array = array(10);
+        assertTrue(array.hasSimpleRep());
+        for (int n = 0; n < 1000; ++n) {
+            final Simplex index = index(random.nextInt(LENGTH + 4) - 2);
+            if (random.nextBoolean()) {
+                array.setFast(index, this.calc.valInt(n));
+            }
+            final Value expected = readByScan(array, index);
+            assertOutcome(expected, array.getFast(index));
+            final Collection<AccessOutcome> outcomes = array.get(index);
+            assertEquals(1, outcomes.size());
+            assertOutcome(expected, outcomes.iterator().next());
+        }
+    }
+
+    @Test
+    public void testSimpleRepSameAsNotSimple() throws Exception {
+        final Array simple = array(10);
+        final Array notSimple = array(0);
+        assertFalse(notSimple.hasSimpleRep());
+        for (int i = -2; i < LENGTH + 2; ++i) {
+            final Collection<AccessOutcome> expected = notSimple.get(index(i));
+            final Collection<AccessOutcome> actual = simple.get(index(i));
+            assertEquals(expected.size(), actual.size());
+            final AccessOutcome e = expected.iterator().next();
+            assertOutcome((e instanceof AccessOutcomeInValue ? ((AccessOutcomeInValue) e).getValue() : null), actual.iterator().next());
+        }
+    }
+
+    @Test
+    public void testOutcomesShared() throws Exception {
+        final Array array = array(10);
+        final AccessOutcome in = array.getFast(index(0));
+        assertSame(in, array.getFast(index(0)));
+        assertSame(in, array.get(index(0)).iterator().next());
+        assertNotSame(in, array.getFast(index(3)));
+        final AccessOutcome out = array.getFast(index(LENGTH));
+        assertSame(out, array.getFast(index(-1)));
+        try {
+            in.excludeIndexFromAccessCondition(index(0));
+            fail();
+        } catch (UnsupportedOperationException e) {
+            //expected
+        }
+
+        //an outcome is not affected by later accesses
+        array.setFast(index(0), this.calc.valInt(7));
+        final AccessOutcome in0 = array.getFast(index(0));
+        assertNotSame(in, in0);
+        array.setFast(index(1), this.calc.valInt(8));
+        array.getFast(index(1));
+        assertOutcome(this.calc.valInt(7), in0);
+        assertOutcome(this.calc.valInt(0), in);
+    }
+
+    @Test
+    public void testDenseDroppedBySymbolicSet() throws Exception {
+        final Array array = array(10);
+        array.setFast(index(2), this.calc.valInt(5));
+        final Array clone = array.clone();
+        array.set(this.calc.valTerm(Type.INT, "I"), this.calc.valInt(9));
+        assertFalse(array.hasSimpleRep());
+        assertEquals(LENGTH + 1, array.values().size());
+        assertEquals(this.calc.valInt(5), ((AccessOutcomeInValue) array.values().get(2)).getValue());
+        assertTrue(clone.hasSimpleRep());
+        assertOutcome(this.calc.valInt(5), clone.getFast(index(2)));
+    }
+
+    @Test
+    public void testArraycopyOverlapping() throws Exception {
+        final Array array = array(10);
+        for (int i = 0; i < LENGTH; ++i) {
+            array.setFast(index(i), this.calc.valInt(i));
+        }
+        array.arraycopy(array, index(0), index(1), index(LENGTH - 1), r -> fail());
+        assertOutcome(this.calc.valInt(0), array.getFast(index(0)));
+        for (int i = 1; i < LENGTH; ++i) {
+            assertOutcome(this.calc.valInt(i - 1), array.getFast(index(i)));
+        }
+    }
+
+    @Test
+    public void testOutcomesNotSharedWithClone() throws Exception {
+        final Array array = array(10);
+        array.setFast(index(0), this.calc.valInt(1));
+        final AccessOutcome in = array.getFast(index(0));
+        final AccessOutcome out = array.getFast(index(LENGTH));
+        final Array clone = array.clone();
+        clone.setFast(index(0), this.calc.valInt(2));
+        final AccessOutcome inClone = clone.getFast(index(0));
+        assertNotSame(in, inClone);
+        assertSame(out, clone.getFast(index(LENGTH))); //immutable, so it can be shared
+        assertOutcome(this.calc.valInt(2), inClone);
+        assertOutcome(this.calc.valInt(1), array.getFast(index(0)));
+        assertOutcome(this.calc.valInt(2), inClone);
+    }
+
+    @Test(expected = FastArrayAccessNotAllowedException.class)
+    public void testNoFastAccessWithoutSimpleRep() throws Exception {
+        array(0).getFast(index(0));
+    }
+
+    @Test
+    public void testSelectTerm() throws Exception {
+        final Primitive I = this.calc.valTerm(Type.INT, "I");
+        final Array array = arraySymbolic(this.calc.valTerm(Type.INT, "L"), MemoryPath.mkLocalVariable("a"));
+        assertTrue(array.canSelect());
+        final Primitive selected = array.select(I);
+        assertTrue(selected instanceof FunctionApplication);
+        assertEquals(Type.INT, selected.getType());
+        assertEquals(Arrays.asList(I), Arrays.asList(((FunctionApplication) selected).getArgs()));
+        final String[] operator = ((FunctionApplication) selected).getOperator().split(":");
+        assertEquals(3, operator.length);
+        assertEquals(this.cf_INT_ARRAY.getClassName(), operator[0]);
+        assertEquals("(" + Type.INT + ")" + Type.INT, operator[1]);
+        assertTrue(operator[2].startsWith(Array.SELECT_PREFIX));
+        assertTrue(operator[2].substring(Array.SELECT_PREFIX.length()).matches("[A-Za-z0-9_]+"));
+        assertTrue(Array.isSelect((FunctionApplication) selected));
+        assertFalse(Array.isSelect((FunctionApplication) this.calc.applyFunction(Type.INT, FunctionApplication.ABS, I)));
+    }
+
+    @Test
+    public void testSelectByOrigin() throws Exception {
+        final Primitive I = this.calc.valTerm(Type.INT, "I");
+        final Primitive L = this.calc.valTerm(Type.INT, "L");
+        final Array array = arraySymbolic(L, MemoryPath.mkLocalVariable("a"));
+        final Array sameOrigin = arraySymbolic(L, MemoryPath.mkLocalVariable("a"));
+        final Array otherOrigin = arraySymbolic(L, MemoryPath.mkLocalVariable("b"));
+        assertEquals(array.select(I), sameOrigin.select(I));
+        assertEquals(array.select(I), array.clone().select(I));
+        assertNotEquals(array.select(I), otherOrigin.select(I));
+        assertNotEquals(array.select(I), array.select(this.calc.valTerm(Type.INT, "J")));
+    }
+
+    @Test
+    public void testGetSelectCoalescesUnknownMembers() throws Exception {
+        final Primitive I = this.calc.valTerm(Type.INT, "I");
+        final Array array = arraySymbolic(this.calc.valInt(LENGTH), MemoryPath.mkLocalVariable("a"));
+        assertEquals(LENGTH, unknownOutcomes(array.get(I)));
+        final Collection<AccessOutcome> outcomes = array.getSelect(I);
+        assertEquals(0, unknownOutcomes(outcomes));
+        assertEquals(2, outcomes.size());
+        final Iterator<AccessOutcome> it = outcomes.iterator();
+        final AccessOutcome in = it.next();
+        assertTrue(in instanceof AccessOutcomeInValue);
+        assertEquals(array.select(I), ((AccessOutcomeInValue) in).getValue());
+        assertNotNull(in.getAccessCondition());
+        assertTrue(it.next() instanceof AccessOutcomeOut);
+    }
+
+    @Test
+    public void testGetSelectKeepsKnownMembers() throws Exception {
+        final Primitive I = this.calc.valTerm(Type.INT, "I");
+        final Array array = arraySymbolic(this.calc.valTerm(Type.INT, "L"), MemoryPath.mkLocalVariable("a"));
+        array.set(index(2), this.calc.valInt(7));
+        final Collection<AccessOutcome> outcomes = array.getSelect(I);
+        assertEquals(array.get(I).size(), outcomes.size());
+        int known = 0, selected = 0;
+        for (AccessOutcome outcome : outcomes) {
+            if (outcome instanceof AccessOutcomeInValue) {
+                final Value value = ((AccessOutcomeInValue) outcome).getValue();
+                if (this.calc.valInt(7).equals(value)) {
+                    ++known;
+                } else if (array.select(I).equals(value)) {
+                    ++selected;
+                }
+            }
+        }
+        assertEquals(1, known);
+        assertEquals(1, selected);
+    }
+
+    @Test
+    public void testCannotSelect() throws Exception {
+        final Primitive I = this.calc.valTerm(Type.INT, "I");
+        final Primitive L = this.calc.valTerm(Type.INT, "L");
+        final Array noOrigin = arraySymbolic(L, null);
+        final Array booleans = arraySymbolic(this.hier.loadCreateClass("" + Type.ARRAYOF + Type.BOOLEAN), L, MemoryPath.mkLocalVariable("a"));
+        for (Array array : Arrays.asList(noOrigin, booleans)) {
+            assertFalse(array.canSelect());
+            assertEquals(1, unknownOutcomes(array.getSelect(I)));
+            try {
+                array.select(I);
+                fail();
+            } catch (InvalidTypeException e) {
+                //expected
+            }
+        }
+    }
+}
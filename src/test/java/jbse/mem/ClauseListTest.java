@@ -0,0 +1,126 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class ClauseListTest {
+    private CalculatorRewriting calc;
+
+    @Before
+    public void setUp() {
+        this.calc = new CalculatorRewriting();
+    }
+
+    private Clause clause(int i) throws InvalidOperandException, InvalidTypeException {
+        return new ClauseAssume(this.calc.valTerm(Type.INT, "X").gt(this.calc.valInt(i)));
+    }
+
+    private ClauseList appendClauses(ClauseList list, int from, int to) throws InvalidOperandException, InvalidTypeException {
+        ClauseList retVal = list;
+        for (int i = from; i < to; ++i) {
+            retVal = retVal.append(clause(i));
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, ClauseList.EMPTY.size());
+        assertFalse(ClauseList.EMPTY.iterator().hasNext());
+        assertEquals(0, ClauseList.sharedPrefixLength(ClauseList.EMPTY, ClauseList.EMPTY));
+    }
+
+    @Test
+    public void testAppendDoesNotModify() throws InvalidOperandException, InvalidTypeException {
+        final ClauseList list = appendClauses(ClauseList.EMPTY, 0, 3);
+        final ClauseList longer = list.append(clause(3));
+        assertEquals(3, list.size());
+        assertEquals(4, longer.size());
+        assertEquals(list, longer.subList(0, 3));
+    }
+
+    @Test
+    public void testGetAndIterator() throws InvalidOperandException, InvalidTypeException {
+        final ArrayList<Clause> expected = new ArrayList<>();
+        ClauseList list = ClauseList.EMPTY;
+        for (int i = 0; i < 1000; ++i) {
+            final Clause c = clause(i);
+            expected.add(c);
+            list = list.append(c);
+        }
+        for (int i = 0; i < expected.size(); ++i) {
+            assertSame(expected.get(i), list.get(i));
+        }
+        final Iterator<Clause> it = list.iterator();
+        for (Clause c : expected) {
+            assertSame(c, it.next());
+        }
+        assertFalse(it.hasNext());
+        assertArrayEquals(expected.toArray(), list.toArray());
+        assertEquals(expected, list.stream().collect(Collectors.toList()));
+        assertArrayEquals(expected.subList(990, 1000).toArray(), list.last(10));
+        assertFalse(RandomAccess.class.isAssignableFrom(ClauseList.class)); //get takes logarithmic time
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() throws InvalidOperandException, InvalidTypeException {
+        appendClauses(ClauseList.EMPTY, 0, 3).get(3);
+    }
+
+    @Test
+    public void testOf() throws InvalidOperandException, InvalidTypeException {
+        final ClauseList list = appendClauses(ClauseList.EMPTY, 0, 5);
+        assertSame(list, ClauseList.of(list));
+        final ClauseList copy = ClauseList.of(new ArrayList<>(list));
+        assertEquals(list, copy);
+        assertEquals(0, ClauseList.sharedPrefixLength(list, copy));
+    }
+
+    @Test
+    public void testPrefix() throws InvalidOperandException, InvalidTypeException {
+        final ClauseList list = appendClauses(ClauseList.EMPTY, 0, 100);
+        assertSame(ClauseList.EMPTY, list.prefix(0));
+        assertSame(list, list.prefix(100));
+        for (int n = 1; n < 100; ++n) {
+            final ClauseList prefix = list.prefix(n);
+            assertEquals(list.subList(0, n), prefix);
+            assertEquals(n, ClauseList.sharedPrefixLength(list, prefix));
+        }
+    }
+
+    @Test
+    public void testSharedPrefixLength() throws InvalidOperandException, InvalidTypeException {
+        final Random random = new Random(0);
+        for (int k = 0; k < 200; ++k) {
+            final int common = random.nextInt(300);
+            final ClauseList prefix = appendClauses(ClauseList.EMPTY, 0, common);
+            final ClauseList first = appendClauses(prefix, 0, random.nextInt(300));
+            final ClauseList second = appendClauses(prefix, 0, random.nextInt(300));
+            assertEquals(common, ClauseList.sharedPrefixLength(first, second));
+            assertEquals(common, ClauseList.sharedPrefixLength(second, first));
+            assertEquals(first.size(), ClauseList.sharedPrefixLength(first, first));
+        }
+    }
+
+    @Test
+    public void testSharedPrefixLengthOfUnsharedEqualLists() throws InvalidOperandException, InvalidTypeException {
+        //equal clauses that are not shared do not count
+        final ClauseList first = appendClauses(ClauseList.EMPTY, 0, 10);
+        final ClauseList second = appendClauses(ClauseList.EMPTY, 0, 10);
+        assertEquals(first, second);
+        assertEquals(0, ClauseList.sharedPrefixLength(first, second));
+    }
+}
@@ -0,0 +1,140 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static org.junit.Assert.*;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.FieldLayout;
+import jbse.bc.Signature;
+import jbse.mem.Objekt.Epoch;
+import jbse.rewr.CalculatorRewriting;
+
+public class FieldLayoutTest {
+    static class Point {
+        static int count;
+        int x;
+        double y;
+        Object tag;
+    }
+
+    private static final String POINT = "jbse/mem/FieldLayoutTest$Point";
+    private static final Signature COUNT = new Signature(POINT, "I", "count");
+    private static final Signature X = new Signature(POINT, "I", "x");
+    private static final Signature Y = new Signature(POINT, "D", "y");
+    private static final Signature TAG = new Signature(POINT, "Ljava/lang/Object;", "tag");
+    private static final Signature X_SUPER = new Signature("jbse/mem/FieldLayoutTest$Base", "J", "x"); //hidden by Point.x
+
+    private CalculatorRewriting calc;
+    private ClassHierarchy hier;
+    private ClassFile cf_POINT;
+
+    private static ClassHierarchy newHierarchy() throws Exception {
+        final String testClasses = Paths.get(FieldLayoutTest.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        final Classpath cp = new Classpath(System.getProperty("java.home"), Collections.emptyList(), Collections.singletonList(testClasses));
+        return new ClassHierarchy(cp, ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.calc = new CalculatorRewriting();
+        this.hier = newHierarchy();
+        this.cf_POINT = this.hier.loadCreateClass(CLASSLOADER_APP, POINT, true);
+    }
+
+    @Test
+    public void testSlots() {
+        final FieldLayout layout = new FieldLayout(1, COUNT, X, Y, TAG, X_SUPER);
+        assertEquals(1, layout.numOfStaticFields());
+        assertEquals(5, layout.numOfFields());
+        assertEquals(Arrays.asList(COUNT, X, Y, TAG, X_SUPER), layout.signatures());
+        assertEquals(0, layout.slot(COUNT));
+        assertEquals(1, layout.slot(X));
+        assertEquals(4, layout.slot(X_SUPER));
+        assertEquals(-1, layout.slot(new Signature(POINT, "I", "z")));
+        assertEquals(1, layout.slot("x")); //the least slot
+        assertEquals(-1, layout.slot("z"));
+    }
+
+    @Test
+    public void testDuplicateSignatureFirstSlotWins() {
+        final FieldLayout layout = new FieldLayout(0, X, Y, X);
+        assertEquals(0, layout.slot(X));
+        assertEquals(3, layout.numOfFields());
+    }
+
+    @Test
+    public void testOwnedByHierarchy() throws Exception {
+        final FieldLayout layout = this.hier.getFieldLayout(this.cf_POINT);
+        assertEquals(Arrays.asList(COUNT, X, Y, TAG), layout.signatures());
+        assertEquals(1, layout.numOfStaticFields());
+        assertSame(layout, this.hier.getFieldLayout(this.cf_POINT));
+        assertSame(layout, this.hier.clone().getFieldLayout(this.cf_POINT));
+        assertNotSame(layout, newHierarchy().getFieldLayout(this.cf_POINT));
+    }
+
+    @Test
+    public void testSafetyCopy() {
+        final Signature[] fields = { X, Y };
+        final FieldLayout layout = new FieldLayout(0, fields);
+        fields[0] = TAG;
+        assertEquals(Arrays.asList(X, Y), layout.signatures());
+        assertEquals(0, layout.slot(X));
+        assertEquals(-1, layout.slot(TAG));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        new FieldLayout(0, X, Y).signatures().set(0, TAG);
+    }
+
+    @Test
+    public void testInstanceStoresNonstaticFields() throws Exception {
+        final Instance i = new Instance(this.calc, this.cf_POINT, null, Epoch.EPOCH_AFTER_START, this.hier.getFieldLayout(this.cf_POINT));
+        assertEquals(Arrays.asList(X, Y, TAG), Arrays.asList(i.getStoredFieldSignatures().toArray()));
+        assertEquals(1, i.getFieldSlot(X));
+        assertEquals(this.calc.valInt(0), i.getFieldValue(X));
+        assertEquals(this.calc.valDouble(0), i.getFieldValue("y"));
+        assertEquals(this.calc.valInt(0), i.getFieldValue(1));
+        assertNull(i.getFieldValue(COUNT));
+        assertFalse(i.fields().containsKey(COUNT.toString()));
+    }
+
+    @Test
+    public void testFieldsView() throws Exception {
+        final Instance i = new Instance(this.calc, this.cf_POINT, null, Epoch.EPOCH_AFTER_START, this.hier.getFieldLayout(this.cf_POINT));
+        final Map<String, Variable> fields = i.fields();
+        assertSame(fields, i.fields());
+        assertEquals(Arrays.asList(X.toString(), Y.toString(), TAG.toString()), new ArrayList<>(fields.keySet()));
+        i.setFieldValue(X, this.calc.valInt(1));
+        assertEquals(this.calc.valInt(1), fields.get(X.toString()).getValue());
+        final Instance iClone = i.clone();
+        iClone.setFieldValue(X, this.calc.valInt(2));
+        assertEquals(this.calc.valInt(2), iClone.fields().get(X.toString()).getValue());
+        assertEquals(this.calc.valInt(1), fields.get(X.toString()).getValue());
+    }
+
+    @Test
+    public void testInstancesShareLayoutNotValues() throws Exception {
+        final Instance i1 = new Instance(this.calc, this.cf_POINT, null, Epoch.EPOCH_AFTER_START, this.hier.getFieldLayout(this.cf_POINT));
+        final Instance i2 = new Instance(this.calc, this.cf_POINT, null, Epoch.EPOCH_AFTER_START, this.hier.getFieldLayout(this.cf_POINT));
+        i1.setFieldValue(X, this.calc.valInt(1));
+        final Instance i1Clone = i1.clone();
+        i1Clone.setFieldValue(X, this.calc.valInt(2));
+        assertEquals(this.calc.valInt(1), i1.getFieldValue(X));
+        assertEquals(this.calc.valInt(0), i2.getFieldValue(X));
+        assertEquals(this.calc.valInt(2), i1Clone.getFieldValue(X));
+    }
+}
@@ -0,0 +1,94 @@
+package jbse.mem;
+
+import static jbse.bc.Signatures.JAVA_CLONEABLE;
+import static jbse.bc.Signatures.JAVA_OBJECT;
+import static jbse.bc.Signatures.JAVA_SERIALIZABLE;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.common.Type;
+import jbse.mem.Array.AccessOutcomeInValue;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.MemoryPath;
+import jbse.val.Value;
+
+public class HeapTest {
+    private CalculatorRewriting calc;
+    private Heap heap;
+    private long pos;
+
+    @Before
+    public void setUp() throws Exception {
+        this.calc = new CalculatorRewriting();
+        final ClassHierarchy hier = new ClassHierarchy(new Classpath(System.getProperty("java.home"), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
+        //the array classes need the standard classes, that the engine loads at initialization
+        for (String className : Arrays.asList(JAVA_OBJECT, JAVA_CLONEABLE, JAVA_SERIALIZABLE)) {
+            hier.loadCreateClass(className);
+        }
+        final ClassFile cf_INT_ARRAY = hier.loadCreateClass("" + Type.ARRAYOF + Type.INT);
+        final Array array = new Array(this.calc, false, null, this.calc.valInt(3), cf_INT_ARRAY, hier.getFieldLayout(cf_INT_ARRAY), MemoryPath.mkLocalVariable("a"), Objekt.Epoch.EPOCH_AFTER_START, false, 10);
+        this.heap = new Heap(100);
+        this.pos = this.heap.addNew(array);
+    }
+
+    private Value read(Objekt o) throws Exception {
+        return ((AccessOutcomeInValue) ((Array) o).getFast(this.calc.valInt(0))).getValue();
+    }
+
+    private void write(Objekt o, int value) throws Exception {
+        ((Array) o).setFast(this.calc.valInt(0), this.calc.valInt(value));
+    }
+
+    @Test
+    public void testReadDoesNotCopy() {
+        final Heap clone = this.heap.clone();
+        assertSame(this.heap.getObject(this.pos), clone.getObject(this.pos));
+    }
+
+    @Test
+    public void testModifiableCopiesOnce() {
+        final Heap clone = this.heap.clone();
+        final Objekt shared = this.heap.getObject(this.pos);
+        final Objekt o = clone.getObjectModifiable(this.pos);
+        assertNotSame(shared, o);
+        assertSame(o, clone.getObjectModifiable(this.pos));
+        assertSame(o, clone.getObject(this.pos));
+    }
+
+    @Test
+    public void testSiblingsDoNotSeeEachOtherWrites() throws Exception {
+        final Heap sibling1 = this.heap.clone();
+        final Heap sibling2 = this.heap.clone();
+        write(sibling1.getObjectModifiable(this.pos), 1);
+        write(sibling2.getObjectModifiable(this.pos), 2);
+        assertEquals(this.calc.valInt(0), read(this.heap.getObject(this.pos)));
+        assertEquals(this.calc.valInt(1), read(sibling1.getObject(this.pos)));
+        assertEquals(this.calc.valInt(2), read(sibling2.getObject(this.pos)));
+        write(this.heap.getObjectModifiable(this.pos), 3);
+        assertEquals(this.calc.valInt(1), read(sibling1.getObject(this.pos)));
+        assertEquals(this.calc.valInt(2), read(sibling2.getObject(this.pos)));
+    }
+
+    @Test
+    public void testCloneRevokesModifiability() throws Exception {
+        //an object got for modification before a clone
+        //is shared after it, so it must be got again
+        final Objekt before = this.heap.getObjectModifiable(this.pos);
+        final Heap clone = this.heap.clone();
+        final Objekt after = this.heap.getObjectModifiable(this.pos);
+        assertNotSame(before, after);
+        write(after, 1);
+        assertEquals(this.calc.valInt(0), read(clone.getObject(this.pos)));
+        assertSame(before, clone.getObject(this.pos));
+    }
+}
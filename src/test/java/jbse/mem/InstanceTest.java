@@ -40,7 +40,7 @@ public class InstanceTest {
         final Classpath env = new Classpath("src/test/resources/jbse/bc/testdata", new ArrayList<>(), userPath);
 
         //class hierarchy
-        hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>());
+        hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
         
         //calculator
         calc = new CalculatorRewriting();
@@ -52,9 +52,7 @@ public class InstanceTest {
     PleaseLoadClassException, InvalidTypeException {
         final String className = "tsafe/main/SimpleCalculator";
         final ClassFile classFile = hier.loadCreateClass(CLASSLOADER_APP, className, true);
-        final int numOfStaticFields = hier.numOfStaticFields(classFile);
-        final Signature[] fieldsSignatures = hier.getAllFields(classFile);
-        final Instance i = new Instance(calc, classFile, null, Epoch.EPOCH_AFTER_START, numOfStaticFields, fieldsSignatures);
+        final Instance i = new Instance(calc, classFile, null, Epoch.EPOCH_AFTER_START, hier.getFieldLayout(classFile));
         final Signature sigMinLat = new Signature(className, "D", "minLat");
         final Value valMinLat = i.getFieldValue(sigMinLat);
         assertEquals(valMinLat, calc.valDouble(0));
@@ -66,9 +64,7 @@ public class InstanceTest {
     PleaseLoadClassException, InvalidTypeException {
         final String className = "tsafe/main/SimpleCalculator";
         final ClassFile classFile = hier.loadCreateClass(CLASSLOADER_APP, className, true);
-        final int numOfStaticFields = hier.numOfStaticFields(classFile);
-        final Signature[] fieldsSignatures = hier.getAllFields(classFile);
-        final Instance i = new Instance(calc, classFile, null, Epoch.EPOCH_AFTER_START, numOfStaticFields, fieldsSignatures);
+        final Instance i = new Instance(calc, classFile, null, Epoch.EPOCH_AFTER_START, hier.getFieldLayout(classFile));
         final Signature sigMinLat = new Signature(className, "D", "minLat");
         final Value valMinLat = i.getFieldValue(sigMinLat);
         final Value valMinLat2 = i.getFieldValue("minLat");
@@ -81,9 +77,7 @@ public class InstanceTest {
     PleaseLoadClassException, InvalidTypeException {
         final String className = "tsafe/main/SimpleCalculator";
         final ClassFile classFile = hier.loadCreateClass(CLASSLOADER_APP, className, true);
-        final int numOfStaticFields = hier.numOfStaticFields(classFile);
-        final Signature[] fieldsSignatures = hier.getAllFields(classFile);
-        final Instance i = new Instance(calc, classFile, null, Epoch.EPOCH_AFTER_START, numOfStaticFields, fieldsSignatures);
+        final Instance i = new Instance(calc, classFile, null, Epoch.EPOCH_AFTER_START, hier.getFieldLayout(classFile));
         final Signature sigMinLat = new Signature(className, "D", "minLat");
         i.setFieldValue(sigMinLat, calc.valDouble(1.0d));
         final Value valMinLat = i.getFieldValue("minLat");
@@ -96,9 +90,7 @@ public class InstanceTest {
     PleaseLoadClassException, InvalidTypeException {
         final String className = "tsafe/main/SimpleCalculator";
         final ClassFile classFile = hier.loadCreateClass(CLASSLOADER_APP, className, true);
-        final int numOfStaticFields = hier.numOfStaticFields(classFile);
-        final Signature[] fieldsSignatures = hier.getAllFields(classFile);
-        final Instance i = new Instance(calc, classFile, null, Epoch.EPOCH_AFTER_START, numOfStaticFields, fieldsSignatures);
+        final Instance i = new Instance(calc, classFile, null, Epoch.EPOCH_AFTER_START, hier.getFieldLayout(classFile));
         final Instance iClone = i.clone();
         final Signature sigMinLat = new Signature(className, "D", "minLat");
         i.setFieldValue(sigMinLat, calc.valDouble(1.0d));
@@ -0,0 +1,85 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LayeredMapTest {
+    @Test
+    public void testPutGetRemove() {
+        final LayeredMap<String, Integer> m = new LayeredMap<>();
+        assertTrue(m.isEmpty());
+        m.put("a", 1);
+        m.put("b", 2);
+        m.put("a", 3);
+        assertEquals(2, m.size());
+        assertEquals(Integer.valueOf(3), m.get("a"));
+        assertEquals(Integer.valueOf(2), m.remove("b"));
+        assertNull(m.remove("b"));
+        assertFalse(m.containsKey("b"));
+        assertEquals(1, m.size());
+    }
+
+    @Test
+    public void testClonesIndependent() {
+        final LayeredMap<String, Integer> m = new LayeredMap<>();
+        m.put("a", 1);
+        m.put("b", 2);
+        final LayeredMap<String, Integer> c = m.clone();
+        c.put("a", 10);
+        c.remove("b");
+        c.put("c", 30);
+        m.put("d", 4);
+
+        assertEquals(Integer.valueOf(1), m.get("a"));
+        assertEquals(Integer.valueOf(2), m.get("b"));
+        assertNull(m.get("c"));
+        assertEquals(3, m.size());
+
+        assertEquals(Integer.valueOf(10), c.get("a"));
+        assertNull(c.get("b"));
+        assertEquals(Integer.valueOf(30), c.get("c"));
+        assertNull(c.get("d"));
+        assertEquals(2, c.size());
+
+        final HashMap<String, Integer> expected = new HashMap<>();
+        expected.put("a", 10);
+        expected.put("c", 30);
+        assertEquals(expected, c.toMap());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        //a tree of clones, each checked against a copied HashMap
+        final Random r = new Random(42);
+        final ArrayList<LayeredMap<Integer, Integer>> maps = new ArrayList<>();
+        final ArrayList<HashMap<Integer, Integer>> models = new ArrayList<>();
+        maps.add(new LayeredMap<>());
+        models.add(new HashMap<>());
+        for (int step = 0; step < 5000; ++step) {
+            final int i = r.nextInt(maps.size());
+            final LayeredMap<Integer, Integer> m = maps.get(i);
+            final HashMap<Integer, Integer> model = models.get(i);
+            final int op = r.nextInt(10);
+            final Integer key = r.nextInt(200);
+            if (op == 0) {
+                maps.add(m.clone());
+                models.add(new HashMap<>(model));
+            } else if (op <= 2) {
+                assertEquals(model.remove(key), m.remove(key));
+            } else {
+                m.put(key, step);
+                model.put(key, step);
+            }
+            assertEquals(model.get(key), m.get(key));
+            assertEquals(model.size(), m.size());
+        }
+        for (int i = 0; i < maps.size(); ++i) {
+            assertEquals(models.get(i), maps.get(i).toMap());
+        }
+    }
+}
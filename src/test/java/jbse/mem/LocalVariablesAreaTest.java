@@ -0,0 +1,114 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.LocalVariableTable;
+import jbse.mem.exc.InvalidSlotException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.DefaultValue;
+import jbse.val.Value;
+
+public class LocalVariablesAreaTest {
+    private CalculatorRewriting calc;
+    private LocalVariableTable lvt;
+
+    @Before
+    public void setUp() {
+        this.calc = new CalculatorRewriting();
+        this.lvt = new LocalVariableTable(5);
+        this.lvt.setEntry(0, "I", "i", 0, 10);
+        this.lvt.setEntry(1, "J", "l", 0, 10);
+        this.lvt.setEntry(3, "Ljava/lang/Object;", "o", 5, 5);
+    }
+
+    @Test
+    public void testSetArgs() throws Exception {
+        final LocalVariablesArea lva = new LocalVariablesArea(this.lvt);
+        lva.setArgs(new Value[] { this.calc.valInt(1), this.calc.valLong(2L) });
+        assertEquals(this.calc.valInt(1), lva.get(0));
+        assertEquals(this.calc.valLong(2L), lva.get(1));
+        assertEquals(DefaultValue.getInstance(), lva.get(3));
+        assertEquals(DefaultValue.getInstance(), lva.get(4));
+        assertEquals(Arrays.asList(0, 1, 3, 4), lva.slots()); //slot 2 is the second half of the long
+    }
+
+    @Test(expected = InvalidSlotException.class)
+    public void testGetSecondHalfOfCat2() throws Exception {
+        final LocalVariablesArea lva = new LocalVariablesArea(this.lvt);
+        lva.set(1, 0, this.calc.valLong(2L));
+        lva.get(2);
+    }
+
+    @Test
+    public void testCat2OverwritesNextSlot() throws Exception {
+        final LocalVariablesArea lva = new LocalVariablesArea(this.lvt);
+        lva.set(3, 0, this.calc.valInt(3));
+        lva.set(4, 0, this.calc.valInt(4));
+        lva.set(3, 0, this.calc.valDouble(5.0));
+        assertEquals(Arrays.asList(3), lva.slots());
+    }
+
+    @Test
+    public void testUnwrittenAndOutOfRange() throws Exception {
+        final LocalVariablesArea lva = new LocalVariablesArea(this.lvt);
+        assertTrue(lva.slots().isEmpty());
+        for (int slot : new int[] { -1, 0, 5 }) {
+            try {
+                lva.get(slot);
+                fail();
+            } catch (InvalidSlotException e) {
+                //expected
+            }
+        }
+        try {
+            lva.set(4, 0, this.calc.valLong(1L)); //needs slots 4 and 5
+            fail();
+        } catch (InvalidSlotException e) {
+            //expected
+        }
+        try {
+            lva.set(5, 0, this.calc.valInt(1));
+            fail();
+        } catch (InvalidSlotException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void testTypeChecked() throws Exception {
+        final LocalVariablesArea lva = new LocalVariablesArea(this.lvt);
+        try {
+            lva.set(0, 0, this.calc.valLong(1L)); //slot 0 is an int
+            fail();
+        } catch (InvalidSlotException e) {
+            //expected
+        }
+        lva.set(3, 2, this.calc.valInt(1)); //slot 3 is untyped before pc 5
+        try {
+            lva.set(3, 6, this.calc.valInt(1)); //and an object from pc 5
+            fail();
+        } catch (InvalidSlotException e) {
+            //expected
+        }
+        assertEquals("o", lva.getLocalVariableDeclaredName(3, 6));
+        assertNull(lva.getLocalVariableDeclaredName(3, 2));
+    }
+
+    @Test
+    public void testCloneIndependent() throws Exception {
+        final LocalVariablesArea lva = new LocalVariablesArea(this.lvt);
+        lva.set(0, 0, this.calc.valInt(1));
+        final LocalVariablesArea clone = lva.clone();
+        clone.set(0, 0, this.calc.valInt(2));
+        clone.set(4, 0, this.calc.valInt(3));
+        assertEquals(this.calc.valInt(1), lva.get(0));
+        assertEquals(Arrays.asList(0), lva.slots());
+        assertEquals(this.calc.valInt(2), clone.get(0));
+        assertEquals(Arrays.asList(0, 4), clone.slots());
+    }
+}
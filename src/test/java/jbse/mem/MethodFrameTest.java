@@ -41,7 +41,7 @@ public class MethodFrameTest {
         Classpath env = new Classpath("src/test/resources/jbse/bc/testdata", new ArrayList<>(), userPath);
 
         //class hierarchy
-        hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>());
+        hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
     }
 
     @Test
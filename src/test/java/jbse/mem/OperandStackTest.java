@@ -0,0 +1,146 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.mem.exc.InvalidNumberOfOperandsException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Value;
+
+public class OperandStackTest {
+    private CalculatorRewriting calc;
+
+    @Before
+    public void setUp() {
+        this.calc = new CalculatorRewriting();
+    }
+
+    @Test
+    public void testPushPopTop() throws Exception {
+        final OperandStack stack = new OperandStack(2);
+        stack.push(this.calc.valInt(1));
+        stack.push(this.calc.valInt(2));
+        assertEquals(this.calc.valInt(2), stack.top());
+        assertEquals(this.calc.valInt(2), stack.pop());
+        assertEquals(this.calc.valInt(1), stack.pop());
+        assertTrue(stack.values().isEmpty());
+    }
+
+    @Test(expected = InvalidNumberOfOperandsException.class)
+    public void testPopEmpty() throws Exception {
+        new OperandStack().pop();
+    }
+
+    @Test(expected = InvalidNumberOfOperandsException.class)
+    public void testTopEmpty() throws Exception {
+        new OperandStack().top();
+    }
+
+    @Test
+    public void testTooManyOperands() throws Exception {
+        final OperandStack stack = new OperandStack();
+        stack.push(this.calc.valInt(1));
+        try {
+            stack.operands(2);
+            fail();
+        } catch (InvalidNumberOfOperandsException e) {
+            //expected
+        }
+        try {
+            stack.pop(-1);
+            fail();
+        } catch (InvalidNumberOfOperandsException e) {
+            //expected
+        }
+        try {
+            stack.pop(2);
+            fail();
+        } catch (InvalidNumberOfOperandsException e) {
+            //expected
+        }
+        assertEquals(this.calc.valInt(1), stack.top()); //unchanged
+    }
+
+    @Test
+    public void testGrowsBeyondCapacity() throws Exception {
+        final OperandStack stack = new OperandStack(0); //e.g., a snippet frame
+        for (int i = 0; i < 100; ++i) {
+            stack.push(this.calc.valInt(i));
+        }
+        assertEquals(100, stack.values().size());
+        for (int i = 99; i >= 0; --i) {
+            assertEquals(this.calc.valInt(i), stack.pop());
+        }
+    }
+
+    @Test
+    public void testOperandsOrder() throws Exception {
+        final OperandStack stack = new OperandStack();
+        stack.push(this.calc.valInt(1));
+        stack.push(this.calc.valInt(2));
+        stack.push(this.calc.valInt(3));
+        assertArrayEquals(new Value[] { this.calc.valInt(2), this.calc.valInt(3) }, stack.operands(2));
+        assertEquals(0, stack.operands(0).length);
+        assertEquals(Arrays.asList(this.calc.valInt(3), this.calc.valInt(2), this.calc.valInt(1)), new ArrayList<>(stack.values())); //topmost first
+    }
+
+    @Test
+    public void testCloneIndependent() throws Exception {
+        final OperandStack stack = new OperandStack(1);
+        stack.push(this.calc.valInt(1));
+        final OperandStack clone = stack.clone();
+        clone.pop();
+        clone.push(this.calc.valInt(2));
+        clone.push(this.calc.valInt(3));
+        stack.push(this.calc.valInt(4));
+        assertEquals(Arrays.asList(this.calc.valInt(4), this.calc.valInt(1)), new ArrayList<>(stack.values()));
+        assertEquals(Arrays.asList(this.calc.valInt(3), this.calc.valInt(2)), new ArrayList<>(clone.values()));
+    }
+
+    @Test
+    public void testRandomAgainstDeque() throws Exception {
+        final Random random = new Random(12345);
+        final OperandStack stack = new OperandStack(3);
+        final ArrayDeque<Value> model = new ArrayDeque<>(); //the previous implementation
+        for (int n = 0; n < 10_000; ++n) {
+            switch (random.nextInt(5)) {
+            case 0:
+            case 1:
+                final Value v = this.calc.valInt(n);
+                stack.push(v);
+                model.push(v);
+                break;
+            case 2:
+                if (model.isEmpty()) {
+                    continue;
+                }
+                assertEquals(model.pop(), stack.pop());
+                break;
+            case 3:
+                final int num = random.nextInt(model.size() + 1);
+                final Value[] expected = new Value[num];
+                final Iterator<Value> it = model.iterator();
+                for (int i = num - 1; i >= 0; --i) {
+                    expected[i] = it.next();
+                }
+                assertArrayEquals(expected, stack.operands(num));
+                break;
+            default:
+                final int toPop = random.nextInt(Math.min(model.size(), 3) + 1);
+                for (int i = 0; i < toPop; ++i) {
+                    model.pop();
+                }
+                stack.pop(toPop);
+            }
+            assertEquals(new ArrayList<>(model), new ArrayList<>(stack.values()));
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package jbse.mem;
+
+import static jbse.bc.Signatures.JAVA_CLONEABLE;
+import static jbse.bc.Signatures.JAVA_OBJECT;
+import static jbse.bc.Signatures.JAVA_SERIALIZABLE;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.common.Type;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Expression;
+import jbse.val.MemoryPath;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+import jbse.val.SymbolFactory;
+import jbse.val.Term;
+
+public class PathConditionTest {
+    private CalculatorRewriting calc;
+    private PathCondition pc;
+    private Term X, Y, Z;
+
+    @Before
+    public void setUp() throws Exception {
+        this.calc = new CalculatorRewriting();
+        this.pc = new PathCondition();
+        this.X = this.calc.valTerm(Type.INT, "X");
+        this.Y = this.calc.valTerm(Type.INT, "Y");
+        this.Z = this.calc.valTerm(Type.INT, "Z");
+    }
+
+    private ArrayList<Clause> list(ClauseList clauses) {
+        return new ArrayList<>(clauses);
+    }
+
+    private Primitive condition(Clause clause) {
+        return ((ClauseAssume) clause).getCondition();
+    }
+
+    @Test
+    public void testDropsImplied() throws Exception {
+        this.pc.addClauseAssume(this.X.gt(this.calc.valInt(0)));
+        this.pc.addClauseAssume(this.X.gt(this.calc.valInt(10)));
+        assertEquals(2, this.pc.getClauses().size());
+        final ArrayList<Clause> compact = list(this.pc.getClausesCompact());
+        assertEquals(1, compact.size());
+        assertEquals(this.X.gt(this.calc.valInt(10)), condition(compact.get(0)));
+    }
+
+    @Test
+    public void testKeepsAllClausesInFull() throws Exception {
+        this.pc.addClauseAssume(this.X.gt(this.calc.valInt(10)));
+        this.pc.addClauseAssume(this.X.gt(this.calc.valInt(10)));
+        this.pc.addClauseAssume(this.X.gt(this.calc.valInt(0)));
+        final ArrayList<Clause> all = list(this.pc.getClauses());
+        assertEquals(3, all.size());
+        assertEquals(this.X.gt(this.calc.valInt(0)), condition(all.get(2)));
+        final ArrayList<Clause> compact = list(this.pc.getClausesCompact());
+        assertEquals(1, compact.size());
+        assertEquals(this.X.gt(this.calc.valInt(10)), condition(compact.get(0)));
+    }
+
+    @Test
+    public void testKeepsClausesAfterEmptyInterval() throws Exception {
+        this.pc.addClauseAssume(this.X.gt(this.calc.valInt(10)));
+        this.pc.addClauseAssume(this.X.lt(this.calc.valInt(5)));
+        this.pc.addClauseAssume(this.X.lt(this.calc.valInt(7)));
+        assertEquals(list(this.pc.getClauses()), list(this.pc.getClausesCompact()));
+    }
+
+    @Test
+    public void testKeepsNotImplied() throws Exception {
+        this.pc.addClauseAssume(this.X.gt(this.calc.valInt(0)));
+        this.pc.addClauseAssume(this.X.lt(this.calc.valInt(10)));
+        this.pc.addClauseAssume(this.Y.gt(this.calc.valInt(10)));
+        assertEquals(list(this.pc.getClauses()), list(this.pc.getClausesCompact()));
+    }
+
+    @Test
+    public void testKeepsOrder() throws Exception {
+        this.pc.addClauseAssume(this.X.gt(this.calc.valInt(0)));
+        this.pc.addClauseAssume(this.Y.gt(this.calc.valInt(0)));
+        this.pc.addClauseAssume(this.Z.gt(this.calc.valInt(0)));
+        this.pc.addClauseAssume(this.Y.gt(this.calc.valInt(5)));
+        final ArrayList<Clause> compact = list(this.pc.getClausesCompact());
+        assertEquals(3, compact.size());
+        assertEquals(this.X.gt(this.calc.valInt(0)), condition(compact.get(0)));
+        assertEquals(this.Z.gt(this.calc.valInt(0)), condition(compact.get(1)));
+        assertEquals(this.Y.gt(this.calc.valInt(5)), condition(compact.get(2)));
+    }
+
+    @Test
+    public void testSharesPrefixWithClone() throws Exception {
+        for (int i = 0; i < 100; ++i) {
+            this.pc.addClauseAssume(this.X.ne(this.calc.valInt(i)));
+        }
+        final PathCondition other = this.pc.clone();
+        this.pc.addClauseAssume(this.Y.gt(this.calc.valInt(0)));
+        other.addClauseAssume(this.Y.le(this.calc.valInt(0)));
+        assertEquals(100, ClauseList.sharedPrefixLength(this.pc.getClausesCompact(), other.getClausesCompact()));
+        assertEquals(101, this.pc.getClausesCompact().size());
+        assertEquals(101, other.getClausesCompact().size());
+    }
+
+    @Test
+    public void testCloneIsIndependent() throws Exception {
+        this.pc.addClauseAssume(this.X.gt(this.calc.valInt(0)));
+        final PathCondition other = this.pc.clone();
+        other.addClauseAssume(this.X.gt(this.calc.valInt(10)));
+        assertEquals(1, this.pc.getClausesCompact().size());
+        assertEquals(this.X.gt(this.calc.valInt(0)), condition(this.pc.getClausesCompact().get(0)));
+        this.pc.addClauseAssume(this.X.lt(this.calc.valInt(5)));
+        assertEquals(2, this.pc.getClausesCompact().size());
+        assertEquals(1, other.getClausesCompact().size());
+    }
+
+    @Test
+    public void testKeepsArrayLengthAfterExpansion() throws Exception {
+        final ClassHierarchy hier = new ClassHierarchy(new Classpath(System.getProperty("java.home"), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, new HashMap<>(), false, false);
+        //the array classes need the standard classes, that the engine loads at initialization
+        for (String className : Arrays.asList(JAVA_OBJECT, JAVA_CLONEABLE, JAVA_SERIALIZABLE)) {
+            hier.loadCreateClass(className);
+        }
+        final ClassFile cf_INT_ARRAY = hier.loadCreateClass("" + Type.ARRAYOF + Type.INT);
+        final SymbolFactory symbolFactory = new SymbolFactory(this.calc);
+        final ReferenceSymbolic reference = (ReferenceSymbolic) symbolFactory.createSymbol("" + Type.ARRAYOF + Type.INT, MemoryPath.mkLocalVariable("a"));
+        final Primitive length = (Primitive) symbolFactory.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable("n"));
+        final Array array = new Array(this.calc, true, null, length, cf_INT_ARRAY, hier.getFieldLayout(cf_INT_ARRAY), reference.getOrigin(), Objekt.Epoch.EPOCH_BEFORE_START, true, 0);
+
+        this.pc.addClauseAssumeExpands(reference, 0, array);
+        this.pc.addClauseAssume(length.ge(this.calc.valInt(0)));
+        this.pc.addClauseAssume(length.gt(this.calc.valInt(5)));
+        this.pc.addClauseAssume(length.gt(this.calc.valInt(10)));
+
+        final ArrayList<Clause> compact = list(this.pc.getClausesCompact());
+        assertEquals(3, compact.size());
+        assertTrue(compact.get(0) instanceof ClauseAssumeExpands);
+        assertEquals(length.ge(this.calc.valInt(0)), condition(compact.get(1)));
+        assertEquals(length.gt(this.calc.valInt(10)), condition(compact.get(2)));
+    }
+
+    /**
+     * Returns the interval stated by a bound,
+     * {@code {lo, hi}}.
+     */
+    private static long[] interval(Primitive condition) {
+        final Expression e = (Expression) condition;
+        final int c = ((Integer) ((Simplex) e.getSecondOperand()).getActualValue()).intValue();
+        switch (e.getOperator()) {
+        case GT: return new long[] { c + 1L, Integer.MAX_VALUE };
+        case GE: return new long[] { c, Integer.MAX_VALUE };
+        case LT: return new long[] { Integer.MIN_VALUE, c - 1L };
+        case LE: return new long[] { Integer.MIN_VALUE, c };
+        default: throw new AssertionError();
+        }
+    }
+
+    private static long[] intersection(Iterable<Clause> clauses, Primitive term) {
+        final long[] retVal = { Integer.MIN_VALUE, Integer.MAX_VALUE };
+        for (Clause clause : clauses) {
+            final Expression e = (Expression) ((ClauseAssume) clause).getCondition();
+            if (e.getFirstOperand().equals(term)) {
+                final long[] interval = interval(e);
+                retVal[0] = Math.max(retVal[0], interval[0]);
+                retVal[1] = Math.min(retVal[1], interval[1]);
+            }
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testRandomBoundsEquivalent() throws Exception {
+        final Random random = new Random(42);
+        final Term[] terms = { this.X, this.Y, this.Z };
+        for (int run = 0; run < 50; ++run) {
+            final PathCondition pc = new PathCondition();
+            for (int i = 0; i < 30; ++i) {
+                final Term t = terms[random.nextInt(terms.length)];
+                final Simplex c = this.calc.valInt(random.nextInt(41) - 20);
+                final Primitive condition;
+                switch (random.nextInt(4)) {
+                case 0:  condition = t.gt(c); break;
+                case 1:  condition = t.ge(c); break;
+                case 2:  condition = t.lt(c); break;
+                default: condition = t.le(c); break;
+                }
+                pc.addClauseAssume(condition);
+            }
+            final ArrayList<Clause> all = list(pc.getClauses());
+            final ArrayList<Clause> compact = list(pc.getClausesCompact());
+
+            //same constraint on every term
+            for (Term t : terms) {
+                assertArrayEquals(intersection(all, t), intersection(compact, t));
+            }
+
+            //compact is a subsequence of all, and every dropped
+            //clause is implied by the retained ones
+            int j = 0;
+            for (int i = 0; i < all.size(); ++i) {
+                if (j < compact.size() && compact.get(j) == all.get(i)) {
+                    ++j;
+                    continue;
+                }
+                final Expression dropped = (Expression) condition(all.get(i));
+                final long[] droppedInterval = interval(dropped);
+                final long[] retainedInterval = intersection(compact, dropped.getFirstOperand());
+                assertTrue(retainedInterval[0] > retainedInterval[1] || 
+                           (droppedInterval[0] <= retainedInterval[0] && retainedInterval[1] <= droppedInterval[1]));
+            }
+            assertEquals(compact.size(), j);
+        }
+    }
+
+    private PrimitiveSymbolic symbol(SymbolFactory symbolFactory, String name) {
+        return (PrimitiveSymbolic) symbolFactory.createSymbol("" + Type.INT, MemoryPath.mkLocalVariable(name));
+    }
+
+    @Test
+    public void testBindingToConstant() throws Exception {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterOperationOnSimplex());
+        final SymbolFactory symbolFactory = new SymbolFactory(calc);
+        final PrimitiveSymbolic x = symbol(symbolFactory, "x");
+        final PrimitiveSymbolic y = symbol(symbolFactory, "y");
+        final Primitive xPlusOne = x.add(calc.valInt(1));
+        assertSame(xPlusOne, this.pc.simplify(calc, xPlusOne)); //no bindings
+
+        this.pc.addClauseAssume(x.eq(calc.valInt(5)));
+        assertEquals(calc.valInt(5), this.pc.getBinding(x));
+        assertNull(this.pc.getBinding(y));
+        assertEquals(calc.valInt(5), this.pc.simplify(calc, x));
+        assertEquals(calc.valInt(6), this.pc.simplify(calc, xPlusOne));
+        assertSame(y, this.pc.simplify(calc, y));
+    }
+
+    @Test
+    public void testBindingChained() throws Exception {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterOperationOnSimplex());
+        final SymbolFactory symbolFactory = new SymbolFactory(calc);
+        final PrimitiveSymbolic a = symbol(symbolFactory, "a");
+        final PrimitiveSymbolic b = symbol(symbolFactory, "b");
+        final PrimitiveSymbolic c = symbol(symbolFactory, "c");
+        final PrimitiveSymbolic d = symbol(symbolFactory, "d");
+
+        //newer symbols are bound to older ones
+        this.pc.addClauseAssume(c.eq(b));
+        this.pc.addClauseAssume(d.eq(c));
+        assertEquals(b, this.pc.getBinding(c));
+        assertEquals(b, this.pc.getBinding(d));
+        this.pc.addClauseAssume(a.eq(b));
+        assertEquals(a, this.pc.getBinding(b));
+        assertEquals(a, this.pc.getBinding(c));
+        assertEquals(a, this.pc.getBinding(d));
+        assertNull(this.pc.getBinding(a));
+
+        //binding the root rebinds the whole chain
+        final Primitive sum = c.add(d);
+        assertEquals(a.add(a), this.pc.simplify(calc, sum));
+        this.pc.addClauseAssume(a.eq(calc.valInt(3)));
+        for (PrimitiveSymbolic s : new PrimitiveSymbolic[] { a, b, c, d }) {
+            assertEquals(calc.valInt(3), this.pc.getBinding(s));
+        }
+        assertEquals(calc.valInt(6), this.pc.simplify(calc, sum)); //not the cached a + a
+    }
+
+    @Test
+    public void testSubstitutionInsideOperands() throws Exception {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterOperationOnSimplex());
+        final SymbolFactory symbolFactory = new SymbolFactory(calc);
+        final PrimitiveSymbolic x = symbol(symbolFactory, "x");
+        final PrimitiveSymbolic y = symbol(symbolFactory, "y");
+        final PrimitiveSymbolic z = symbol(symbolFactory, "z");
+        final Primitive e = x.mul(y).add(z).widen(Type.LONG);
+        this.pc.addClauseAssume(x.eq(calc.valInt(2)));
+        this.pc.addClauseAssume(z.eq(calc.valInt(7)));
+        final Primitive eSimpl = this.pc.simplify(calc, e);
+        assertEquals(calc.valInt(2).mul(y).add(calc.valInt(7)).widen(Type.LONG), eSimpl);
+        assertSame(eSimpl, this.pc.simplify(calc, e)); //cached
+
+        this.pc.addClauseAssume(y.eq(calc.valInt(4)));
+        assertEquals(calc.valLong(15), this.pc.simplify(calc, e));
+    }
+
+    @Test
+    public void testBindingsOfCloneIndependent() throws Exception {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterOperationOnSimplex());
+        final SymbolFactory symbolFactory = new SymbolFactory(calc);
+        final PrimitiveSymbolic a = symbol(symbolFactory, "a");
+        final PrimitiveSymbolic b = symbol(symbolFactory, "b");
+        this.pc.addClauseAssume(b.eq(a));
+        final PathCondition other = this.pc.clone();
+        other.addClauseAssume(a.eq(calc.valInt(1)));
+        this.pc.addClauseAssume(a.eq(calc.valInt(2)));
+        assertEquals(calc.valInt(1), other.getBinding(b));
+        assertEquals(calc.valInt(2), this.pc.getBinding(b));
+    }
+}
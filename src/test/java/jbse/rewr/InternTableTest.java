@@ -0,0 +1,49 @@
+package jbse.rewr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+public class InternTableTest {
+	@Test
+	public void testIdentifiersIncreaseWithFirstOccurrence() {
+		final InternTable<String> table = new InternTable<>();
+		final InternTable.Interned<String> b = table.intern(new String("b"));
+		final InternTable.Interned<String> a = table.intern(new String("a"));
+		assertTrue(b.id < a.id);
+		assertSame(b, table.intern(new String("b")));
+		assertSame(a, table.intern(new String("a")));
+		assertEquals(2, table.size());
+	}
+	
+	@Test
+	public void testFindDoesNotIntern() {
+		final InternTable<String> table = new InternTable<>();
+		assertNull(table.find(new String("a")));
+		assertEquals(0, table.size());
+		final InternTable.Interned<String> a = table.intern(new String("a"));
+		assertSame(a, table.find(new String("a")));
+		assertEquals(1, table.size());
+	}
+	
+	@Test
+	public void testEntriesAreDroppedWhenUnreferenced() throws InterruptedException {
+		final InternTable<String> table = new InternTable<>();
+		InternTable.Interned<String> a = table.intern(new String("a"));
+		final int idOld = a.id;
+		final WeakReference<InternTable.Interned<String>> ref = new WeakReference<>(a);
+		a = null;
+		for (int i = 0; i < 50 && (ref.get() != null || table.size() > 0); ++i) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertEquals(0, table.size());
+		assertNotEquals(idOld, table.intern(new String("a")).id);
+	}
+}
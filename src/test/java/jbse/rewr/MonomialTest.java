@@ -1,5 +1,6 @@
 package jbse.rewr;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import jbse.common.Type;
@@ -34,4 +35,41 @@ public class MonomialTest {
 		Monomial m2 = Monomial.of(calc, p2);
 		assertTrue(m1.equals(m2));
 	}
+	
+	@Test
+	public void testMulMergesFactors() throws InvalidTypeException, InvalidOperandException {
+		final Term A = calc.valTerm(Type.INT, "A");
+		final Term B = calc.valTerm(Type.INT, "B");
+		final Term C = calc.valTerm(Type.INT, "C");
+		//interns the factors in an order that differs from the order of the terms
+		Monomial.of(calc, C);
+		Monomial.of(calc, B);
+		final Monomial m1 = Monomial.of(calc, A.mul(B));
+		final Monomial m2 = Monomial.of(calc, B.mul(C));
+		final Monomial prod = m1.mul(m2);
+		assertEquals(3, prod.numFactors());
+		assertEquals(Monomial.of(calc, C.mul(B).mul(A).mul(B)), prod);
+		for (int i = 0; i < prod.numFactors(); ++i) {
+			assertEquals(prod.getFactor(i).equals(B) ? 2 : 1, prod.getPower(i));
+		}
+	}
+	
+	@Test
+	public void testDivCancelsCommonFactors() throws InvalidTypeException, InvalidOperandException {
+		final Term A = calc.valTerm(Type.INT, "A");
+		final Term B = calc.valTerm(Type.INT, "B");
+		final Term C = calc.valTerm(Type.INT, "C");
+		final Monomial[] ratio = Monomial.of(calc, A.mul(B).mul(B)).div(Monomial.of(calc, B.mul(C)));
+		assertEquals(Monomial.of(calc, A.mul(B)), ratio[0]);
+		assertEquals(Monomial.of(calc, C), ratio[1]);
+	}
+	
+	@Test
+	public void testSqrt() throws InvalidTypeException, InvalidOperandException {
+		final Term A = calc.valTerm(Type.DOUBLE, "A");
+		final Term B = calc.valTerm(Type.DOUBLE, "B");
+		final Monomial[] sqrt = Monomial.of(calc, A.mul(A).mul(B)).sqrt();
+		assertEquals(Monomial.of(calc, A), sqrt[0]);
+		assertEquals(Monomial.of(calc, B), sqrt[1]);
+	}
 }
@@ -0,0 +1,97 @@
+package jbse.rewr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import jbse.common.Type;
+import jbse.val.Primitive;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PolynomialTest {
+	CalculatorRewriting calc;
+	
+	@Before
+	public void before() {
+		calc = makeCalculator();
+	}
+	
+	private static CalculatorRewriting makeCalculator() {
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		calc.addRewriter(new RewriterOperationOnSimplex());
+		calc.addRewriter(new RewriterPolynomials());
+		calc.addRewriter(new RewriterNormalize());
+		return calc;
+	}
+	
+	@Test
+	public void testAddMergesBases() throws InvalidTypeException, InvalidOperandException {
+		final Term A = calc.valTerm(Type.INT, "A");
+		final Term B = calc.valTerm(Type.INT, "B");
+		final Term C = calc.valTerm(Type.INT, "C");
+		//interns the bases in an order that differs from the order of the terms
+		Polynomial.of(calc, C);
+		final Polynomial p1 = Polynomial.of(calc, A.add(B));
+		final Polynomial p2 = Polynomial.of(calc, B.add(C));
+		final Polynomial sum = p1.add(p2);
+		assertEquals(3, sum.size());
+		assertEquals(Polynomial.of(calc, C.add(B.mul(calc.valInt(2))).add(A)), sum);
+	}
+	
+	@Test
+	public void testAddCancelsBases() throws InvalidTypeException, InvalidOperandException {
+		final Term A = calc.valTerm(Type.INT, "A");
+		final Term B = calc.valTerm(Type.INT, "B");
+		final Polynomial sum = Polynomial.of(calc, A.add(B)).add(Polynomial.of(calc, B.neg()));
+		assertEquals(1, sum.size());
+		assertEquals(Polynomial.of(calc, A), sum);
+	}
+	
+	@Test
+	public void testMul() throws InvalidTypeException, InvalidOperandException {
+		final Term A = calc.valTerm(Type.INT, "A");
+		final Term B = calc.valTerm(Type.INT, "B");
+		final Polynomial p = Polynomial.of(calc, A.add(B));
+		final Polynomial square = p.mul(p);
+		assertEquals(3, square.size());
+		assertEquals(Polynomial.of(calc, B.mul(B).add(A.mul(B).mul(calc.valInt(2))).add(A.mul(A))), square);
+		assertEquals(calc.valInt(2), square.getMultiplier(Monomial.of(calc, B.mul(A))));
+	}
+	
+	@Test
+	public void testSqrtIndependentOfInterningOrder() throws InvalidTypeException, InvalidOperandException {
+		//interns the bases with a^2 first
+		final CalculatorRewriting calc1 = makeCalculator();
+		final Primitive sqrt1 = sqrtOfSquare(calc1, false);
+		
+		//interns the bases with b^2 first
+		final CalculatorRewriting calc2 = makeCalculator();
+		final Primitive sqrt2 = sqrtOfSquare(calc2, true);
+		
+		assertEquals(sqrt1.toString(), sqrt2.toString());
+	}
+	
+	private static Primitive sqrtOfSquare(CalculatorRewriting calc, boolean reverse) 
+	throws InvalidTypeException, InvalidOperandException {
+		final Term A = calc.valTerm(Type.DOUBLE, "A");
+		final Term B = calc.valTerm(Type.DOUBLE, "B");
+		if (reverse) {
+			Polynomial.of(calc, B.mul(B));
+			Polynomial.of(calc, A.mul(A));
+		} else {
+			Polynomial.of(calc, A.mul(A));
+			Polynomial.of(calc, B.mul(B));
+		}
+		//with a negative double product the sign of the result depends on the
+		//order a and b are taken, a - b or b - a
+		final Polynomial p = Polynomial.of(calc, A.mul(A).sub(A.mul(B).mul(calc.valDouble(2.0))).add(B.mul(B)));
+		final Polynomial[] sqrt = p.sqrt();
+		assertTrue(sqrt[1].isZeroOne(false));
+		assertEquals(2, sqrt[0].size());
+		return sqrt[0].toPrimitiveNormalized();
+	}
+}
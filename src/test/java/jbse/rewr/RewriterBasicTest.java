@@ -7,8 +7,13 @@ import org.junit.Test;
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.rewr.exc.NoResultException;
+import jbse.val.Expression;
+import jbse.val.Operator;
 import jbse.val.Primitive;
+import jbse.val.Simplex;
 import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidOperatorException;
 import jbse.val.exc.InvalidTypeException;
 
 public class RewriterBasicTest {
@@ -25,6 +30,34 @@ public class RewriterBasicTest {
 		}
 	}
 	
+	/** 
+	 * A rewriter that is not idempotent: It increments integer
+	 * constants, and rewrites twice the operand of a negation. 
+	 */
+	private static class RewriterIncrement extends Rewriter {
+		public RewriterIncrement() { }
+		@Override
+		protected void rewriteSimplex(Simplex x) throws NoResultException {
+			super.rewriteSimplex((Simplex) this.calc.valInt(((Integer) x.getActualValue()).intValue() + 1));
+		}
+		
+		@Override
+		protected void rewriteExpression(Expression x) throws NoResultException {
+			if (x.getOperator() == Operator.NEG) {
+				final Primitive once = rewrite(x.getOperand());
+				final Primitive twice = rewrite(once);
+				try {
+					setResult(Expression.makeExpressionUnary(this.calc, Operator.NEG, twice));
+				} catch (InvalidOperatorException | InvalidOperandException | InvalidTypeException e) {
+					//should not happen
+					throw new UnexpectedInternalException(e);
+				}
+			} else {
+				super.rewriteExpression(x);
+			}
+		}
+	}
+	
 	@Test
 	public void testBasic() throws Exception {
 		CalculatorRewriting calc = new CalculatorRewriting();
@@ -33,5 +66,26 @@ public class RewriterBasicTest {
 		final Primitive p_post = calc.applyFunction(Type.INT, "foo", calc.valTerm(Type.DOUBLE, "BAZ"));
 		assertEquals(calc.applyFunction(Type.INT, "foo", calc.valTerm(Type.DOUBLE, "FOO")), p_post);
 	}
-
+	
+	@Test
+	public void testNotIdempotent() throws Exception {
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		final Primitive p = Expression.makeExpressionUnary(calc, Operator.NEG, calc.valInt(1));
+		final Primitive p_post = calc.applyRewriters(p, new RewriterIncrement());
+		assertEquals(Expression.makeExpressionUnary(calc, Operator.NEG, calc.valInt(3)), p_post);
+	}
+	
+	@Test
+	public void testDeep() throws Exception {
+		final CalculatorRewriting calc = new CalculatorRewriting();
+		final Term baz = calc.valTerm(Type.INT, "BAZ");
+		final Term foo = calc.valTerm(Type.INT, "FOO");
+		Primitive p = baz, expected = foo;
+		for (int i = 0; i < 1000; ++i) {
+			p = Expression.makeExpressionBinary(calc, p, Operator.ADD, baz);
+			expected = Expression.makeExpressionBinary(calc, expected, Operator.ADD, foo);
+		}
+		final Primitive p_post = calc.applyRewriters(p, new RewriterBasic());
+		assertEquals(expected, p_post);
+	}
 }
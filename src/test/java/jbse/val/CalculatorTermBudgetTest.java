@@ -0,0 +1,111 @@
+package jbse.val;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.common.exc.InvalidInputException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class CalculatorTermBudgetTest {
+    private CalculatorRewriting calc;
+    private SymbolFactory symbolFactory;
+    private ArrayList<Primitive> assumptions;
+    private Term A, B, C;
+
+    @Before
+    public void setUp() throws InvalidTypeException {
+        this.calc = new CalculatorRewriting();
+        this.symbolFactory = new SymbolFactory(this.calc);
+        this.assumptions = new ArrayList<>();
+        this.A = this.calc.valTerm(Type.INT, "A");
+        this.B = this.calc.valTerm(Type.INT, "B");
+        this.C = this.calc.valTerm(Type.INT, "C");
+    }
+
+    private Primitive abstractIfOverBudget(Primitive term) {
+        return this.calc.abstractIfOverBudget(term, this.symbolFactory, this.assumptions::add);
+    }
+
+    @Test
+    public void testUnboundedByDefault() throws InvalidOperandException, InvalidTypeException {
+        Primitive p = this.A;
+        for (int i = 0; i < 100; ++i) {
+            p = p.add(this.B);
+        }
+        assertFalse(this.calc.exceedsTermBudget(p));
+        assertSame(p, abstractIfOverBudget(p));
+        assertTrue(this.assumptions.isEmpty());
+    }
+
+    @Test
+    public void testSizeAndDepth() throws InvalidOperandException, InvalidTypeException {
+        final Primitive p = this.A.add(this.B).mul(this.C);
+        assertEquals(5, p.size());
+        assertEquals(3, p.depth());
+        final Primitive f = this.calc.applyFunction(Type.INT, "f", p, this.A);
+        assertEquals(7, f.size());
+        assertEquals(4, f.depth());
+    }
+
+    @Test
+    public void testWithinBudget() throws InvalidInputException, InvalidOperandException, InvalidTypeException {
+        this.calc.setTermBudget(5, 3);
+        final Primitive p = this.A.add(this.B).mul(this.C); //size 5, depth 3
+        assertSame(p, abstractIfOverBudget(p));
+        assertTrue(this.assumptions.isEmpty());
+    }
+
+    @Test
+    public void testOverSize() throws InvalidInputException, InvalidOperandException, InvalidTypeException {
+        this.calc.setTermBudget(4, 0);
+        final Primitive p = this.A.add(this.B).mul(this.C); //size 5
+        assertAbstracted(p, abstractIfOverBudget(p));
+    }
+
+    @Test
+    public void testOverDepth() throws InvalidInputException, InvalidOperandException, InvalidTypeException {
+        this.calc.setTermBudget(0, 2);
+        final Primitive p = this.A.add(this.B).mul(this.C); //depth 3
+        assertAbstracted(p, abstractIfOverBudget(p));
+    }
+
+    @Test
+    public void testBooleanNotAbstracted() throws InvalidInputException, InvalidOperandException, InvalidTypeException {
+        this.calc.setTermBudget(2, 2);
+        final Primitive p = this.A.add(this.B).gt(this.C);
+        assertSame(p, abstractIfOverBudget(p));
+        assertTrue(this.assumptions.isEmpty());
+    }
+
+    @Test
+    public void testAbstractionsAreFresh() throws InvalidInputException, InvalidOperandException, InvalidTypeException {
+        this.calc.setTermBudget(2, 0);
+        final Primitive p = this.A.add(this.B);
+        final Primitive s1 = abstractIfOverBudget(p);
+        final Primitive s2 = abstractIfOverBudget(p);
+        assertNotEquals(s1, s2);
+        assertEquals(2, this.assumptions.size());
+    }
+
+    @Test(expected = InvalidInputException.class)
+    public void testNegativeBudget() throws InvalidInputException {
+        this.calc.setTermBudget(-1, 0);
+    }
+
+    private void assertAbstracted(Primitive term, Primitive abstraction) 
+    throws InvalidOperandException, InvalidTypeException {
+        assertTrue(abstraction instanceof PrimitiveSymbolic);
+        assertEquals(term.getType(), abstraction.getType());
+        final AccessTermAbstraction origin = (AccessTermAbstraction) ((PrimitiveSymbolic) abstraction).getOrigin().iterator().next();
+        assertSame(term, origin.term());
+        assertEquals(1, this.assumptions.size());
+        assertEquals(abstraction.eq(term), this.assumptions.get(0));
+    }
+}